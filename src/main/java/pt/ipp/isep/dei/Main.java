@@ -19,6 +19,10 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import static pt.ipp.isep.dei.StartupOrchestrator.await;
 
 public class Main {
 
@@ -31,6 +35,7 @@ public class Main {
     private static final String ANSI_BOLD = "\u001B[1m";
 
     public static void main(String[] args) {
+        StartupOrchestrator startup = new StartupOrchestrator();
         try {
             InventoryManager manager = new InventoryManager();
             Inventory inventory = manager.getInventory();
@@ -39,48 +44,73 @@ public class Main {
 
             System.out.println(ANSI_BOLD + "Loading system data... Please wait." + ANSI_RESET);
 
+            // --- Independent load phases run in parallel ---
+            // Each InventoryManager loader writes its own fields; wagons only read the items map,
+            // so they wait for the items phase.
             printLoadStep("Loading ESINF (Sprint 1) data...");
-            manager.loadItems("src/main/java/pt/ipp/isep/dei/FicheirosCSV/items.csv");
+            CompletableFuture<Void> itemsPhase = startup.async("Load items", () -> {
+                manager.loadItems("src/main/java/pt/ipp/isep/dei/FicheirosCSV/items.csv");
+                return null;
+            });
+            CompletableFuture<List<Bay>> baysPhase = startup.async("Load bays",
+                    () -> manager.loadBays("src/main/java/pt/ipp/isep/dei/FicheirosCSV/bays.csv"));
+            CompletableFuture<List<Wagon>> wagonsPhase = startup.after("Load wagons",
+                    () -> manager.loadWagons("src/main/java/pt/ipp/isep/dei/FicheirosCSV/wagons.csv"), itemsPhase);
+            CompletableFuture<List<Return>> returnsPhase = startup.async("Load returns",
+                    () -> manager.loadReturns("src/main/java/pt/ipp/isep/dei/FicheirosCSV/returns.csv"));
+            CompletableFuture<List<Order>> ordersPhase = startup.async("Load orders", () -> manager.loadOrders(
+                    "src/main/java/pt/ipp/isep/dei/FicheirosCSV/orders.csv",
+                    "src/main/java/pt/ipp/isep/dei/FicheirosCSV/order_lines.csv"
+            ));
+            CompletableFuture<WMS> wmsPhase = startup.after("Create WMS",
+                    () -> new WMS(quarantine, inventory, auditLog, manager.getWarehouses()), baysPhase);
+            CompletableFuture<WMS.UnloadResult> unloadPhase = startup.after("Unload wagons into inventory",
+                    () -> wmsPhase.join().unloadWagons(wagonsPhase.join()), wmsPhase, wagonsPhase);
+            CompletableFuture<SegmentLineRepository> segmentRepoPhase = startup.async("Connect segment repository",
+                    SegmentLineRepository::new);
+            CompletableFuture<LocomotiveRepository> locomotiveRepoPhase = startup.async("Connect locomotive repository",
+                    LocomotiveRepository::new);
+
+            await(itemsPhase);
             printLoadStep(String.format("  > Loaded %d items", manager.getItemsCount()), true);
-
-            manager.loadBays("src/main/java/pt/ipp/isep/dei/FicheirosCSV/bays.csv");
+            await(baysPhase);
             printLoadStep(String.format("  > Loaded %d bays across %d warehouses", manager.getBaysCount(), manager.getWarehouseCount()), true);
-
-            List<Wagon> wagons = manager.loadWagons("src/main/java/pt/ipp/isep/dei/FicheirosCSV/wagons.csv");
+            List<Wagon> wagons = await(wagonsPhase);
             printLoadStep(String.format("  > Loaded %d wagons", manager.getWagonsCount()), true);
-
-            WMS wms = new WMS(quarantine, inventory, auditLog, manager.getWarehouses());
+            WMS wms = await(wmsPhase);
 
             printLoadStep("Unloading wagons into inventory...");
-            WMS.UnloadResult unloadResult = wms.unloadWagons(wagons);
+            WMS.UnloadResult unloadResult = await(unloadPhase);
             printLoadStep(String.format("  > Unloaded %d wagons (%d boxes). (Full: %d, Partial: %d, Failed: %d)",
                     unloadResult.totalProcessed, unloadResult.totalBoxes,
                     unloadResult.fullyUnloaded, unloadResult.partiallyUnloaded, unloadResult.notUnloaded), true);
 
-            List<Return> returns = manager.loadReturns("src/main/java/pt/ipp/isep/dei/FicheirosCSV/returns.csv");
+            List<Return> returns = await(returnsPhase);
             for (Return r : returns) {
                 quarantine.addReturn(r);
             }
             printLoadStep(String.format("  > Loaded %d returns into quarantine", manager.getReturnsCount()), true);
 
-            List<Order> orders = manager.loadOrders(
-                    "src/main/java/pt/ipp/isep/dei/FicheirosCSV/orders.csv",
-                    "src/main/java/pt/ipp/isep/dei/FicheirosCSV/order_lines.csv"
-            );
+            await(ordersPhase);
             printLoadStep(String.format("  > Loaded %d orders with lines", manager.getOrdersCount()), true);
 
             printLoadStep("Loading LAPR3 (Sprint 1) components...");
             StationRepository estacaoRepo = new StationRepository();
-            LocomotiveRepository locomotivaRepo = new LocomotiveRepository();
+            LocomotiveRepository locomotivaRepo = await(locomotiveRepoPhase);
 
-            SegmentLineRepository segmentoRepo = new SegmentLineRepository();
+            SegmentLineRepository segmentoRepo = await(segmentRepoPhase);
 
             segmentoRepo.cleanDatabaseData();
 
+            // --- Deferred: lines.csv is only injected when a network option first reads segments ---
             String linesFile = "src/main/java/pt/ipp/isep/dei/FicheirosCSV/lines.csv";
-            printLoadStep("Injecting USEI11 Data from " + linesFile + "...");
-
-            loadSegmentsIntoRepo(linesFile, segmentoRepo);
+            Supplier<Boolean> segmentsPhase = startup.lazy("Inject USEI11 segments from lines.csv", () -> {
+                printLoadStep("Injecting USEI11 Data from " + linesFile + "...");
+                loadSegmentsIntoRepo(linesFile, segmentoRepo);
+                return Boolean.TRUE;
+            });
+            segmentoRepo.setDeferredLoader(segmentsPhase::get);
+            printLoadStep("  > USEI11 segment loading deferred until first use.", true);
 
 // ---------------------------------------------------------
             UpgradePlanService upgradeService = new UpgradePlanService();
@@ -117,40 +147,45 @@ public class Main {
             );
             printLoadStep("  > USLP07 Dispatcher Service ready.", true);
 
-            printLoadStep("Loading ESINF (Sprint 2) components...");
-            StationIndexManager stationIndexManager = new StationIndexManager();
-
-            List<EuropeanStation> europeanStations =
-                    manager.loadEuropeanStations("src/main/java/pt/ipp/isep/dei/FicheirosCSV/train_stations_europe.csv");
-
-            String summary = String.format("  > Loaded %d valid stations", manager.getValidStationCount());
-            if (manager.getInvalidStationCount() > 0) {
-                summary += ANSI_YELLOW + String.format(" (%d invalid rows rejected)", manager.getInvalidStationCount()) + ANSI_GREEN;
-            }
-            printLoadStep(summary, true);
+            // --- Deferred: European stations, indexes and KD-Tree are built on first use (USEI06-10) ---
+            printLoadStep("Registering ESINF (Sprint 2) components (built on first use)...");
+            Supplier<List<EuropeanStation>> europeanStations = startup.lazy("Load European stations", () -> {
+                List<EuropeanStation> loaded =
+                        manager.loadEuropeanStations("src/main/java/pt/ipp/isep/dei/FicheirosCSV/train_stations_europe.csv");
+                String summary = String.format("  > Loaded %d valid stations", manager.getValidStationCount());
+                if (manager.getInvalidStationCount() > 0) {
+                    summary += ANSI_YELLOW + String.format(" (%d invalid rows rejected)", manager.getInvalidStationCount()) + ANSI_GREEN;
+                }
+                printLoadStep(summary, true);
+                return loaded;
+            });
 
-            printLoadStep("Building station indexes (USEI06)...");
-            stationIndexManager.buildIndexes(europeanStations);
-            printLoadStep("  > All station indexes built.", true);
+            Supplier<StationIndexManager> stationIndexManager = startup.lazy("Build station indexes (USEI06)", () -> {
+                StationIndexManager indexManager = new StationIndexManager();
+                indexManager.buildIndexes(europeanStations.get());
+                printLoadStep("  > All station indexes built.", true);
+                return indexManager;
+            }, europeanStations);
 
-            printLoadStep("Building balanced KD-Tree for spatial queries (USEI08)...");
-            KDTree spatialKDTree = buildSpatialKDTree(europeanStations);
-            String bucketInfo = spatialKDTree.getBucketSizes().toString();
-            printLoadStep(String.format("  > KD-Tree built: %d nodes, height: %d, bucket distribution: %s",
-                    spatialKDTree.size(), spatialKDTree.height(), bucketInfo), true);
+            Supplier<KDTree> spatialKDTree = startup.lazy("Build KD-Tree (USEI07/08)", () -> {
+                KDTree tree = buildSpatialKDTree(europeanStations.get());
+                printLoadStep(String.format("  > KD-Tree built: %d nodes, height: %d, bucket distribution: %s",
+                        tree.size(), tree.height(), tree.getBucketSizes()), true);
+                return tree;
+            }, europeanStations);
 
-            printLoadStep("Initializing Spatial Search Engine (USEI08)...");
-            SpatialSearch spatialSearchEngine = new SpatialSearch(spatialKDTree);
-            printLoadStep("  > USEI08 Spatial Search ready! Complexity: O(log n) average case", true);
+            Supplier<SpatialSearch> spatialSearchEngine = startup.lazy("Initialize Spatial Search Engine (USEI08)",
+                    () -> new SpatialSearch(spatialKDTree.get()), spatialKDTree);
 
-            printLoadStep("Initializing Radius Search Engine (USEI10)...");
-            printLoadStep("  > USEI10 Radius Search ready! Complexity: O(sqrt(N) + K log K) average case", true);
+            printLoadStep("  > USEI06-USEI10 indexes, KD-Tree and Radius Search will be built on first use.", true);
 
             printLoadStep("Initializing USEI12 - Minimal Backbone Network...");
             printLoadStep("  > USEI12 components ready for Belgian railway network", true);
 
+            startup.shutdown();
+            startup.printReport();
+
             System.out.println(ANSI_BOLD + "\nSystem loaded successfully. Launching UI..." + ANSI_RESET);
-            Thread.sleep(1000);
 
             CargoHandlingUI cargoMenu = new CargoHandlingUI(
                     wms, manager, wagons,
@@ -164,6 +199,9 @@ public class Main {
             );
             cargoMenu.run();
 
+            // Deferred phases that ran during the session are now part of the profile
+            startup.printReport();
+
             System.out.println("\nSystem terminated normally.");
 
         } catch (Exception e) {
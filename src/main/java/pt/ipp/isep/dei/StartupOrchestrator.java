@@ -0,0 +1,225 @@
+package pt.ipp.isep.dei;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * Runs the application start-up as named phases and profiles each one.
+ * Independent phases run in parallel ({@link #async}, {@link #after}) and expensive phases
+ * that only some menu options need are deferred until first use ({@link #lazy}).
+ * For every phase the wall-clock time and the bytes allocated by the executing thread
+ * are recorded and printed by {@link #printReport()}.
+ */
+public class StartupOrchestrator {
+
+    /**
+     * How a phase was scheduled.
+     */
+    public enum Mode { ASYNC, LAZY }
+
+    /**
+     * Timing and allocation figures of a finished phase.
+     */
+    public static class PhaseStats {
+        private final String name;
+        private final Mode mode;
+        private final String thread;
+        private final long elapsedNanos;
+        private final long allocatedBytes;
+
+        PhaseStats(String name, Mode mode, String thread, long elapsedNanos, long allocatedBytes) {
+            this.name = name;
+            this.mode = mode;
+            this.thread = thread;
+            this.elapsedNanos = elapsedNanos;
+            this.allocatedBytes = allocatedBytes;
+        }
+
+        public String getName() { return name; }
+        public Mode getMode() { return mode; }
+        public String getThread() { return thread; }
+        public long getElapsedNanos() { return elapsedNanos; }
+
+        /**
+         * @return Bytes allocated by the executing thread, or -1 if the JVM does not support the measurement.
+         */
+        public long getAllocatedBytes() { return allocatedBytes; }
+    }
+
+    private final ExecutorService executor;
+    private final List<PhaseStats> stats = new ArrayList<>();
+    private final long startNanos;
+    private final com.sun.management.ThreadMXBean threadBean;
+
+    /**
+     * Creates an orchestrator with a pool sized to the available processors.
+     */
+    public StartupOrchestrator() {
+        int threads = Math.max(2, Runtime.getRuntime().availableProcessors());
+        this.executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r);
+            t.setName("startup-" + t.threadId());
+            t.setDaemon(true);
+            return t;
+        });
+        this.startNanos = System.nanoTime();
+
+        com.sun.management.ThreadMXBean bean = null;
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean sunBean
+                && sunBean.isThreadAllocatedMemorySupported()) {
+            sunBean.setThreadAllocatedMemoryEnabled(true);
+            bean = sunBean;
+        }
+        this.threadBean = bean;
+    }
+
+    /**
+     * Starts a phase in the background pool.
+     *
+     * @param name The phase name shown in the report.
+     * @param task The work to execute.
+     * @return A future completed with the task's value (or exceptionally with its failure).
+     */
+    public <T> CompletableFuture<T> async(String name, Callable<T> task) {
+        return CompletableFuture.supplyAsync(() -> measure(name, Mode.ASYNC, task), executor);
+    }
+
+    /**
+     * Starts a phase in the background pool once all of its dependencies have completed.
+     *
+     * @param name The phase name shown in the report.
+     * @param task The work to execute.
+     * @param dependencies Phases that must finish first.
+     * @return A future completed with the task's value.
+     */
+    public <T> CompletableFuture<T> after(String name, Callable<T> task, CompletableFuture<?>... dependencies) {
+        return CompletableFuture.allOf(dependencies)
+                .thenApplyAsync(ignored -> measure(name, Mode.ASYNC, task), executor);
+    }
+
+    /**
+     * Declares a deferred phase. The task runs (once, thread-safely) on the first call to
+     * {@code get()} and its cost is recorded at that moment. Dependencies are resolved
+     * before the measurement starts, so their cost is reported under their own phase.
+     * The outcome is memoized whatever it is: a null value is returned again and a failure
+     * is rethrown, without running the task a second time.
+     *
+     * @param name The phase name shown in the report.
+     * @param task The work to execute on first use.
+     * @param dependencies Deferred phases the task reads.
+     * @return A memoizing supplier of the task's value.
+     */
+    public <T> Supplier<T> lazy(String name, Callable<T> task, Supplier<?>... dependencies) {
+        return new Supplier<>() {
+            // Escrito antes de 'computed' (volatile), que publica o valor ou a falha
+            private T value;
+            private RuntimeException failure;
+            private volatile boolean computed;
+
+            @Override
+            public T get() {
+                if (!computed) {
+                    synchronized (this) {
+                        if (!computed) {
+                            try {
+                                for (Supplier<?> dependency : dependencies) {
+                                    dependency.get();
+                                }
+                                value = measure(name, Mode.LAZY, task);
+                            } catch (RuntimeException e) {
+                                failure = e;
+                            }
+                            computed = true;
+                        }
+                    }
+                }
+                if (failure != null) throw failure;
+                return value;
+            }
+        };
+    }
+
+    /**
+     * Waits for a background phase and returns its value, unwrapping its failure.
+     *
+     * @param future The phase future.
+     * @return The phase value.
+     * @throws Exception The exception thrown by the phase.
+     */
+    public static <T> T await(CompletableFuture<T> future) throws Exception {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof CompletionException && cause.getCause() != null) {
+                cause = cause.getCause();
+            }
+            if (cause instanceof Exception ex) throw ex;
+            throw e;
+        }
+    }
+
+    private <T> T measure(String name, Mode mode, Callable<T> task) {
+        long threadId = Thread.currentThread().threadId();
+        long allocBefore = (threadBean != null) ? threadBean.getThreadAllocatedBytes(threadId) : -1;
+        long t0 = System.nanoTime();
+        try {
+            return task.call();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new CompletionException(e);
+        } finally {
+            long elapsed = System.nanoTime() - t0;
+            long allocated = (threadBean != null) ? threadBean.getThreadAllocatedBytes(threadId) - allocBefore : -1;
+            synchronized (stats) {
+                stats.add(new PhaseStats(name, mode, Thread.currentThread().getName(), elapsed, allocated));
+            }
+        }
+    }
+
+    /**
+     * Returns a snapshot of the phases recorded so far, in completion order.
+     *
+     * @return The recorded phase statistics.
+     */
+    public List<PhaseStats> getStats() {
+        synchronized (stats) {
+            return new ArrayList<>(stats);
+        }
+    }
+
+    /**
+     * Prints the per-phase timing and allocation table, plus the elapsed time since construction.
+     * Deferred phases that have not been used yet are not listed.
+     */
+    public void printReport() {
+        List<PhaseStats> snapshot = getStats();
+        long sumNanos = 0;
+
+        System.out.println("\n--- Startup profile ---");
+        System.out.printf("%-42s %-6s %-14s %10s %12s%n", "Phase", "Mode", "Thread", "Time (ms)", "Alloc (KB)");
+        for (PhaseStats s : snapshot) {
+            sumNanos += s.getElapsedNanos();
+            String alloc = (s.getAllocatedBytes() < 0) ? "n/a" : String.format("%,d", s.getAllocatedBytes() / 1024);
+            System.out.printf("%-42s %-6s %-14s %10.1f %12s%n",
+                    s.getName(), s.getMode(), s.getThread(), s.getElapsedNanos() / 1e6, alloc);
+        }
+        System.out.printf("Sum of phases: %.1f ms | Wall clock to menu: %.1f ms%n",
+                sumNanos / 1e6, (System.nanoTime() - startNanos) / 1e6);
+    }
+
+    /**
+     * Releases the background pool. Deferred phases still run on the caller's thread.
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -11,6 +11,7 @@ import pt.ipp.isep.dei.repository.FacilityRepository;
 import java.io.BufferedReader;
 import java.io.FileReader;
 import java.time.LocalDate;
+import java.util.function.Supplier;
 import java.util.*;
 import java.util.stream.Collectors;
 import java.time.LocalDateTime;
@@ -34,9 +35,10 @@ public class CargoHandlingUI implements Runnable {
     private final TravelTimeController travelTimeController;
     private final StationRepository estacaoRepo;
     private final LocomotiveRepository locomotivaRepo;
-    private final StationIndexManager stationIndexManager;
-    private final KDTree spatialKDTree;
-    private final SpatialSearch spatialSearchEngine;
+    // Station indexes are resolved on first use (they may be built lazily at start-up)
+    private final Supplier<StationIndexManager> stationIndexManager;
+    private final Supplier<KDTree> spatialKDTree;
+    private final Supplier<SpatialSearch> spatialSearchEngine;
     private final SchedulerController schedulerController;
     private final DispatcherService dispatcherService;
     private final FacilityRepository facilityRepo;
@@ -58,6 +60,24 @@ public class CargoHandlingUI implements Runnable {
                            SchedulerController schedulerController,
                            DispatcherService dispatcherService,
                            FacilityRepository facilityRepo) {
+        this(wms, manager, wagons, travelTimeController, estacaoRepo, locomotivaRepo,
+                () -> stationIndexManager, () -> spatialKDTree, () -> spatialSearchEngine,
+                schedulerController, dispatcherService, facilityRepo);
+    }
+
+    /**
+     * Creates the UI with deferred station indexes: each supplier is only invoked
+     * when a menu option needs it.
+     */
+    public CargoHandlingUI(WMS wms, InventoryManager manager, List<Wagon> wagons,
+                           TravelTimeController travelTimeController, StationRepository estacaoRepo,
+                           LocomotiveRepository locomotivaRepo,
+                           Supplier<StationIndexManager> stationIndexManager,
+                           Supplier<KDTree> spatialKDTree,
+                           Supplier<SpatialSearch> spatialSearchEngine,
+                           SchedulerController schedulerController,
+                           DispatcherService dispatcherService,
+                           FacilityRepository facilityRepo) {
         this.wms = wms;
         this.manager = manager;
         this.wagons = wagons;
@@ -303,11 +323,20 @@ public class CargoHandlingUI implements Runnable {
 
             System.out.println(ANSI_CYAN + "Computing network metrics (this may take a moment)..." + ANSI_RESET);
 
+            // Modo de cálculo da betweenness: exato (Brandes) ou aproximado por amostragem
+            int mode = readInt(1, 2, ANSI_YELLOW + "Betweenness mode (1 = Exact, 2 = Approximate): " + ANSI_RESET);
+            HubScoreCalculator.Approximation approximation = null;
+
             // 2. Execução dos Algoritmos (Sempre sobre a rede total para rigor matemático)
-            DegreeStrength.compute(g);
-            HarmonicCloseness.compute(g);
-            Betweenness.compute(g);
-            HubScoreCalculator.compute(g);
+            if (mode == 2) {
+                double epsilon = readDouble(0.001, 0.5, ANSI_YELLOW + "Error bound epsilon (e.g. 0.01): " + ANSI_RESET);
+                double delta = readDouble(0.001, 0.5, ANSI_YELLOW + "Failure probability delta (e.g. 0.1): " + ANSI_RESET);
+                approximation = HubScoreCalculator.computeApproximate(g, epsilon, delta, System.nanoTime());
+            } else {
+                // Betweenness, closeness e strength numa única passagem por origem
+                CentralityEngine.compute(g);
+                HubScoreCalculator.compute(g);
+            }
 
             // 3. Preparar e Ordenar o Ranking
             List<StationMetrics> ranking = new ArrayList<>(g.metricsMap.values());
@@ -337,6 +366,22 @@ public class CargoHandlingUI implements Runnable {
                         m.hubScore);
             }
 
+            if (approximation != null) {
+                Betweenness.Approximation b = approximation.betweenness();
+                HarmonicCloseness.Approximation h = approximation.harmonic();
+                System.out.printf(ANSI_YELLOW + "%nApproximate betweenness: %d sampled paths, every score within ±%.2f "
+                                + "(raw) with probability %.1f%%.%n" + ANSI_RESET,
+                        b.samples(), b.absoluteError(), b.confidence() * 100);
+                if (h.absoluteError() == 0) {
+                    System.out.printf(ANSI_YELLOW + "Harmonic closeness: exact (%d reverse searches).%n" + ANSI_RESET,
+                            h.targets());
+                } else {
+                    System.out.printf(ANSI_YELLOW + "Approximate harmonic closeness: %d sampled targets, every score within "
+                                    + "±%.4f with probability %.1f%%.%n" + ANSI_RESET,
+                            h.targets(), h.absoluteError(), h.confidence() * 100);
+                }
+            }
+
             // 6. Requisito da US: Análise de Complexidade para o Planeador
             System.out.println("\n" + ANSI_BOLD + "--- Expected Return: Complexity Analysis ---" + ANSI_RESET);
             System.out.println(ANSI_YELLOW + "Static Network Complexity: " + ANSI_RESET + "O(V * E + V^2 log V)");
@@ -472,7 +517,7 @@ public class CargoHandlingUI implements Runnable {
             if (svgGenerated) {
                 showSuccess("✅ SVG visualization generated: belgian_backbone.svg");
             } else {
-                showInfo("📝 GraphViz not installed. To generate SVG manually:");
+                showInfo("📝 SVG could not be written. To generate it with GraphViz:");
                 System.out.println("   neato -Tsvg belgian_backbone.dot -o belgian_backbone.svg");
             }
             backboneNetwork.printReport();
@@ -719,7 +764,7 @@ public class CargoHandlingUI implements Runnable {
             String filter = timeZoneFilter.isEmpty() ? null : timeZoneFilter.toUpperCase();
             showInfo(String.format("Executing Nearest-N search for N=%d...", N));
             long startTime = System.nanoTime();
-            List<EuropeanStation> results = spatialKDTree.findNearestN(targetLat, targetLon, N, filter);
+            List<EuropeanStation> results = spatialKDTree.get().findNearestN(targetLat, targetLon, N, filter);
             long endTime = System.nanoTime();
             System.out.printf("\n" + ANSI_BOLD + "Found %d nearest stations (%.2f ms)%n" + ANSI_RESET, results.size(), (endTime - startTime) / 1_000_000.0);
             if (results.isEmpty()) {
@@ -772,7 +817,7 @@ public class CargoHandlingUI implements Runnable {
             Boolean isMain = parseOptionalBoolean(mainFilter);
             showInfo("Executing spatial search with USEI08 engine...");
             long startTime = System.nanoTime();
-            List<EuropeanStation> results = spatialSearchEngine.searchByGeographicalArea(latMin, latMax, lonMin, lonMax, country.isEmpty() ? null : country.toUpperCase(), isCity, isMain);
+            List<EuropeanStation> results = spatialSearchEngine.get().searchByGeographicalArea(latMin, latMax, lonMin, lonMax, country.isEmpty() ? null : country.toUpperCase(), isCity, isMain);
             long endTime = System.nanoTime();
             System.out.printf("\n" + ANSI_BOLD + "Found %d stations (%.2f ms)%n" + ANSI_RESET, results.size(), (endTime - startTime) / 1_000_000.0);
             if (results.isEmpty()) {
@@ -792,7 +837,7 @@ public class CargoHandlingUI implements Runnable {
     private void executeDemoQueries() {
         System.out.println("\n" + ANSI_BOLD + "--- USEI08 - 5 Required Demo Queries ---" + ANSI_RESET);
         try {
-            SpatialSearchQueries queries = new SpatialSearchQueries(spatialSearchEngine);
+            SpatialSearchQueries queries = new SpatialSearchQueries(spatialSearchEngine.get());
             System.out.println(ANSI_ITALIC + "Executing 5 predefined spatial queries as required..." + ANSI_RESET);
             List<SpatialSearchQueries.QueryResult> results = queries.executeAllDemoQueries();
             System.out.println("\n" + ANSI_BOLD + "QUERY RESULTS:" + ANSI_RESET);
@@ -809,13 +854,13 @@ public class CargoHandlingUI implements Runnable {
 
     private void showKDTreeStats() {
         System.out.println("\n" + ANSI_BOLD + "--- KD-Tree & USEI08 Statistics ---" + ANSI_RESET);
-        KDTree tree = spatialSearchEngine.kdTree();
+        KDTree tree = spatialSearchEngine.get().kdTree();
         System.out.println("KD-Tree Properties:");
         System.out.println("  • Size: " + ANSI_CYAN + tree.size() + ANSI_RESET + " nodes");
         System.out.println("  • Height: " + ANSI_CYAN + tree.height() + ANSI_RESET);
         System.out.println("  • Bucket distribution: " + ANSI_CYAN + tree.getBucketSizes() + ANSI_RESET);
         System.out.println("\n" + ANSI_BOLD + "USEI08 Performance Analysis:" + ANSI_RESET);
-        System.out.println(spatialSearchEngine.getComplexityAnalysis());
+        System.out.println(spatialSearchEngine.get().getComplexityAnalysis());
     }
 
     private void handleUnloadWagons() {
@@ -978,14 +1023,14 @@ public class CargoHandlingUI implements Runnable {
             case 1:
                 String tzg = readString(ANSI_BOLD + "Enter Time Zone Group (e.g., CET) [c=Cancel]: " + ANSI_RESET);
                 if (isCancel(tzg)) { showInfo("Query cancelled."); return; }
-                baseResults = stationIndexManager.getStationsByTimeZoneGroup(tzg.toUpperCase());
+                baseResults = stationIndexManager.get().getStationsByTimeZoneGroup(tzg.toUpperCase());
                 break;
             case 2:
                 String tzgMin = readString(ANSI_BOLD + "Enter MINIMUM Time Zone Group [c=Cancel]: " + ANSI_RESET);
                 if (isCancel(tzgMin)) { showInfo("Query cancelled."); return; }
                 String tzgMax = readString(ANSI_BOLD + "Enter MAXIMUM Time Zone Group [c=Cancel]: " + ANSI_RESET);
                 if (isCancel(tzgMax)) { showInfo("Query cancelled."); return; }
-                baseResults = stationIndexManager.getStationsInTimeZoneWindow(tzgMin.toUpperCase(), tzgMax.toUpperCase());
+                baseResults = stationIndexManager.get().getStationsInTimeZoneWindow(tzgMin.toUpperCase(), tzgMax.toUpperCase());
                 break;
             default: showInfo("Query cancelled."); return;
         }
@@ -1034,7 +1079,7 @@ public class CargoHandlingUI implements Runnable {
     private void handleBuild2DTree() {
         showInfo("--- [USEI07] Build & Analyze 2D-Tree ---");
         try {
-            Map<String, Object> stats = stationIndexManager.get2DTreeStats();
+            Map<String, Object> stats = stationIndexManager.get().get2DTreeStats();
             showSuccess("2D-Tree analysis complete.");
             System.out.println(ANSI_BOLD + "\n--- 2D-Tree Statistics ---" + ANSI_RESET);
             System.out.printf(ANSI_BOLD + "  Size (Nodes): %s%-10d " + ANSI_RESET, ANSI_CYAN, stats.get("size"));
@@ -1098,7 +1143,7 @@ public class CargoHandlingUI implements Runnable {
             double targetLat = readDouble("Target Latitude [-90 to 90]: ", -90.0, 90.0);
             double targetLon = readDouble("Target Longitude [-180 to 180]: ", -180.0, 180.0);
             double radiusKm = readDouble(0.1, 1000.0, ANSI_BOLD + "Search radius (km, 0.1-1000): " + ANSI_RESET);
-            RadiusSearch radiusSearch = new RadiusSearch(spatialKDTree);
+            RadiusSearch radiusSearch = new RadiusSearch(spatialKDTree.get());
             showInfo(String.format("Executing radius search within %.1f km...", radiusKm));
             long startTime = System.nanoTime();
             Object[] results = radiusSearch.radiusSearchWithSummary(targetLat, targetLon, radiusKm);
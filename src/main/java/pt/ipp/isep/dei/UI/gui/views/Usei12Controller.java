@@ -38,14 +38,14 @@ public class Usei12Controller {
             appendLog("Generating DOT file: " + dotFile);
             backboneNetwork.generateDOTFile(dotFile);
 
-            appendLog("Attempting to generate SVG (requires GraphViz)...");
+            appendLog("Generating SVG from the station coordinates...");
             boolean svgSuccess = backboneNetwork.generateSVG(dotFile, svgFile);
 
             if (svgSuccess) {
                 appendLog("SUCCESS: SVG generated at " + new File(svgFile).getAbsolutePath());
                 showAlert("Success", "Backbone generated successfully!\nCheck the root folder for 'belgian_backbone.svg'.");
             } else {
-                appendLog("WARNING: SVG could not be generated automatically (GraphViz missing?).");
+                appendLog("WARNING: SVG could not be written.");
                 appendLog("You can manually convert the DOT file using: neato -Tsvg " + dotFile + " -o " + svgFile);
                 showAlert("Partial Success", "DOT file generated, but SVG failed.\nSee log for manual instructions.");
             }
@@ -55,10 +55,8 @@ public class Usei13Controller {
             // Carregamento do grafo
             Graph g = CSVLoader.load(stationsFile, linesFile);
 
-            // Cálculo das métricas de centralidade
-            DegreeStrength.compute(g);
-            HarmonicCloseness.compute(g);
-            Betweenness.compute(g);
+            // Cálculo das métricas de centralidade (uma única passagem por origem)
+            CentralityEngine.compute(g);
             HubScoreCalculator.compute(g);
 
             // Ordenação dos resultados pelo Hub Score descendente
@@ -106,7 +106,8 @@ public class Usei15Controller {
         }
 
         try {
-            BellmanFord.PathResult result = BellmanFord.findPath(currentGraph, origin.idEstacao(), dest.idEstacao());
+            // Potenciais de Johnson calculados uma vez por versão do grafo; cada consulta é um Dijkstra
+            BellmanFord.PathResult result = currentGraph.johnson().findPath(currentGraph, origin.idEstacao(), dest.idEstacao());
 
             if (result.cycle() != null) {
                 txtResultArea.setText("⚠️ CICLO NEGATIVO DETETADO!\nEstações no ciclo: " + result.cycle());
@@ -87,36 +87,10 @@ public class RoutePlannerController {
     }
 
     public List<Station> getReachableDestinations(int originId) {
-        List<LineSegment> segments = segmentRepo.findAll();
-        if (segments.isEmpty()) return new ArrayList<>();
-
-        Map<Integer, List<Integer>> adj = new HashMap<>();
-        for (LineSegment seg : segments) {
-            int u = seg.getIdEstacaoInicio();
-            int v = seg.getIdEstacaoFim();
-            adj.computeIfAbsent(u, k -> new ArrayList<>()).add(v);
-            adj.computeIfAbsent(v, k -> new ArrayList<>()).add(u);
-        }
-
-        if (!adj.containsKey(originId)) return new ArrayList<>();
-
-        Set<Integer> visited = new HashSet<>();
-        Queue<Integer> queue = new LinkedList<>();
-        queue.add(originId);
-        visited.add(originId);
-
+        // Componente ligada pré-calculada por versão da rede: sem BFS nem findAll() por chamada
         List<Station> reachable = new ArrayList<>();
-        while (!queue.isEmpty()) {
-            int current = queue.poll();
-            if (current != originId) {
-                reachable.add(new Station(current, getStationName(current), 0, 0, 0, 0));
-            }
-            for (int neighbor : adj.getOrDefault(current, Collections.emptyList())) {
-                if (!visited.contains(neighbor)) {
-                    visited.add(neighbor);
-                    queue.add(neighbor);
-                }
-            }
+        for (int id : networkService.getConnectivityIndex().connectedTo(originId)) {
+            reachable.add(new Station(id, getStationName(id), 0, 0, 0, 0));
         }
         reachable.sort(Comparator.comparing(Station::nome));
         return reachable;
@@ -136,6 +110,8 @@ public class RoutePlannerController {
     }
 
     private PlannedRoute calculateGreedyRoute(int startStationId, List<FreightRequest> freights) {
+        // Muitas consultas ponto-a-ponto à mesma velocidade: usar (ou preparar) a contraction hierarchy
+        networkService.prepareContractionHierarchy(PLANNING_SPEED_LIMIT);
         List<FreightRequest> pending = new ArrayList<>();
         for (FreightRequest f : freights) {
             pending.add(new FreightRequest(f.getId(), f.getOriginStationId(), f.getDestinationStationId(), f.getDescription(), f.getWeightTons()));
@@ -147,6 +123,16 @@ public class RoutePlannerController {
 
         manifestLog.add(String.format("🏁 LOCOMOTIVE START: %s (ID: %d)", getStationName(startStationId), startStationId));
 
+        // Todos os tempos entre as estações envolvidas, calculados de uma vez (e em cache por versão da rede)
+        Set<Integer> stops = new LinkedHashSet<>();
+        stops.add(startStationId);
+        for (FreightRequest f : pending) {
+            stops.add(f.getOriginStationId());
+            stops.add(f.getDestinationStationId());
+        }
+        List<Integer> stopIds = new ArrayList<>(stops);
+        TravelTimeMatrix times = networkService.travelTimeMatrix(stopIds, stopIds, PLANNING_SPEED_LIMIT);
+
         while (!pending.isEmpty()) {
             Map<Integer, List<FreightRequest>> targets = new HashMap<>();
 
@@ -166,13 +152,15 @@ public class RoutePlannerController {
                     bestPath = new RailwayPath(Collections.emptyList(), 0, 0);
                     break;
                 }
-                RailwayPath path = networkService.findFastestPath(currentStationId, targetId, PLANNING_SPEED_LIMIT);
-                if (path != null && path.getTotalTimeHours() < minTime) {
-                    minTime = path.getTotalTimeHours();
+                double time = times.timeBetween(currentStationId, targetId);
+                if (time < minTime) {
+                    minTime = time;
                     bestTargetId = targetId;
-                    bestPath = path;
                 }
             }
+            if (bestPath == null && bestTargetId != -1) {
+                bestPath = times.pathBetween(currentStationId, bestTargetId);
+            }
 
             if (bestTargetId == -1 || bestPath == null) {
                 manifestLog.add("❌ ERRO: Rede desconexa. Impossível chegar aos destinos restantes.");
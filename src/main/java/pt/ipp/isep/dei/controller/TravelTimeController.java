@@ -8,10 +8,8 @@ import pt.ipp.isep.dei.repository.StationRepository;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
-import java.util.Set;
 
 public class TravelTimeController {
 
@@ -121,21 +119,8 @@ public class TravelTimeController {
             return Collections.emptyList();
         }
 
-        List<LineSegment> allSegments = segmentoRepo.findAll();
-
-        Set<Integer> reachableStationIds = new HashSet<>();
-
-        for (LineSegment seg : allSegments) {
-            int neighborId = -1;
-            if (seg.getIdEstacaoInicio() == idEstacaoPartida) {
-                neighborId = seg.getIdEstacaoFim();
-            } else if (seg.getIdEstacaoFim() == idEstacaoPartida) {
-                neighborId = seg.getIdEstacaoInicio();
-            }
-            if (neighborId != -1 && neighborId != idEstacaoPartida) {
-                reachableStationIds.add(neighborId);
-            }
-        }
+        // Vizinhos pré-calculados por versão da rede (sem percorrer todos os segmentos)
+        List<Integer> reachableStationIds = networkService.getConnectivityIndex().neighbours(idEstacaoPartida);
 
         // CORREÇÃO DE TIPO
         List<EuropeanStation> reachableStations = new ArrayList<>();
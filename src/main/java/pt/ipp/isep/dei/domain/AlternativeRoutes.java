@@ -0,0 +1,339 @@
+package pt.ipp.isep.dei.domain;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * K fastest loopless routes between two facilities of a {@link RoutingGraph}, for comparing a
+ * detour against a delay when two trains meet on single track.
+ * <p>
+ * Yen's algorithm with Lawler's rule (a route only spurs from the point where it left its
+ * parent route) and a reverse shortest-path tree from the destination, built once per query:
+ * <ul>
+ *   <li>when the tree path from a spur facility avoids the removed segment and the root
+ *       facilities, it is already the best spur and no search runs;</li>
+ *   <li>otherwise the spur search is an A* whose bound is the tree distance (removing
+ *       segments only makes routes longer, so it stays consistent).</li>
+ * </ul>
+ * Every route reports the length it shares with the fastest one. Both directions of a track
+ * ({@code INV_} segments) count as the same physical segment.
+ */
+public final class AlternativeRoutes {
+
+    /**
+     * One alternative route.
+     *
+     * @param path The segments, distance and travel time.
+     * @param sharedDistance Length (km) of the physical segments it shares with the fastest route.
+     * @param overlap {@code sharedDistance / distance} (1 for the fastest route, 0 for an empty one).
+     */
+    public record Route(RailwayPath path, double sharedDistance, double overlap) {
+
+        /** @return The travel time in hours. */
+        public double timeHours() { return path.getTotalTimeHours(); }
+    }
+
+    private static final ThreadLocal<Search> SEARCHES = new ThreadLocal<>();
+
+    private AlternativeRoutes() {
+    }
+
+    /**
+     * Up to {@code k} fastest loopless routes, by increasing travel time.
+     * Time Complexity: O(k * L * (E + V log V)) worst case for routes of L segments; a spur
+     * answered by the shortest-path tree costs O(L).
+     *
+     * @param graph The routing graph.
+     * @param fromId The departure facility id.
+     * @param toId The arrival facility id.
+     * @param speedCap The maximum speed in km/h.
+     * @param k The maximum number of routes (positive).
+     * @return The routes (empty if either facility is unknown or no route exists).
+     */
+    public static List<Route> compute(RoutingGraph graph, int fromId, int toId, double speedCap, int k) {
+        if (k <= 0) throw new IllegalArgumentException("The number of routes must be positive.");
+        int s = graph.indexOf(fromId);
+        int t = graph.indexOf(toId);
+        if (s < 0 || t < 0) return List.of();
+
+        double[] time = graph.travelTimes(speedCap);
+        Search search = search(graph);
+        search.buildTree(t, time);
+        if (search.toTarget[s] == Double.POSITIVE_INFINITY) return List.of();
+        if (s == t) return List.of(toRoute(graph, new int[0], time, Set.of()));
+
+        List<Candidate> accepted = new ArrayList<>();
+        PriorityQueue<Candidate> candidates = new PriorityQueue<>();
+        Set<List<Integer>> seen = new HashSet<>();
+
+        Candidate first = new Candidate(search.treePath(s, t), search.toTarget[s], 0);
+        seen.add(first.key());
+        accepted.add(first);
+
+        while (accepted.size() < k) {
+            Candidate previous = accepted.get(accepted.size() - 1);
+            int[] edges = previous.edges;
+            double rootTime = 0.0;
+            for (int i = 0; i < previous.deviation; i++) rootTime += time[edges[i]];
+
+            for (int i = previous.deviation; i < edges.length; i++) {
+                int spur = (i == 0) ? s : graph.targets()[edges[i - 1]];
+                search.block(s, edges, i, accepted);
+
+                int[] spurEdges = search.spurPath(spur, t, time);
+                if (spurEdges != null) {
+                    int[] route = Arrays.copyOf(edges, i + spurEdges.length);
+                    System.arraycopy(spurEdges, 0, route, i, spurEdges.length);
+                    Candidate candidate = new Candidate(route, rootTime + search.spurTime, i);
+                    if (seen.add(candidate.key())) candidates.add(candidate);
+                }
+                rootTime += time[edges[i]];
+            }
+            if (candidates.isEmpty()) break;
+            accepted.add(candidates.poll());
+        }
+
+        Set<String> fastest = new HashSet<>();
+        for (int e : first.edges) fastest.add(graph.segment(e).getPhysicalSegmentId());
+        List<Route> routes = new ArrayList<>(accepted.size());
+        for (Candidate c : accepted) routes.add(toRoute(graph, c.edges, time, fastest));
+        return routes;
+    }
+
+    private static Route toRoute(RoutingGraph graph, int[] edges, double[] time, Set<String> fastest) {
+        List<LineSegment> segments = new ArrayList<>(edges.length);
+        double distance = 0.0;
+        double hours = 0.0;
+        double shared = 0.0;
+        for (int e : edges) {
+            LineSegment seg = graph.segment(e);
+            segments.add(seg);
+            distance += seg.getComprimento();
+            hours += time[e];
+            if (fastest.contains(seg.getPhysicalSegmentId())) shared += seg.getComprimento();
+        }
+        double overlap = (distance > 0) ? shared / distance : (edges.length == 0 ? 0.0 : 1.0);
+        return new Route(new RailwayPath(segments, distance, hours), shared, overlap);
+    }
+
+    private static Search search(RoutingGraph graph) {
+        Search search = SEARCHES.get();
+        if (search == null || search.graph.get() != graph) {
+            search = new Search(graph);
+            SEARCHES.set(search);
+        }
+        return search;
+    }
+
+    /**
+     * A route found by the search: its edge indexes, travel time and the index of its first
+     * edge not shared with the route it was spurred from.
+     */
+    private record Candidate(int[] edges, double time, int deviation) implements Comparable<Candidate> {
+
+        List<Integer> key() {
+            return Arrays.stream(edges).boxed().toList();
+        }
+
+        @Override
+        public int compareTo(Candidate other) {
+            int byTime = Double.compare(time, other.time);
+            return (byTime != 0) ? byTime : Integer.compare(edges.length, other.edges.length);
+        }
+    }
+
+    /**
+     * Per-thread search state over one snapshot: the incoming edges, the reverse tree of the
+     * current destination and the A* labels of the spur searches. The snapshot is referenced
+     * weakly, so a thread's state does not keep a replaced network alive.
+     */
+    private static final class Search {
+        private final WeakReference<RoutingGraph> graph;
+        private final int[] sources;
+        private final int[] inOffsets;
+        private final int[] inEdges;
+
+        // Árvore inversa: tempo até ao destino e próxima aresta no caminho mais rápido
+        private final double[] toTarget;
+        private final int[] nextEdge;
+
+        // Rótulos da pesquisa A* do desvio, repostos só nos vértices tocados
+        private final double[] dist;
+        private final int[] predEdge;
+        private final int[] touched;
+        private int touchedCount;
+        private final IndexedDaryHeap heap;
+
+        // Vértices da raiz e arestas removidas no desvio atual (carimbo por desvio)
+        private final int[] vertexStamp;
+        private final int[] edgeStamp;
+        private int stamp;
+
+        private double spurTime;
+
+        Search(RoutingGraph graph) {
+            int n = graph.vertexCount();
+            int m = graph.edgeCount();
+            int[] offsets = graph.offsets();
+            int[] targets = graph.targets();
+            this.graph = new WeakReference<>(graph);
+
+            this.sources = new int[m];
+            for (int u = 0; u < n; u++) {
+                for (int e = offsets[u]; e < offsets[u + 1]; e++) sources[e] = u;
+            }
+            this.inOffsets = new int[n + 1];
+            this.inEdges = new int[m];
+            for (int e = 0; e < m; e++) inOffsets[targets[e] + 1]++;
+            for (int v = 0; v < n; v++) inOffsets[v + 1] += inOffsets[v];
+            int[] next = Arrays.copyOf(inOffsets, n);
+            for (int u = 0; u < n; u++) {
+                for (int e = offsets[u]; e < offsets[u + 1]; e++) inEdges[next[targets[e]]++] = e;
+            }
+
+            this.toTarget = new double[n];
+            this.nextEdge = new int[n];
+            this.dist = new double[n];
+            this.predEdge = new int[n];
+            this.touched = new int[n];
+            this.heap = new IndexedDaryHeap(n);
+            this.vertexStamp = new int[n];
+            this.edgeStamp = new int[m];
+            Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        }
+
+        /**
+         * Dijkstra from the destination over the incoming edges.
+         */
+        void buildTree(int t, double[] time) {
+            Arrays.fill(toTarget, Double.POSITIVE_INFINITY);
+            Arrays.fill(nextEdge, -1);
+            toTarget[t] = 0.0;
+            heap.insert(t, 0.0);
+            while (!heap.isEmpty()) {
+                int v = heap.poll();
+                for (int i = inOffsets[v]; i < inOffsets[v + 1]; i++) {
+                    int e = inEdges[i];
+                    int u = sources[e];
+                    double nd = toTarget[v] + time[e];
+                    if (nd < toTarget[u]) {
+                        toTarget[u] = nd;
+                        nextEdge[u] = e;
+                        heap.insertOrDecrease(u, nd);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Marks the root facilities before spur index {@code i} and the edges leaving the spur
+         * facility on every accepted route with the same root.
+         */
+        void block(int s, int[] edges, int i, List<Candidate> accepted) {
+            stamp++;
+            int[] targets = graph().targets();
+            if (i > 0) vertexStamp[s] = stamp;
+            for (int j = 0; j < i - 1; j++) vertexStamp[targets[edges[j]]] = stamp;
+
+            for (Candidate c : accepted) {
+                if (c.edges.length > i && sharesRoot(c.edges, edges, i)) edgeStamp[c.edges[i]] = stamp;
+            }
+        }
+
+        private static boolean sharesRoot(int[] a, int[] b, int length) {
+            for (int j = 0; j < length; j++) {
+                if (a[j] != b[j]) return false;
+            }
+            return true;
+        }
+
+        /**
+         * Fastest route from the spur facility to the destination that avoids the blocked
+         * facilities and edges, or null. Its time is left in {@code spurTime}.
+         */
+        int[] spurPath(int spur, int t, double[] time) {
+            if (toTarget[spur] == Double.POSITIVE_INFINITY) return null;
+            // O caminho da árvore é ótimo sem restrições; se as respeitar, não é preciso pesquisar
+            if (treePathAllowed(spur, t)) {
+                spurTime = toTarget[spur];
+                return treePath(spur, t);
+            }
+
+            int[] offsets = graph().offsets();
+            int[] targets = graph().targets();
+            resetLabels();
+            touch(spur);
+            dist[spur] = 0.0;
+            heap.insert(spur, toTarget[spur]);
+            while (!heap.isEmpty()) {
+                int u = heap.poll();
+                if (u == t) break;
+                double du = dist[u];
+                for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                    int v = targets[e];
+                    if (edgeStamp[e] == stamp || vertexStamp[v] == stamp) continue;
+                    if (toTarget[v] == Double.POSITIVE_INFINITY) continue;
+                    double nd = du + time[e];
+                    if (nd < dist[v]) {
+                        if (dist[v] == Double.POSITIVE_INFINITY) touch(v);
+                        dist[v] = nd;
+                        predEdge[v] = e;
+                        heap.insertOrDecrease(v, nd + toTarget[v]);
+                    }
+                }
+            }
+            heap.clear();
+            if (dist[t] == Double.POSITIVE_INFINITY) return null;
+
+            spurTime = dist[t];
+            int length = 0;
+            for (int v = t; v != spur; v = sources[predEdge[v]]) length++;
+            int[] path = new int[length];
+            for (int v = t; v != spur; v = sources[predEdge[v]]) path[--length] = predEdge[v];
+            return path;
+        }
+
+        private boolean treePathAllowed(int spur, int t) {
+            int[] targets = graph().targets();
+            if (spur != t && edgeStamp[nextEdge[spur]] == stamp) return false;
+            for (int v = spur; v != t; ) {
+                v = targets[nextEdge[v]];
+                if (vertexStamp[v] == stamp) return false;
+            }
+            return true;
+        }
+
+        /**
+         * Edges of the tree path from {@code v} to the destination.
+         */
+        int[] treePath(int v, int t) {
+            int[] targets = graph().targets();
+            int length = 0;
+            for (int u = v; u != t; u = targets[nextEdge[u]]) length++;
+            int[] path = new int[length];
+            int i = 0;
+            for (int u = v; u != t; u = targets[nextEdge[u]]) path[i++] = nextEdge[u];
+            return path;
+        }
+
+        private RoutingGraph graph() {
+            RoutingGraph g = graph.get();
+            if (g == null) throw new IllegalStateException("The search's graph is no longer in use.");
+            return g;
+        }
+
+        private void resetLabels() {
+            for (int i = 0; i < touchedCount; i++) dist[touched[i]] = Double.POSITIVE_INFINITY;
+            touchedCount = 0;
+        }
+
+        private void touch(int v) {
+            touched[touchedCount++] = v;
+        }
+    }
+}
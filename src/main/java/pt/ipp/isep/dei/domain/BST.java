@@ -19,6 +19,26 @@ public class BST<K extends Comparable<K>, V> {
 
     private Node<K, V> root;
 
+    // Secondary order among equal keys (null: insertion order, duplicates searched on both sides)
+    private final Comparator<? super V> tieBreaker;
+
+    /**
+     * Creates an empty BST without a secondary order for duplicate keys.
+     */
+    public BST() {
+        this(null);
+    }
+
+    /**
+     * Creates an empty BST whose entries with equal keys are ordered by {@code tieBreaker},
+     * so that insertion, removal and bulk-build all place them in the same sequence.
+     *
+     * @param tieBreaker Order applied to the values when their keys are equal (e.g. by name).
+     */
+    public BST(Comparator<? super V> tieBreaker) {
+        this.tieBreaker = tieBreaker;
+    }
+
     /**
      * Represents a single node within the Binary Search Tree.
      * Stores the key, the associated value, and references to the left and right children.
@@ -31,6 +51,7 @@ public class BST<K extends Comparable<K>, V> {
         V value;
         Node<K, V> left;
         Node<K, V> right;
+        int height;
 
         /**
          * Constructs a new Node with the specified key and value.
@@ -43,6 +64,7 @@ public class BST<K extends Comparable<K>, V> {
             this.value = value;
             this.left = null;
             this.right = null;
+            this.height = 0;
         }
     }
 
@@ -112,9 +134,13 @@ public class BST<K extends Comparable<K>, V> {
             pairs.add(new Pair<>(keyExtractor.apply(value), value));
         }
 
-        // 2. Sort the list based on the extracted Key (K).
-        // For equal keys (duplicates), Java's TimSort maintains the original order (e.g., sorted by name if pre-sorted).
-        pairs.sort(Comparator.comparing(Pair::getKey));
+        // 2. Sort the list based on the extracted Key (K), then by the tie-breaker.
+        // Without one, Java's TimSort maintains the original order for equal keys (e.g., sorted by name if pre-sorted).
+        Comparator<Pair<K, V>> order = Comparator.comparing(Pair::getKey);
+        if (tieBreaker != null) {
+            order = order.thenComparing((a, b) -> tieBreaker.compare(a.value, b.value));
+        }
+        pairs.sort(order);
 
         // 3. Recursively build the balanced tree from the sorted list.
         root = buildBalancedRec(pairs, 0, pairs.size() - 1);
@@ -149,6 +175,7 @@ public class BST<K extends Comparable<K>, V> {
         // 4. Recursively build the right sub-tree (elements > median)
         node.right = buildBalancedRec(pairs, mid + 1, end);
 
+        updateHeight(node);
         return node;
     }
 
@@ -270,4 +297,157 @@ public class BST<K extends Comparable<K>, V> {
             findInRangeRec(node.right, min, max, list);
         }
     }
-}
\ No newline at end of file
+
+    // ==========================================================
+    // === INCREMENTAL MAINTENANCE (AVL) ===
+    // ==========================================================
+
+    /**
+     * Inserts a single key-value pair, rebalancing the path with AVL rotations.
+     * Duplicate keys are ordered by the tie-breaker (entries that tie on both go to the
+     * right sub-tree), so the in-order sequence matches a bulk-build of the same entries.
+     *
+     * **Time Complexity:** O(log N).
+     *
+     * @param key The key of the new entry.
+     * @param value The value of the new entry.
+     */
+    public void insert(K key, V value) {
+        root = insertRec(root, key, value);
+    }
+
+    private Node<K, V> insertRec(Node<K, V> node, K key, V value) {
+        if (node == null) {
+            return new Node<>(key, value);
+        }
+
+        if (compare(key, value, node) < 0) {
+            node.left = insertRec(node.left, key, value);
+        } else {
+            node.right = insertRec(node.right, key, value);
+        }
+        return rebalance(node);
+    }
+
+    /**
+     * Removes one entry that has the given key and a value equal to {@code value}.
+     * With a tie-breaker the search descends a single path; only entries that tie on both
+     * key and tie-breaker (or all duplicates, without one) are searched on both sides.
+     *
+     * **Time Complexity:** O(log N + D), where D is the number of entries that tie with the
+     * removed one (O(log N) when the tie-breaker tells them apart).
+     *
+     * @param key The key of the entry to remove.
+     * @param value The value of the entry to remove.
+     * @return true if an entry was removed, false if no matching entry exists.
+     */
+    public boolean remove(K key, V value) {
+        boolean[] removed = new boolean[1];
+        root = removeRec(root, key, value, removed);
+        return removed[0];
+    }
+
+    private Node<K, V> removeRec(Node<K, V> node, K key, V value, boolean[] removed) {
+        if (node == null) {
+            return null;
+        }
+
+        int cmp = compare(key, value, node);
+
+        if (cmp < 0) {
+            node.left = removeRec(node.left, key, value, removed);
+        } else if (cmp > 0) {
+            node.right = removeRec(node.right, key, value, removed);
+        } else if (node.value.equals(value)) {
+            removed[0] = true;
+            if (node.left == null) return node.right;
+            if (node.right == null) return node.left;
+
+            // Two children: replace by the in-order successor
+            Node<K, V> successor = node.right;
+            while (successor.left != null) {
+                successor = successor.left;
+            }
+            successor.right = removeMin(node.right);
+            successor.left = node.left;
+            node = successor;
+        } else {
+            // Same position in the order, different value: the entry may be on either side
+            node.left = removeRec(node.left, key, value, removed);
+            if (!removed[0]) {
+                node.right = removeRec(node.right, key, value, removed);
+            }
+        }
+        return rebalance(node);
+    }
+
+    private int compare(K key, V value, Node<K, V> node) {
+        int cmp = key.compareTo(node.key);
+        if (cmp == 0 && tieBreaker != null) {
+            cmp = tieBreaker.compare(value, node.value);
+        }
+        return cmp;
+    }
+
+    private Node<K, V> removeMin(Node<K, V> node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        node.left = removeMin(node.left);
+        return rebalance(node);
+    }
+
+    private int height(Node<K, V> node) {
+        return (node == null) ? -1 : node.height;
+    }
+
+    private void updateHeight(Node<K, V> node) {
+        node.height = 1 + Math.max(height(node.left), height(node.right));
+    }
+
+    private Node<K, V> rebalance(Node<K, V> node) {
+        updateHeight(node);
+        int balance = height(node.left) - height(node.right);
+
+        if (balance > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (balance < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private Node<K, V> rotateRight(Node<K, V> node) {
+        Node<K, V> pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = node;
+        updateHeight(node);
+        updateHeight(pivot);
+        return pivot;
+    }
+
+    private Node<K, V> rotateLeft(Node<K, V> node) {
+        Node<K, V> pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = node;
+        updateHeight(node);
+        updateHeight(pivot);
+        return pivot;
+    }
+
+    /**
+     * Returns the height of the tree (-1 for an empty tree).
+     *
+     * @return The height of the root node.
+     */
+    public int height() {
+        return height(root);
+    }
+}
@@ -13,6 +13,12 @@ public class BackboneNetwork {
     private final List<Connection> mstConnections = new ArrayList<>();
     private double totalMSTDistance = 0;
 
+    // SVG: largura fixa, altura pela proporção das coordenadas
+    private static final double SVG_WIDTH = 1600;
+    private static final double SVG_MAX_HEIGHT = 4000;
+    private static final double SVG_MARGIN = 20;
+    private static final int SVG_LABEL_LIMIT = 500;
+
     private double minX = Double.MAX_VALUE;
     private double maxX = Double.MIN_VALUE;
     private double minY = Double.MAX_VALUE;
@@ -26,104 +32,57 @@ public class BackboneNetwork {
      * @throws IOException If file reading fails
      */
     public void loadNetwork(String stationsFile, String connectionsFile) throws IOException {
-        loadStations(stationsFile);
-        loadConnections(connectionsFile);
+        RailwayCsvData data = RailwayCsvData.load(stationsFile, connectionsFile);
+        loadStations(data);
+        loadConnections(data);
         System.out.printf("✓ Loaded %d stations and %d connections\n",
                 stations.size(), allConnections.size());
     }
 
-    private void loadStations(String file) throws IOException {
+    private void loadStations(RailwayCsvData data) {
         stations.clear();
         minX = Double.MAX_VALUE;
         maxX = Double.MIN_VALUE;
         minY = Double.MAX_VALUE;
         maxY = Double.MIN_VALUE;
 
-        try (BufferedReader br = new BufferedReader(new FileReader(file))) {
-            br.readLine();
-
-            int count = 0;
-            int loaded = 0;
-
-            String line;
-            while ((line = br.readLine()) != null) {
-                count++;
-
-                try {
-                    String[] parts = line.split(",");
-
-                    if (parts.length >= 6) {
-                        int id = Integer.parseInt(parts[0].trim());
-                        String name = parts[1].trim();
-                        double lat = Double.parseDouble(parts[2].trim());
-                        double lon = Double.parseDouble(parts[3].trim());
-                        double coordX = Double.parseDouble(parts[4].trim());
-                        double coordY = Double.parseDouble(parts[5].trim());
-
-                        Station station = new Station(id, name, lat, lon, coordX, coordY);
-                        stations.put(id, station);
-                        loaded++;
-
-                        minX = Math.min(minX, coordX);
-                        maxX = Math.max(maxX, coordX);
-                        minY = Math.min(minY, coordY);
-                        maxY = Math.max(maxY, coordY);
-                    }
-                } catch (NumberFormatException e) {
-                    System.err.println("Erro na linha " + count + ": " + line);
-                }
+        for (int i = 0; i < data.stationCount(); i++) {
+            double coordX = data.coordX(i);
+            double coordY = data.coordY(i);
+            if (Double.isNaN(data.latitude(i)) || Double.isNaN(data.longitude(i))
+                    || Double.isNaN(coordX) || Double.isNaN(coordY)) {
+                System.err.println("Erro na estação " + data.stationId(i) + ": coordenadas inválidas");
+                continue;
             }
 
-        } catch (IOException e) {
-            throw e;
+            Station station = data.station(i);
+            stations.put(station.idEstacao(), station);
+
+            minX = Math.min(minX, coordX);
+            maxX = Math.max(maxX, coordX);
+            minY = Math.min(minY, coordY);
+            maxY = Math.max(maxY, coordY);
         }
     }
 
-    private void loadConnections(String file) throws IOException {
+    private void loadConnections(RailwayCsvData data) {
         allConnections.clear();
 
-        try (BufferedReader br = new BufferedReader(new FileReader(file))) {
-            br.readLine();
-
-            int count = 0;
-            int loaded = 0;
-            int missingStations = 0;
-
-            String line;
-            while ((line = br.readLine()) != null) {
-                count++;
-
-                try {
-                    String[] parts = line.split(",");
-
-                    if (parts.length >= 3) {
-                        int fromId = Integer.parseInt(parts[0].trim());
-                        int toId = Integer.parseInt(parts[1].trim());
-                        double distance = Double.parseDouble(parts[2].trim());
-
-                        Station from = stations.get(fromId);
-                        Station to = stations.get(toId);
-
-                        if (from != null && to != null) {
-                            Connection conn = new Connection(from, to, distance);
-                            allConnections.add(conn);
-                            loaded++;
-                        } else {
-                            missingStations++;
-                        }
-                    }
-                } catch (NumberFormatException e) {
-                    System.err.println("Erro na linha " + count + ": " + line);
-                }
-            }
+        for (int i = 0; i < data.lineCount(); i++) {
+            Station from = stations.get(data.lineFrom(i));
+            Station to = stations.get(data.lineTo(i));
 
-        } catch (IOException e) {
-            throw e;
+            if (from != null && to != null) {
+                allConnections.add(new Connection(from, to, data.lineDistance(i)));
+            }
         }
     }
 
     /**
-     * Computes the Minimal Spanning Tree (MST) using Prim's algorithm.
+     * Computes the Minimal Spanning Tree (MST) of the network part that contains the first
+     * station, using Kruskal's algorithm: connections are ranked by distance with a parallel
+     * sort of primitive keys and joined through a union-find (path halving, union by size).
+     * Time Complexity: O(E log E).
      */
     public void computeMinimalBackbone() {
         if (stations.isEmpty()) {
@@ -138,135 +97,260 @@ public class BackboneNetwork {
 
         long startTime = System.currentTimeMillis();
 
-        Set<Station> visited = new HashSet<>();
-        PriorityQueue<Connection> pq = new PriorityQueue<>(
-                Comparator.comparingDouble(Connection::distance)
-        );
+        // Índices densos das estações (a primeira é a origem, como no Prim anterior)
+        int n = stations.size();
+        Map<Integer, Integer> index = new HashMap<>(2 * n);
+        for (Station s : stations.values()) index.put(s.idEstacao(), index.size());
+
+        int m = allConnections.size();
+        int[] from = new int[m];
+        int[] to = new int[m];
+        long[] keys = new long[m];
+        for (int e = 0; e < m; e++) {
+            Connection conn = allConnections.get(e);
+            from[e] = index.get(conn.from().idEstacao());
+            to[e] = index.get(conn.to().idEstacao());
+            keys[e] = sortableBits(conn.distance());
+        }
+        int[] order = rankByKey(keys);
 
-        Station start = stations.values().iterator().next();
-        visited.add(start);
+        int[] parent = new int[n];
+        int[] size = new int[n];
+        for (int v = 0; v < n; v++) {
+            parent[v] = v;
+            size[v] = 1;
+        }
 
-        for (Connection conn : allConnections) {
-            if (conn.from().equals(start) || conn.to().equals(start)) {
-                pq.add(conn);
+        boolean[] inForest = new boolean[m];
+        int forestEdges = 0;
+        for (int i = 0; i < m && forestEdges < n - 1; i++) {
+            int e = order[i];
+            int a = find(parent, from[e]);
+            int b = find(parent, to[e]);
+            if (a == b) continue;
+            if (size[a] < size[b]) {
+                int tmp = a;
+                a = b;
+                b = tmp;
             }
+            parent[b] = a;
+            size[a] += size[b];
+            inForest[e] = true;
+            forestEdges++;
         }
 
+        // Só a árvore da componente da primeira estação, como no Prim
+        int root = find(parent, 0);
         mstConnections.clear();
         totalMSTDistance = 0;
-
-        while (!pq.isEmpty() && visited.size() < stations.size()) {
-            Connection conn = pq.poll();
-
-            Station next = null;
-            if (visited.contains(conn.from()) && !visited.contains(conn.to())) {
-                next = conn.to();
-            } else if (visited.contains(conn.to()) && !visited.contains(conn.from())) {
-                next = conn.from();
-            }
-
-            if (next != null) {
+        for (int i = 0; i < m; i++) {
+            int e = order[i];
+            if (inForest[e] && find(parent, from[e]) == root) {
+                Connection conn = allConnections.get(e);
                 mstConnections.add(conn);
                 totalMSTDistance += conn.distance();
-                visited.add(next);
-
-                for (Connection adj : allConnections) {
-                    if (adj.from().equals(next) && !visited.contains(adj.to())) {
-                        pq.add(adj);
-                    } else if (adj.to().equals(next) && !visited.contains(adj.from())) {
-                        pq.add(adj);
-                    }
-                }
             }
         }
+        int reached = size[root];
 
         long computationTimeMs = System.currentTimeMillis() - startTime;
 
         System.out.printf("✓ MST computed: %d edges, %.2f km total, %d ms\n",
                 mstConnections.size(), totalMSTDistance, computationTimeMs);
 
-        if (visited.size() < stations.size()) {
+        if (reached < stations.size()) {
             System.out.printf("⚠️  Warning: %d station(s) are isolated or unreachable\n",
-                    stations.size() - visited.size());
+                    stations.size() - reached);
         }
     }
 
     /**
-     * Generates a GraphViz DOT file for visualization.
+     * Maps a double to a long with the same ordering (negative values included).
+     */
+    static long sortableBits(double value) {
+        long bits = Double.doubleToLongBits(value);
+        return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+    }
+
+    /**
+     * Edge indexes ordered by key, ties by index. The keys are sorted with
+     * {@link Arrays#parallelSort(long[])}; each edge then finds its slot by binary search.
+     */
+    static int[] rankByKey(long[] keys) {
+        long[] sorted = keys.clone();
+        Arrays.parallelSort(sorted);
+        int[] order = new int[keys.length];
+        int[] used = new int[keys.length];
+        for (int e = 0; e < keys.length; e++) {
+            int first = lowerBound(sorted, keys[e]);
+            order[first + used[first]++] = e;
+        }
+        return order;
+    }
+
+    private static int lowerBound(long[] sorted, long key) {
+        int lo = 0, hi = sorted.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sorted[mid] < key) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    static int find(int[] parent, int v) {
+        while (parent[v] != v) {
+            parent[v] = parent[parent[v]];
+            v = parent[v];
+        }
+        return v;
+    }
+
+    /**
+     * Starts a what-if session: a backbone over the loaded network that is updated
+     * connection by connection (see {@link DynamicBackbone}). Changes made there do not
+     * touch this network.
+     *
+     * @return The dynamic backbone.
+     */
+    public DynamicBackbone dynamicBackbone() {
+        return DynamicBackbone.build(stations.values(), allConnections);
+    }
+
+    /**
+     * @return The connections of the last computed backbone (by increasing distance).
+     */
+    public List<Connection> getMstConnections() {
+        return Collections.unmodifiableList(mstConnections);
+    }
+
+    /**
+     * @return The total distance (km) of the last computed backbone.
+     */
+    public double getTotalMSTDistance() {
+        return totalMSTDistance;
+    }
+
+    /**
+     * Generates a GraphViz DOT file for visualization (streamed in one O(V + E) pass).
      *
      * @param filename Output DOT filename
      * @throws IOException If file writing fails
      */
     public void generateDOTFile(String filename) throws IOException {
-        try (PrintWriter writer = new PrintWriter(filename)) {
-            writer.println("graph BelgianRailwayMST {");
-            writer.println("    layout=neato;");
-            writer.println("    overlap=false;");
-            writer.println("    node [shape=circle, style=filled, fillcolor=lightblue];");
-            writer.println("    edge [fontsize=8];");
-            writer.println();
+        Set<Connection> mst = new HashSet<>(mstConnections);
+        try (DiagramWriter writer = DiagramWriter.open(filename)) {
+            writer.text("graph BelgianRailwayMST {\n")
+                    .text("    layout=neato;\n")
+                    .text("    overlap=false;\n")
+                    .text("    node [shape=circle, style=filled, fillcolor=lightblue];\n")
+                    .text("    edge [fontsize=8];\n\n");
 
             for (Station s : stations.values()) {
                 String label = s.nome().length() > 12 ?
                         s.nome().substring(0, 10) + ".." : s.nome();
 
-                double normX = 100 * (s.coordX() - minX) / (maxX - minX);
-                double normY = 100 * (s.coordY() - minY) / (maxY - minY);
-
-                writer.printf("    \"%d\" [pos=\"%.2f,%.2f!\", label=\"%s\"];\n",
-                        s.idEstacao(), normX, normY, label);
+                writer.text("    \"").number(s.idEstacao())
+                        .text("\" [pos=\"").number(normalise(s.coordX(), minX, maxX), 2)
+                        .text(",").number(normalise(s.coordY(), minY, maxY), 2)
+                        .text("!\", label=\"").text(label.replace("\"", "\\\"")).text("\"];\n");
             }
 
-            writer.println();
-            writer.println("    edge [color=\"#FF0000\", penwidth=2.5];");
+            writer.text("\n    edge [color=\"#FF0000\", penwidth=2.5];\n");
             for (Connection conn : mstConnections) {
-                writer.printf("    \"%d\" -- \"%d\" [label=\"%.1fkm\"];\n",
-                        conn.from().idEstacao(), conn.to().idEstacao(),
-                        conn.distance());
+                writer.text("    \"").number(conn.from().idEstacao())
+                        .text("\" -- \"").number(conn.to().idEstacao())
+                        .text("\" [label=\"").number(conn.distance(), 1).text("km\"];\n");
             }
 
-            writer.println();
-            writer.println("    edge [color=\"#CCCCCC\", penwidth=0.7, style=dashed];");
+            writer.text("\n    edge [color=\"#CCCCCC\", penwidth=0.7, style=dashed];\n");
             for (Connection conn : allConnections) {
-                if (!mstConnections.contains(conn)) {
-                    writer.printf("    \"%d\" -- \"%d\";\n",
-                            conn.from().idEstacao(), conn.to().idEstacao());
+                if (!mst.contains(conn)) {
+                    writer.text("    \"").number(conn.from().idEstacao())
+                            .text("\" -- \"").number(conn.to().idEstacao()).text("\";\n");
                 }
             }
 
-            writer.println("}");
+            writer.text("}\n");
         }
         System.out.println("✓ DOT file generated: " + filename);
     }
 
     /**
-     * Attempts to generate SVG visualization using Graphviz.
+     * Position on a 0..100 scale (0 when all stations share the coordinate).
+     */
+    private static double normalise(double value, double min, double max) {
+        return (max > min) ? 100 * (value - min) / (max - min) : 0.0;
+    }
+
+    /**
+     * Renders the backbone as SVG straight from the station coordinates: all connections
+     * dashed grey, the backbone in red, stations on top (named when there are few of them).
+     * No layout is computed and Graphviz is not needed.
      *
-     * @param dotFile Input DOT filename
+     * @param dotFile The DOT file written by {@link #generateDOTFile} (not read; the drawing
+     *                comes from the network itself)
      * @param svgFile Output SVG filename
      * @return true if SVG generation succeeded
      */
     public boolean generateSVG(String dotFile, String svgFile) {
-        // Tenta gerar SVG com dot
-        try {
-            ProcessBuilder pb = new ProcessBuilder("dot", "-Tsvg", dotFile, "-o", svgFile);
-            Process process = pb.start();
-            int exitCode = process.waitFor();
-
-            if (exitCode == 0) {
-                File svgOutput = new File(svgFile);
-                if (svgOutput.exists()) {
-                    System.out.println("✅ SVG generated: " + svgFile);
-                    return true;
+        double spanX = Math.max(maxX - minX, 1e-9);
+        double spanY = Math.max(maxY - minY, 1e-9);
+        double scale = (SVG_WIDTH - 2 * SVG_MARGIN) / spanX;
+        // Redes muito alongadas na vertical: limita a altura e reduz a escala
+        if (spanY * scale > SVG_MAX_HEIGHT - 2 * SVG_MARGIN) scale = (SVG_MAX_HEIGHT - 2 * SVG_MARGIN) / spanY;
+        double width = spanX * scale + 2 * SVG_MARGIN;
+        double height = spanY * scale + 2 * SVG_MARGIN;
+        final double k = scale;
+
+        Set<Connection> mst = new HashSet<>(mstConnections);
+        try (DiagramWriter writer = DiagramWriter.open(svgFile)) {
+            writer.svgStart(width, height);
+
+            writer.svgGroup("stroke=\"#CCCCCC\" stroke-width=\"0.7\" stroke-dasharray=\"3,2\"");
+            for (Connection conn : allConnections) {
+                if (!mst.contains(conn)) line(writer, conn, k, height);
+            }
+            writer.svgGroupEnd();
+
+            writer.svgGroup("stroke=\"#FF0000\" stroke-width=\"2.5\"");
+            for (Connection conn : mstConnections) line(writer, conn, k, height);
+            writer.svgGroupEnd();
+
+            writer.svgGroup("fill=\"lightblue\" stroke=\"#333333\" stroke-width=\"0.5\"");
+            for (Station s : stations.values()) {
+                writer.svgCircle(svgX(s, k), svgY(s, k, height), 3, s.idEstacao() + " " + s.nome());
+            }
+            writer.svgGroupEnd();
+
+            if (stations.size() <= SVG_LABEL_LIMIT) {
+                writer.svgGroup("font-family=\"Arial\" font-size=\"8\" fill=\"#000000\"");
+                for (Station s : stations.values()) {
+                    writer.svgText(svgX(s, k) + 4, svgY(s, k, height) - 4, s.nome());
                 }
+                writer.svgGroupEnd();
             }
-        } catch (Exception e) {
-            // Ignora erros
+            writer.svgEnd();
+        } catch (IOException e) {
+            System.err.println("Erro ao gerar o SVG: " + e.getMessage());
+            return false;
         }
+        System.out.println("✅ SVG generated: " + svgFile);
+        return true;
+    }
+
+    private void line(DiagramWriter writer, Connection conn, double scale, double height) throws IOException {
+        writer.svgLine(svgX(conn.from(), scale), svgY(conn.from(), scale, height),
+                svgX(conn.to(), scale), svgY(conn.to(), scale, height));
+    }
+
+    private double svgX(Station s, double scale) {
+        return SVG_MARGIN + (s.coordX() - minX) * scale;
+    }
 
-        // Se não conseguiu, não mostra mensagem de erro
-        // O utilizador pode usar o plugin do IntelliJ
-        return false;
+    // O eixo y do SVG cresce para baixo
+    private double svgY(Station s, double scale, double height) {
+        return height - SVG_MARGIN - (s.coordY() - minY) * scale;
     }
 
     /**
@@ -278,8 +362,6 @@ public class BackboneNetwork {
         System.out.println("=".repeat(60));
         System.out.println("Output files generated:");
         System.out.println("  • belgian_backbone.dot - DOT file for visualization");
-        System.out.println("\nTo visualize the network:");
-        System.out.println("  1. Open 'belgian_backbone.dot' in IntelliJ");
-        System.out.println("  2. Right-click → Open with → Graphviz");
+        System.out.println("  • belgian_backbone.svg - drawing from the station coordinates");
     }
 }
\ No newline at end of file
@@ -6,70 +6,189 @@ public class BellmanFord {
 
     public record PathResult(List<Integer> path, double totalCost, List<Integer> cycle) {}
 
+    /**
+     * Minimum-cost path by risk {@code cost} (negative costs allowed) using the queue-based
+     * Bellman-Ford (SPFA): only vertices whose distance changed are re-relaxed, and the search
+     * ends as soon as the queue drains. A negative cycle reachable from the start is detected
+     * when some shortest path would need {@code V} or more edges; it is then read from the
+     * predecessor walk.
+     *
+     * @param g The graph.
+     * @param startId The start station id.
+     * @param targetId The target station id.
+     * @return The path and cost, or the negative cycle (with {@code path == null}).
+     */
     public static PathResult findPath(Graph g, int startId, int targetId) {
         if (!g.adj.containsKey(startId) || !g.adj.containsKey(targetId)) {
             return new PathResult(new ArrayList<>(), 0, null);
         }
 
-        Map<Integer, Double> dist = new HashMap<>();
-        Map<Integer, Integer> predecessor = new HashMap<>();
-        List<Integer> nodes = new ArrayList<>(g.adj.keySet());
+        CSRGraph csr = g.csr();
+        int n = csr.vertexCount();
+        int start = csr.indexOf(startId);
+        int target = csr.indexOf(targetId);
 
-        for (int node : nodes) dist.put(node, Double.POSITIVE_INFINITY);
-        dist.put(startId, 0.0);
+        double[] dist = new double[n];
+        int[] predecessor = new int[n];
+        int cycleVertex = shortestPaths(csr, start, csr.cost(), dist, predecessor);
+        if (cycleVertex >= 0) {
+            return new PathResult(null, 0, traceCycle(csr, predecessor, cycleVertex));
+        }
+        return new PathResult(buildPath(csr, predecessor, start, target), dist[target], null);
+    }
+
+    /**
+     * SPFA over the CSR arrays.
+     *
+     * @param g The CSR graph.
+     * @param start Dense index of the source, or -1 for a virtual source with a 0-cost edge to
+     *              every vertex (Johnson potentials).
+     * @param cost Edge costs (indexed by edge).
+     * @param dist Output distances (POSITIVE_INFINITY if unreachable).
+     * @param predecessor Output predecessors (-1 for none).
+     * @return A vertex on or behind a negative cycle, or -1 if there is none.
+     */
+    static int shortestPaths(CSRGraph g, int start, double[] cost, double[] dist, int[] predecessor) {
+        int n = g.vertexCount();
+        int[] offsets = g.offsets();
+        int[] targets = g.targets();
+
+        int[] edgesOnPath = new int[n];
+        boolean[] queued = new boolean[n];
+        int[] queue = new int[n]; // circular: each vertex is queued at most once at a time
+        int head = 0, size = 0;
+
+        Arrays.fill(predecessor, -1);
+        if (start < 0) {
+            Arrays.fill(dist, 0.0);
+            Arrays.fill(queued, true);
+            for (int v = 0; v < n; v++) queue[v] = v;
+            size = n;
+        } else {
+            Arrays.fill(dist, Double.POSITIVE_INFINITY);
+            dist[start] = 0.0;
+            queue[0] = start;
+            queued[start] = true;
+            size = 1;
+        }
+
+        while (size > 0) {
+            int u = queue[head];
+            head = (head + 1 == n) ? 0 : head + 1;
+            size--;
+            queued[u] = false;
+
+            double du = dist[u];
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                int v = targets[e];
+                double nd = du + cost[e];
+                if (nd < dist[v]) {
+                    dist[v] = nd;
+                    predecessor[v] = u;
+                    edgesOnPath[v] = edgesOnPath[u] + 1;
+                    // A simple path has at most V-1 edges: confirm the cycle on the predecessor graph
+                    if (edgesOnPath[v] >= n && hasPredecessorCycle(predecessor, v)) {
+                        return v;
+                    }
+                    if (!queued[v]) {
+                        queued[v] = true;
+                        queue[(head + size) % n] = v;
+                        size++;
+                    }
+                }
+            }
+        }
+        return -1;
+    }
+
+    private static boolean hasPredecessorCycle(int[] predecessor, int v) {
+        int curr = v;
+        for (int i = 0; i < predecessor.length; i++) {
+            curr = predecessor[curr];
+            if (curr == -1) return false;
+        }
+        return true;
+    }
+
+    static List<Integer> buildPath(CSRGraph csr, int[] predecessor, int start, int target) {
+        List<Integer> path = new LinkedList<>();
+        int curr = target;
+        while (curr != -1) {
+            path.add(0, csr.stationId(curr));
+            if (curr == start) break;
+            curr = predecessor[curr];
+        }
+        return path;
+    }
+
+    /**
+     * Classic Bellman-Ford: V-1 full relaxation passes followed by a detection pass.
+     * Kept as the reference implementation for {@link #findPath}.
+     */
+    public static PathResult findPathClassic(Graph g, int startId, int targetId) {
+        if (!g.adj.containsKey(startId) || !g.adj.containsKey(targetId)) {
+            return new PathResult(new ArrayList<>(), 0, null);
+        }
+
+        CSRGraph csr = g.csr();
+        int n = csr.vertexCount();
+        int[] offsets = csr.offsets();
+        int[] targets = csr.targets();
+        double[] cost = csr.cost();
+
+        int start = csr.indexOf(startId);
+        int target = csr.indexOf(targetId);
+
+        double[] dist = new double[n];
+        int[] predecessor = new int[n];
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        Arrays.fill(predecessor, -1);
+        dist[start] = 0.0;
 
         // Relaxar V-1 vezes
-        for (int i = 1; i < nodes.size(); i++) {
-            for (int u : nodes) {
-                Double du = dist.get(u);
-                if (du == null || du == Double.POSITIVE_INFINITY) continue;
-
-                for (Edge e : g.adj.get(u)) {
-                    Double dv = dist.get(e.to());
-                    if (dv != null && du + e.cost() < dv) {
-                        dist.put(e.to(), du + e.cost());
-                        predecessor.put(e.to(), u);
+        for (int i = 1; i < n; i++) {
+            for (int u = 0; u < n; u++) {
+                double du = dist[u];
+                if (du == Double.POSITIVE_INFINITY) continue;
+
+                for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                    int v = targets[e];
+                    if (du + cost[e] < dist[v]) {
+                        dist[v] = du + cost[e];
+                        predecessor[v] = u;
                     }
                 }
             }
         }
 
         // Verificação de Ciclo Negativo
-        for (int u : nodes) {
-            Double du = dist.get(u);
-            if (du == null || du == Double.POSITIVE_INFINITY) continue;
-            for (Edge e : g.adj.get(u)) {
-                Double dv = dist.get(e.to());
-                if (dv != null && du + e.cost() < dv) {
-                    return new PathResult(null, 0, traceCycle(predecessor, e.to()));
+        for (int u = 0; u < n; u++) {
+            double du = dist[u];
+            if (du == Double.POSITIVE_INFINITY) continue;
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                if (du + cost[e] < dist[targets[e]]) {
+                    return new PathResult(null, 0, traceCycle(csr, predecessor, targets[e]));
                 }
             }
         }
 
         // Reconstruir Caminho
-        List<Integer> path = new LinkedList<>();
-        Integer curr = targetId;
-        while (curr != null) {
-            path.add(0, curr);
-            if (curr == startId) break;
-            curr = predecessor.get(curr);
-        }
-        return new PathResult(path, dist.get(targetId), null);
+        return new PathResult(buildPath(csr, predecessor, start, target), dist[target], null);
     }
 
-    private static List<Integer> traceCycle(Map<Integer, Integer> pred, int start) {
+    static List<Integer> traceCycle(CSRGraph g, int[] pred, int start) {
         List<Integer> cycle = new ArrayList<>();
         int curr = start;
         // Mover para dentro do ciclo para garantir captura correta
-        for (int i = 0; i < pred.size(); i++) {
-            if (pred.containsKey(curr)) curr = pred.get(curr);
+        for (int i = 0; i < pred.length; i++) {
+            if (pred[curr] != -1) curr = pred[curr];
         }
         int entry = curr;
         do {
-            cycle.add(curr);
-            curr = pred.get(curr);
+            cycle.add(g.stationId(curr));
+            curr = pred[curr];
         } while (curr != entry);
-        cycle.add(entry);
+        cycle.add(g.stationId(entry));
         return cycle;
     }
-}
\ No newline at end of file
+}
@@ -1,49 +1,439 @@
 package pt.ipp.isep.dei.domain;
 
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
 
 public class Betweenness {
+
+    // Below this many vertices the fork/join overhead outweighs the gain
+    private static final int PARALLEL_THRESHOLD = 64;
+
+    // Universal constant of the Riondato-Kornaropoulos sample size bound
+    private static final double RK_CONSTANT = 0.5;
+
+    /**
+     * Outcome of an approximate run.
+     *
+     * @param samples Number of sampled shortest paths.
+     * @param vertexDiameterBound Upper bound on the vertices of any shortest path used for the sample size.
+     * @param absoluteError Bound on |estimate - exact| for every station, in the same (raw) units as the scores.
+     * @param confidence Probability (1 - delta) with which the bound holds for all stations simultaneously.
+     */
+    public record Approximation(int samples, int vertexDiameterBound, double absoluteError, double confidence) {}
+
+    /**
+     * Brandes betweenness (weighted by distance), spreading the sources over the
+     * common ForkJoin pool. Each leaf task owns a {@link Workspace} (reused for all of
+     * its sources) and a private accumulator; accumulators are summed when tasks join.
+     * Results match {@link #computeSequential(Graph)} up to floating-point summation order.
+     */
     public static void compute(Graph g) {
-        g.metricsMap.values().forEach(m -> m.betweenness = 0.0);
-
-        for (int sId : g.metricsMap.keySet()) {
-            Stack<Integer> S = new Stack<>();
-            Map<Integer, List<Integer>> P = new HashMap<>();
-            Map<Integer, Double> sigma = new HashMap<>(), dist = new HashMap<>();
-
-            g.metricsMap.keySet().forEach(v -> {
-                P.put(v, new ArrayList<>());
-                sigma.put(v, 0.0);
-                dist.put(v, Double.POSITIVE_INFINITY);
-            });
-
-            sigma.put(sId, 1.0); dist.put(sId, 0.0);
-            PriorityQueue<double[]> pq = new PriorityQueue<>(Comparator.comparingDouble(a -> a[1]));
-            pq.add(new double[]{sId, 0.0});
-
-            while (!pq.isEmpty()) {
-                int v = (int) pq.poll()[0]; S.push(v);
-                for (Edge e : g.adj.get(v)) {
-                    double nd = dist.get(v) + e.weight();
-                    if (nd < dist.get(e.to())) {
-                        dist.put(e.to(), nd); pq.add(new double[]{e.to(), nd});
-                        sigma.put(e.to(), sigma.get(v));
-                        P.get(e.to()).clear(); P.get(e.to()).add(v);
-                    } else if (nd == dist.get(e.to())) {
-                        sigma.put(e.to(), sigma.get(e.to()) + sigma.get(v));
-                        P.get(e.to()).add(v);
+        compute(g, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Same as {@link #compute(Graph)} on a caller-provided pool.
+     *
+     * @param g The graph; results are written to {@code StationMetrics.betweenness}.
+     * @param pool The pool that runs the per-source passes.
+     */
+    public static void compute(Graph g, ForkJoinPool pool) {
+        CSRGraph csr = g.csr();
+        store(csr, brandes(csr, pool, null));
+    }
+
+    /**
+     * Single-threaded Brandes betweenness: one workspace reused for every source.
+     *
+     * @param g The graph; results are written to {@code StationMetrics.betweenness}.
+     */
+    public static void computeSequential(Graph g) {
+        CSRGraph csr = g.csr();
+        store(csr, brandesSequential(csr, null));
+    }
+
+    /**
+     * Runs every Brandes pass (in parallel for non-trivial graphs) and returns the
+     * betweenness per dense vertex. If {@code harmonicOut} is given, the harmonic
+     * closeness of each source is written to it from the same pass.
+     */
+    static double[] brandes(CSRGraph csr, ForkJoinPool pool, double[] harmonicOut) {
+        int n = csr.vertexCount();
+        if (n < PARALLEL_THRESHOLD || pool.getParallelism() < 2) {
+            return brandesSequential(csr, harmonicOut);
+        }
+
+        // A few chunks per worker so that uneven sources still balance out
+        int chunk = Math.max(1, n / (pool.getParallelism() * 4));
+        return pool.invoke(new SourceRangeTask(csr, 0, n, chunk, harmonicOut));
+    }
+
+    private static double[] brandesSequential(CSRGraph csr, double[] harmonicOut) {
+        int n = csr.vertexCount();
+        double[] betweenness = new double[n];
+        Workspace ws = new Workspace(csr);
+        for (int s = 0; s < n; s++) {
+            double harmonic = ws.accumulate(s, betweenness);
+            if (harmonicOut != null) harmonicOut[s] = harmonic;
+        }
+        return betweenness;
+    }
+
+    private static void store(CSRGraph csr, double[] betweenness) {
+        for (int v = 0; v < csr.vertexCount(); v++) {
+            csr.metrics(v).betweenness = betweenness[v];
+            csr.metrics(v).betweennessError = 0.0;
+        }
+    }
+
+    /**
+     * Approximate betweenness by shortest-path sampling (Riondato-Kornaropoulos).
+     * Each sample picks an ordered pair (u, v) uniformly, runs Dijkstra from u until v is
+     * settled and walks back one shortest path chosen uniformly at random (predecessor p
+     * of w is taken with probability sigma[p] / sigma[w]), crediting its inner vertices.
+     * With r = (c / eps^2) * (floor(log2(VD - 2)) + 1 + ln(1 / delta)) samples, every
+     * normalised score is within eps of the exact one with probability at least 1 - delta.
+     * <p>
+     * Scores are written in the same raw units as {@link #compute(Graph)} (pairs through the
+     * station), together with the matching bound in {@code StationMetrics.betweennessError}.
+     *
+     * @param g The graph.
+     * @param epsilon Additive error on the normalised score (0 &lt; eps &lt; 1).
+     * @param delta Failure probability (0 &lt; delta &lt; 1).
+     * @param seed Seed for reproducible sampling.
+     * @return The sample size and error bound that were used.
+     */
+    public static Approximation computeApproximate(Graph g, double epsilon, double delta, long seed) {
+        if (epsilon <= 0 || epsilon >= 1 || delta <= 0 || delta >= 1) {
+            throw new IllegalArgumentException("epsilon and delta must be in (0, 1).");
+        }
+
+        CSRGraph csr = g.csr();
+        int n = csr.vertexCount();
+        double pairs = (double) n * (n - 1);
+        if (n < 3) {
+            store(csr, new double[n]);
+            return new Approximation(0, n, 0.0, 1.0);
+        }
+
+        int vd = vertexDiameterBound(csr);
+        double logTerm = (vd > 2) ? Math.floor(Math.log(vd - 2) / Math.log(2)) + 1 : 1;
+        int r = (int) Math.ceil((RK_CONSTANT / (epsilon * epsilon)) * (logTerm + Math.log(1.0 / delta)));
+
+        double[] estimate = sampleHits(csr, r, new SplittableRandom(seed));
+
+        double scale = pairs / r;
+        double error = epsilon * pairs;
+        for (int v = 0; v < n; v++) {
+            csr.metrics(v).betweenness = estimate[v] * scale;
+            csr.metrics(v).betweennessError = error;
+        }
+        return new Approximation(r, vd, error, 1.0 - delta);
+    }
+
+    /**
+     * Draws {@code samples} uniformly random shortest paths (spread over the common pool) and
+     * counts, per vertex, how many of them pass through it as an inner vertex.
+     */
+    static double[] sampleHits(CSRGraph csr, int samples, SplittableRandom random) {
+        int n = csr.vertexCount();
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        int tasks = Math.max(1, Math.min(samples, pool.getParallelism() * 4));
+        List<SampleTask> work = new ArrayList<>(tasks);
+        for (int t = 0; t < tasks; t++) {
+            int count = samples / tasks + (t < samples % tasks ? 1 : 0);
+            work.add(new SampleTask(csr, count, random.split()));
+        }
+
+        double[] total = new double[n];
+        for (SampleTask task : ForkJoinTask.invokeAll(work)) {
+            double[] hits = task.join();
+            for (int v = 0; v < n; v++) total[v] += hits[v];
+        }
+        return total;
+    }
+
+    /**
+     * Upper bound on the vertex diameter: the size of the largest weakly connected
+     * component (no shortest path can visit more vertices than that).
+     */
+    static int vertexDiameterBound(CSRGraph csr) {
+        int n = csr.vertexCount();
+        int[] parent = new int[n];
+        for (int v = 0; v < n; v++) parent[v] = v;
+        int[] offsets = csr.offsets();
+        int[] targets = csr.targets();
+        for (int u = 0; u < n; u++) {
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                int a = find(parent, u), b = find(parent, targets[e]);
+                if (a != b) parent[a] = b;
+            }
+        }
+        int[] size = new int[n];
+        int best = 0;
+        for (int v = 0; v < n; v++) best = Math.max(best, ++size[find(parent, v)]);
+        return best;
+    }
+
+    private static int find(int[] parent, int v) {
+        while (parent[v] != v) {
+            parent[v] = parent[parent[v]];
+            v = parent[v];
+        }
+        return v;
+    }
+
+    /**
+     * Draws a fixed number of path samples with its own random stream and workspace.
+     */
+    @SuppressWarnings("serial") // nunca é serializada
+    private static final class SampleTask extends RecursiveTask<double[]> {
+        private final CSRGraph csr;
+        private final int samples;
+        private final SplittableRandom random;
+
+        SampleTask(CSRGraph csr, int samples, SplittableRandom random) {
+            this.csr = csr;
+            this.samples = samples;
+            this.random = random;
+        }
+
+        @Override
+        protected double[] compute() {
+            int n = csr.vertexCount();
+            double[] hits = new double[n];
+            Workspace ws = new Workspace(csr);
+            for (int i = 0; i < samples; i++) {
+                int u = random.nextInt(n);
+                int v = random.nextInt(n - 1);
+                if (v >= u) v++;
+                ws.samplePath(u, v, random, hits);
+            }
+            return hits;
+        }
+    }
+
+    /**
+     * Splits the source range in halves until it is at most {@code chunk} sources long.
+     */
+    @SuppressWarnings("serial") // nunca é serializada
+    private static final class SourceRangeTask extends RecursiveTask<double[]> {
+        private final CSRGraph csr;
+        private final int from, to, chunk;
+        private final double[] harmonicOut;
+
+        SourceRangeTask(CSRGraph csr, int from, int to, int chunk, double[] harmonicOut) {
+            this.csr = csr;
+            this.from = from;
+            this.to = to;
+            this.chunk = chunk;
+            this.harmonicOut = harmonicOut;
+        }
+
+        @Override
+        protected double[] compute() {
+            if (to - from <= chunk) {
+                double[] acc = new double[csr.vertexCount()];
+                Workspace ws = new Workspace(csr);
+                for (int s = from; s < to; s++) {
+                    double harmonic = ws.accumulate(s, acc);
+                    // Each source index belongs to exactly one leaf, so the writes never overlap
+                    if (harmonicOut != null) harmonicOut[s] = harmonic;
+                }
+                return acc;
+            }
+
+            int mid = (from + to) >>> 1;
+            SourceRangeTask left = new SourceRangeTask(csr, from, mid, chunk, harmonicOut);
+            left.fork();
+            double[] right = new SourceRangeTask(csr, mid, to, chunk, harmonicOut).compute();
+            double[] acc = left.join();
+            for (int v = 0; v < acc.length; v++) acc[v] += right[v];
+            return acc;
+        }
+    }
+
+    /**
+     * Per-worker primitive state for one Brandes pass: distances, path counts,
+     * dependencies, predecessor slots (reverse-CSR layout), the settle-order stack
+     * and a binary heap of (distance, vertex) with lazy deletion.
+     */
+    static final class Workspace {
+        private final CSRGraph csr;
+        private final double[] dist, sigma, delta;
+        private final int[] pred, predCount, stack;
+        private double[] heapKey;
+        private int[] heapVertex;
+        private int heapSize;
+
+        Workspace(CSRGraph csr) {
+            int n = csr.vertexCount();
+            this.csr = csr;
+            this.dist = new double[n];
+            this.sigma = new double[n];
+            this.delta = new double[n];
+            this.pred = new int[csr.edgeCount()];
+            this.predCount = new int[n];
+            this.stack = new int[n];
+            this.heapKey = new double[Math.max(16, n)];
+            this.heapVertex = new int[heapKey.length];
+        }
+
+        /**
+         * Runs one Brandes pass from {@code s} and adds the dependencies to {@code acc}.
+         *
+         * @return The harmonic closeness of {@code s} (sum of 1/d over the vertices it reaches).
+         */
+        double accumulate(int s, double[] acc) {
+            int[] offsets = csr.offsets();
+            int[] targets = csr.targets();
+            double[] weight = csr.weight();
+            int[] inOffsets = csr.inOffsets();
+
+            Arrays.fill(dist, Double.POSITIVE_INFINITY);
+            Arrays.fill(sigma, 0.0);
+            Arrays.fill(delta, 0.0);
+            Arrays.fill(predCount, 0);
+            int top = 0;
+            heapSize = 0;
+
+            sigma[s] = 1.0; dist[s] = 0.0;
+            push(s, 0.0);
+
+            while (heapSize > 0) {
+                double key = heapKey[0];
+                int v = pop();
+                if (key > dist[v]) continue;
+                stack[top++] = v;
+
+                for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                    int w = targets[e];
+                    double nd = dist[v] + weight[e];
+                    if (nd < dist[w]) {
+                        dist[w] = nd; push(w, nd);
+                        sigma[w] = sigma[v];
+                        predCount[w] = 0;
+                        pred[inOffsets[w] + predCount[w]++] = v;
+                    } else if (nd == dist[w]) {
+                        sigma[w] += sigma[v];
+                        pred[inOffsets[w] + predCount[w]++] = v;
                     }
                 }
             }
-            Map<Integer, Double> delta = new HashMap<>();
-            g.metricsMap.keySet().forEach(v -> delta.put(v, 0.0));
-            while (!S.isEmpty()) {
-                int w = S.pop();
-                for (int v : P.get(w)) {
-                    delta.put(v, delta.get(v) + (sigma.get(v) / sigma.get(w)) * (1.0 + delta.get(w)));
+
+            double harmonic = 0.0;
+            while (top > 0) {
+                int w = stack[--top];
+                for (int i = inOffsets[w]; i < inOffsets[w] + predCount[w]; i++) {
+                    int v = pred[i];
+                    delta[v] += (sigma[v] / sigma[w]) * (1.0 + delta[w]);
                 }
-                if (w != sId) g.metricsMap.get(w).betweenness += delta.get(w);
+                if (w != s) acc[w] += delta[w];
+                if (dist[w] > 0) harmonic += 1.0 / dist[w];
+            }
+            return harmonic;
+        }
+
+        /**
+         * @return The distance of {@code v} from the source of the last {@link #accumulate} pass.
+         */
+        double dist(int v) { return dist[v]; }
+
+        /**
+         * Runs Dijkstra from {@code s} until {@code t} is settled, then walks back one shortest
+         * path chosen uniformly at random and adds 1 to each of its inner vertices.
+         * Does nothing if {@code t} is unreachable.
+         */
+        void samplePath(int s, int t, SplittableRandom random, double[] hits) {
+            int[] offsets = csr.offsets();
+            int[] targets = csr.targets();
+            double[] weight = csr.weight();
+            int[] inOffsets = csr.inOffsets();
+
+            Arrays.fill(dist, Double.POSITIVE_INFINITY);
+            Arrays.fill(sigma, 0.0);
+            Arrays.fill(predCount, 0);
+            heapSize = 0;
+
+            sigma[s] = 1.0; dist[s] = 0.0;
+            push(s, 0.0);
+            boolean reached = false;
+
+            while (heapSize > 0) {
+                double key = heapKey[0];
+                int v = pop();
+                if (key > dist[v]) continue;
+                if (v == t) {
+                    reached = true;
+                    break;
+                }
+
+                for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                    int w = targets[e];
+                    double nd = dist[v] + weight[e];
+                    if (nd < dist[w]) {
+                        dist[w] = nd; push(w, nd);
+                        sigma[w] = sigma[v];
+                        predCount[w] = 0;
+                        pred[inOffsets[w] + predCount[w]++] = v;
+                    } else if (nd == dist[w]) {
+                        sigma[w] += sigma[v];
+                        pred[inOffsets[w] + predCount[w]++] = v;
+                    }
+                }
+            }
+            if (!reached) return;
+
+            int w = t;
+            while (w != s) {
+                double pick = random.nextDouble() * sigma[w];
+                int chosen = pred[inOffsets[w]];
+                for (int i = inOffsets[w]; i < inOffsets[w] + predCount[w]; i++) {
+                    chosen = pred[i];
+                    pick -= sigma[chosen];
+                    if (pick < 0) break;
+                }
+                if (chosen != s) hits[chosen] += 1.0;
+                w = chosen;
+            }
+        }
+
+        private void push(int v, double key) {
+            if (heapSize == heapKey.length) {
+                heapKey = Arrays.copyOf(heapKey, heapSize * 2);
+                heapVertex = Arrays.copyOf(heapVertex, heapSize * 2);
+            }
+            int i = heapSize++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (heapKey[parent] <= key) break;
+                heapKey[i] = heapKey[parent];
+                heapVertex[i] = heapVertex[parent];
+                i = parent;
+            }
+            heapKey[i] = key;
+            heapVertex[i] = v;
+        }
+
+        private int pop() {
+            int result = heapVertex[0];
+            double key = heapKey[--heapSize];
+            int vertex = heapVertex[heapSize];
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= heapSize) break;
+                if (child + 1 < heapSize && heapKey[child + 1] < heapKey[child]) child++;
+                if (key <= heapKey[child]) break;
+                heapKey[i] = heapKey[child];
+                heapVertex[i] = heapVertex[child];
+                i = child;
             }
+            heapKey[i] = key;
+            heapVertex[i] = vertex;
+            return result;
         }
     }
 }
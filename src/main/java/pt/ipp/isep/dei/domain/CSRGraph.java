@@ -0,0 +1,139 @@
+package pt.ipp.isep.dei.domain;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Immutable Compressed Sparse Row (CSR) view of a {@link Graph}.
+ * Station ids are remapped to dense vertex indexes {@code 0..n-1} (ascending station id),
+ * and the outgoing edges of vertex {@code v} are stored in the range
+ * {@code [offsets[v], offsets[v + 1])} of the parallel arrays {@code targets},
+ * {@code weight} (distance) and {@code cost} (risk cost), in the same order as in
+ * {@code Graph.adj}. A reverse (incoming) CSR is kept as well.
+ * <p>
+ * Network algorithms (Dijkstra, Bellman-Ford, Betweenness, Harmonic Closeness) run on
+ * these arrays instead of boxed {@code Map<Integer, ...>} lookups on every relaxation.
+ */
+public final class CSRGraph {
+
+    private final int[] stationIds;
+    private final StationMetrics[] metrics;
+
+    private final int[] offsets;
+    private final int[] targets;
+    private final double[] weight;
+    private final double[] cost;
+
+    // Reverse CSR: incoming edges of v are inSources/inEdges[inOffsets[v] .. inOffsets[v+1])
+    private final int[] inOffsets;
+    private final int[] inSources;
+    private final int[] inEdges;
+
+    private CSRGraph(int[] stationIds, StationMetrics[] metrics, int[] offsets, int[] targets,
+                     double[] weight, double[] cost) {
+        this.stationIds = stationIds;
+        this.metrics = metrics;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weight = weight;
+        this.cost = cost;
+
+        int n = stationIds.length;
+        int m = targets.length;
+        this.inOffsets = new int[n + 1];
+        this.inSources = new int[m];
+        this.inEdges = new int[m];
+        for (int e = 0; e < m; e++) inOffsets[targets[e] + 1]++;
+        for (int v = 0; v < n; v++) inOffsets[v + 1] += inOffsets[v];
+        int[] next = Arrays.copyOf(inOffsets, n);
+        for (int u = 0; u < n; u++) {
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                int slot = next[targets[e]]++;
+                inSources[slot] = u;
+                inEdges[slot] = e;
+            }
+        }
+    }
+
+    /**
+     * Builds the CSR arrays from an adjacency-map graph (e.g. the output of {@link CSVLoader}).
+     * Edges whose endpoints are not registered stations are ignored, as in {@link Graph#addEdge}.
+     * Time Complexity: O(V log V + E).
+     *
+     * @param g The source graph.
+     * @return The immutable CSR graph.
+     */
+    public static CSRGraph from(Graph g) {
+        int n = g.adj.size();
+        int[] ids = new int[n];
+        int k = 0;
+        for (int id : g.adj.keySet()) ids[k++] = id;
+        Arrays.sort(ids);
+
+        int[] offsets = new int[n + 1];
+        for (int v = 0; v < n; v++) {
+            offsets[v + 1] = offsets[v] + g.adj.get(ids[v]).size();
+        }
+
+        int m = offsets[n];
+        int[] targets = new int[m];
+        double[] weight = new double[m];
+        double[] cost = new double[m];
+        StationMetrics[] metrics = new StationMetrics[n];
+
+        for (int v = 0; v < n; v++) {
+            metrics[v] = g.metricsMap.get(ids[v]);
+            List<Edge> edges = g.adj.get(ids[v]);
+            int e = offsets[v];
+            for (Edge edge : edges) {
+                targets[e] = Arrays.binarySearch(ids, edge.to());
+                weight[e] = edge.weight();
+                cost[e] = edge.cost();
+                e++;
+            }
+        }
+        return new CSRGraph(ids, metrics, offsets, targets, weight, cost);
+    }
+
+    /** @return The number of vertices. */
+    public int vertexCount() { return stationIds.length; }
+
+    /** @return The number of directed edges. */
+    public int edgeCount() { return targets.length; }
+
+    /**
+     * Maps a station id to its dense vertex index.
+     *
+     * @param stationId The station id.
+     * @return The vertex index, or -1 if the station is not in the graph.
+     */
+    public int indexOf(int stationId) {
+        int idx = Arrays.binarySearch(stationIds, stationId);
+        return (idx >= 0) ? idx : -1;
+    }
+
+    /**
+     * Maps a dense vertex index back to its station id.
+     *
+     * @param v The vertex index.
+     * @return The station id.
+     */
+    public int stationId(int v) { return stationIds[v]; }
+
+    /**
+     * Returns the metrics holder of a vertex (shared with {@code Graph.metricsMap}).
+     *
+     * @param v The vertex index.
+     * @return The StationMetrics of the vertex.
+     */
+    public StationMetrics metrics(int v) { return metrics[v]; }
+
+    // Raw arrays (shared, must not be modified by callers)
+    public int[] offsets() { return offsets; }
+    public int[] targets() { return targets; }
+    public double[] weight() { return weight; }
+    public double[] cost() { return cost; }
+    public int[] inOffsets() { return inOffsets; }
+    public int[] inSources() { return inSources; }
+    public int[] inEdges() { return inEdges; }
+}
@@ -1,87 +1,43 @@
 package pt.ipp.isep.dei.domain;
 
-import java.io.*;
-
+/**
+ * Builds the {@link Graph} of a stations/lines CSV pair from the shared {@link RailwayCsvData}.
+ */
 public class CSVLoader {
     public static Graph load(String stationFile, String lineFile) throws Exception {
-        Graph g = new Graph();
-
-        // 1. Ler Estações
-        try (BufferedReader br = new BufferedReader(new FileReader(stationFile))) {
-            br.readLine(); // Saltar cabeçalho
-            String line;
-            while ((line = br.readLine()) != null) {
-                String[] p = line.split(",");
-
-                // Proteção contra linhas vazias
-                if (p.length < 6) continue;
-
-                try {
-                    int id = Integer.parseInt(p[0].trim());
-                    String name = p[1].trim();
-
-                    // --- AQUI ESTAVA O ERRO ---
-                    // O ficheiro tem: ID, Nome, PAÍS, Lat, Lon...
-                    // O índice 2 é "FR" ou "PT". Temos de ler a Latitude no índice 3!
-
-                    // Se o seu ficheiro tem país na coluna 2:
-                    // String country = p[2].trim();
-                    double lat = Double.parseDouble(p[3].trim()); // <--- MUDADO DE 2 PARA 3
-                    double lon = Double.parseDouble(p[4].trim()); // <--- MUDADO DE 3 PARA 4
-
-                    // Nota: Se o ficheiro tiver ainda mais colunas, ajuste CoordX/Y também.
-                    // Se as coordenadas X/Y vierem a seguir, serão 5 e 6?
-                    // Verifique se o ficheiro tem X e Y. Se não tiver, calcule ou ponha 0.
-
-                    // Assumindo que o ficheiro é: ID,Name,Country,Lat,Lon,CoordX,CoordY
-                    double x = 0;
-                    double y = 0;
-                    if (p.length > 5) x = Double.parseDouble(p[5].trim());
-                    if (p.length > 6) y = Double.parseDouble(p[6].trim());
+        return toGraph(RailwayCsvData.load(stationFile, lineFile));
+    }
 
-                    g.addStation(new Station(id, name, lat, lon, x, y));
+    /**
+     * Builds the graph of already loaded CSV data.
+     *
+     * @param data The parsed stations and lines.
+     * @return The graph.
+     */
+    public static Graph toGraph(RailwayCsvData data) {
+        Graph g = new Graph();
 
-                } catch (NumberFormatException e) {
-                    // Isto vai ignorar o erro do "FR" e continuar a ler as outras
-                    System.out.println("⚠️ Ignorada linha inválida (parse error): " + line);
-                }
+        // 1. Estações (as colunas Lat/Lon são resolvidas pelo cabeçalho do ficheiro)
+        int skipped = 0;
+        for (int i = 0; i < data.stationCount(); i++) {
+            if (Double.isNaN(data.latitude(i)) || Double.isNaN(data.longitude(i))) {
+                skipped++;
+                continue;
             }
+            double x = Double.isNaN(data.coordX(i)) ? 0 : data.coordX(i);
+            double y = Double.isNaN(data.coordY(i)) ? 0 : data.coordY(i);
+            g.addStation(new Station(data.stationId(i), data.stationName(i), data.latitude(i), data.longitude(i), x, y));
         }
-
-        // 2. Read Connections (Lines)
-        try (BufferedReader br = new BufferedReader(new FileReader(lineFile))) {
-            br.readLine(); // Skip header
-            String line;
-            int count = 0;
-            while ((line = br.readLine()) != null) {
-                if (line.trim().isEmpty()) continue; // Skip empty lines
-
-                String[] p = line.split(",");
-                if (p.length < 5) continue; // Safety check for incomplete lines
-
-                try {
-                    int u = Integer.parseInt(p[0].trim());
-                    int v = Integer.parseInt(p[1].trim());
-                    double dist = Double.parseDouble(p[2].trim());
-                    double cost = Double.parseDouble(p[4].trim());
-
-                    // AQUI É ONDE TUDO ACONTECE:
-                    // 1. Adiciona ao Grafo (para outras US)
-                    g.addEdge(u, v, dist, cost);
-
-                    // 2. IMPORTANTE PARA A USEI11:
-                    // Devemos também guardar isto no Repositório ou no UpgradeService diretamente
-                    // para que a Opção 19 veja os 311 segmentos e não apenas 38.
-                    // Exemplo:
-                    // SegmentoRepo.save(new LineSegment(u, v, dist, cost));
-
-                    count++;
-                } catch (NumberFormatException e) {
-                    System.err.println("Skipping malformed line: " + line);
-                }
-            }
-            System.out.println("Total lines loaded into memory: " + count);
+        if (skipped > 0) System.out.println("⚠️ Ignoradas " + skipped + " estações sem coordenadas válidas");
+
+        // 2. Connections (Lines): only the direction given in the file, and only lines with a cost
+        int count = 0;
+        for (int i = 0; i < data.lineCount(); i++) {
+            if (Double.isNaN(data.lineCost(i))) continue;
+            g.addEdge(data.lineFrom(i), data.lineTo(i), data.lineDistance(i), data.lineCost(i));
+            count++;
         }
+        System.out.println("Total lines loaded into memory: " + count);
         return g;
     }
-}
\ No newline at end of file
+}
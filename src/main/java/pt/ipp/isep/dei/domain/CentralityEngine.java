@@ -0,0 +1,55 @@
+package pt.ipp.isep.dei.domain;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Computes every centrality used by the hub score (USEI13) in a single sweep.
+ * <p>
+ * {@link HarmonicCloseness} and {@link Betweenness} each run one shortest-path search
+ * per vertex, so running both does all-pairs shortest paths twice. Here every
+ * single-source Brandes pass also yields the harmonic closeness of its source (the
+ * settled distances are already there), and degree/strength come straight from the
+ * CSR offsets. Sources are processed in parallel and {@link StationMetrics} is written
+ * once at the end.
+ */
+public class CentralityEngine {
+
+    /**
+     * Fills degree, strength, betweenness and harmonic closeness of every station.
+     * Call {@link HubScoreCalculator#compute(Graph)} afterwards to normalise and score.
+     *
+     * @param g The graph.
+     */
+    public static void compute(Graph g) {
+        compute(g, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Same as {@link #compute(Graph)} on a caller-provided pool.
+     *
+     * @param g The graph.
+     * @param pool The pool that runs the per-source passes.
+     */
+    public static void compute(Graph g, ForkJoinPool pool) {
+        CSRGraph csr = g.csr();
+        int n = csr.vertexCount();
+        int[] offsets = csr.offsets();
+        double[] weight = csr.weight();
+
+        double[] harmonic = new double[n];
+        double[] betweenness = Betweenness.brandes(csr, pool, harmonic);
+
+        for (int v = 0; v < n; v++) {
+            double strength = 0.0;
+            for (int e = offsets[v]; e < offsets[v + 1]; e++) strength += weight[e];
+
+            StationMetrics m = csr.metrics(v);
+            m.degree = offsets[v + 1] - offsets[v];
+            m.strength = strength;
+            m.betweenness = betweenness[v];
+            m.betweennessError = 0.0;
+            m.harmonicCloseness = harmonic[v];
+            m.harmonicClosenessError = 0.0;
+        }
+    }
+}
@@ -0,0 +1,385 @@
+package pt.ipp.isep.dei.domain;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reachability index of one {@link RoutingGraph} snapshot, built once and then shared by every
+ * query on that network version.
+ * <ul>
+ *     <li>Undirected reachability: union-find component labels, with the members of each
+ *     component stored contiguously (ascending id).</li>
+ *     <li>Directed reachability: strongly connected components (Tarjan) and, for each of
+ *     them, a bitset of the components it reaches in the condensation DAG. Above
+ *     {@link #MAX_CLOSURE_COMPONENTS} components the bitsets are not built and directed
+ *     queries walk the condensation instead.</li>
+ *     <li>Per-station neighbour list (either direction, no duplicates, ascending id).</li>
+ * </ul>
+ * "Is B reachable from A" is O(1); listing the reachable stations is O(output) (plus one
+ * bitset scan, C / 64 words, for directed queries).
+ */
+public final class ConnectivityIndex {
+
+    /** Largest number of strong components whose transitive closure is kept (C^2 / 8 bytes). */
+    public static final int MAX_CLOSURE_COMPONENTS = 8192;
+
+    private final RoutingGraph graph;
+
+    // Componentes (sem sentido): rótulo por vértice e membros agrupados
+    private final int[] component;
+    private final int[] componentOffsets;
+    private final int[] componentMembers;
+
+    // Componentes fortemente ligadas, em ordem topológica inversa (os sumidouros primeiro)
+    private final int[] strong;
+    private final int[] strongOffsets;
+    private final int[] strongMembers;
+    private final int[] dagOffsets;
+    private final int[] dagTargets;
+    private final long[][] closure;
+
+    private final int[] neighbourOffsets;
+    private final int[] neighbours;
+
+    private ConnectivityIndex(RoutingGraph graph) {
+        this.graph = graph;
+        int n = graph.vertexCount();
+
+        this.component = unionFindLabels(graph);
+        int components = n == 0 ? 0 : Arrays.stream(component).max().getAsInt() + 1;
+        this.componentOffsets = new int[components + 1];
+        this.componentMembers = new int[n];
+        group(component, componentOffsets, componentMembers);
+
+        this.strong = tarjanLabels(graph);
+        int strongCount = n == 0 ? 0 : Arrays.stream(strong).max().getAsInt() + 1;
+        this.strongOffsets = new int[strongCount + 1];
+        this.strongMembers = new int[n];
+        group(strong, strongOffsets, strongMembers);
+
+        this.dagOffsets = new int[strongCount + 1];
+        this.dagTargets = condensation(strongCount);
+        this.closure = strongCount <= MAX_CLOSURE_COMPONENTS ? transitiveClosure(strongCount) : null;
+
+        this.neighbourOffsets = new int[n + 1];
+        this.neighbours = distinctNeighbours();
+    }
+
+    /**
+     * Builds the index of a snapshot.
+     * Time Complexity: O(V + E) plus O(C * E_dag / 64) for the closure bitsets.
+     *
+     * @param graph The routing graph.
+     * @return The index.
+     */
+    public static ConnectivityIndex build(RoutingGraph graph) {
+        return new ConnectivityIndex(graph);
+    }
+
+    /** @return The routing graph (network version) this index belongs to. */
+    public RoutingGraph graph() { return graph; }
+
+    /** @return The number of connected components, ignoring segment direction. */
+    public int componentCount() { return componentOffsets.length - 1; }
+
+    /** @return The number of strongly connected components. */
+    public int strongComponentCount() { return strongOffsets.length - 1; }
+
+    /**
+     * Whether two facilities are linked by segments in either direction.
+     *
+     * @return false if either facility has no segment.
+     */
+    public boolean connected(int fromId, int toId) {
+        int a = graph.indexOf(fromId), b = graph.indexOf(toId);
+        return a >= 0 && b >= 0 && component[a] == component[b];
+    }
+
+    /**
+     * Whether {@code toId} can be reached from {@code fromId} following segment direction.
+     *
+     * @return false if either facility has no segment.
+     */
+    public boolean reachable(int fromId, int toId) {
+        int a = graph.indexOf(fromId), b = graph.indexOf(toId);
+        if (a < 0 || b < 0) return false;
+        int ca = strong[a], cb = strong[b];
+        if (ca == cb) return true;
+        // Na ordem de Tarjan as componentes alcançáveis têm sempre rótulo menor
+        if (cb > ca) return false;
+        if (closure != null) return (closure[ca][cb >>> 6] & (1L << cb)) != 0;
+        boolean[] seen = walkCondensation(ca);
+        return seen[cb];
+    }
+
+    /**
+     * Facilities linked to the start one in either direction.
+     *
+     * @return The facility ids (ascending), excluding the start one; empty if it has no segment.
+     */
+    public List<Integer> connectedTo(int startId) {
+        int s = graph.indexOf(startId);
+        if (s < 0) return new ArrayList<>();
+        int c = component[s];
+        List<Integer> result = new ArrayList<>(componentOffsets[c + 1] - componentOffsets[c] - 1);
+        for (int i = componentOffsets[c]; i < componentOffsets[c + 1]; i++) {
+            int v = componentMembers[i];
+            if (v != s) result.add(graph.facilityId(v));
+        }
+        return result;
+    }
+
+    /**
+     * Facilities reachable from the start one following segment direction.
+     *
+     * @return The facility ids, excluding the start one; empty if it has no segment.
+     */
+    public List<Integer> reachableFrom(int startId) {
+        int s = graph.indexOf(startId);
+        if (s < 0) return new ArrayList<>();
+        List<Integer> result = new ArrayList<>();
+        int cs = strong[s];
+        if (closure != null) {
+            long[] bits = closure[cs];
+            for (int w = 0; w < bits.length; w++) {
+                for (long word = bits[w]; word != 0; word &= word - 1) {
+                    addMembers((w << 6) + Long.numberOfTrailingZeros(word), s, result);
+                }
+            }
+        } else {
+            boolean[] seen = walkCondensation(cs);
+            for (int c = 0; c <= cs; c++) {
+                if (seen[c]) addMembers(c, s, result);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Facilities sharing a segment with the given one (in either direction).
+     *
+     * @return The facility ids (ascending, no duplicates, never the facility itself).
+     */
+    public List<Integer> neighbours(int facilityId) {
+        int v = graph.indexOf(facilityId);
+        if (v < 0) return new ArrayList<>();
+        List<Integer> result = new ArrayList<>(neighbourOffsets[v + 1] - neighbourOffsets[v]);
+        for (int i = neighbourOffsets[v]; i < neighbourOffsets[v + 1]; i++) result.add(graph.facilityId(neighbours[i]));
+        return result;
+    }
+
+    private void addMembers(int strongComponent, int exclude, List<Integer> out) {
+        for (int i = strongOffsets[strongComponent]; i < strongOffsets[strongComponent + 1]; i++) {
+            int v = strongMembers[i];
+            if (v != exclude) out.add(graph.facilityId(v));
+        }
+    }
+
+    /**
+     * Components reachable from {@code start} in the condensation (used without closure bitsets).
+     */
+    private boolean[] walkCondensation(int start) {
+        boolean[] seen = new boolean[strongCount()];
+        int[] stack = new int[seen.length];
+        int top = 0;
+        stack[top++] = start;
+        seen[start] = true;
+        while (top > 0) {
+            int c = stack[--top];
+            for (int i = dagOffsets[c]; i < dagOffsets[c + 1]; i++) {
+                int d = dagTargets[i];
+                if (!seen[d]) {
+                    seen[d] = true;
+                    stack[top++] = d;
+                }
+            }
+        }
+        return seen;
+    }
+
+    private int strongCount() { return strongOffsets.length - 1; }
+
+    /**
+     * Union-find (union by size, path halving) over the segments; labels renumbered 0..c-1
+     * in order of their smallest vertex.
+     */
+    private static int[] unionFindLabels(RoutingGraph graph) {
+        int n = graph.vertexCount();
+        int[] parent = new int[n];
+        int[] size = new int[n];
+        for (int v = 0; v < n; v++) {
+            parent[v] = v;
+            size[v] = 1;
+        }
+        int[] offsets = graph.offsets();
+        int[] targets = graph.targets();
+        for (int u = 0; u < n; u++) {
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                int a = find(parent, u), b = find(parent, targets[e]);
+                if (a == b) continue;
+                if (size[a] < size[b]) { int t = a; a = b; b = t; }
+                parent[b] = a;
+                size[a] += size[b];
+            }
+        }
+
+        int[] label = new int[n];
+        int[] labelOfRoot = new int[n];
+        Arrays.fill(labelOfRoot, -1);
+        int next = 0;
+        for (int v = 0; v < n; v++) {
+            int root = find(parent, v);
+            if (labelOfRoot[root] < 0) labelOfRoot[root] = next++;
+            label[v] = labelOfRoot[root];
+        }
+        return label;
+    }
+
+    private static int find(int[] parent, int v) {
+        while (parent[v] != v) {
+            parent[v] = parent[parent[v]];
+            v = parent[v];
+        }
+        return v;
+    }
+
+    /**
+     * Iterative Tarjan: labels are given as components complete, i.e. in reverse
+     * topological order of the condensation.
+     */
+    private static int[] tarjanLabels(RoutingGraph graph) {
+        int n = graph.vertexCount();
+        int[] offsets = graph.offsets();
+        int[] targets = graph.targets();
+        int[] index = new int[n];
+        int[] low = new int[n];
+        int[] label = new int[n];
+        boolean[] onStack = new boolean[n];
+        int[] stack = new int[n];
+        int[] callStack = new int[n];
+        int[] nextEdge = new int[n];
+        Arrays.fill(index, -1);
+        int counter = 0, top = 0, components = 0;
+
+        for (int root = 0; root < n; root++) {
+            if (index[root] >= 0) continue;
+            int depth = 0;
+            callStack[depth++] = root;
+            index[root] = low[root] = counter++;
+            nextEdge[root] = offsets[root];
+            stack[top++] = root;
+            onStack[root] = true;
+
+            while (depth > 0) {
+                int u = callStack[depth - 1];
+                if (nextEdge[u] < offsets[u + 1]) {
+                    int w = targets[nextEdge[u]++];
+                    if (index[w] < 0) {
+                        index[w] = low[w] = counter++;
+                        nextEdge[w] = offsets[w];
+                        stack[top++] = w;
+                        onStack[w] = true;
+                        callStack[depth++] = w;
+                    } else if (onStack[w]) {
+                        low[u] = Math.min(low[u], index[w]);
+                    }
+                    continue;
+                }
+                depth--;
+                if (depth > 0) {
+                    int parent = callStack[depth - 1];
+                    low[parent] = Math.min(low[parent], low[u]);
+                }
+                if (low[u] == index[u]) {
+                    int w;
+                    do {
+                        w = stack[--top];
+                        onStack[w] = false;
+                        label[w] = components;
+                    } while (w != u);
+                    components++;
+                }
+            }
+        }
+        return label;
+    }
+
+    /**
+     * Groups vertices by label into offsets/members (members keep ascending vertex order).
+     */
+    private static void group(int[] label, int[] offsets, int[] members) {
+        for (int l : label) offsets[l + 1]++;
+        for (int c = 0; c + 1 < offsets.length; c++) offsets[c + 1] += offsets[c];
+        int[] next = Arrays.copyOf(offsets, offsets.length - 1);
+        for (int v = 0; v < label.length; v++) members[next[label[v]]++] = v;
+    }
+
+    /**
+     * Distinct edges between strong components (fills {@link #dagOffsets}).
+     */
+    private int[] condensation(int strongCount) {
+        int[] offsets = graph.offsets();
+        int[] targets = graph.targets();
+        int[] mark = new int[strongCount];
+        Arrays.fill(mark, -1);
+        int[] buffer = new int[graph.edgeCount()];
+        int size = 0;
+        for (int c = 0; c < strongCount; c++) {
+            for (int i = strongOffsets[c]; i < strongOffsets[c + 1]; i++) {
+                int u = strongMembers[i];
+                for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                    int d = strong[targets[e]];
+                    if (d != c && mark[d] != c) {
+                        mark[d] = c;
+                        buffer[size++] = d;
+                    }
+                }
+            }
+            dagOffsets[c + 1] = size;
+        }
+        return Arrays.copyOf(buffer, size);
+    }
+
+    /**
+     * Reachable-component bitsets, filled sinks first (successors always have smaller labels).
+     */
+    private long[][] transitiveClosure(int strongCount) {
+        int words = (strongCount + 63) >>> 6;
+        long[][] reach = new long[strongCount][words];
+        for (int c = 0; c < strongCount; c++) {
+            long[] bits = reach[c];
+            bits[c >>> 6] |= 1L << c;
+            for (int i = dagOffsets[c]; i < dagOffsets[c + 1]; i++) {
+                long[] other = reach[dagTargets[i]];
+                for (int w = 0; w < words; w++) bits[w] |= other[w];
+            }
+        }
+        return reach;
+    }
+
+    /**
+     * Undirected neighbour lists without duplicates or self-loops (fills {@link #neighbourOffsets}).
+     */
+    private int[] distinctNeighbours() {
+        int n = graph.vertexCount();
+        int[] linkOffsets = graph.linkOffsets();
+        int[] links = graph.links();
+        int[] out = new int[links.length];
+        int size = 0;
+        for (int v = 0; v < n; v++) {
+            int from = size;
+            for (int i = linkOffsets[v]; i < linkOffsets[v + 1]; i++) {
+                if (links[i] != v) out[size++] = links[i];
+            }
+            Arrays.sort(out, from, size);
+            int unique = from;
+            for (int i = from; i < size; i++) {
+                if (unique == from || out[unique - 1] != out[i]) out[unique++] = out[i];
+            }
+            size = unique;
+            neighbourOffsets[v + 1] = size;
+        }
+        return Arrays.copyOf(out, size);
+    }
+}
@@ -0,0 +1,518 @@
+package pt.ipp.isep.dei.domain;
+
+import java.lang.ref.WeakReference;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Contraction hierarchy over a {@link RoutingGraph}, keyed by the travel times at one speed cap.
+ * <p>
+ * Preprocessing contracts the facilities one by one (cheapest edge difference first, with lazy
+ * priority updates) and adds a shortcut {@code u -> x} through the contracted {@code v} whenever
+ * a bounded witness search finds no path of equal or lower time that avoids {@code v}.
+ * Every arc then points up or down the contraction order, and a point-to-point query is a
+ * bidirectional Dijkstra that only follows upward arcs from both ends. Shortcuts remember the
+ * two arcs they replace, so the result unpacks into the original segments.
+ * <p>
+ * A hierarchy is only valid for the graph it was built from (see {@link #matches}).
+ */
+public final class ContractionHierarchy {
+
+    private static final int FILE_MAGIC = 0x43484731; // "CHG1"
+
+    // Witness searches give up after settling this many vertices (extra shortcuts are harmless)
+    private static final int WITNESS_SETTLE_LIMIT = 64;
+
+    private static final ThreadLocal<Query> QUERIES = new ThreadLocal<>();
+
+    private final long graphFingerprint;
+    private final double speedCap;
+    private final int[] rank;
+
+    // Arc table: tail -> head with time; original edge index, or the two arcs a shortcut replaces
+    private final int[] arcTail;
+    private final int[] arcHead;
+    private final double[] arcTime;
+    private final int[] arcEdge;
+    private final int[] arcFirst;
+    private final int[] arcSecond;
+
+    // Upward arcs leaving v: upArcs[upOffsets[v] .. upOffsets[v+1])
+    private final int[] upOffsets;
+    private final int[] upArcs;
+    // Arcs entering v from a higher vertex: downArcs[downOffsets[v] .. downOffsets[v+1])
+    private final int[] downOffsets;
+    private final int[] downArcs;
+
+    private ContractionHierarchy(long graphFingerprint, double speedCap, int[] rank, int[] arcTail, int[] arcHead,
+                                 double[] arcTime, int[] arcEdge, int[] arcFirst, int[] arcSecond) {
+        this.graphFingerprint = graphFingerprint;
+        this.speedCap = speedCap;
+        this.rank = rank;
+        this.arcTail = arcTail;
+        this.arcHead = arcHead;
+        this.arcTime = arcTime;
+        this.arcEdge = arcEdge;
+        this.arcFirst = arcFirst;
+        this.arcSecond = arcSecond;
+
+        int n = rank.length;
+        this.upOffsets = new int[n + 1];
+        this.downOffsets = new int[n + 1];
+        for (int a = 0; a < arcTail.length; a++) {
+            if (rank[arcTail[a]] < rank[arcHead[a]]) upOffsets[arcTail[a] + 1]++;
+            else downOffsets[arcHead[a] + 1]++;
+        }
+        for (int v = 0; v < n; v++) {
+            upOffsets[v + 1] += upOffsets[v];
+            downOffsets[v + 1] += downOffsets[v];
+        }
+        this.upArcs = new int[upOffsets[n]];
+        this.downArcs = new int[downOffsets[n]];
+        int[] nextUp = Arrays.copyOf(upOffsets, n);
+        int[] nextDown = Arrays.copyOf(downOffsets, n);
+        for (int a = 0; a < arcTail.length; a++) {
+            if (rank[arcTail[a]] < rank[arcHead[a]]) upArcs[nextUp[arcTail[a]]++] = a;
+            else downArcs[nextDown[arcHead[a]]++] = a;
+        }
+    }
+
+    /**
+     * Contracts the graph using the travel times at {@code speedCap}.
+     *
+     * @param graph The routing graph.
+     * @param speedCap The maximum speed in km/h.
+     * @return The hierarchy.
+     */
+    public static ContractionHierarchy build(RoutingGraph graph, double speedCap) {
+        return new Builder(graph, graph.travelTimes(speedCap)).contract(graph.fingerprint(), speedCap);
+    }
+
+    /**
+     * @return true if this hierarchy was built from a graph with the same content and speed cap.
+     */
+    public boolean matches(RoutingGraph graph, double speedCap) {
+        return graphFingerprint == graph.fingerprint() && Double.compare(this.speedCap, speedCap) == 0
+                && rank.length == graph.vertexCount();
+    }
+
+    /** @return The speed cap (km/h) the travel times were computed with. */
+    public double speedCap() { return speedCap; }
+
+    /** @return The number of arcs, original and shortcut. */
+    public int arcCount() { return arcTail.length; }
+
+    /**
+     * Fastest path between two facilities (bidirectional upward search, then shortcut unpacking).
+     *
+     * @param graph The graph this hierarchy was built from.
+     * @param fromId The departure facility id.
+     * @param toId The arrival facility id.
+     * @return The fastest path, or null if either facility is unknown or no path exists.
+     */
+    public RailwayPath fastestPath(RoutingGraph graph, int fromId, int toId) {
+        int s = graph.indexOf(fromId);
+        int t = graph.indexOf(toId);
+        if (s < 0 || t < 0) return null;
+
+        Query query = QUERIES.get();
+        if (query == null || query.hierarchy.get() != this) {
+            query = new Query(this);
+            QUERIES.set(query);
+        }
+        int meet = query.run(s, t);
+        if (meet < 0) return null;
+
+        List<Integer> arcs = new ArrayList<>();
+        for (int v = meet; v != s; v = arcTail[query.forward.predArc[v]]) arcs.add(query.forward.predArc[v]);
+        Collections.reverse(arcs);
+        for (int v = meet; v != t; v = arcHead[query.backward.predArc[v]]) arcs.add(query.backward.predArc[v]);
+
+        List<LineSegment> path = new ArrayList<>();
+        for (int a : arcs) unpack(a, graph, path);
+        double totalDistance = 0;
+        for (LineSegment seg : path) totalDistance += seg.getComprimento();
+        return new RailwayPath(path, totalDistance, query.forward.dist[meet] + query.backward.dist[meet]);
+    }
+
+    private void unpack(int arc, RoutingGraph graph, List<LineSegment> out) {
+        if (arcEdge[arc] >= 0) {
+            out.add(graph.segment(arcEdge[arc]));
+        } else {
+            unpack(arcFirst[arc], graph, out);
+            unpack(arcSecond[arc], graph, out);
+        }
+    }
+
+    /**
+     * Writes the hierarchy to a file (written to a temporary sibling first, then moved).
+     *
+     * @param file The destination file.
+     * @throws IOException If the file cannot be written.
+     */
+    public void save(Path file) throws IOException {
+        if (file.getParent() != null) Files.createDirectories(file.getParent());
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeInt(FILE_MAGIC);
+            out.writeLong(graphFingerprint);
+            out.writeDouble(speedCap);
+            out.writeInt(rank.length);
+            for (int r : rank) out.writeInt(r);
+            out.writeInt(arcTail.length);
+            for (int a = 0; a < arcTail.length; a++) {
+                out.writeInt(arcTail[a]);
+                out.writeInt(arcHead[a]);
+                out.writeDouble(arcTime[a]);
+                out.writeInt(arcEdge[a]);
+                out.writeInt(arcFirst[a]);
+                out.writeInt(arcSecond[a]);
+            }
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Reads a hierarchy written by {@link #save}.
+     *
+     * @param file The file.
+     * @param graph The graph the hierarchy must belong to.
+     * @param speedCap The speed cap the hierarchy must have been built with.
+     * @return The hierarchy, or null if the file belongs to another graph or speed cap.
+     * @throws IOException If the file cannot be read or is corrupt.
+     */
+    public static ContractionHierarchy load(Path file, RoutingGraph graph, double speedCap) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != FILE_MAGIC) throw new IOException("Not a contraction hierarchy file: " + file);
+            long fingerprint = in.readLong();
+            double cap = in.readDouble();
+            int n = in.readInt();
+            if (fingerprint != graph.fingerprint() || Double.compare(cap, speedCap) != 0 || n != graph.vertexCount()) {
+                return null;
+            }
+            int[] rank = new int[n];
+            for (int v = 0; v < n; v++) rank[v] = in.readInt();
+            int m = in.readInt();
+            int[] tail = new int[m], head = new int[m], edge = new int[m], first = new int[m], second = new int[m];
+            double[] time = new double[m];
+            for (int a = 0; a < m; a++) {
+                tail[a] = in.readInt();
+                head[a] = in.readInt();
+                time[a] = in.readDouble();
+                edge[a] = in.readInt();
+                first[a] = in.readInt();
+                second[a] = in.readInt();
+            }
+            return new ContractionHierarchy(fingerprint, cap, rank, tail, head, time, edge, first, second);
+        }
+    }
+
+    /**
+     * Mutable state of the contraction: a growable arc table with per-vertex in/out arc lists.
+     */
+    private static final class Builder {
+        private final int n;
+        private final boolean[] contracted;
+        private final int[] contractedNeighbours;
+
+        private int arcCount;
+        private int[] tail = new int[16], head = new int[16], edge = new int[16], first = new int[16], second = new int[16];
+        private double[] time = new double[16];
+
+        private final int[][] out;
+        private final int[] outSize;
+        private final int[][] in;
+        private final int[] inSize;
+
+        // Witness search state, reset through the touched list
+        private final double[] witnessDist;
+        private final int[] touched;
+        private int touchedCount;
+        private final IndexedDaryHeap heap;
+
+        Builder(RoutingGraph graph, double[] travelTime) {
+            this.n = graph.vertexCount();
+            this.contracted = new boolean[n];
+            this.contractedNeighbours = new int[n];
+            this.out = new int[n][];
+            this.outSize = new int[n];
+            this.in = new int[n][];
+            this.inSize = new int[n];
+            for (int v = 0; v < n; v++) {
+                out[v] = new int[4];
+                in[v] = new int[4];
+            }
+            this.witnessDist = new double[n];
+            Arrays.fill(witnessDist, Double.POSITIVE_INFINITY);
+            this.touched = new int[n];
+            this.heap = new IndexedDaryHeap(n);
+
+            int[] offsets = graph.offsets();
+            int[] targets = graph.targets();
+            for (int u = 0; u < n; u++) {
+                for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                    int v = targets[e];
+                    if (v == u || travelTime[e] == Double.POSITIVE_INFINITY) continue;
+                    int existing = findArc(u, v);
+                    if (existing < 0) {
+                        addArc(u, v, travelTime[e], e, -1, -1);
+                    } else if (travelTime[e] < time[existing]) {
+                        time[existing] = travelTime[e];
+                        edge[existing] = e;
+                    }
+                }
+            }
+        }
+
+        ContractionHierarchy contract(long fingerprint, double speedCap) {
+            int[] rank = new int[n];
+            IndexedDaryHeap order = new IndexedDaryHeap(n);
+            for (int v = 0; v < n; v++) order.insert(v, priority(v));
+
+            int next = 0;
+            while (!order.isEmpty()) {
+                int v = order.poll();
+                // Lazy update: re-evaluate and postpone if it is no longer the cheapest
+                double p = priority(v);
+                if (!order.isEmpty() && p > order.peekKey()) {
+                    order.insert(v, p);
+                    continue;
+                }
+                contractVertex(v, true);
+                contracted[v] = true;
+                rank[v] = next++;
+            }
+
+            return new ContractionHierarchy(fingerprint, speedCap, rank,
+                    Arrays.copyOf(tail, arcCount), Arrays.copyOf(head, arcCount), Arrays.copyOf(time, arcCount),
+                    Arrays.copyOf(edge, arcCount), Arrays.copyOf(first, arcCount), Arrays.copyOf(second, arcCount));
+        }
+
+        private double priority(int v) {
+            int removed = 0;
+            for (int i = 0; i < inSize[v]; i++) if (!contracted[tail[in[v][i]]]) removed++;
+            for (int i = 0; i < outSize[v]; i++) if (!contracted[head[out[v][i]]]) removed++;
+            int shortcuts = contractVertex(v, false);
+            return (shortcuts - removed) + contractedNeighbours[v];
+        }
+
+        /**
+         * Finds the shortcuts needed to contract {@code v}; adds them if {@code apply}.
+         *
+         * @return The number of shortcuts needed.
+         */
+        private int contractVertex(int v, boolean apply) {
+            int shortcuts = 0;
+            for (int i = 0; i < inSize[v]; i++) {
+                int inArc = in[v][i];
+                int u = tail[inArc];
+                if (contracted[u]) continue;
+
+                double maxVia = 0;
+                for (int j = 0; j < outSize[v]; j++) {
+                    int x = head[out[v][j]];
+                    if (!contracted[x] && x != u) maxVia = Math.max(maxVia, time[inArc] + time[out[v][j]]);
+                }
+                if (maxVia == 0) continue;
+
+                witnessSearch(u, v, maxVia);
+                for (int j = 0; j < outSize[v]; j++) {
+                    int outArc = out[v][j];
+                    int x = head[outArc];
+                    if (contracted[x] || x == u) continue;
+                    double via = time[inArc] + time[outArc];
+                    if (witnessDist[x] <= via) continue;
+                    shortcuts++;
+                    if (apply) addShortcut(u, x, via, inArc, outArc);
+                }
+                clearWitness();
+            }
+            if (apply) {
+                for (int i = 0; i < inSize[v]; i++) contractedNeighbours[tail[in[v][i]]]++;
+                for (int i = 0; i < outSize[v]; i++) contractedNeighbours[head[out[v][i]]]++;
+            }
+            return shortcuts;
+        }
+
+        private void witnessSearch(int source, int skip, double limit) {
+            witnessDist[source] = 0.0;
+            touched[touchedCount++] = source;
+            heap.insert(source, 0.0);
+            int settled = 0;
+            while (!heap.isEmpty() && settled < WITNESS_SETTLE_LIMIT) {
+                if (heap.peekKey() > limit) break;
+                int u = heap.poll();
+                settled++;
+                double du = witnessDist[u];
+                for (int i = 0; i < outSize[u]; i++) {
+                    int arc = out[u][i];
+                    int w = head[arc];
+                    if (w == skip || contracted[w]) continue;
+                    double nd = du + time[arc];
+                    if (nd < witnessDist[w]) {
+                        if (witnessDist[w] == Double.POSITIVE_INFINITY) touched[touchedCount++] = w;
+                        witnessDist[w] = nd;
+                        heap.insertOrDecrease(w, nd);
+                    }
+                }
+            }
+            heap.clear();
+        }
+
+        private void clearWitness() {
+            for (int i = 0; i < touchedCount; i++) witnessDist[touched[i]] = Double.POSITIVE_INFINITY;
+            touchedCount = 0;
+        }
+
+        private void addShortcut(int u, int x, double via, int firstArc, int secondArc) {
+            int existing = findArc(u, x);
+            if (existing < 0) {
+                addArc(u, x, via, -1, firstArc, secondArc);
+            } else if (via < time[existing]) {
+                // Both ends are uncontracted, so no shortcut references this arc yet
+                time[existing] = via;
+                edge[existing] = -1;
+                first[existing] = firstArc;
+                second[existing] = secondArc;
+            }
+        }
+
+        private int findArc(int u, int v) {
+            for (int i = 0; i < outSize[u]; i++) if (head[out[u][i]] == v) return out[u][i];
+            return -1;
+        }
+
+        private void addArc(int u, int v, double t, int e, int a1, int a2) {
+            if (arcCount == tail.length) {
+                int cap = arcCount * 2;
+                tail = Arrays.copyOf(tail, cap);
+                head = Arrays.copyOf(head, cap);
+                time = Arrays.copyOf(time, cap);
+                edge = Arrays.copyOf(edge, cap);
+                first = Arrays.copyOf(first, cap);
+                second = Arrays.copyOf(second, cap);
+            }
+            int a = arcCount++;
+            tail[a] = u;
+            head[a] = v;
+            time[a] = t;
+            edge[a] = e;
+            first[a] = a1;
+            second[a] = a2;
+            if (outSize[u] == out[u].length) out[u] = Arrays.copyOf(out[u], outSize[u] * 2);
+            out[u][outSize[u]++] = a;
+            if (inSize[v] == in[v].length) in[v] = Arrays.copyOf(in[v], inSize[v] * 2);
+            in[v][inSize[v]++] = a;
+        }
+    }
+
+    /**
+     * Per-thread state of a bidirectional upward query over one hierarchy. The hierarchy is
+     * referenced weakly, so a thread's state does not keep a replaced one alive.
+     */
+    private static final class Query {
+        private final WeakReference<ContractionHierarchy> hierarchy;
+        private final Side forward;
+        private final Side backward;
+
+        Query(ContractionHierarchy hierarchy) {
+            this.hierarchy = new WeakReference<>(hierarchy);
+            this.forward = new Side(hierarchy.rank.length);
+            this.backward = new Side(hierarchy.rank.length);
+        }
+
+        private ContractionHierarchy hierarchy() {
+            ContractionHierarchy ch = hierarchy.get();
+            if (ch == null) throw new IllegalStateException("The query's hierarchy is no longer in use.");
+            return ch;
+        }
+
+        /** @return The meeting vertex of the fastest path, or -1 if there is none. */
+        int run(int s, int t) {
+            forward.start(s);
+            backward.start(t);
+            double best = Double.POSITIVE_INFINITY;
+            int meet = -1;
+            if (s == t) {
+                best = 0.0;
+                meet = s;
+            }
+
+            ContractionHierarchy ch = hierarchy();
+            while (!forward.heap.isEmpty() || !backward.heap.isEmpty()) {
+                double fKey = forward.heap.isEmpty() ? Double.POSITIVE_INFINITY : forward.heap.peekKey();
+                double bKey = backward.heap.isEmpty() ? Double.POSITIVE_INFINITY : backward.heap.peekKey();
+                if (Math.min(fKey, bKey) >= best) break;
+
+                boolean isForward = fKey <= bKey;
+                Side side = isForward ? forward : backward;
+                Side other = isForward ? backward : forward;
+                int u = side.heap.poll();
+                double du = side.dist[u];
+
+                if (other.dist[u] != Double.POSITIVE_INFINITY && du + other.dist[u] < best) {
+                    best = du + other.dist[u];
+                    meet = u;
+                }
+
+                int[] offsets = isForward ? ch.upOffsets : ch.downOffsets;
+                int[] arcs = isForward ? ch.upArcs : ch.downArcs;
+                for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+                    int a = arcs[i];
+                    int w = isForward ? ch.arcHead[a] : ch.arcTail[a];
+                    side.relax(w, du + ch.arcTime[a], a);
+                }
+            }
+            forward.heap.clear();
+            backward.heap.clear();
+            return meet;
+        }
+    }
+
+    private static final class Side {
+        private final double[] dist;
+        private final int[] predArc;
+        private final IndexedDaryHeap heap;
+        private final int[] touched;
+        private int touchedCount;
+
+        Side(int n) {
+            this.dist = new double[n];
+            this.predArc = new int[n];
+            this.heap = new IndexedDaryHeap(n);
+            this.touched = new int[n];
+            Arrays.fill(dist, Double.POSITIVE_INFINITY);
+            Arrays.fill(predArc, -1);
+        }
+
+        void start(int src) {
+            for (int i = 0; i < touchedCount; i++) {
+                dist[touched[i]] = Double.POSITIVE_INFINITY;
+                predArc[touched[i]] = -1;
+            }
+            touchedCount = 0;
+            touched[touchedCount++] = src;
+            dist[src] = 0.0;
+            heap.insert(src, 0.0);
+        }
+
+        void relax(int v, double nd, int arc) {
+            if (nd < dist[v]) {
+                if (dist[v] == Double.POSITIVE_INFINITY) touched[touchedCount++] = v;
+                dist[v] = nd;
+                predArc[v] = arc;
+                heap.insertOrDecrease(v, nd);
+            }
+        }
+    }
+}
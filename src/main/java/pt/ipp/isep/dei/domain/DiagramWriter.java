@@ -0,0 +1,134 @@
+package pt.ipp.isep.dei.domain;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Streaming writer for the DOT and SVG network diagrams.
+ * <p>
+ * Everything goes through one large buffered writer, and numbers are written with a fixed
+ * number of decimals and a dot separator whatever the default locale (no {@code printf}),
+ * so a diagram of V stations and E connections is written in one O(V + E) pass. The SVG
+ * drawing uses the coordinates it is given; no layout engine (Graphviz) is needed.
+ */
+final class DiagramWriter implements Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final Writer out;
+
+    private DiagramWriter(Writer out) {
+        this.out = out;
+    }
+
+    /**
+     * Opens (or replaces) a diagram file.
+     *
+     * @param file The file path.
+     * @return The writer.
+     * @throws IOException If the file cannot be created.
+     */
+    static DiagramWriter open(String file) throws IOException {
+        return new DiagramWriter(new BufferedWriter(
+                new OutputStreamWriter(Files.newOutputStream(Path.of(file)), StandardCharsets.UTF_8), BUFFER_SIZE));
+    }
+
+    DiagramWriter text(String s) throws IOException {
+        out.write(s);
+        return this;
+    }
+
+    DiagramWriter number(long value) throws IOException {
+        out.write(Long.toString(value));
+        return this;
+    }
+
+    /**
+     * Writes a number rounded to {@code decimals} places (at most 6).
+     */
+    DiagramWriter number(double value, int decimals) throws IOException {
+        long scale = 1;
+        for (int i = 0; i < decimals; i++) scale *= 10;
+        long scaled = Math.round(Math.abs(value) * scale);
+        if (value < 0 && scaled != 0) out.write('-');
+        out.write(Long.toString(scaled / scale));
+        if (decimals > 0) {
+            out.write('.');
+            String fraction = Long.toString(scaled % scale);
+            for (int i = fraction.length(); i < decimals; i++) out.write('0');
+            out.write(fraction);
+        }
+        return this;
+    }
+
+    /**
+     * Writes text escaped for XML content and attributes.
+     */
+    DiagramWriter xml(String s) throws IOException {
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '&' -> out.write("&amp;");
+                case '<' -> out.write("&lt;");
+                case '>' -> out.write("&gt;");
+                case '"' -> out.write("&quot;");
+                default -> out.write(c);
+            }
+        }
+        return this;
+    }
+
+    // --- SVG ---
+
+    DiagramWriter svgStart(double width, double height) throws IOException {
+        text("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        text("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"").number(width, 0)
+                .text("\" height=\"").number(height, 0)
+                .text("\" viewBox=\"0 0 ").number(width, 0).text(" ").number(height, 0).text("\">\n");
+        return text("<rect width=\"100%\" height=\"100%\" fill=\"white\"/>\n");
+    }
+
+    /**
+     * Opens a group whose children inherit the given presentation attributes
+     * (e.g. {@code stroke="#CCCCCC" stroke-width="0.7"}).
+     */
+    DiagramWriter svgGroup(String attributes) throws IOException {
+        return text("<g ").text(attributes).text(">\n");
+    }
+
+    DiagramWriter svgGroupEnd() throws IOException {
+        return text("</g>\n");
+    }
+
+    DiagramWriter svgLine(double x1, double y1, double x2, double y2) throws IOException {
+        return text("<line x1=\"").number(x1, 1).text("\" y1=\"").number(y1, 1)
+                .text("\" x2=\"").number(x2, 1).text("\" y2=\"").number(y2, 1).text("\"/>\n");
+    }
+
+    /**
+     * A circle with a tooltip.
+     */
+    DiagramWriter svgCircle(double cx, double cy, double r, String title) throws IOException {
+        return text("<circle cx=\"").number(cx, 1).text("\" cy=\"").number(cy, 1)
+                .text("\" r=\"").number(r, 1).text("\"><title>").xml(title).text("</title></circle>\n");
+    }
+
+    DiagramWriter svgText(double x, double y, String label) throws IOException {
+        return text("<text x=\"").number(x, 1).text("\" y=\"").number(y, 1).text("\">").xml(label).text("</text>\n");
+    }
+
+    DiagramWriter svgEnd() throws IOException {
+        return text("</svg>\n");
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
@@ -1,29 +1,228 @@
 package pt.ipp.isep.dei.domain;
+import java.lang.ref.WeakReference;
 import java.util.*;
 
 public class Dijkstra {
+
+    // One workspace per thread, recreated only when the thread switches graphs; it only holds
+    // its graph weakly, so pool threads do not keep replaced snapshots alive
+    private static final ThreadLocal<Workspace> WORKSPACES = new ThreadLocal<>();
+
     public static Map<Integer, Double> shortestPaths(Graph g, int src) {
+        CSRGraph csr = g.csr();
         Map<Integer, Double> dist = new HashMap<>();
         for (int v : g.adj.keySet()) dist.put(v, Double.POSITIVE_INFINITY);
 
-        dist.put(src, 0.0);
-        PriorityQueue<double[]> pq = new PriorityQueue<>(Comparator.comparingDouble(a -> a[1]));
-        pq.add(new double[]{src, 0.0});
+        int s = csr.indexOf(src);
+        if (s < 0) {
+            dist.put(src, 0.0);
+            return dist;
+        }
+
+        double[] d = shortestPaths(csr, s);
+        for (int v = 0; v < d.length; v++) dist.put(csr.stationId(v), d[v]);
+        return dist;
+    }
+
+    /**
+     * Single-source shortest distances (by {@code weight}) over the CSR arrays.
+     *
+     * @param g The CSR graph.
+     * @param src The dense index of the source vertex.
+     * @return Distances indexed by dense vertex index (POSITIVE_INFINITY if unreachable).
+     */
+    public static double[] shortestPaths(CSRGraph g, int src) {
+        Workspace ws = workspace(g);
+        ws.run(src, null, Double.POSITIVE_INFINITY);
+        return ws.distances();
+    }
+
+    /**
+     * Shortest distance between two vertices, stopping as soon as the target is settled.
+     *
+     * @return The distance, or POSITIVE_INFINITY if the target is unreachable.
+     */
+    public static double distance(CSRGraph g, int src, int target) {
+        Workspace ws = workspace(g);
+        ws.run(src, new int[]{target}, Double.POSITIVE_INFINITY);
+        return ws.dist(target);
+    }
+
+    /**
+     * Shortest distances to a set of targets, stopping once all of them are settled.
+     *
+     * @return Distances aligned with {@code targets} (POSITIVE_INFINITY if unreachable).
+     */
+    public static double[] distances(CSRGraph g, int src, int[] targets) {
+        Workspace ws = workspace(g);
+        ws.run(src, targets, Double.POSITIVE_INFINITY);
+        double[] result = new double[targets.length];
+        for (int i = 0; i < targets.length; i++) result[i] = ws.dist(targets[i]);
+        return result;
+    }
+
+    /**
+     * Shortest distances to every vertex within {@code radius} of the source; the
+     * search never settles vertices beyond it.
+     *
+     * @return Distances indexed by dense vertex index (POSITIVE_INFINITY beyond the radius).
+     */
+    public static double[] withinRadius(CSRGraph g, int src, double radius) {
+        Workspace ws = workspace(g);
+        ws.run(src, null, radius);
+        return ws.distances();
+    }
+
+    /**
+     * Returns this thread's workspace for the given graph.
+     */
+    public static Workspace workspace(CSRGraph g) {
+        Workspace ws = WORKSPACES.get();
+        if (ws == null || ws.graph.get() != g) {
+            ws = new Workspace(g);
+            WORKSPACES.set(ws);
+        }
+        return ws;
+    }
+
+    /**
+     * Reusable primitive state of a Dijkstra search over one CSR graph: distances,
+     * predecessors and an indexed 4-ary heap with decrease-key. Only the vertices
+     * touched by the previous search are reset, so early-terminating queries cost
+     * time proportional to the explored region, not to the graph.
+     * The graph is referenced weakly: callers hold it for as long as they search it.
+     */
+    public static final class Workspace {
+        private final WeakReference<CSRGraph> graph;
+        private final double[] dist;
+        private final int[] pred;
+        private final boolean[] settled;
+        private final IndexedDaryHeap heap;
+        private final int[] touched;
+        private final int[] targetStamp;
+        private int stamp;
+        private int touchedCount;
+        private int settledCount;
+
+        public Workspace(CSRGraph graph) {
+            int n = graph.vertexCount();
+            this.graph = new WeakReference<>(graph);
+            this.dist = new double[n];
+            this.pred = new int[n];
+            this.settled = new boolean[n];
+            this.heap = new IndexedDaryHeap(n);
+            this.touched = new int[n];
+            this.targetStamp = new int[n];
+            Arrays.fill(dist, Double.POSITIVE_INFINITY);
+            Arrays.fill(pred, -1);
+        }
+
+        /**
+         * Runs a search from {@code src} by edge {@code weight}.
+         *
+         * @param src Dense source index.
+         * @param targets If not null, stop once all of these are settled.
+         * @param radius Do not settle vertices farther than this.
+         */
+        public void run(int src, int[] targets, double radius) {
+            run(src, targets, radius, graph().weight());
+        }
+
+        /**
+         * Runs a search from {@code src} with caller-supplied non-negative edge lengths
+         * (e.g. reweighted costs).
+         *
+         * @param src Dense source index.
+         * @param targets If not null, stop once all of these are settled.
+         * @param radius Do not settle vertices farther than this.
+         * @param weight Edge lengths indexed like the CSR edges.
+         */
+        public void run(int src, int[] targets, double radius, double[] weight) {
+            reset();
+            CSRGraph graph = graph();
+            int[] offsets = graph.offsets();
+            int[] to = graph.targets();
+
+            // Mark the distinct targets with this run's stamp
+            int remaining = 0;
+            if (targets != null) {
+                stamp++;
+                for (int t : targets) {
+                    if (targetStamp[t] != stamp) {
+                        targetStamp[t] = stamp;
+                        remaining++;
+                    }
+                }
+            }
+
+            touch(src);
+            dist[src] = 0.0;
+            heap.insert(src, 0.0);
 
-        while (!pq.isEmpty()) {
-            double[] current = pq.poll();
-            int u = (int) current[0];
+            while (!heap.isEmpty()) {
+                if (heap.peekKey() > radius) break;
+                int u = heap.poll();
+                settled[u] = true;
+                settledCount++;
 
-            if (current[1] > dist.get(u)) continue;
+                if (targets != null && targetStamp[u] == stamp && --remaining == 0) break;
 
-            for (Edge e : g.adj.get(u)) {
-                double nd = dist.get(u) + e.weight();
-                if (nd < dist.get(e.to())) {
-                    dist.put(e.to(), nd);
-                    pq.add(new double[]{e.to(), nd});
+                double du = dist[u];
+                for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                    int v = to[e];
+                    if (settled[v]) continue;
+                    double nd = du + weight[e];
+                    if (nd < dist[v]) {
+                        if (dist[v] == Double.POSITIVE_INFINITY) touch(v);
+                        dist[v] = nd;
+                        pred[v] = u;
+                        heap.insertOrDecrease(v, nd);
+                    }
+                }
+            }
+            heap.clear();
+
+            // Tentative labels of unsettled vertices are not final: hide them
+            for (int i = 0; i < touchedCount; i++) {
+                int v = touched[i];
+                if (!settled[v]) {
+                    dist[v] = Double.POSITIVE_INFINITY;
+                    pred[v] = -1;
                 }
             }
         }
-        return dist;
+
+        private CSRGraph graph() {
+            CSRGraph g = graph.get();
+            if (g == null) throw new IllegalStateException("The workspace's graph is no longer in use.");
+            return g;
+        }
+
+        private void touch(int v) {
+            touched[touchedCount++] = v;
+        }
+
+        private void reset() {
+            for (int i = 0; i < touchedCount; i++) {
+                int v = touched[i];
+                dist[v] = Double.POSITIVE_INFINITY;
+                pred[v] = -1;
+                settled[v] = false;
+            }
+            touchedCount = 0;
+            settledCount = 0;
+        }
+
+        /** @return The final distance of {@code v} after the last run (POSITIVE_INFINITY if not settled). */
+        public double dist(int v) { return dist[v]; }
+
+        /** @return The predecessor of {@code v} on its shortest path, or -1. */
+        public int pred(int v) { return pred[v]; }
+
+        /** @return The number of vertices settled by the last run. */
+        public int settledCount() { return settledCount; }
+
+        /** @return A copy of the distance array of the last run. */
+        public double[] distances() { return dist.clone(); }
     }
 }
@@ -7,7 +7,9 @@ import pt.ipp.isep.dei.repository.LocomotiveRepository;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -64,9 +66,15 @@ public class DispatcherService {
     public SchedulerResult scheduleTrains(List<Train> trainsToSimulate) {
         List<TrainTrip> initialTrips = new ArrayList<>();
 
+        // One route query per train at the same speed: use (or start building) the contraction hierarchy
+        networkService.prepareContractionHierarchy(DEFAULT_MAX_SPEED);
+
+        // Comboios com a mesma origem e destino partilham a mesma consulta
+        Map<Long, List<LineSegment>> routes = new HashMap<>();
+
         // 1. Convert Trains into TrainTrips
         for (Train train : trainsToSimulate) {
-            Optional<TrainTrip> trip = createTrainTrip(train);
+            Optional<TrainTrip> trip = createTrainTrip(train, routes);
             trip.ifPresent(initialTrips::add);
         }
 
@@ -85,12 +93,13 @@ public class DispatcherService {
      * upon checking the Optional result.
      *
      * @param train The train to process.
+     * @param routes Routes already found in this batch, by (start, end) facility pair.
      * @return An Optional containing the {@code TrainTrip} if a valid route is found, otherwise {@code Optional.empty()}.
      */
     // Em DispatcherService.java, método createTrainTrip:
 
-    private Optional<TrainTrip> createTrainTrip(Train train) {
-        List<LineSegment> route = findRouteForTrain(train);
+    private Optional<TrainTrip> createTrainTrip(Train train, Map<Long, List<LineSegment>> routes) {
+        List<LineSegment> route = findRouteForTrain(train, routes);
         if (route.isEmpty()) return Optional.empty();
 
         List<Locomotive> locomotives = Collections.emptyList();
@@ -117,18 +126,19 @@ public class DispatcherService {
     /**
      * Uses the RailwayNetworkService to find the complete route (based on the train's start and end facilities).
      * The fastest path (shortest time) is prioritized by using a high speed assumption.
+     * Each (start, end) pair is only searched once per batch.
      *
      * @param train The train whose route is to be found.
+     * @param routes Routes already found in this batch, by (start, end) facility pair.
      * @return The list of {@code LineSegment}s forming the route, or an empty list if no path is found.
      */
-    private List<LineSegment> findRouteForTrain(Train train) {
-        // Find the fastest/shortest path, using a high speed to prioritize minimum time
-        RailwayPath path = networkService.findFastestPath(
-                train.getStartFacilityId(),
-                train.getEndFacilityId(),
-                DEFAULT_MAX_SPEED
-        );
-
-        return (path != null) ? path.getSegments() : Collections.emptyList();
+    private List<LineSegment> findRouteForTrain(Train train, Map<Long, List<LineSegment>> routes) {
+        int start = train.getStartFacilityId();
+        int end = train.getEndFacilityId();
+        return routes.computeIfAbsent(((long) start << 32) | (end & 0xFFFFFFFFL), key -> {
+            // Find the fastest/shortest path, using a high speed to prioritize minimum time
+            RailwayPath path = networkService.findFastestPath(start, end, DEFAULT_MAX_SPEED);
+            return (path != null) ? path.getSegments() : Collections.emptyList();
+        });
     }
-}
\ No newline at end of file
+}
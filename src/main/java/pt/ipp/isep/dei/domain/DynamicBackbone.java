@@ -0,0 +1,340 @@
+package pt.ipp.isep.dei.domain;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Minimum spanning forest of a {@link BackboneNetwork} kept up to date while single
+ * connections are added or closed, so that what-if changes do not need a reload and a full
+ * {@link BackboneNetwork#computeMinimalBackbone()}.
+ * <p>
+ * Cycle-replacement updates:
+ * <ul>
+ *     <li>add u-v: if u and v are in different trees the connection joins them; otherwise
+ *         the longest connection on the tree path u..v is swapped out when it is longer.
+ *         O(size of the tree);</li>
+ *     <li>close a non-backbone connection: O(1);</li>
+ *     <li>close a backbone connection: the tree splits in two. Both sides are explored
+ *         together, so only the smaller one is finished; the shortest connection leaving it
+ *         (scanning only its stations' connections) reconnects them, if one exists.
+ *         O(smaller side + its connections).</li>
+ * </ul>
+ * Equal distances are broken by insertion order, and the total distance is unique anyway.
+ * Unlike {@code computeMinimalBackbone}, every component gets its own tree.
+ */
+public final class DynamicBackbone {
+
+    /**
+     * Outcome of one change.
+     *
+     * @param totalDistance The backbone distance (km) after the change.
+     * @param added Connections that entered the backbone.
+     * @param removed Connections that left the backbone.
+     */
+    public record Update(double totalDistance, List<Connection> added, List<Connection> removed) {}
+
+    private static final int INITIAL_EDGES = 16;
+
+    private final Station[] stations;
+    private final Map<Integer, Integer> index;
+
+    // Ligações: extremos, distância, estado; as fechadas ficam marcadas e saem das listas aos poucos
+    private int edgeCount;
+    private int[] from = new int[INITIAL_EDGES];
+    private int[] to = new int[INITIAL_EDGES];
+    private double[] distance = new double[INITIAL_EDGES];
+    private Connection[] connection = new Connection[INITIAL_EDGES];
+    private boolean[] alive = new boolean[INITIAL_EDGES];
+    private boolean[] inTree = new boolean[INITIAL_EDGES];
+    private final Map<Long, List<Integer>> byPair = new HashMap<>();
+
+    // Todas as ligações de cada estação e, à parte, as da árvore
+    private final int[][] incident;
+    private final int[] incidentCount;
+    private final int[][] treeEdges;
+    private final int[] treeCount;
+
+    private double total;
+    private int backboneEdges;
+
+    // Pesquisas na floresta
+    private final int[] mark;
+    private int markValue;
+    private final int[] parentEdge;
+    private final int[] queueA;
+    private final int[] queueB;
+
+    private DynamicBackbone(Collection<Station> stationSet) {
+        int n = stationSet.size();
+        this.stations = stationSet.toArray(new Station[0]);
+        this.index = new HashMap<>(2 * n);
+        for (int v = 0; v < n; v++) index.put(stations[v].idEstacao(), v);
+        this.incident = new int[n][];
+        this.incidentCount = new int[n];
+        this.treeEdges = new int[n][];
+        this.treeCount = new int[n];
+        for (int v = 0; v < n; v++) {
+            incident[v] = new int[4];
+            treeEdges[v] = new int[2];
+        }
+        this.mark = new int[n];
+        this.parentEdge = new int[n];
+        this.queueA = new int[n];
+        this.queueB = new int[n];
+    }
+
+    /**
+     * Builds the forest with Kruskal (same ranking as {@code computeMinimalBackbone}).
+     * Time Complexity: O(E log E).
+     *
+     * @param stations The stations.
+     * @param connections The connections (those with an unknown station are ignored).
+     * @return The dynamic backbone.
+     */
+    static DynamicBackbone build(Collection<Station> stations, List<Connection> connections) {
+        DynamicBackbone backbone = new DynamicBackbone(stations);
+        for (Connection conn : connections) {
+            Integer a = backbone.index.get(conn.from().idEstacao());
+            Integer b = backbone.index.get(conn.to().idEstacao());
+            if (a != null && b != null) backbone.store(a, b, conn);
+        }
+
+        int m = backbone.edgeCount;
+        long[] keys = new long[m];
+        for (int e = 0; e < m; e++) keys[e] = BackboneNetwork.sortableBits(backbone.distance[e]);
+        int[] order = BackboneNetwork.rankByKey(keys);
+        int n = backbone.stations.length;
+        int[] parent = new int[n];
+        for (int v = 0; v < n; v++) parent[v] = v;
+        for (int e : order) {
+            int a = BackboneNetwork.find(parent, backbone.from[e]);
+            int b = BackboneNetwork.find(parent, backbone.to[e]);
+            if (a == b) continue;
+            parent[a] = b;
+            backbone.link(e);
+        }
+        return backbone;
+    }
+
+    /** @return The total backbone distance (km). */
+    public double totalDistance() { return total; }
+
+    /** @return The number of backbone connections. */
+    public int backboneSize() { return backboneEdges; }
+
+    /** @return The number of separate trees (1 when every station is connected). */
+    public int treeCount() { return stations.length - backboneEdges; }
+
+    /**
+     * @return The current backbone connections.
+     */
+    public List<Connection> backbone() {
+        List<Connection> result = new ArrayList<>(backboneEdges);
+        for (int e = 0; e < edgeCount; e++) {
+            if (inTree[e]) result.add(connection[e]);
+        }
+        return result;
+    }
+
+    /**
+     * Adds a connection between two stations.
+     * Time Complexity: O(V) (path search in one tree).
+     *
+     * @param fromId The first station id.
+     * @param toId The second station id.
+     * @param km The distance.
+     * @return The update (nothing changes if either station is unknown).
+     */
+    public Update addConnection(int fromId, int toId, double km) {
+        Integer a = index.get(fromId);
+        Integer b = index.get(toId);
+        if (a == null || b == null) return new Update(total, List.of(), List.of());
+
+        int e = store(a, b, new Connection(stations[a], stations[b], km));
+        if (a.equals(b)) return new Update(total, List.of(), List.of());
+
+        if (!treePath(a, b)) {
+            link(e);
+            return new Update(total, List.of(connection[e]), List.of());
+        }
+        // Ligação mais longa no ciclo que a nova fecharia
+        int longest = -1;
+        for (int v = b; v != a; ) {
+            int pe = parentEdge[v];
+            if (longest < 0 || before(longest, pe)) longest = pe;
+            v = other(pe, v);
+        }
+        if (!before(e, longest)) return new Update(total, List.of(), List.of());
+        cut(longest);
+        link(e);
+        return new Update(total, List.of(connection[e]), List.of(connection[longest]));
+    }
+
+    /**
+     * Closes every connection between two stations (both directions).
+     * Time Complexity: O(1) off the backbone, otherwise O(smaller side + its connections).
+     *
+     * @param fromId The first station id.
+     * @param toId The second station id.
+     * @return The update (nothing changes if there is no such connection).
+     */
+    public Update removeConnection(int fromId, int toId) {
+        Integer a = index.get(fromId);
+        Integer b = index.get(toId);
+        List<Integer> edges = (a == null || b == null) ? null : byPair.remove(pairKey(a, b));
+        if (edges == null) return new Update(total, List.of(), List.of());
+
+        for (int e : edges) alive[e] = false;
+        // Das ligações paralelas no máximo uma está na árvore
+        for (int e : edges) {
+            if (!inTree[e]) continue;
+            cut(e);
+            int replacement = reconnect(from[e], to[e]);
+            if (replacement < 0) return new Update(total, List.of(), List.of(connection[e]));
+            link(replacement);
+            return new Update(total, List.of(connection[replacement]), List.of(connection[e]));
+        }
+        return new Update(total, List.of(), List.of());
+    }
+
+    /**
+     * After cutting a-b: shortest open connection between the two sides, or -1.
+     */
+    private int reconnect(int a, int b) {
+        int sideA = ++markValue;
+        int sideB = ++markValue;
+        mark[a] = sideA;
+        mark[b] = sideB;
+        queueA[0] = a;
+        queueB[0] = b;
+        int headA = 0, tailA = 1, headB = 0, tailB = 1;
+        // Explora os dois lados à vez; o primeiro a terminar é o menor
+        while (headA < tailA && headB < tailB) {
+            tailA = expand(queueA, headA++, tailA, sideA);
+            tailB = expand(queueB, headB++, tailB, sideB);
+        }
+        int[] queue = (headA >= tailA) ? queueA : queueB;
+        int size = (headA >= tailA) ? tailA : tailB;
+        int side = (headA >= tailA) ? sideA : sideB;
+
+        int best = -1;
+        for (int i = 0; i < size; i++) {
+            int v = queue[i];
+            int count = 0;
+            int[] list = incident[v];
+            for (int j = 0; j < incidentCount[v]; j++) {
+                int e = list[j];
+                if (!alive[e]) continue;
+                list[count++] = e;
+                if (mark[other(e, v)] != side && (best < 0 || before(e, best))) best = e;
+            }
+            incidentCount[v] = count;
+        }
+        return best;
+    }
+
+    private int expand(int[] queue, int head, int tail, int side) {
+        int v = queue[head];
+        for (int i = 0; i < treeCount[v]; i++) {
+            int w = other(treeEdges[v][i], v);
+            if (mark[w] != side) {
+                mark[w] = side;
+                queue[tail++] = w;
+            }
+        }
+        return tail;
+    }
+
+    /**
+     * Breadth-first search in the forest from a; on success parentEdge leads from b back to a.
+     */
+    private boolean treePath(int a, int b) {
+        int stamp = ++markValue;
+        mark[a] = stamp;
+        queueA[0] = a;
+        int head = 0, tail = 1;
+        while (head < tail) {
+            int v = queueA[head++];
+            for (int i = 0; i < treeCount[v]; i++) {
+                int e = treeEdges[v][i];
+                int w = other(e, v);
+                if (mark[w] == stamp) continue;
+                mark[w] = stamp;
+                parentEdge[w] = e;
+                if (w == b) return true;
+                queueA[tail++] = w;
+            }
+        }
+        return false;
+    }
+
+    private int store(int a, int b, Connection conn) {
+        if (edgeCount == from.length) {
+            int size = 2 * from.length;
+            from = Arrays.copyOf(from, size);
+            to = Arrays.copyOf(to, size);
+            distance = Arrays.copyOf(distance, size);
+            connection = Arrays.copyOf(connection, size);
+            alive = Arrays.copyOf(alive, size);
+            inTree = Arrays.copyOf(inTree, size);
+        }
+        int e = edgeCount++;
+        from[e] = a;
+        to[e] = b;
+        distance[e] = conn.distance();
+        connection[e] = conn;
+        alive[e] = true;
+        byPair.computeIfAbsent(pairKey(a, b), k -> new ArrayList<>(2)).add(e);
+        append(incident, incidentCount, a, e);
+        if (a != b) append(incident, incidentCount, b, e);
+        return e;
+    }
+
+    private void link(int e) {
+        inTree[e] = true;
+        append(treeEdges, treeCount, from[e], e);
+        append(treeEdges, treeCount, to[e], e);
+        total += distance[e];
+        backboneEdges++;
+    }
+
+    private void cut(int e) {
+        inTree[e] = false;
+        detach(from[e], e);
+        detach(to[e], e);
+        total -= distance[e];
+        backboneEdges--;
+    }
+
+    private void detach(int v, int e) {
+        int[] list = treeEdges[v];
+        for (int i = 0; i < treeCount[v]; i++) {
+            if (list[i] == e) {
+                list[i] = list[--treeCount[v]];
+                return;
+            }
+        }
+    }
+
+    private static void append(int[][] lists, int[] counts, int v, int e) {
+        if (counts[v] == lists[v].length) lists[v] = Arrays.copyOf(lists[v], 2 * lists[v].length);
+        lists[v][counts[v]++] = e;
+    }
+
+    private int other(int e, int v) {
+        return (from[e] == v) ? to[e] : from[e];
+    }
+
+    /** Order of connections: distance, then insertion. */
+    private boolean before(int e, int f) {
+        return distance[e] < distance[f] || (distance[e] == distance[f] && e < f);
+    }
+
+    private static long pairKey(int a, int b) {
+        return ((long) Math.min(a, b) << 32) | Math.max(a, b);
+    }
+}
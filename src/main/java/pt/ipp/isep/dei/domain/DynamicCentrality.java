@@ -0,0 +1,232 @@
+package pt.ipp.isep.dei.domain;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Keeps the USEI13 centralities and hub scores of a {@link Graph} up to date while single
+ * lines are added, removed or re-weighted.
+ * <p>
+ * For every source {@code s} the engine stores the distances of its shortest-path DAG and
+ * the dependency {@code delta_s(v)} it adds to each station's betweenness. An edge
+ * {@code u -> v} only changes the DAG of the sources for which it is (or becomes) tight:
+ * <ul>
+ *     <li>added / shortened to {@code w}: {@code d(s,u) + w <= d(s,v)};</li>
+ *     <li>removed / lengthened from {@code w}: {@code d(s,u) + w == d(s,v)}.</li>
+ * </ul>
+ * Only those sources run a new Brandes pass; their old contribution is subtracted from the
+ * betweenness and the new one added, their harmonic closeness is replaced, the strength and
+ * degree of {@code u} are refreshed, and the hub scores are renormalised.
+ * <p>
+ * Memory is O(V^2); above {@link #MAX_TRACKED_VERTICES} stations nothing is stored and every
+ * change falls back to {@link CentralityEngine#compute(Graph)}.
+ */
+public final class DynamicCentrality {
+
+    /** Largest network whose per-source state is kept (2 * V^2 doubles). */
+    public static final int MAX_TRACKED_VERTICES = 2048;
+
+    /**
+     * Outcome of one edge change.
+     *
+     * @param changed Whether the graph changed at all.
+     * @param affectedSources Sources whose shortest-path DAG was recomputed.
+     * @param totalSources Stations in the graph (what a full recompute would rerun).
+     */
+    public record Update(boolean changed, int affectedSources, int totalSources) {}
+
+    private final Graph graph;
+    private CSRGraph csr;
+
+    // Per source: distances and betweenness dependencies (null when not tracked)
+    private double[][] dist;
+    private double[][] dependency;
+    private double[] betweenness;
+    private double[] harmonic;
+
+    private DynamicCentrality(Graph graph) {
+        this.graph = graph;
+        this.csr = graph.csr();
+    }
+
+    /**
+     * Computes every centrality and hub score of the graph and keeps the per-source state
+     * needed for later incremental updates.
+     * Time Complexity: O(V * (E + V log V)), like {@link CentralityEngine#compute(Graph)}.
+     *
+     * @param g The graph (updates must go through this engine from now on).
+     * @return The engine.
+     */
+    public static DynamicCentrality compute(Graph g) {
+        DynamicCentrality engine = new DynamicCentrality(g);
+        engine.fullRecompute();
+        return engine;
+    }
+
+    /** @return The graph these metrics belong to. */
+    public Graph graph() { return graph; }
+
+    /**
+     * Adds the edge u -> v and updates the metrics.
+     *
+     * @return The update summary (unchanged if either station is unknown).
+     */
+    public Update addEdge(int fromId, int toId, double weight, double cost) {
+        if (!graph.adj.containsKey(fromId) || !graph.adj.containsKey(toId)) {
+            return new Update(false, 0, csr.vertexCount());
+        }
+        graph.addEdge(fromId, toId, weight, cost);
+        return apply(fromId, toId, List.of(), List.of(weight));
+    }
+
+    /**
+     * Removes every edge u -> v and updates the metrics.
+     *
+     * @return The update summary (unchanged if there was no such edge).
+     */
+    public Update removeEdge(int fromId, int toId) {
+        List<Edge> removed = graph.removeEdge(fromId, toId);
+        if (removed.isEmpty()) return new Update(false, 0, csr.vertexCount());
+        return apply(fromId, toId, removed.stream().map(Edge::weight).toList(), List.of());
+    }
+
+    /**
+     * Sets the weight of every edge u -> v and updates the metrics.
+     *
+     * @return The update summary (unchanged if there was no such edge).
+     */
+    public Update updateEdgeWeight(int fromId, int toId, double weight) {
+        List<Edge> previous = graph.setEdgeWeight(fromId, toId, weight);
+        if (previous.isEmpty()) return new Update(false, 0, csr.vertexCount());
+        return apply(fromId, toId, previous.stream().map(Edge::weight).toList(),
+                previous.stream().map(e -> weight).toList());
+    }
+
+    private Update apply(int fromId, int toId, List<Double> oldWeights, List<Double> newWeights) {
+        CSRGraph updated = graph.csr();
+        int n = updated.vertexCount();
+        if (dist == null || n != csr.vertexCount()) {
+            // Estações novas (ou rede grande demais): não há estado incremental válido
+            csr = updated;
+            fullRecompute();
+            return new Update(true, n, n);
+        }
+        csr = updated;
+
+        int u = csr.indexOf(fromId);
+        int v = csr.indexOf(toId);
+        int[] affected = IntStream.range(0, n)
+                .filter(s -> isAffected(dist[s][u], dist[s][v], oldWeights, newWeights))
+                .toArray();
+
+        double[][] newDist = new double[affected.length][];
+        double[][] newDependency = new double[affected.length][];
+        double[] newHarmonic = new double[affected.length];
+        ThreadLocal<Betweenness.Workspace> workspaces = ThreadLocal.withInitial(() -> new Betweenness.Workspace(csr));
+        IntStream.range(0, affected.length).parallel().forEach(i -> {
+            Betweenness.Workspace ws = workspaces.get();
+            int s = affected[i];
+            newDependency[i] = new double[n];
+            newHarmonic[i] = ws.accumulate(s, newDependency[i]);
+            newDist[i] = distances(ws, n);
+        });
+
+        for (int i = 0; i < affected.length; i++) {
+            int s = affected[i];
+            double[] before = dependency[s];
+            double[] after = newDependency[i];
+            for (int w = 0; w < n; w++) betweenness[w] += after[w] - before[w];
+            dependency[s] = after;
+            dist[s] = newDist[i];
+            harmonic[s] = newHarmonic[i];
+        }
+
+        writeMetrics(affected, u);
+        return new Update(true, affected.length, n);
+    }
+
+    /**
+     * Whether the change of edge u -> v can alter the shortest-path DAG of a source with the
+     * given distances to u and v (same arithmetic as the Brandes relaxation, so exact).
+     */
+    private static boolean isAffected(double du, double dv, List<Double> oldWeights, List<Double> newWeights) {
+        if (du == Double.POSITIVE_INFINITY) return false;
+        for (double w : oldWeights) {
+            if (du + w == dv) return true;
+        }
+        for (double w : newWeights) {
+            if (du + w <= dv) return true;
+        }
+        return false;
+    }
+
+    private void fullRecompute() {
+        int n = csr.vertexCount();
+        betweenness = new double[n];
+        harmonic = new double[n];
+        if (n > MAX_TRACKED_VERTICES) {
+            dist = null;
+            dependency = null;
+            CentralityEngine.compute(graph);
+            HubScoreCalculator.compute(graph);
+            for (int v = 0; v < n; v++) {
+                betweenness[v] = csr.metrics(v).betweenness;
+                harmonic[v] = csr.metrics(v).harmonicCloseness;
+            }
+            return;
+        }
+
+        dist = new double[n][];
+        dependency = new double[n][];
+        ThreadLocal<Betweenness.Workspace> workspaces = ThreadLocal.withInitial(() -> new Betweenness.Workspace(csr));
+        IntStream.range(0, n).parallel().forEach(s -> {
+            Betweenness.Workspace ws = workspaces.get();
+            dependency[s] = new double[n];
+            harmonic[s] = ws.accumulate(s, dependency[s]);
+            dist[s] = distances(ws, n);
+        });
+        for (int s = 0; s < n; s++) {
+            double[] d = dependency[s];
+            for (int w = 0; w < n; w++) betweenness[w] += d[w];
+        }
+        writeMetrics(null, -1);
+    }
+
+    private static double[] distances(Betweenness.Workspace ws, int n) {
+        double[] d = new double[n];
+        for (int w = 0; w < n; w++) d[w] = ws.dist(w);
+        return d;
+    }
+
+    /**
+     * Writes betweenness everywhere (any station may have changed), harmonic closeness of the
+     * recomputed sources, degree/strength of the changed station (all when {@code sources} is null),
+     * then renormalises the hub scores.
+     */
+    private void writeMetrics(int[] sources, int changedVertex) {
+        int n = csr.vertexCount();
+        int[] offsets = csr.offsets();
+        double[] weight = csr.weight();
+
+        for (int v = 0; v < n; v++) {
+            StationMetrics m = csr.metrics(v);
+            // Cancelamentos de vírgula flutuante podem deixar -1e-12 em vez de 0
+            m.betweenness = Math.max(0.0, betweenness[v]);
+            m.betweennessError = 0.0;
+        }
+        if (sources == null) {
+            for (int v = 0; v < n; v++) csr.metrics(v).harmonicCloseness = harmonic[v];
+        } else {
+            for (int s : sources) csr.metrics(s).harmonicCloseness = harmonic[s];
+        }
+        for (int v = 0; v < n; v++) {
+            if (sources != null && v != changedVertex) continue;
+            double strength = 0.0;
+            for (int e = offsets[v]; e < offsets[v + 1]; e++) strength += weight[e];
+            StationMetrics m = csr.metrics(v);
+            m.degree = offsets[v + 1] - offsets[v];
+            m.strength = strength;
+        }
+        HubScoreCalculator.compute(graph);
+    }
+}
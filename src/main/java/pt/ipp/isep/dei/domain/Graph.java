@@ -6,9 +6,16 @@ public class Graph {
     public Map<Integer, StationMetrics> metricsMap = new HashMap<>();
     public Map<Integer, List<Edge>> adj = new HashMap<>();
 
+    // CSR view used by the network algorithms; rebuilt after any structural change
+    private CSRGraph csr;
+
+    // Johnson potentials of the current CSR view, recomputed when the CSR is rebuilt
+    private JohnsonReweighting johnson;
+
     public void addStation(Station s) {
         metricsMap.put(s.idEstacao(), new StationMetrics(s));
         adj.putIfAbsent(s.idEstacao(), new ArrayList<>());
+        csr = null;
     }
 
 
@@ -16,6 +23,79 @@ public class Graph {
         if (adj.containsKey(u) && adj.containsKey(v)) {
             // Adicionamos APENAS a direção definida no CSV
             adj.get(u).add(new Edge(v, weight, cost));
+            csr = null;
+        }
+    }
+
+    /**
+     * Removes every edge u -> v.
+     *
+     * @param u The origin station id.
+     * @param v The destination station id.
+     * @return The removed edges (empty if there was none).
+     */
+    public List<Edge> removeEdge(int u, int v) {
+        List<Edge> removed = new ArrayList<>();
+        List<Edge> edges = adj.get(u);
+        if (edges == null) return removed;
+        for (Iterator<Edge> it = edges.iterator(); it.hasNext(); ) {
+            Edge e = it.next();
+            if (e.to() == v) {
+                removed.add(e);
+                it.remove();
+            }
+        }
+        if (!removed.isEmpty()) csr = null;
+        return removed;
+    }
+
+    /**
+     * Sets the weight (distance) of every edge u -> v, keeping their costs.
+     *
+     * @param u The origin station id.
+     * @param v The destination station id.
+     * @param weight The new weight.
+     * @return The edges as they were before the change (empty if there was none).
+     */
+    public List<Edge> setEdgeWeight(int u, int v, double weight) {
+        List<Edge> previous = new ArrayList<>();
+        List<Edge> edges = adj.get(u);
+        if (edges == null) return previous;
+        for (ListIterator<Edge> it = edges.listIterator(); it.hasNext(); ) {
+            Edge e = it.next();
+            if (e.to() == v) {
+                previous.add(e);
+                it.set(new Edge(v, weight, e.cost()));
+            }
+        }
+        if (!previous.isEmpty()) csr = null;
+        return previous;
+    }
+
+    /**
+     * Returns the immutable CSR representation of this graph, building it once
+     * and reusing it until a station or edge is added.
+     *
+     * @return The CSR graph.
+     */
+    public CSRGraph csr() {
+        if (csr == null) {
+            csr = CSRGraph.from(this);
+        }
+        return csr;
+    }
+
+    /**
+     * Returns the Johnson reweighting of the risk costs, computing it once per graph version
+     * (i.e. per CSR build) so repeated minimum-cost queries only run Dijkstra.
+     *
+     * @return The reweighting of the current graph.
+     */
+    public JohnsonReweighting johnson() {
+        CSRGraph current = csr();
+        if (johnson == null || johnson.graph() != current) {
+            johnson = JohnsonReweighting.compute(current);
         }
+        return johnson;
     }
 }
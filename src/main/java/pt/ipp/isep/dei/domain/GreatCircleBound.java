@@ -0,0 +1,96 @@
+package pt.ipp.isep.dei.domain;
+
+import java.util.Map;
+
+/**
+ * A* bound from coordinates: distance to the destination divided by the fastest speed any
+ * segment can be travelled at under the speed cap. The straight chord through the Earth is used
+ * instead of the great-circle arc: it never exceeds the arc, is a metric as well, and costs one
+ * square root per evaluation instead of the haversine trigonometry.
+ * <p>
+ * Segment lengths are not guaranteed to be at least the straight-line distance between their
+ * facilities (coordinates and lengths come from different sources), so the distance is first
+ * scaled by the smallest {@code length / chord} ratio over all segments (at most 1).
+ * By the triangle inequality the bound is then consistent for any data.
+ */
+public final class GreatCircleBound implements TravelTimeBound {
+
+    private final long graphFingerprint;
+    private final double speedCap;
+    private static final double EARTH_RADIUS_KM = 6371.0;
+
+    // Cartesian position (km) of every vertex
+    private final double[] x;
+    private final double[] y;
+    private final double[] z;
+    private final double hoursPerKm;
+
+    private GreatCircleBound(long graphFingerprint, double speedCap, double[] x, double[] y, double[] z,
+                             double hoursPerKm) {
+        this.graphFingerprint = graphFingerprint;
+        this.speedCap = speedCap;
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        this.hoursPerKm = hoursPerKm;
+    }
+
+    /**
+     * Builds the bound for a graph.
+     *
+     * @param graph The routing graph.
+     * @param speedCap The speed cap (km/h) of the queries.
+     * @param coordinates Latitude/longitude per facility id.
+     * @return The bound, or null if some facility of the graph has no (non-zero) coordinates.
+     */
+    public static GreatCircleBound build(RoutingGraph graph, double speedCap, Map<Integer, double[]> coordinates) {
+        int n = graph.vertexCount();
+        double[] x = new double[n];
+        double[] y = new double[n];
+        double[] z = new double[n];
+        for (int v = 0; v < n; v++) {
+            double[] c = coordinates.get(graph.facilityId(v));
+            if (c == null || (c[0] == 0.0 && c[1] == 0.0)) return null;
+            double lat = Math.toRadians(c[0]);
+            double lon = Math.toRadians(c[1]);
+            x[v] = EARTH_RADIUS_KM * Math.cos(lat) * Math.cos(lon);
+            y[v] = EARTH_RADIUS_KM * Math.cos(lat) * Math.sin(lon);
+            z[v] = EARTH_RADIUS_KM * Math.sin(lat);
+        }
+
+        int[] offsets = graph.offsets();
+        int[] targets = graph.targets();
+        double maxSpeed = 0;
+        double scale = 1.0;
+        for (int u = 0; u < n; u++) {
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                LineSegment seg = graph.segment(e);
+                double speed = Math.min(seg.getVelocidadeMaxima(), speedCap);
+                if (speed <= 0 || seg.getComprimento() <= 0) continue;
+                maxSpeed = Math.max(maxSpeed, speed);
+                int v = targets[e];
+                double km = chord(x, y, z, u, v);
+                if (km > 0) scale = Math.min(scale, seg.getComprimento() / km);
+            }
+        }
+        double hoursPerKm = (maxSpeed > 0) ? scale / maxSpeed : 0.0;
+        return new GreatCircleBound(graph.fingerprint(), speedCap, x, y, z, hoursPerKm);
+    }
+
+    @Override
+    public double lowerBound(int v, int target) {
+        return chord(x, y, z, v, target) * hoursPerKm;
+    }
+
+    private static double chord(double[] x, double[] y, double[] z, int a, int b) {
+        double dx = x[a] - x[b];
+        double dy = y[a] - y[b];
+        double dz = z[a] - z[b];
+        return Math.sqrt(dx * dx + dy * dy + dz * dz);
+    }
+
+    @Override
+    public boolean matches(RoutingGraph graph, double speedCap) {
+        return graphFingerprint == graph.fingerprint() && Double.compare(this.speedCap, speedCap) == 0;
+    }
+}
@@ -0,0 +1,327 @@
+package pt.ipp.isep.dei.domain;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Green-field backbone: the minimum spanning tree of a subset of {@link EuropeanStation}s
+ * (e.g. all main stations) by straight-line (great-circle) distance, without any existing
+ * line. Unlike {@link BackboneNetwork}, every pair of stations is a candidate connection, so the
+ * complete graph is never built.
+ * <p>
+ * Borůvka rounds over the {@link KDTree}:
+ * <ul>
+ *     <li>every round, each station looks for its nearest station in another component; the
+ *         shortest candidate of each component joins the tree, so the number of components at
+ *         least halves (at most log2 V rounds);</li>
+ *     <li>the search prunes a subtree when its bounding box is farther than the best candidate
+ *         of the component so far, or when all its stations are already in that component.</li>
+ * </ul>
+ * Distances are compared as chords of the unit sphere (same order as the great-circle
+ * distance, and a box gives a valid lower bound in 3D, which latitude/longitude degrees do not);
+ * the reported distances are haversine km. Each round is about O(V log V), O(V log² V) in total.
+ * Equal distances are broken by station order, so the tree is deterministic.
+ */
+public final class GreenFieldBackbone {
+
+    /**
+     * One backbone connection.
+     *
+     * @param from The first station.
+     * @param to The second station.
+     * @param distance The great-circle distance (km).
+     */
+    public record Link(EuropeanStation from, EuropeanStation to, double distance) {}
+
+    /**
+     * The backbone.
+     *
+     * @param links The V - 1 connections (empty for fewer than two stations).
+     * @param totalDistance Their total distance (km).
+     */
+    public record Result(List<Link> links, double totalDistance) {}
+
+    private GreenFieldBackbone() {
+    }
+
+    /**
+     * Backbone of some stations; a KD-tree is built for them.
+     * Time Complexity: O(V log² V).
+     *
+     * @param stations The stations to connect.
+     * @return The backbone.
+     */
+    public static Result compute(Collection<EuropeanStation> stations) {
+        List<EuropeanStation> byLat = new ArrayList<>(stations);
+        List<EuropeanStation> byLon = new ArrayList<>(stations);
+        byLat.sort(Comparator.comparingDouble(EuropeanStation::getLatitude));
+        byLon.sort(Comparator.comparingDouble(EuropeanStation::getLongitude));
+        KDTree tree = new KDTree();
+        tree.buildBalanced(byLat, byLon);
+        return compute(tree, s -> true);
+    }
+
+    /**
+     * Backbone of the stations of an existing KD-tree that match a filter.
+     * Time Complexity: O(N) to read the tree, plus O(V log² V) for the V selected stations.
+     *
+     * @param tree The spatial index.
+     * @param include Which stations to connect (e.g. {@code EuropeanStation::isMainStation}).
+     * @return The backbone.
+     */
+    public static Result compute(KDTree tree, Predicate<EuropeanStation> include) {
+        Index index = Index.of(tree, include);
+        int n = index.stations.length;
+        if (n < 2) return new Result(List.of(), 0);
+
+        int[] parent = new int[n];
+        for (int v = 0; v < n; v++) parent[v] = v;
+        int[] component = new int[n];
+        double[] bestChord = new double[n];
+        int[] bestFrom = new int[n];
+        int[] bestTo = new int[n];
+        // A distância de q ao componente alheio mais próximo só cresce de ronda para ronda
+        double[] lowerBound = new double[n];
+        Search search = new Search(index, component);
+
+        List<Link> links = new ArrayList<>(n - 1);
+        double total = 0;
+        while (links.size() < n - 1) {
+            for (int v = 0; v < n; v++) component[v] = BackboneNetwork.find(parent, v);
+            index.label(component);
+            Arrays.fill(bestChord, Double.POSITIVE_INFINITY);
+            Arrays.fill(bestFrom, -1);
+
+            // O melhor candidato é partilhado pelo componente: poda mais à medida que avança
+            for (int q = 0; q < n; q++) {
+                int c = component[q];
+                if (lowerBound[q] > bestChord[c]) continue;
+                search.nearest(q, bestChord[c], bestFrom[c], bestTo[c]);
+                lowerBound[q] = search.chord;
+                if (search.found >= 0) {
+                    bestChord[c] = search.chord;
+                    bestFrom[c] = q;
+                    bestTo[c] = search.found;
+                }
+            }
+
+            for (int c = 0; c < n; c++) {
+                if (bestFrom[c] < 0) continue;
+                int a = BackboneNetwork.find(parent, bestFrom[c]);
+                int b = BackboneNetwork.find(parent, bestTo[c]);
+                // O mesmo par pode ter sido escolhido pelos dois componentes
+                if (a == b) continue;
+                parent[a] = b;
+                EuropeanStation from = index.stations[bestFrom[c]];
+                EuropeanStation to = index.stations[bestTo[c]];
+                double km = GeoDistance.haversine(from.getLatitude(), from.getLongitude(),
+                        to.getLatitude(), to.getLongitude());
+                links.add(new Link(from, to, km));
+                total += km;
+            }
+        }
+        return new Result(links, total);
+    }
+
+    /**
+     * Flat copy of the KD-tree in preorder: the selected stations of a subtree are contiguous,
+     * and every node has the 3D bounding box of its subtree.
+     */
+    private static final class Index {
+        private EuropeanStation[] stations;
+        private double[] x;
+        private double[] y;
+        private double[] z;
+
+        private int[] left;
+        private int[] right;
+        private int[] start;  // estações do próprio nó: [start, own)
+        private int[] own;
+        private int[] end;    // estações da subárvore: [start, end)
+        private double[][] box; // minX, minY, minZ, maxX, maxY, maxZ
+        private int[] label;  // componente comum à subárvore, ou -1
+
+        static Index of(KDTree tree, Predicate<EuropeanStation> include) {
+            List<KDTree.Node> nodes = new ArrayList<>();
+            Deque<KDTree.Node> stack = new ArrayDeque<>();
+            if (tree.getRoot() != null) stack.push(tree.getRoot());
+            while (!stack.isEmpty()) {
+                KDTree.Node node = stack.pop();
+                nodes.add(node);
+                if (node.getRight() != null) stack.push(node.getRight());
+                if (node.getLeft() != null) stack.push(node.getLeft());
+            }
+
+            int m = nodes.size();
+            Index index = new Index();
+            index.left = new int[m];
+            index.right = new int[m];
+            index.start = new int[m];
+            index.own = new int[m];
+            index.end = new int[m];
+            index.box = new double[m][6];
+            index.label = new int[m];
+
+            // Em pré-ordem o filho esquerdo vem logo a seguir ao pai e o direito depois da subárvore esquerda
+            List<EuropeanStation> selected = new ArrayList<>();
+            for (int i = 0; i < m; i++) {
+                index.start[i] = selected.size();
+                for (EuropeanStation s : nodes.get(i).getStations()) {
+                    if (include.test(s)) selected.add(s);
+                }
+                index.own[i] = selected.size();
+            }
+            int n = selected.size();
+            index.stations = selected.toArray(new EuropeanStation[0]);
+            index.x = new double[n];
+            index.y = new double[n];
+            index.z = new double[n];
+            for (int v = 0; v < n; v++) {
+                double lat = Math.toRadians(index.stations[v].getLatitude());
+                double lon = Math.toRadians(index.stations[v].getLongitude());
+                index.x[v] = Math.cos(lat) * Math.cos(lon);
+                index.y[v] = Math.cos(lat) * Math.sin(lon);
+                index.z[v] = Math.sin(lat);
+            }
+
+            // Filhos e caixas de baixo para cima (os filhos têm índices maiores do que o pai)
+            int[] size = new int[m];
+            for (int i = m - 1; i >= 0; i--) {
+                KDTree.Node node = nodes.get(i);
+                index.left[i] = (node.getLeft() != null) ? i + 1 : -1;
+                index.right[i] = (node.getRight() != null) ? i + 1 + (node.getLeft() != null ? size[i + 1] : 0) : -1;
+                size[i] = 1 + (index.left[i] >= 0 ? size[index.left[i]] : 0) + (index.right[i] >= 0 ? size[index.right[i]] : 0);
+                index.end[i] = (index.right[i] >= 0) ? index.end[index.right[i]]
+                        : (index.left[i] >= 0) ? index.end[index.left[i]] : index.own[i];
+
+                double[] b = index.box[i];
+                Arrays.fill(b, 0, 3, Double.POSITIVE_INFINITY);
+                Arrays.fill(b, 3, 6, Double.NEGATIVE_INFINITY);
+                for (int v = index.start[i]; v < index.own[i]; v++) index.extend(b, v);
+                for (int child : new int[]{index.left[i], index.right[i]}) {
+                    if (child < 0) continue;
+                    for (int k = 0; k < 3; k++) {
+                        b[k] = Math.min(b[k], index.box[child][k]);
+                        b[k + 3] = Math.max(b[k + 3], index.box[child][k + 3]);
+                    }
+                }
+            }
+            return index;
+        }
+
+        private void extend(double[] b, int v) {
+            b[0] = Math.min(b[0], x[v]);
+            b[1] = Math.min(b[1], y[v]);
+            b[2] = Math.min(b[2], z[v]);
+            b[3] = Math.max(b[3], x[v]);
+            b[4] = Math.max(b[4], y[v]);
+            b[5] = Math.max(b[5], z[v]);
+        }
+
+        /**
+         * Marks the subtrees whose stations are all in one component.
+         */
+        void label(int[] component) {
+            for (int i = left.length - 1; i >= 0; i--) {
+                int c = -2; // -2: subárvore ainda sem estações
+                for (int v = start[i]; v < own[i] && c != -1; v++) c = merge(c, component[v]);
+                if (left[i] >= 0 && start[left[i]] < end[left[i]]) c = merge(c, label[left[i]]);
+                if (right[i] >= 0 && start[right[i]] < end[right[i]]) c = merge(c, label[right[i]]);
+                label[i] = c;
+            }
+        }
+
+        private static int merge(int c, int other) {
+            return (c == -2 || c == other) ? other : -1;
+        }
+
+        /** Squared chord from station q to the box of node i (0 inside). */
+        double boxChord2(int i, int q) {
+            double[] b = box[i];
+            double dx = Math.max(0, Math.max(b[0] - x[q], x[q] - b[3]));
+            double dy = Math.max(0, Math.max(b[1] - y[q], y[q] - b[4]));
+            double dz = Math.max(0, Math.max(b[2] - z[q], z[q] - b[5]));
+            return dx * dx + dy * dy + dz * dz;
+        }
+
+        double chord2(int p, int q) {
+            double dx = x[p] - x[q];
+            double dy = y[p] - y[q];
+            double dz = z[p] - z[q];
+            return dx * dx + dy * dy + dz * dz;
+        }
+    }
+
+    /**
+     * Nearest station in another component, reusing its stack between queries.
+     */
+    private static final class Search {
+        private final Index index;
+        private final int[] component;
+        private int[] stack = new int[64];
+
+        private int found;
+        private double chord;
+        private int bestA;
+        private int bestB;
+
+        Search(Index index, int[] component) {
+            this.index = index;
+            this.component = component;
+        }
+
+        /**
+         * Looks for a connection from q shorter than the current best (a, b) of its component;
+         * {@code found} is the other station, or -1 if there is none.
+         */
+        void nearest(int q, double bound, int a, int b) {
+            found = -1;
+            chord = bound;
+            bestA = a;
+            bestB = b;
+            int c = component[q];
+            int top = 0;
+            stack[top++] = 0;
+            while (top > 0) {
+                int i = stack[--top];
+                if (index.start[i] == index.end[i] || index.label[i] == c) continue;
+                if (index.boxChord2(i, q) > chord) continue;
+
+                for (int p = index.start[i]; p < index.own[i]; p++) {
+                    if (component[p] == c) continue;
+                    double d = index.chord2(p, q);
+                    if (d < chord || (d == chord && isBefore(q, p))) {
+                        chord = d;
+                        found = p;
+                        bestA = q;
+                        bestB = p;
+                    }
+                }
+
+                int near = index.left[i];
+                int far = index.right[i];
+                if (near >= 0 && far >= 0 && index.boxChord2(far, q) < index.boxChord2(near, q)) {
+                    near = index.right[i];
+                    far = index.left[i];
+                }
+                if (top + 2 > stack.length) stack = Arrays.copyOf(stack, 2 * stack.length);
+                if (far >= 0) stack[top++] = far;
+                if (near >= 0) stack[top++] = near;
+            }
+        }
+
+        /** Tie-break of equal chords: the lexicographically smaller station pair wins. */
+        private boolean isBefore(int q, int p) {
+            if (bestA < 0) return true;
+            int lo = Math.min(q, p), hi = Math.max(q, p);
+            int bestLo = Math.min(bestA, bestB), bestHi = Math.max(bestA, bestB);
+            return lo < bestLo || (lo == bestLo && hi < bestHi);
+        }
+    }
+}
@@ -1,24 +1,175 @@
 package pt.ipp.isep.dei.domain;
-import java.util.Map;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
 
 public class HarmonicCloseness {
 
+    /**
+     * Outcome of an approximate run.
+     *
+     * @param targets Number of sampled target stations (V when the exact values were computed).
+     * @param absoluteError Bound on |estimate - exact| for every station (0 when exact).
+     * @param confidence Probability (1 - delta) with which the bound holds for all stations simultaneously.
+     */
+    public record Approximation(int targets, double absoluteError, double confidence) {}
+
     /**
      * Calcula a proximidade harmónica baseada no somatório dos inversos das distâncias.
      */
     public static void compute(Graph g) {
-        for (StationMetrics m : g.metricsMap.values()) {
+        CSRGraph csr = g.csr();
+        for (int s = 0; s < csr.vertexCount(); s++) {
             // Calcula os caminhos mais curtos a partir desta estação para todas as outras
-            Map<Integer, Double> dists = Dijkstra.shortestPaths(g, m.getStation().idEstacao());
+            double[] dists = Dijkstra.shortestPaths(csr, s);
 
             double hc = 0.0;
-            for (Double d : dists.values()) {
+            for (double d : dists) {
                 // Soma o inverso da distância para todos os nós alcançáveis (d > 0)
                 if (d > 0 && d < Double.POSITIVE_INFINITY) {
                     hc += 1.0 / d;
                 }
             }
-            m.harmonicCloseness = hc;
+            csr.metrics(s).harmonicCloseness = hc;
+            csr.metrics(s).harmonicClosenessError = 0.0;
+        }
+    }
+
+    /**
+     * Harmonic closeness estimated from a sample of target stations, spread over the common
+     * ForkJoin pool. {@code H(v) = sum over t of 1 / d(v, t)}, so one Dijkstra over the incoming
+     * edges from a target t gives its term for every v at once. With k targets drawn uniformly
+     * (with replacement), {@code (V / k) * sum of the sampled terms} is unbiased; every term lies
+     * in [0, 1 / w], w being the shortest positive edge length, so by Hoeffding and a union
+     * bound over the stations every estimate is within {@code epsilon * V / w} of the exact value
+     * with probability at least 1 - delta when k = ln(2V / delta) / (2 * epsilon^2).
+     * <p>
+     * When k would reach V the exact values are computed instead (one reverse search per
+     * station, also in parallel), with a zero error bound.
+     * Time Complexity: O(min(k, V) * (E + V) log V) work.
+     *
+     * @param g The graph; results go to {@code StationMetrics.harmonicCloseness} and
+     *          {@code harmonicClosenessError}.
+     * @param epsilon Additive error relative to {@code V / w} (0 &lt; eps &lt; 1).
+     * @param delta Failure probability (0 &lt; delta &lt; 1).
+     * @param seed Seed for reproducible sampling.
+     * @return The sample size and error bound that were used.
+     */
+    public static Approximation computeApproximate(Graph g, double epsilon, double delta, long seed) {
+        if (epsilon <= 0 || epsilon >= 1 || delta <= 0 || delta >= 1) {
+            throw new IllegalArgumentException("epsilon and delta must be in (0, 1).");
+        }
+        CSRGraph csr = g.csr();
+        int n = csr.vertexCount();
+        double k = Math.ceil(Math.log(2.0 * n / delta) / (2 * epsilon * epsilon));
+
+        int[] targets;
+        double scale;
+        double error;
+        if (n == 0 || k >= n) {
+            // Amostra maior do que a rede: sai mais barato o valor exato
+            targets = new int[n];
+            for (int t = 0; t < n; t++) targets[t] = t;
+            scale = 1.0;
+            error = 0.0;
+        } else {
+            SplittableRandom random = new SplittableRandom(seed);
+            targets = new int[(int) k];
+            for (int i = 0; i < targets.length; i++) targets[i] = random.nextInt(n);
+            scale = (double) n / targets.length;
+            error = epsilon * n / shortestPositiveWeight(csr);
+        }
+
+        double[] sums = inverseDistanceSums(csr, targets);
+        for (int v = 0; v < n; v++) {
+            csr.metrics(v).harmonicCloseness = sums[v] * scale;
+            csr.metrics(v).harmonicClosenessError = error;
+        }
+        return new Approximation(targets.length, error, (error == 0.0) ? 1.0 : 1.0 - delta);
+    }
+
+    private static double shortestPositiveWeight(CSRGraph csr) {
+        double min = Double.POSITIVE_INFINITY;
+        for (double w : csr.weight()) {
+            if (w > 0 && w < min) min = w;
+        }
+        return min;
+    }
+
+    /**
+     * For every vertex v, the sum of 1 / d(v, t) over the given targets (repeats counted).
+     */
+    static double[] inverseDistanceSums(CSRGraph csr, int[] targets) {
+        int n = csr.vertexCount();
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        int tasks = Math.max(1, Math.min(targets.length, pool.getParallelism() * 4));
+        List<TargetTask> work = new ArrayList<>(tasks);
+        for (int t = 0; t < tasks; t++) {
+            work.add(new TargetTask(csr, targets,
+                    (int) ((long) targets.length * t / tasks), (int) ((long) targets.length * (t + 1) / tasks)));
+        }
+
+        double[] total = new double[n];
+        for (TargetTask task : ForkJoinTask.invokeAll(work)) {
+            double[] sums = task.join();
+            for (int v = 0; v < n; v++) total[v] += sums[v];
+        }
+        return total;
+    }
+
+    /**
+     * Runs the reverse searches of a slice of the targets with its own heap and arrays.
+     */
+    @SuppressWarnings("serial") // nunca é serializada
+    private static final class TargetTask extends RecursiveTask<double[]> {
+        private final CSRGraph csr;
+        private final int[] targets;
+        private final int from, to;
+
+        TargetTask(CSRGraph csr, int[] targets, int from, int to) {
+            this.csr = csr;
+            this.targets = targets;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected double[] compute() {
+            int n = csr.vertexCount();
+            int[] inOffsets = csr.inOffsets();
+            int[] inSources = csr.inSources();
+            int[] inEdges = csr.inEdges();
+            double[] weight = csr.weight();
+
+            double[] sums = new double[n];
+            double[] dist = new double[n];
+            IndexedDaryHeap heap = new IndexedDaryHeap(n);
+            for (int i = from; i < to; i++) {
+                int t = targets[i];
+                Arrays.fill(dist, Double.POSITIVE_INFINITY);
+                dist[t] = 0.0;
+                heap.insert(t, 0.0);
+                // Dijkstra pelas arestas de entrada: dist[v] = d(v, t)
+                while (!heap.isEmpty()) {
+                    int u = heap.poll();
+                    double du = dist[u];
+                    if (du > 0) sums[u] += 1.0 / du;
+                    for (int j = inOffsets[u]; j < inOffsets[u + 1]; j++) {
+                        int v = inSources[j];
+                        double nd = du + weight[inEdges[j]];
+                        if (nd < dist[v]) {
+                            dist[v] = nd;
+                            heap.insertOrDecrease(v, nd);
+                        }
+                    }
+                }
+            }
+            return sums;
         }
     }
 }
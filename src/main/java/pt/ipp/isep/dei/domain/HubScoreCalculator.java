@@ -2,6 +2,12 @@ package pt.ipp.isep.dei.domain;
 
 
 public class HubScoreCalculator {
+
+    // Pesos do hub score: betweenness, proximidade harmónica e força normalizadas
+    static final double BETWEENNESS_WEIGHT = 0.35;
+    static final double HARMONIC_WEIGHT = 0.35;
+    static final double STRENGTH_WEIGHT = 0.30;
+
     public static void compute(Graph g) {
         double maxB = 0, maxH = 0, maxS = 0;
         for (StationMetrics m : g.metricsMap.values()) {
@@ -16,7 +22,35 @@ public class HubScoreCalculator {
             m.strengthNorm = (maxS > 0) ? m.strength / maxS : 0;
 
             // hubscore = 0.35 * betw + 0.35 * harmonic + 0.30 * strengthNorm
-            m.hubScore = (0.35 * m.betweennessNorm) + (0.35 * m.harmonicClosenessNorm) + (0.30 * m.strengthNorm);
+            m.hubScore = (BETWEENNESS_WEIGHT * m.betweennessNorm) + (HARMONIC_WEIGHT * m.harmonicClosenessNorm)
+                    + (STRENGTH_WEIGHT * m.strengthNorm);
         }
     }
+
+    /**
+     * Bounds of an approximate hub-score run; both hold together with probability at least
+     * 1 - delta (each centrality gets delta / 2).
+     *
+     * @param betweenness Sample size and error bound of the betweenness.
+     * @param harmonic Sample size and error bound of the harmonic closeness.
+     */
+    public record Approximation(Betweenness.Approximation betweenness, HarmonicCloseness.Approximation harmonic) {}
+
+    /**
+     * Full hub-score pipeline by sampling: degree/strength are exact, betweenness
+     * (sampled shortest paths) and harmonic closeness (sampled targets) are estimated in
+     * parallel with the given (epsilon, delta) guarantee, and their bounds are stored in
+     * {@code StationMetrics.betweennessError} and {@code harmonicClosenessError}.
+     * Harmonic closeness falls back to its exact value (still in parallel, one reverse
+     * Dijkstra per station and no Brandes accumulation) when its sample would reach V.
+     *
+     * @return The sample sizes and error bounds that were used.
+     */
+    public static Approximation computeApproximate(Graph g, double epsilon, double delta, long seed) {
+        DegreeStrength.compute(g);
+        HarmonicCloseness.Approximation harmonic = HarmonicCloseness.computeApproximate(g, epsilon, delta / 2, seed);
+        Betweenness.Approximation betweenness = Betweenness.computeApproximate(g, epsilon, delta / 2, seed + 1);
+        compute(g);
+        return new Approximation(betweenness, harmonic);
+    }
 }
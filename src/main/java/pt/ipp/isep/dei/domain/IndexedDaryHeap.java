@@ -0,0 +1,154 @@
+package pt.ipp.isep.dei.domain;
+
+import java.util.Arrays;
+
+/**
+ * Indexed d-ary min-heap over the integer items {@code 0..capacity-1} with double keys.
+ * The position of every item is tracked, so {@link #decreaseKey} is a real O(log_d n)
+ * sift-up instead of inserting a duplicate entry. All state lives in primitive arrays
+ * and {@link #clear()} only touches the items still queued, so one instance can be
+ * reused for many searches.
+ * <p>
+ * A 4-ary heap keeps the tree shallow (fewer sift-up levels on decrease-key, which
+ * dominates on road/rail graphs) while each sift-down level still scans one cache line.
+ */
+public final class IndexedDaryHeap {
+
+    private final int arity;
+    private final int[] heap;     // heap slot -> item
+    private final int[] position; // item -> heap slot, -1 if not queued
+    private final double[] key;   // item -> key
+    private int size;
+
+    /**
+     * Creates a 4-ary heap.
+     *
+     * @param capacity Number of distinct items (e.g. vertices).
+     */
+    public IndexedDaryHeap(int capacity) {
+        this(capacity, 4);
+    }
+
+    /**
+     * @param capacity Number of distinct items (e.g. vertices).
+     * @param arity Children per node (at least 2).
+     */
+    public IndexedDaryHeap(int capacity, int arity) {
+        if (arity < 2) throw new IllegalArgumentException("Heap arity must be at least 2.");
+        this.arity = arity;
+        this.heap = new int[capacity];
+        this.position = new int[capacity];
+        this.key = new double[capacity];
+        Arrays.fill(position, -1);
+    }
+
+    public boolean isEmpty() { return size == 0; }
+
+    public int size() { return size; }
+
+    public boolean contains(int item) { return position[item] >= 0; }
+
+    /** @return The key of the minimum item (heap must not be empty). */
+    public double peekKey() { return key[heap[0]]; }
+
+    /**
+     * Inserts the item, or lowers its key if it is already queued with a larger one.
+     *
+     * @param item The item.
+     * @param newKey The new key.
+     * @return true if the heap changed.
+     */
+    public boolean insertOrDecrease(int item, double newKey) {
+        if (position[item] < 0) {
+            insert(item, newKey);
+            return true;
+        }
+        if (newKey < key[item]) {
+            decreaseKey(item, newKey);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Inserts an item that is not queued.
+     */
+    public void insert(int item, double newKey) {
+        key[item] = newKey;
+        int slot = size++;
+        heap[slot] = item;
+        position[item] = slot;
+        siftUp(slot);
+    }
+
+    /**
+     * Lowers the key of a queued item.
+     */
+    public void decreaseKey(int item, double newKey) {
+        key[item] = newKey;
+        siftUp(position[item]);
+    }
+
+    /**
+     * Removes and returns the item with the smallest key.
+     */
+    public int poll() {
+        int min = heap[0];
+        position[min] = -1;
+        int last = heap[--size];
+        if (size > 0) {
+            heap[0] = last;
+            position[last] = 0;
+            siftDown(0);
+        }
+        return min;
+    }
+
+    /**
+     * Empties the heap in O(size).
+     */
+    public void clear() {
+        for (int i = 0; i < size; i++) position[heap[i]] = -1;
+        size = 0;
+    }
+
+    private void siftUp(int slot) {
+        int item = heap[slot];
+        double k = key[item];
+        while (slot > 0) {
+            int parent = (slot - 1) / arity;
+            int parentItem = heap[parent];
+            if (key[parentItem] <= k) break;
+            heap[slot] = parentItem;
+            position[parentItem] = slot;
+            slot = parent;
+        }
+        heap[slot] = item;
+        position[item] = slot;
+    }
+
+    private void siftDown(int slot) {
+        int item = heap[slot];
+        double k = key[item];
+        while (true) {
+            int first = slot * arity + 1;
+            if (first >= size) break;
+            int last = Math.min(first + arity, size);
+            int best = first;
+            double bestKey = key[heap[first]];
+            for (int c = first + 1; c < last; c++) {
+                double ck = key[heap[c]];
+                if (ck < bestKey) {
+                    best = c;
+                    bestKey = ck;
+                }
+            }
+            if (k <= bestKey) break;
+            heap[slot] = heap[best];
+            position[heap[slot]] = slot;
+            slot = best;
+        }
+        heap[slot] = item;
+        position[item] = slot;
+    }
+}
@@ -0,0 +1,140 @@
+package pt.ipp.isep.dei.domain;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Johnson reweighting of the risk {@code cost} of a {@link CSRGraph}, for answering many
+ * minimum-cost queries on the same network.
+ * <p>
+ * One Bellman-Ford (SPFA) from a virtual source linked to every station gives potentials
+ * {@code h} with {@code cost(u,v) + h(u) - h(v) >= 0} on every edge, so every later query is a
+ * Dijkstra on these reduced costs. Path costs are unchanged up to the constant
+ * {@code h(t) - h(s)}, so the minimum-cost path is the same.
+ * <p>
+ * If the network has a negative cycle there are no valid potentials: it is reported once by
+ * {@link #negativeCycle()}, and {@link #findPath} answers with {@link BellmanFord#findPath}
+ * (which reports the cycle only when it is reachable from the origin).
+ */
+public final class JohnsonReweighting {
+
+    private final CSRGraph graph;
+    private final double[] potential;
+    private final double[] reducedCost;
+    private final double[] cost;
+    private final List<Integer> negativeCycle;
+
+    private JohnsonReweighting(CSRGraph graph, double[] potential, double[] reducedCost, List<Integer> negativeCycle) {
+        this.graph = graph;
+        this.potential = potential;
+        this.reducedCost = reducedCost;
+        this.cost = graph.cost();
+        this.negativeCycle = negativeCycle;
+    }
+
+    /**
+     * Computes the potentials and reduced costs of a CSR graph.
+     * Time Complexity: O(V * E) worst case, usually far less with SPFA.
+     *
+     * @param g The CSR graph.
+     * @return The reweighting (or the negative cycle found).
+     */
+    public static JohnsonReweighting compute(CSRGraph g) {
+        int n = g.vertexCount();
+        double[] cost = g.cost();
+        double[] h = new double[n];
+        int[] predecessor = new int[n];
+
+        int cycleVertex = BellmanFord.shortestPaths(g, -1, cost, h, predecessor);
+        if (cycleVertex >= 0) {
+            return new JohnsonReweighting(g, null, null, BellmanFord.traceCycle(g, predecessor, cycleVertex));
+        }
+
+        int[] offsets = g.offsets();
+        int[] targets = g.targets();
+        double[] reduced = new double[cost.length];
+        for (int u = 0; u < n; u++) {
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                // Clamp rounding noise on tight edges (mathematically >= 0)
+                reduced[e] = Math.max(0.0, cost[e] + h[u] - h[targets[e]]);
+            }
+        }
+        return new JohnsonReweighting(g, h, reduced, null);
+    }
+
+    /** @return The CSR graph (version) these potentials belong to. */
+    public CSRGraph graph() { return graph; }
+
+    /**
+     * @return The potential h(v) of a dense vertex index (NaN if the network has a negative cycle).
+     */
+    public double potential(int v) {
+        return (potential == null) ? Double.NaN : potential[v];
+    }
+
+    /** @return The non-negative reduced cost of every CSR edge (null if the network has a negative cycle). */
+    double[] reducedCosts() { return reducedCost; }
+
+    /** @return true if the network has a negative cycle (no potentials exist). */
+    public boolean hasNegativeCycle() { return negativeCycle != null; }
+
+    /**
+     * @return A negative cycle of the network (first station repeated at the end), or null.
+     */
+    public List<Integer> negativeCycle() {
+        return (negativeCycle == null) ? null : Collections.unmodifiableList(negativeCycle);
+    }
+
+    /**
+     * Minimum-cost path by risk {@code cost}, with the same results as {@link BellmanFord#findPath}.
+     *
+     * @param g The graph these potentials were computed for.
+     * @param startId The start station id.
+     * @param targetId The target station id.
+     * @return The path and cost, or the negative cycle reachable from the start.
+     */
+    public BellmanFord.PathResult findPath(Graph g, int startId, int targetId) {
+        if (negativeCycle != null) {
+            return BellmanFord.findPath(g, startId, targetId);
+        }
+        int start = graph.indexOf(startId);
+        int target = graph.indexOf(targetId);
+        if (start < 0 || target < 0) {
+            return new BellmanFord.PathResult(new ArrayList<>(), 0, null);
+        }
+
+        Dijkstra.Workspace ws = Dijkstra.workspace(graph);
+        ws.run(start, new int[]{target}, Double.POSITIVE_INFINITY, reducedCost);
+
+        LinkedList<Integer> path = new LinkedList<>();
+        path.addFirst(targetId);
+        if (ws.dist(target) == Double.POSITIVE_INFINITY) {
+            return new BellmanFord.PathResult(path, Double.POSITIVE_INFINITY, null);
+        }
+
+        // Sum the original costs along the path rather than undoing the potentials (no rounding drift)
+        double total = 0.0;
+        for (int curr = target; curr != start; ) {
+            int u = ws.pred(curr);
+            total += cost[cheapestEdge(u, curr)];
+            path.addFirst(graph.stationId(u));
+            curr = u;
+        }
+        return new BellmanFord.PathResult(path, total, null);
+    }
+
+    /**
+     * The edge u -> v the search used: the one with the smallest reduced cost among parallel edges.
+     */
+    private int cheapestEdge(int u, int v) {
+        int[] offsets = graph.offsets();
+        int[] targets = graph.targets();
+        int best = -1;
+        for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+            if (targets[e] == v && (best < 0 || reducedCost[e] < reducedCost[best])) best = e;
+        }
+        return best;
+    }
+}
@@ -2,6 +2,7 @@ package pt.ipp.isep.dei.domain;
 
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Map;
 import java.util.HashMap;
 import java.util.Set;
@@ -231,6 +232,168 @@ public class KDTree {
         getBucketSizesRecursive(node.right, bucketSizes);
     }
 
+    // --- Incremental Maintenance ---
+
+    /**
+     * Inserts a single station, descending with the same partition rule used by
+     * {@code buildBalanced} (strictly smaller coordinates go left). A station whose
+     * coordinates match an existing bucket joins that bucket in name order.
+     * Time Complexity: O(h), where h is the height of the tree.
+     *
+     * @param station The station to insert.
+     */
+    public void insert(EuropeanStation station) {
+        double lat = station.getLatitude();
+        double lon = station.getLongitude();
+
+        if (root == null) {
+            root = new Node(new ArrayList<>(List.of(station)), 0);
+            size++;
+            return;
+        }
+
+        Node node = root;
+        while (true) {
+            if (Double.compare(node.latitude, lat) == 0 && Double.compare(node.longitude, lon) == 0) {
+                int pos = Collections.binarySearch(node.stations, station);
+                node.stations.add(pos < 0 ? -pos - 1 : pos, station);
+                size++;
+                return;
+            }
+
+            int dim = node.depth % 2;
+            double coord = (dim == 0) ? lat : lon;
+            if (coord < node.getCoordinate(dim)) {
+                if (node.left == null) {
+                    node.left = new Node(new ArrayList<>(List.of(station)), node.depth + 1);
+                    size++;
+                    return;
+                }
+                node = node.left;
+            } else {
+                if (node.right == null) {
+                    node.right = new Node(new ArrayList<>(List.of(station)), node.depth + 1);
+                    size++;
+                    return;
+                }
+                node = node.right;
+            }
+        }
+    }
+
+    /**
+     * Removes a single station. When its bucket becomes empty the node is replaced
+     * by the minimum (in the node's splitting dimension) of one of its sub-trees.
+     * Time Complexity: O(h) to locate the bucket plus O(sqrt(N)) for a node replacement.
+     *
+     * @param station The station to remove.
+     * @return true if the station was found and removed.
+     */
+    public boolean remove(EuropeanStation station) {
+        boolean[] removed = new boolean[1];
+        root = removeRecursive(root, station, removed);
+        if (removed[0]) {
+            size--;
+        }
+        return removed[0];
+    }
+
+    private Node removeRecursive(Node node, EuropeanStation station, boolean[] removed) {
+        if (node == null) {
+            return null;
+        }
+
+        double lat = station.getLatitude();
+        double lon = station.getLongitude();
+
+        if (Double.compare(node.latitude, lat) == 0 && Double.compare(node.longitude, lon) == 0) {
+            if (!node.stations.remove(station)) {
+                return node;
+            }
+            removed[0] = true;
+            return node.stations.isEmpty() ? deleteNode(node) : node;
+        }
+
+        int dim = node.depth % 2;
+        double coord = (dim == 0) ? lat : lon;
+        if (coord < node.getCoordinate(dim)) {
+            node.left = removeRecursive(node.left, station, removed);
+        } else {
+            node.right = removeRecursive(node.right, station, removed);
+        }
+        return node;
+    }
+
+    /**
+     * Deletes an (empty) node, keeping the KD invariant: left &lt; cut &lt;= right.
+     */
+    private Node deleteNode(Node node) {
+        int dim = node.depth % 2;
+
+        if (node.right != null) {
+            Node min = findMin(node.right, dim);
+            Node replacement = new Node(min.stations, node.depth);
+            replacement.left = node.left;
+            replacement.right = deleteBucket(node.right, min);
+            return replacement;
+        }
+
+        if (node.left != null) {
+            // No right sub-tree: the minimum of the left sub-tree becomes the cut and
+            // the remaining left sub-tree moves to the right (all of it is >= the new cut).
+            Node min = findMin(node.left, dim);
+            Node replacement = new Node(min.stations, node.depth);
+            replacement.right = deleteBucket(node.left, min);
+            return replacement;
+        }
+
+        return null;
+    }
+
+    /**
+     * Removes the node holding the given bucket from the sub-tree rooted at {@code node}.
+     */
+    private Node deleteBucket(Node node, Node target) {
+        if (node == null) {
+            return null;
+        }
+        if (node == target) {
+            return deleteNode(node);
+        }
+
+        int dim = node.depth % 2;
+        double coord = target.getCoordinate(dim);
+        if (coord < node.getCoordinate(dim)) {
+            node.left = deleteBucket(node.left, target);
+        } else {
+            node.right = deleteBucket(node.right, target);
+        }
+        return node;
+    }
+
+    /**
+     * Finds the node with the smallest coordinate in the given dimension.
+     * Only one child needs to be visited at levels that split on that dimension.
+     */
+    private Node findMin(Node node, int dim) {
+        if (node == null) {
+            return null;
+        }
+
+        Node best = node;
+        Node leftMin = findMin(node.left, dim);
+        if (leftMin != null && leftMin.getCoordinate(dim) < best.getCoordinate(dim)) {
+            best = leftMin;
+        }
+        if (node.depth % 2 != dim) {
+            Node rightMin = findMin(node.right, dim);
+            if (rightMin != null && rightMin.getCoordinate(dim) < best.getCoordinate(dim)) {
+                best = rightMin;
+            }
+        }
+        return best;
+    }
+
     // --- Search Methods (USEI08, USEI10) ---
 
     /**
@@ -0,0 +1,141 @@
+package pt.ipp.isep.dei.domain;
+
+import java.util.Arrays;
+
+/**
+ * ALT bound (A*, Landmarks, Triangle inequality). For a few landmarks {@code L} the exact
+ * travel times {@code d(L, v)} and {@code d(v, L)} are precomputed, and
+ * {@code d(v, t) >= max(d(L, t) - d(L, v), d(v, L) - d(t, L))}.
+ * Landmarks are chosen by farthest-point selection, so they sit on the periphery of the
+ * network where they give the tightest bounds for long queries.
+ * Memory: 2 * landmarks * V doubles.
+ */
+public final class LandmarkBound implements TravelTimeBound {
+
+    /** Default number of landmarks. */
+    public static final int DEFAULT_LANDMARKS = 8;
+
+    private final long graphFingerprint;
+    private final double speedCap;
+    private final int[] landmarks;
+    private final double[][] fromLandmark; // [l][v] = d(L, v)
+    private final double[][] toLandmark;   // [l][v] = d(v, L)
+
+    private LandmarkBound(long graphFingerprint, double speedCap, int[] landmarks,
+                          double[][] fromLandmark, double[][] toLandmark) {
+        this.graphFingerprint = graphFingerprint;
+        this.speedCap = speedCap;
+        this.landmarks = landmarks;
+        this.fromLandmark = fromLandmark;
+        this.toLandmark = toLandmark;
+    }
+
+    /**
+     * Selects the landmarks and precomputes their travel times.
+     * Time Complexity: O(landmarks * (E + V) log V).
+     *
+     * @param graph The routing graph.
+     * @param speedCap The speed cap (km/h) of the queries.
+     * @param count The number of landmarks.
+     * @return The bound.
+     */
+    public static LandmarkBound build(RoutingGraph graph, double speedCap, int count) {
+        int n = graph.vertexCount();
+        int m = graph.edgeCount();
+        int[] offsets = graph.offsets();
+        int[] targets = graph.targets();
+        double[] time = graph.travelTimes(speedCap);
+
+        // Reverse CSR for the distances towards each landmark
+        int[] inOffsets = new int[n + 1];
+        int[] inSources = new int[m];
+        int[] inEdges = new int[m];
+        for (int e = 0; e < m; e++) inOffsets[targets[e] + 1]++;
+        for (int v = 0; v < n; v++) inOffsets[v + 1] += inOffsets[v];
+        int[] next = Arrays.copyOf(inOffsets, n);
+        for (int u = 0; u < n; u++) {
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                int slot = next[targets[e]]++;
+                inSources[slot] = u;
+                inEdges[slot] = e;
+            }
+        }
+
+        count = Math.min(count, n);
+        int[] chosen = new int[count];
+        double[][] from = new double[count][];
+        double[][] to = new double[count][];
+
+        // Farthest-point selection on the symmetric travel time d(L, v) + d(v, L)
+        double[] nearest = new double[n];
+        Arrays.fill(nearest, Double.POSITIVE_INFINITY);
+        int candidate = 0;
+        for (int l = 0; l < count; l++) {
+            chosen[l] = candidate;
+            from[l] = oneToAll(candidate, offsets, targets, null, time, n);
+            to[l] = oneToAll(candidate, inOffsets, inSources, inEdges, time, n);
+
+            int farthest = -1;
+            double best = -1;
+            for (int v = 0; v < n; v++) {
+                double d = from[l][v] + to[l][v];
+                if (d < nearest[v]) nearest[v] = d;
+                // Unreachable vertices (infinite) are preferred: they need a landmark of their own
+                if (nearest[v] > best) {
+                    best = nearest[v];
+                    farthest = v;
+                }
+            }
+            candidate = farthest;
+        }
+        return new LandmarkBound(graph.fingerprint(), speedCap, chosen, from, to);
+    }
+
+    private static double[] oneToAll(int src, int[] offsets, int[] adj, int[] edgeOf, double[] time, int n) {
+        double[] dist = new double[n];
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        IndexedDaryHeap heap = new IndexedDaryHeap(n);
+        dist[src] = 0.0;
+        heap.insert(src, 0.0);
+        while (!heap.isEmpty()) {
+            int u = heap.poll();
+            for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+                double nd = dist[u] + time[(edgeOf == null) ? i : edgeOf[i]];
+                int v = adj[i];
+                if (nd < dist[v]) {
+                    dist[v] = nd;
+                    heap.insertOrDecrease(v, nd);
+                }
+            }
+        }
+        return dist;
+    }
+
+    @Override
+    public double lowerBound(int v, int target) {
+        double bound = 0.0;
+        for (int l = 0; l < landmarks.length; l++) {
+            double[] from = fromLandmark[l];
+            double[] to = toLandmark[l];
+            // d(L,t) <= d(L,v) + d(v,t): meaningful only if L reaches v (infinite if L reaches v but not t)
+            if (from[v] != Double.POSITIVE_INFINITY) {
+                double b = from[target] - from[v];
+                if (b > bound) bound = b;
+            }
+            // d(v,L) <= d(v,t) + d(t,L): meaningful only if t reaches L
+            if (to[target] != Double.POSITIVE_INFINITY) {
+                double b = to[v] - to[target];
+                if (b > bound) bound = b;
+            }
+        }
+        return bound;
+    }
+
+    /** @return The dense indexes of the landmarks. */
+    public int[] landmarks() { return landmarks.clone(); }
+
+    @Override
+    public boolean matches(RoutingGraph graph, double speedCap) {
+        return graphFingerprint == graph.fingerprint() && Double.compare(this.speedCap, speedCap) == 0;
+    }
+}
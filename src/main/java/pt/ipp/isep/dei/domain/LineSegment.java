@@ -1,6 +1,8 @@
 // File: pt.ipp.isep.dei.domain.LineSegment.java
 package pt.ipp.isep.dei.domain;
 
+import pt.ipp.isep.dei.repository.SegmentLineRepository;
+
 /**
  * Represents a railway line segment between two stations.
  */
@@ -52,6 +54,15 @@ public class LineSegment {
         return this.idSegmento;
     }
 
+    /**
+     * Retorna o ID da via física: os dois sentidos (prefixo INV_) partilham o mesmo.
+     */
+    public String getPhysicalSegmentId() {
+        return idSegmento.startsWith(SegmentLineRepository.INVERSE_ID_PREFIX)
+                ? idSegmento.substring(SegmentLineRepository.INVERSE_ID_PREFIX.length())
+                : idSegmento;
+    }
+
     /**
      * Retorna o comprimento do segmento. O valor é em KM, de acordo com a definição do campo 'comprimento'.
      */
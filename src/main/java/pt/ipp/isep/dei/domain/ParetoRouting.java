@@ -0,0 +1,261 @@
+package pt.ipp.isep.dei.domain;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Pareto front of (distance, risk cost) paths between two stations: every path for which no
+ * other path is both shorter and cheaper (one route per distinct pair of values).
+ * <p>
+ * Bi-objective label-setting search (BOA*): labels are expanded in lexicographic order of
+ * {@code (distance + hDistance, cost + hCost)}, where the two lower bounds come from reverse
+ * Dijkstra searches from the target. Because labels leave the queue by increasing distance,
+ * a label is dominated exactly when its cost is not below the cheapest label already
+ * expanded at its station, so dominance is a single comparison per station, and a label
+ * that cannot beat the cheapest route already found is dropped (target pruning).
+ * <p>
+ * Risk costs may be negative; the search runs on the Johnson reduced costs of the graph
+ * (non-negative, and every path cost shifts by the same constant), and the reported costs
+ * are the sums of the original ones. A network with a negative cycle has no front.
+ * <p>
+ * Labels live in growable primitive arrays owned by the instance and reused by every query.
+ */
+public final class ParetoRouting {
+
+    /**
+     * One Pareto-optimal route.
+     *
+     * @param stations The station ids from start to target.
+     * @param distance Total distance (edge {@code weight}).
+     * @param cost Total risk {@code cost}.
+     */
+    public record Route(List<Integer> stations, double distance, double cost) {}
+
+    /**
+     * Outcome of a query.
+     *
+     * @param routes The front, by increasing distance (so by decreasing cost); empty if unreachable.
+     * @param negativeCycle A negative-cost cycle of the network (no front exists), or null.
+     */
+    public record Result(List<Route> routes, List<Integer> negativeCycle) {}
+
+    private static final int INITIAL_LABELS = 1024;
+
+    private final CSRGraph graph;
+    private final double[] reducedCost;
+    private final List<Integer> negativeCycle;
+
+    // Limites inferiores até ao destino (pesquisas inversas)
+    private final double[] hDistance;
+    private final double[] hCost;
+    private final IndexedDaryHeap vertexHeap;
+
+    // Custo reduzido mínimo dos rótulos já expandidos em cada estação
+    private final double[] minCost;
+    private final int[] touched;
+    private int touchedCount;
+
+    // Rótulos: estação, distância, custo reduzido, rótulo anterior e aresta usada
+    private int labelCount;
+    private int[] labelVertex = new int[INITIAL_LABELS];
+    private double[] labelDistance = new double[INITIAL_LABELS];
+    private double[] labelCost = new double[INITIAL_LABELS];
+    private int[] labelParent = new int[INITIAL_LABELS];
+    private int[] labelEdge = new int[INITIAL_LABELS];
+
+    // Fila de rótulos: heap binário ordenado por (f distância, f custo)
+    private int[] queue = new int[INITIAL_LABELS];
+    private int queueSize;
+
+    private ParetoRouting(CSRGraph graph, JohnsonReweighting johnson) {
+        int n = graph.vertexCount();
+        this.graph = graph;
+        this.reducedCost = johnson.reducedCosts();
+        this.negativeCycle = johnson.negativeCycle();
+        this.hDistance = new double[n];
+        this.hCost = new double[n];
+        this.vertexHeap = new IndexedDaryHeap(n);
+        this.minCost = new double[n];
+        this.touched = new int[n];
+        Arrays.fill(minCost, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Prepares the search for a graph (reusing its cached Johnson reweighting).
+     *
+     * @param g The graph; the instance stays valid until a station or edge is added.
+     * @return A reusable search.
+     */
+    public static ParetoRouting of(Graph g) {
+        return new ParetoRouting(g.csr(), g.johnson());
+    }
+
+    /**
+     * Pareto front between two stations (one-off query).
+     *
+     * @param g The graph.
+     * @param startId The start station id.
+     * @param targetId The target station id.
+     * @return The front.
+     */
+    public static Result compute(Graph g, int startId, int targetId) {
+        return of(g).route(startId, targetId);
+    }
+
+    /**
+     * Pareto front between two stations.
+     * Time Complexity: O(L log L + E log V) for L generated labels.
+     *
+     * @param startId The start station id.
+     * @param targetId The target station id.
+     * @return The front (empty if either station is unknown or the target is unreachable).
+     */
+    public Result route(int startId, int targetId) {
+        if (negativeCycle != null) return new Result(List.of(), negativeCycle);
+        int start = graph.indexOf(startId);
+        int target = graph.indexOf(targetId);
+        if (start < 0 || target < 0) return new Result(List.of(), null);
+
+        reverseSearch(target, graph.weight(), hDistance);
+        reverseSearch(target, reducedCost, hCost);
+        if (hDistance[start] == Double.POSITIVE_INFINITY) return new Result(List.of(), null);
+
+        resetLabels();
+        List<Integer> solutions = new ArrayList<>();
+        int[] offsets = graph.offsets();
+        int[] targets = graph.targets();
+        double[] weight = graph.weight();
+
+        push(start, 0.0, 0.0, -1, -1);
+        while (queueSize > 0) {
+            int l = pop();
+            int v = labelVertex[l];
+            double c = labelCost[l];
+            // Dominado por um rótulo já expandido na estação ou por uma rota já encontrada
+            if (c >= minCost[v] || c + hCost[v] >= minCost[target]) continue;
+            if (minCost[v] == Double.POSITIVE_INFINITY) touched[touchedCount++] = v;
+            minCost[v] = c;
+            if (v == target) {
+                solutions.add(l);
+                continue;
+            }
+            double d = labelDistance[l];
+            for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                int w = targets[e];
+                if (hDistance[w] == Double.POSITIVE_INFINITY) continue;
+                double nc = c + reducedCost[e];
+                if (nc >= minCost[w] || nc + hCost[w] >= minCost[target]) continue;
+                push(w, d + weight[e], nc, l, e);
+            }
+        }
+
+        List<Route> routes = new ArrayList<>(solutions.size());
+        for (int l : solutions) routes.add(route(l));
+        return new Result(routes, null);
+    }
+
+    /**
+     * Rebuilds the route of a target label, summing the original weights and costs.
+     */
+    private Route route(int label) {
+        double[] weight = graph.weight();
+        double[] cost = graph.cost();
+        LinkedList<Integer> stations = new LinkedList<>();
+        double distance = 0.0;
+        double total = 0.0;
+        for (int l = label; l >= 0; l = labelParent[l]) {
+            stations.addFirst(graph.stationId(labelVertex[l]));
+            int e = labelEdge[l];
+            if (e >= 0) {
+                distance += weight[e];
+                total += cost[e];
+            }
+        }
+        return new Route(List.copyOf(stations), distance, total);
+    }
+
+    /**
+     * Dijkstra from the target over the incoming edges: lower bound of every station to it.
+     */
+    private void reverseSearch(int target, double[] length, double[] out) {
+        int[] inOffsets = graph.inOffsets();
+        int[] inSources = graph.inSources();
+        int[] inEdges = graph.inEdges();
+        Arrays.fill(out, Double.POSITIVE_INFINITY);
+        out[target] = 0.0;
+        vertexHeap.insert(target, 0.0);
+        while (!vertexHeap.isEmpty()) {
+            int v = vertexHeap.poll();
+            for (int i = inOffsets[v]; i < inOffsets[v + 1]; i++) {
+                int u = inSources[i];
+                double nd = out[v] + length[inEdges[i]];
+                if (nd < out[u]) {
+                    out[u] = nd;
+                    vertexHeap.insertOrDecrease(u, nd);
+                }
+            }
+        }
+    }
+
+    private void resetLabels() {
+        for (int i = 0; i < touchedCount; i++) minCost[touched[i]] = Double.POSITIVE_INFINITY;
+        touchedCount = 0;
+        labelCount = 0;
+        queueSize = 0;
+    }
+
+    private void push(int vertex, double distance, double cost, int parent, int edge) {
+        if (labelCount == labelVertex.length) {
+            int size = labelVertex.length * 2;
+            labelVertex = Arrays.copyOf(labelVertex, size);
+            labelDistance = Arrays.copyOf(labelDistance, size);
+            labelCost = Arrays.copyOf(labelCost, size);
+            labelParent = Arrays.copyOf(labelParent, size);
+            labelEdge = Arrays.copyOf(labelEdge, size);
+        }
+        int l = labelCount++;
+        labelVertex[l] = vertex;
+        labelDistance[l] = distance;
+        labelCost[l] = cost;
+        labelParent[l] = parent;
+        labelEdge[l] = edge;
+
+        if (queueSize == queue.length) queue = Arrays.copyOf(queue, queueSize * 2);
+        int slot = queueSize++;
+        while (slot > 0) {
+            int parentSlot = (slot - 1) >>> 1;
+            if (!before(l, queue[parentSlot])) break;
+            queue[slot] = queue[parentSlot];
+            slot = parentSlot;
+        }
+        queue[slot] = l;
+    }
+
+    private int pop() {
+        int min = queue[0];
+        int last = queue[--queueSize];
+        int slot = 0;
+        while (true) {
+            int child = 2 * slot + 1;
+            if (child >= queueSize) break;
+            if (child + 1 < queueSize && before(queue[child + 1], queue[child])) child++;
+            if (!before(queue[child], last)) break;
+            queue[slot] = queue[child];
+            slot = child;
+        }
+        if (queueSize > 0) queue[slot] = last;
+        return min;
+    }
+
+    /**
+     * Lexicographic order of (distance + hDistance, cost + hCost).
+     */
+    private boolean before(int a, int b) {
+        double fa = labelDistance[a] + hDistance[labelVertex[a]];
+        double fb = labelDistance[b] + hDistance[labelVertex[b]];
+        if (fa != fb) return fa < fb;
+        return labelCost[a] + hCost[labelVertex[a]] < labelCost[b] + hCost[labelVertex[b]];
+    }
+}
@@ -0,0 +1,550 @@
+package pt.ipp.isep.dei.domain;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.zip.CRC32C;
+
+/**
+ * Column-oriented contents of a {@code stations.csv} / {@code lines.csv} pair, shared by
+ * {@link CSVLoader}, {@link BackboneNetwork} and {@link RailwayFlowService}.
+ * <p>
+ * Both files are memory-mapped and parsed straight from the bytes (no per-line Strings, no
+ * exceptions for malformed numbers). The parsed arrays are written to a binary cache keyed by
+ * the CRC32C of both files, so a later load of unchanged files only checksums them and maps
+ * the cache back in.
+ * <p>
+ * A station is kept when its id parses; a line when its endpoints and distance parse. Missing
+ * or malformed optional fields are NaN (coordinates, cost) or {@link #NO_CAPACITY}, and each
+ * consumer applies its own requirements on top.
+ */
+public final class RailwayCsvData {
+
+    /** Capacity of a line whose capacity column is missing or not an integer. */
+    public static final int NO_CAPACITY = Integer.MIN_VALUE;
+
+    private static final int FILE_MAGIC = 0x52435631; // "RCV1"
+    private static final int MAX_FIELDS = 32;
+
+    private static volatile Path cacheDirectory = Paths.get(System.getProperty("java.io.tmpdir"), "railway-csv");
+
+    private final long checksum;
+    private final boolean fromCache;
+
+    private final int[] stationIds;
+    private final String[] stationNames;
+    private final double[] latitude;
+    private final double[] longitude;
+    private final double[] coordX;
+    private final double[] coordY;
+
+    private final int[] lineFrom;
+    private final int[] lineTo;
+    private final double[] lineDistance;
+    private final int[] lineCapacity;
+    private final double[] lineCost;
+
+    private RailwayCsvData(long checksum, boolean fromCache,
+                           int[] stationIds, String[] stationNames, double[] latitude, double[] longitude,
+                           double[] coordX, double[] coordY,
+                           int[] lineFrom, int[] lineTo, double[] lineDistance, int[] lineCapacity, double[] lineCost) {
+        this.checksum = checksum;
+        this.fromCache = fromCache;
+        this.stationIds = stationIds;
+        this.stationNames = stationNames;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.coordX = coordX;
+        this.coordY = coordY;
+        this.lineFrom = lineFrom;
+        this.lineTo = lineTo;
+        this.lineDistance = lineDistance;
+        this.lineCapacity = lineCapacity;
+        this.lineCost = lineCost;
+    }
+
+    /**
+     * Sets the directory of the binary cache (null disables the cache).
+     *
+     * @param directory The cache directory, or null.
+     */
+    public static void setCacheDirectory(Path directory) {
+        cacheDirectory = directory;
+    }
+
+    /** @return The directory of the binary cache, or null if caching is disabled. */
+    public static Path getCacheDirectory() {
+        return cacheDirectory;
+    }
+
+    /**
+     * Loads a stations/lines pair, from the binary cache when both files are unchanged.
+     *
+     * @param stationsFile Path to the stations CSV file.
+     * @param linesFile Path to the lines CSV file.
+     * @return The parsed data.
+     * @throws IOException If either file cannot be read.
+     */
+    public static RailwayCsvData load(String stationsFile, String linesFile) throws IOException {
+        Path stations = Paths.get(stationsFile);
+        Path lines = Paths.get(linesFile);
+        Path directory = cacheDirectory;
+
+        try (FileChannel sc = FileChannel.open(stations, StandardOpenOption.READ);
+             FileChannel lc = FileChannel.open(lines, StandardOpenOption.READ)) {
+            MappedByteBuffer sb = map(sc, stations);
+            MappedByteBuffer lb = map(lc, lines);
+            long checksum = (crc(sb) << 32) | crc(lb);
+
+            Path file = null;
+            if (directory != null) {
+                file = directory.resolve(String.format("csv-%016x.bin", checksum));
+                if (Files.exists(file)) {
+                    try {
+                        RailwayCsvData cached = readCache(file, checksum, sb.limit(), lb.limit());
+                        if (cached != null) return cached;
+                    } catch (IOException | RuntimeException e) {
+                        System.err.println("RailwayCsvData: ⚠️ Ignoring unreadable cache " + file + ": " + e.getMessage());
+                    }
+                }
+            }
+
+            RailwayCsvData parsed = parse(checksum, sb, lb);
+            if (file != null) {
+                try {
+                    parsed.writeCache(file, sb.limit(), lb.limit());
+                } catch (IOException e) {
+                    System.err.println("RailwayCsvData: ⚠️ Could not save cache " + file + ": " + e.getMessage());
+                }
+            }
+            return parsed;
+        }
+    }
+
+    /** @return The combined CRC32C of the stations (high half) and lines (low half) files. */
+    public long checksum() { return checksum; }
+
+    /** @return true if this data was read from the binary cache instead of parsed. */
+    public boolean fromCache() { return fromCache; }
+
+    public int stationCount() { return stationIds.length; }
+
+    public int stationId(int i) { return stationIds[i]; }
+
+    public String stationName(int i) { return stationNames[i]; }
+
+    public double latitude(int i) { return latitude[i]; }
+
+    public double longitude(int i) { return longitude[i]; }
+
+    public double coordX(int i) { return coordX[i]; }
+
+    public double coordY(int i) { return coordY[i]; }
+
+    /**
+     * Builds the station of a row; missing coordinates are kept as NaN.
+     *
+     * @param i The station row.
+     * @return The station.
+     */
+    public Station station(int i) {
+        return new Station(stationIds[i], stationNames[i], latitude[i], longitude[i], coordX[i], coordY[i]);
+    }
+
+    public int lineCount() { return lineFrom.length; }
+
+    public int lineFrom(int i) { return lineFrom[i]; }
+
+    public int lineTo(int i) { return lineTo[i]; }
+
+    public double lineDistance(int i) { return lineDistance[i]; }
+
+    /** @return The capacity of a line, or {@link #NO_CAPACITY}. */
+    public int lineCapacity(int i) { return lineCapacity[i]; }
+
+    /** @return The cost of a line, or NaN if missing. */
+    public double lineCost(int i) { return lineCost[i]; }
+
+    private static MappedByteBuffer map(FileChannel channel, Path path) throws IOException {
+        long size = channel.size();
+        if (size > Integer.MAX_VALUE) throw new IOException("File too large to map: " + path);
+        return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+    }
+
+    private static long crc(ByteBuffer buffer) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.duplicate());
+        return crc.getValue();
+    }
+
+    private static RailwayCsvData parse(long checksum, ByteBuffer stations, ByteBuffer lines) {
+        Lines in = new Lines(stations);
+
+        // Colunas das estações resolvidas pelo cabeçalho (alguns ficheiros têm a coluna do país)
+        String[] header = in.next() ? in.header() : new String[0];
+        int cLat = column(header, 2, "lat", "latitude");
+        int cLon = column(header, 3, "lon", "longitude");
+        int cX = column(header, 4, "coordx", "x");
+        int cY = column(header, 5, "coordy", "y");
+
+        int n = 0;
+        int[] ids = new int[64];
+        String[] names = new String[64];
+        double[] lat = new double[64], lon = new double[64], x = new double[64], y = new double[64];
+        while (in.next()) {
+            if (in.fields < 2) continue;
+            long id = in.parseInt(0);
+            if (id == Long.MIN_VALUE) continue;
+            if (n == ids.length) {
+                int cap = n * 2;
+                ids = Arrays.copyOf(ids, cap);
+                names = Arrays.copyOf(names, cap);
+                lat = Arrays.copyOf(lat, cap);
+                lon = Arrays.copyOf(lon, cap);
+                x = Arrays.copyOf(x, cap);
+                y = Arrays.copyOf(y, cap);
+            }
+            ids[n] = (int) id;
+            names[n] = in.string(1);
+            lat[n] = in.parseDouble(cLat);
+            lon[n] = in.parseDouble(cLon);
+            x[n] = in.parseDouble(cX);
+            y[n] = in.parseDouble(cY);
+            n++;
+        }
+
+        in = new Lines(lines);
+        header = in.next() ? in.header() : new String[0];
+        int cFrom = column(header, 0, "departure_stid");
+        int cTo = column(header, 1, "arrival_stid");
+        int cDist = column(header, 2, "dist", "distance");
+        int cCap = column(header, 3, "capacity");
+        int cCost = column(header, 4, "cost");
+
+        int m = 0;
+        int[] from = new int[64], to = new int[64], capacity = new int[64];
+        double[] dist = new double[64], cost = new double[64];
+        while (in.next()) {
+            long u = in.parseInt(cFrom);
+            long v = in.parseInt(cTo);
+            double d = in.parseDouble(cDist);
+            if (u == Long.MIN_VALUE || v == Long.MIN_VALUE || Double.isNaN(d)) continue;
+            if (m == from.length) {
+                int cap = m * 2;
+                from = Arrays.copyOf(from, cap);
+                to = Arrays.copyOf(to, cap);
+                capacity = Arrays.copyOf(capacity, cap);
+                dist = Arrays.copyOf(dist, cap);
+                cost = Arrays.copyOf(cost, cap);
+            }
+            long c = in.parseInt(cCap);
+            from[m] = (int) u;
+            to[m] = (int) v;
+            dist[m] = d;
+            capacity[m] = (c == Long.MIN_VALUE) ? NO_CAPACITY : (int) c;
+            cost[m] = in.parseDouble(cCost);
+            m++;
+        }
+
+        return new RailwayCsvData(checksum, false,
+                Arrays.copyOf(ids, n), Arrays.copyOf(names, n), Arrays.copyOf(lat, n), Arrays.copyOf(lon, n),
+                Arrays.copyOf(x, n), Arrays.copyOf(y, n),
+                Arrays.copyOf(from, m), Arrays.copyOf(to, m), Arrays.copyOf(dist, m),
+                Arrays.copyOf(capacity, m), Arrays.copyOf(cost, m));
+    }
+
+    private static int column(String[] header, int fallback, String... names) {
+        for (int i = 0; i < header.length; i++) {
+            for (String name : names) {
+                if (header[i].equals(name)) return i;
+            }
+        }
+        return fallback;
+    }
+
+    /**
+     * Record cursor over a mapped CSV file: {@link #next} splits the next non-empty line into
+     * field boundaries, and the parse methods read a field directly from the buffer.
+     */
+    private static final class Lines {
+        private final ByteBuffer buf;
+        private final int limit;
+        private int pos;
+
+        private final int[] start = new int[MAX_FIELDS];
+        private final int[] end = new int[MAX_FIELDS];
+        private int fields;
+
+        Lines(ByteBuffer buf) {
+            this.buf = buf;
+            this.limit = buf.limit();
+            // Saltar o BOM UTF-8, se existir
+            if (limit >= 3 && buf.get(0) == (byte) 0xEF && buf.get(1) == (byte) 0xBB && buf.get(2) == (byte) 0xBF) pos = 3;
+        }
+
+        boolean next() {
+            while (pos < limit) {
+                int lineStart = pos;
+                int lineEnd = lineStart;
+                while (lineEnd < limit && buf.get(lineEnd) != '\n') lineEnd++;
+                pos = lineEnd + 1;
+                if (lineEnd > lineStart && buf.get(lineEnd - 1) == '\r') lineEnd--;
+                if (isBlank(lineStart, lineEnd)) continue;
+
+                fields = 0;
+                int s = lineStart;
+                for (int i = lineStart; i <= lineEnd && fields < MAX_FIELDS; i++) {
+                    if (i == lineEnd || buf.get(i) == ',') {
+                        start[fields] = s;
+                        end[fields] = i;
+                        fields++;
+                        s = i + 1;
+                    }
+                }
+                return true;
+            }
+            return false;
+        }
+
+        private boolean isBlank(int from, int to) {
+            for (int i = from; i < to; i++) {
+                byte b = buf.get(i);
+                if (b != ' ' && b != '\t') return false;
+            }
+            return true;
+        }
+
+        String[] header() {
+            String[] names = new String[fields];
+            for (int f = 0; f < fields; f++) names[f] = string(f).toLowerCase(Locale.ROOT);
+            return names;
+        }
+
+        String string(int f) {
+            if (f >= fields) return "";
+            return new String(bytes(start[f], end[f]), StandardCharsets.UTF_8).trim();
+        }
+
+        /**
+         * @return The integer value of a field, or Long.MIN_VALUE if missing, malformed or out of int range.
+         */
+        long parseInt(int f) {
+            if (f >= fields) return Long.MIN_VALUE;
+            int i = start[f], e = end[f];
+            while (i < e && buf.get(i) <= ' ') i++;
+            while (e > i && buf.get(e - 1) <= ' ') e--;
+            if (i == e) return Long.MIN_VALUE;
+
+            boolean negative = false;
+            byte first = buf.get(i);
+            if (first == '-' || first == '+') {
+                negative = first == '-';
+                if (++i == e) return Long.MIN_VALUE;
+            }
+            long value = 0;
+            for (; i < e; i++) {
+                int d = buf.get(i) - '0';
+                if (d < 0 || d > 9) return Long.MIN_VALUE;
+                value = value * 10 + d;
+                if (value > (long) Integer.MAX_VALUE + 1) return Long.MIN_VALUE;
+            }
+            if (negative) value = -value;
+            return (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) ? Long.MIN_VALUE : value;
+        }
+
+        /**
+         * Parses a decimal field. Values with at most 15 significant digits and a small exponent
+         * are exact as one multiplication or division by a power of ten; anything else (longer
+         * mantissas, special forms) goes through {@link Double#parseDouble}.
+         *
+         * @return The value, or NaN if the field is missing or malformed.
+         */
+        double parseDouble(int f) {
+            if (f >= fields) return Double.NaN;
+            int i = start[f], e = end[f];
+            while (i < e && buf.get(i) <= ' ') i++;
+            while (e > i && buf.get(e - 1) <= ' ') e--;
+            if (i == e) return Double.NaN;
+            int from = i;
+
+            boolean negative = false;
+            byte first = buf.get(i);
+            if (first == '-' || first == '+') {
+                negative = first == '-';
+                i++;
+            }
+            long mantissa = 0;
+            int digits = 0;
+            int exponent = 0;
+            boolean seenDigit = false;
+            boolean seenPoint = false;
+            for (; i < e; i++) {
+                byte b = buf.get(i);
+                if (b >= '0' && b <= '9') {
+                    seenDigit = true;
+                    if (mantissa == 0 && b == '0') {
+                        if (seenPoint) exponent--;
+                        continue; // zeros à esquerda não contam como dígitos significativos
+                    }
+                    if (++digits > 15) return slowParse(from, e);
+                    mantissa = mantissa * 10 + (b - '0');
+                    if (seenPoint) exponent--;
+                } else if (b == '.' && !seenPoint) {
+                    seenPoint = true;
+                } else if ((b == 'e' || b == 'E') && seenDigit) {
+                    long exp = parseExponent(i + 1, e);
+                    if (exp == Long.MIN_VALUE) return slowParse(from, e);
+                    exponent += (int) exp;
+                    i = e;
+                    break;
+                } else {
+                    return slowParse(from, e);
+                }
+            }
+            if (!seenDigit) return slowParse(from, e);
+
+            double value;
+            if (mantissa == 0) value = 0.0;
+            else if (exponent >= 0 && exponent < POWERS_OF_TEN.length) value = mantissa * POWERS_OF_TEN[exponent];
+            else if (exponent < 0 && -exponent < POWERS_OF_TEN.length) value = mantissa / POWERS_OF_TEN[-exponent];
+            else return slowParse(from, e);
+            return negative ? -value : value;
+        }
+
+        private long parseExponent(int i, int e) {
+            if (i == e) return Long.MIN_VALUE;
+            boolean negative = false;
+            byte first = buf.get(i);
+            if (first == '-' || first == '+') {
+                negative = first == '-';
+                if (++i == e) return Long.MIN_VALUE;
+            }
+            long value = 0;
+            for (; i < e; i++) {
+                int d = buf.get(i) - '0';
+                if (d < 0 || d > 9 || value > 1000) return Long.MIN_VALUE;
+                value = value * 10 + d;
+            }
+            return negative ? -value : value;
+        }
+
+        // Cópia byte a byte: os get(int, byte[]) de buffers mapeados têm custo fixo alto para campos curtos
+        private byte[] bytes(int from, int to) {
+            byte[] bytes = new byte[to - from];
+            for (int i = 0; i < bytes.length; i++) bytes[i] = buf.get(from + i);
+            return bytes;
+        }
+
+        private double slowParse(int from, int to) {
+            try {
+                return Double.parseDouble(new String(bytes(from, to), StandardCharsets.ISO_8859_1));
+            } catch (NumberFormatException ex) {
+                return Double.NaN;
+            }
+        }
+    }
+
+    // Potências de 10 representáveis exatamente num double
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private void writeCache(Path file, long stationsLength, long linesLength) throws IOException {
+        int n = stationIds.length;
+        int m = lineFrom.length;
+        byte[][] names = new byte[n][];
+        long size = 4 + 8 + 8 + 8 + 4 + 4;
+        for (int i = 0; i < n; i++) {
+            names[i] = stationNames[i].getBytes(StandardCharsets.UTF_8);
+            size += 4 + names[i].length;
+        }
+        size += (long) n * (4 + 4 * 8) + (long) m * (4 + 4 + 8 + 4 + 8);
+        if (size > Integer.MAX_VALUE) throw new IOException("Network too large to cache");
+
+        ByteBuffer out = ByteBuffer.allocate((int) size).order(ByteOrder.BIG_ENDIAN);
+        out.putInt(FILE_MAGIC).putLong(checksum).putLong(stationsLength).putLong(linesLength);
+        out.putInt(n).putInt(m);
+        putInts(out, stationIds);
+        putDoubles(out, latitude);
+        putDoubles(out, longitude);
+        putDoubles(out, coordX);
+        putDoubles(out, coordY);
+        putInts(out, lineFrom);
+        putInts(out, lineTo);
+        putDoubles(out, lineDistance);
+        putInts(out, lineCapacity);
+        putDoubles(out, lineCost);
+        for (byte[] name : names) {
+            out.putInt(name.length).put(name);
+        }
+        out.flip();
+
+        Files.createDirectories(file.getParent());
+        Path tmp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+            while (out.hasRemaining()) channel.write(out);
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static RailwayCsvData readCache(Path file, long checksum, long stationsLength, long linesLength)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer in = map(channel, file).order(ByteOrder.BIG_ENDIAN);
+            if (in.getInt() != FILE_MAGIC) throw new IOException("Not a railway CSV cache file: " + file);
+            if (in.getLong() != checksum || in.getLong() != stationsLength || in.getLong() != linesLength) {
+                return null;
+            }
+            int n = in.getInt();
+            int m = in.getInt();
+            int[] ids = getInts(in, n);
+            double[] lat = getDoubles(in, n), lon = getDoubles(in, n), x = getDoubles(in, n), y = getDoubles(in, n);
+            int[] from = getInts(in, m), to = getInts(in, m);
+            double[] dist = getDoubles(in, m);
+            int[] capacity = getInts(in, m);
+            double[] cost = getDoubles(in, m);
+            String[] names = new String[n];
+            for (int i = 0; i < n; i++) {
+                byte[] bytes = new byte[in.getInt()];
+                in.get(bytes);
+                names[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+            return new RailwayCsvData(checksum, true, ids, names, lat, lon, x, y, from, to, dist, capacity, cost);
+        }
+    }
+
+    private static void putInts(ByteBuffer out, int[] values) {
+        out.asIntBuffer().put(values);
+        out.position(out.position() + values.length * 4);
+    }
+
+    private static void putDoubles(ByteBuffer out, double[] values) {
+        out.asDoubleBuffer().put(values);
+        out.position(out.position() + values.length * 8);
+    }
+
+    private static int[] getInts(ByteBuffer in, int count) {
+        int[] values = new int[count];
+        in.asIntBuffer().get(values);
+        in.position(in.position() + count * 4);
+        return values;
+    }
+
+    private static double[] getDoubles(ByteBuffer in, int count) {
+        double[] values = new double[count];
+        in.asDoubleBuffer().get(values);
+        in.position(in.position() + count * 8);
+        return values;
+    }
+}
@@ -1,7 +1,5 @@
 package pt.ipp.isep.dei.domain;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
 import java.util.*;
 
@@ -53,42 +51,23 @@ public class RailwayFlowService {
         csvStationNames.clear();
         csvSegments.clear();
 
+        RailwayCsvData data = RailwayCsvData.load(stationsFile, linesFile);
+
         // 1. Loading Stations
-        try (BufferedReader br = new BufferedReader(new FileReader(stationsFile))) {
-            String line = br.readLine(); // Skip header
-            while ((line = br.readLine()) != null) {
-                String[] parts = line.split(",");
-                if (parts.length >= 2) {
-                    try {
-                        int id = Integer.parseInt(parts[0].trim());
-                        String name = parts[1].trim();
-                        csvStationNames.put(id, name);
-                    } catch (NumberFormatException ignored) {}
-                }
-            }
+        for (int i = 0; i < data.stationCount(); i++) {
+            csvStationNames.put(data.stationId(i), data.stationName(i));
         }
 
-        // 2. Loading Connections and Capacities
-        try (BufferedReader br = new BufferedReader(new FileReader(linesFile))) {
-            String line = br.readLine(); // Skip header
-            while ((line = br.readLine()) != null) {
-                String[] parts = line.split(",");
-                if (parts.length >= 4) {
-                    try {
-                        int from = Integer.parseInt(parts[0].trim());
-                        int to = Integer.parseInt(parts[1].trim());
-                        double dist = Double.parseDouble(parts[2].trim());
-                        int capacity = Integer.parseInt(parts[3].trim());
-
-                        LineSegment seg = new LineSegment(
-                                "CSV-" + from + "-" + to,
-                                from, to, dist, 0, capacity, null, null
-                        );
-                        csvSegments.add(seg);
-
-                    } catch (NumberFormatException ignored) {}
-                }
-            }
+        // 2. Loading Connections and Capacities (lines without an integer capacity are ignored)
+        for (int i = 0; i < data.lineCount(); i++) {
+            int capacity = data.lineCapacity(i);
+            if (capacity == RailwayCsvData.NO_CAPACITY) continue;
+            int from = data.lineFrom(i);
+            int to = data.lineTo(i);
+            csvSegments.add(new LineSegment(
+                    "CSV-" + from + "-" + to,
+                    from, to, data.lineDistance(i), 0, capacity, null, null
+            ));
         }
 
         csvLoaded = true;
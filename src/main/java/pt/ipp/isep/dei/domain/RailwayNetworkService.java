@@ -3,22 +3,106 @@ package pt.ipp.isep.dei.domain;
 import pt.ipp.isep.dei.repository.StationRepository;
 import pt.ipp.isep.dei.repository.SegmentLineRepository;
 
-import java.util.*;
-import java.util.stream.Collectors;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * Service for railway network calculations and path finding.
  */
 public class RailwayNetworkService {
 
+    /**
+     * Point-to-point search used when no contraction hierarchy is ready for the speed cap.
+     */
+    public enum SearchMode {
+        /** Plain Dijkstra. */
+        DIJKSTRA,
+        /** A* with the great-circle lower bound (Dijkstra if some facility has no coordinates). */
+        GREAT_CIRCLE,
+        /** A* with landmark (ALT) lower bounds. */
+        LANDMARKS
+    }
+
     private final StationRepository estacaoRepo;
     private final SegmentLineRepository segmentoRepo;
 
+    // Snapshot of the segment network, rebuilt when the repository version changes
+    private volatile RoutingGraph routingGraph;
+
+    // Contraction hierarchies per speed cap; queries fall back to Dijkstra while one is (re)built
+    private final Set<Double> hierarchyCaps = ConcurrentHashMap.newKeySet();
+    private final Map<Double, ContractionHierarchy> hierarchies = new ConcurrentHashMap<>();
+    private final Map<Double, CompletableFuture<ContractionHierarchy>> hierarchyBuilds = new ConcurrentHashMap<>();
+    private volatile Path hierarchyDirectory = Paths.get(System.getProperty("java.io.tmpdir"), "railway-ch");
+    private ExecutorService hierarchyExecutor;
+
+    // A* lower bounds per speed cap, valid while the network content is unchanged
+    private volatile SearchMode searchMode = SearchMode.GREAT_CIRCLE;
+    private final Map<Double, TravelTimeBound> bounds = new ConcurrentHashMap<>();
+    private volatile Map<Integer, double[]> facilityCoordinates;
+
+    // Marca nos bounds que não há limite para esta versão da rede (ex.: coordenadas em falta)
+    private record NoBound(long graphFingerprint, double speedCap) implements TravelTimeBound {
+        @Override
+        public double lowerBound(int v, int target) {
+            return 0.0;
+        }
+
+        @Override
+        public boolean matches(RoutingGraph graph, double speedCap) {
+            return graphFingerprint == graph.fingerprint() && Double.compare(this.speedCap, speedCap) == 0;
+        }
+    }
+
+    // Recently used travel time matrices (access order, bounded)
+    private static final int MAX_CACHED_MATRICES = 32;
+    private record MatrixKey(List<Integer> sources, List<Integer> targets, double speedCap) { }
+    private final Map<MatrixKey, TravelTimeMatrix> matrices = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<MatrixKey, TravelTimeMatrix> eldest) {
+            return size() > MAX_CACHED_MATRICES;
+        }
+    };
+
     public RailwayNetworkService(StationRepository estacaoRepo, SegmentLineRepository segmentoRepo) {
         this.estacaoRepo = estacaoRepo;
         this.segmentoRepo = segmentoRepo;
     }
 
+    /**
+     * Returns the routing graph of the current segment set, rebuilding it only when the
+     * repository version has changed since the last build.
+     *
+     * @return The up-to-date immutable routing graph.
+     */
+    public RoutingGraph getRoutingGraph() {
+        long currentVersion = segmentoRepo.getVersion();
+        RoutingGraph graph = routingGraph;
+        if (graph == null || graph.version() != currentVersion) {
+            synchronized (this) {
+                graph = routingGraph;
+                if (graph == null || graph.version() != currentVersion) {
+                    graph = RoutingGraph.build(segmentoRepo.findAll(), currentVersion);
+                    routingGraph = graph;
+                }
+            }
+        }
+        return graph;
+    }
+
     /**
      * Finds the fastest path between two stations using Dijkstra's algorithm,
      * considerando a given maximum speed limit.
@@ -32,148 +116,227 @@ public class RailwayNetworkService {
         if (maxSpeedLimit <= 0) {
             throw new IllegalArgumentException("Maximum speed limit must be a positive value.");
         }
+        return fastestPathOn(getRoutingGraph(), idPartida, idChegada, maxSpeedLimit);
+    }
 
-        List<LineSegment> allSegments = segmentoRepo.findAll();
-
-        // --- CONSTRUÇÃO DO GRAFO DE ADJACÊNCIAS ---
-        Map<Integer, List<LineSegment>> adj = new HashMap<>();
-        Set<Integer> allFacilityIds = new HashSet<>();
-
-        for (LineSegment seg : allSegments) {
-            allFacilityIds.add(seg.getIdEstacaoInicio());
-            allFacilityIds.add(seg.getIdEstacaoFim());
+    private RailwayPath fastestPathOn(RoutingGraph graph, int idPartida, int idChegada, double maxSpeedLimit) {
+        if (hierarchyCaps.contains(maxSpeedLimit)) {
+            ContractionHierarchy ch = hierarchies.get(maxSpeedLimit);
+            if (ch != null && ch.matches(graph, maxSpeedLimit)) {
+                return ch.fastestPath(graph, idPartida, idChegada);
+            }
+            // Stale or not ready yet: rebuild in the background and answer with Dijkstra
+            prepareContractionHierarchy(maxSpeedLimit);
+        }
+        return graph.fastestPath(idPartida, idChegada, maxSpeedLimit, travelTimeBound(graph, maxSpeedLimit));
+    }
 
-            // Adiciona o segmento (aresta) à lista de segmentos que saem do nó de início
-            adj.computeIfAbsent(seg.getIdEstacaoInicio(), k -> new ArrayList<>()).add(seg);
+    /**
+     * K fastest loopless routes between two stations, so that a dispatcher can weigh a detour
+     * against delaying a train on single track (see {@link AlternativeRoutes}).
+     *
+     * @param idPartida ID da estação de partida.
+     * @param idChegada ID da estação de chegada.
+     * @param maxSpeedLimit A velocidade máxima em km/h a ser usada no cálculo.
+     * @param k Número máximo de rotas.
+     * @return As rotas por tempo crescente, com a sobreposição em relação à mais rápida.
+     */
+    public List<AlternativeRoutes.Route> findAlternativeRoutes(int idPartida, int idChegada, double maxSpeedLimit, int k) {
+        if (maxSpeedLimit <= 0) {
+            throw new IllegalArgumentException("Maximum speed limit must be a positive value.");
         }
-        // --- FIM CONSTRUÇÃO DO GRAFO ---
+        return AlternativeRoutes.compute(getRoutingGraph(), idPartida, idChegada, maxSpeedLimit, k);
+    }
 
-        // Mapas para o algoritmo de Dijkstra
-        Map<Integer, Double> timeTo = new HashMap<>();
-        Map<Integer, LineSegment> edgeTo = new HashMap<>();
-        Map<Integer, Integer> predecessorNode = new HashMap<>();
-        PriorityQueue<Map.Entry<Integer, Double>> pq = new PriorityQueue<>(Map.Entry.comparingByValue());
+    /**
+     * Earliest-arrival route for a new train that departs at a given time, waiting for or
+     * avoiding the single-track segments occupied by already scheduled trips
+     * (see {@link TimeDependentRouting}).
+     *
+     * @param idPartida ID da estação de partida.
+     * @param idChegada ID da estação de chegada.
+     * @param departure Hora de partida.
+     * @param maxSpeedLimit A velocidade máxima em km/h a ser usada no cálculo.
+     * @param scheduledTrips Viagens já escalonadas (com as passagens por segmento calculadas).
+     * @return A rota com as horas de passagem, ou null se não houver caminho.
+     */
+    public TimeDependentRouting.Route findEarliestArrival(int idPartida, int idChegada, LocalDateTime departure,
+                                                         double maxSpeedLimit, Collection<TrainTrip> scheduledTrips) {
+        return TimeDependentRouting.build(getRoutingGraph(), maxSpeedLimit, scheduledTrips)
+                .earliestArrival(idPartida, idChegada, departure);
+    }
 
-        // Inicializar distâncias
-        for (int facilityId : allFacilityIds) {
-            timeTo.put(facilityId, Double.POSITIVE_INFINITY);
+    /**
+     * Travel times between every source and every target facility, computed with parallel
+     * one-to-many searches. Matrices are cached per (sources, targets, speed cap) and dropped
+     * when the network changes. Cell paths are rebuilt on demand through the same search as
+     * {@link #findFastestPath}.
+     *
+     * @param sources Source facility ids (rows).
+     * @param targets Target facility ids (columns).
+     * @param speedCap The maximum speed in km/h.
+     * @return The travel time matrix.
+     */
+    public TravelTimeMatrix travelTimeMatrix(List<Integer> sources, List<Integer> targets, double speedCap) {
+        if (speedCap <= 0) {
+            throw new IllegalArgumentException("Maximum speed limit must be a positive value.");
         }
+        RoutingGraph graph = getRoutingGraph();
+        MatrixKey key = new MatrixKey(List.copyOf(sources), List.copyOf(targets), speedCap);
 
-        if (!timeTo.containsKey(idPartida) || !timeTo.containsKey(idChegada)) {
-            return null;
+        synchronized (matrices) {
+            TravelTimeMatrix cached = matrices.get(key);
+            if (cached != null && cached.graphVersion() == graph.version()) return cached;
         }
 
-        timeTo.put(idPartida, 0.0);
-        pq.add(new AbstractMap.SimpleEntry<>(idPartida, 0.0));
-
-        while (!pq.isEmpty()) {
-            int u = pq.poll().getKey();
-
-            if (u == idChegada) {
-                break;
-            }
-
-            // Relaxar SOMENTE as arestas (segmentos) que saem de 'u'
-            for (LineSegment seg : adj.getOrDefault(u, Collections.emptyList())) {
+        TravelTimeMatrix matrix = TravelTimeMatrix.compute(graph, key.sources(), key.targets(), speedCap,
+                (from, to) -> fastestPathOn(graph, from, to, speedCap));
+        synchronized (matrices) {
+            matrices.values().removeIf(m -> m.graphVersion() != graph.version());
+            matrices.put(key, matrix);
+        }
+        return matrix;
+    }
 
-                int v = seg.getIdEstacaoFim();
+    /**
+     * Selects the search used by {@link #findFastestPath} when no contraction hierarchy applies.
+     *
+     * @param searchMode The search mode.
+     */
+    public void setSearchMode(SearchMode searchMode) {
+        this.searchMode = searchMode;
+        bounds.clear();
+    }
 
-                // Calcula o tempo de viagem
-                double effectiveSpeed = Math.min(seg.getVelocidadeMaxima(), maxSpeedLimit);
-                double lengthKm = seg.getComprimento();
+    public SearchMode getSearchMode() {
+        return searchMode;
+    }
 
-                double travelTime;
-                if (effectiveSpeed <= 0 || lengthKm <= 0) {
-                    travelTime = Double.POSITIVE_INFINITY;
-                } else {
-                    travelTime = lengthKm / effectiveSpeed; // Tempo em horas
-                }
+    /**
+     * Returns the A* bound of the current search mode for the graph and speed cap, building it
+     * on first use after every network change. A bound that cannot be built is remembered too,
+     * so the Dijkstra fallback is not retried on every query.
+     *
+     * @return The bound, or null for plain Dijkstra.
+     */
+    private TravelTimeBound travelTimeBound(RoutingGraph graph, double speedCap) {
+        SearchMode mode = searchMode;
+        if (mode == SearchMode.DIJKSTRA) return null;
 
-                if (travelTime <= 0 || Double.isInfinite(travelTime) || Double.isNaN(travelTime)) {
-                    continue;
-                }
+        TravelTimeBound bound = bounds.get(speedCap);
+        if (bound != null && bound.matches(graph, speedCap)) {
+            return (bound instanceof NoBound) ? null : bound;
+        }
 
-                if (timeTo.get(u) + travelTime < timeTo.get(v)) {
-                    double newTime = timeTo.get(u) + travelTime;
-                    timeTo.put(v, newTime);
-                    edgeTo.put(v, seg);
-                    predecessorNode.put(v, u);
+        bound = (mode == SearchMode.LANDMARKS)
+                ? LandmarkBound.build(graph, speedCap, LandmarkBound.DEFAULT_LANDMARKS)
+                : GreatCircleBound.build(graph, speedCap, facilityCoordinates());
+        bounds.put(speedCap, (bound != null) ? bound : new NoBound(graph.fingerprint(), speedCap));
+        return bound;
+    }
 
-                    Map.Entry<Integer, Double> oldEntry = new AbstractMap.SimpleEntry<>(v, timeTo.get(v));
-                    pq.remove(oldEntry);
-                    pq.add(new AbstractMap.SimpleEntry<>(v, newTime));
+    /**
+     * Latitude/longitude of every station known to the station repository (loaded once).
+     */
+    private Map<Integer, double[]> facilityCoordinates() {
+        Map<Integer, double[]> coordinates = facilityCoordinates;
+        if (coordinates == null) {
+            coordinates = new HashMap<>();
+            if (estacaoRepo != null) {
+                for (EuropeanStation station : estacaoRepo.findAll()) {
+                    coordinates.put(station.getIdEstacao(), new double[]{station.getLatitude(), station.getLongitude()});
                 }
             }
+            facilityCoordinates = coordinates;
         }
+        return coordinates;
+    }
 
-        if (!timeTo.containsKey(idChegada) || timeTo.get(idChegada) == Double.POSITIVE_INFINITY) {
-            return null;
+    /**
+     * Requests a contraction hierarchy for the given speed cap. It is loaded from the cache
+     * directory when a file for the current network exists, otherwise built in the background
+     * and saved there. Until it is ready, and again whenever the segments change,
+     * {@link #findFastestPath} keeps answering with plain Dijkstra for that speed cap.
+     *
+     * @param speedCap The speed cap (km/h) the hierarchy is keyed by.
+     * @return A future completed with the hierarchy.
+     */
+    public CompletableFuture<ContractionHierarchy> prepareContractionHierarchy(double speedCap) {
+        if (speedCap <= 0) {
+            throw new IllegalArgumentException("Maximum speed limit must be a positive value.");
         }
+        hierarchyCaps.add(speedCap);
+        RoutingGraph graph = getRoutingGraph();
+        ContractionHierarchy ready = hierarchies.get(speedCap);
+        if (ready != null && ready.matches(graph, speedCap)) {
+            return CompletableFuture.completedFuture(ready);
+        }
+        return hierarchyBuilds.compute(speedCap, (cap, running) -> {
+            if (running != null && !running.isDone()) return running;
+            return CompletableFuture.supplyAsync(() -> loadOrBuildHierarchy(graph, cap), hierarchyExecutor())
+                    .whenComplete((ch, error) -> {
+                        if (ch != null) hierarchies.put(cap, ch);
+                        else System.err.println("RailwayNetworkService: ❌ Contraction hierarchy failed: " + error.getMessage());
+                    });
+        });
+    }
 
-        // Reconstruir o caminho
-        List<LineSegment> path = new ArrayList<>();
-        double totalDistance = 0;
-        int curr = idChegada;
-        while (curr != idPartida) {
-            if (!predecessorNode.containsKey(curr)) {
-                return null;
-            }
-            LineSegment seg = edgeTo.get(curr);
-            if (seg == null) {
-                return null;
-            }
-            path.add(seg);
-            totalDistance += seg.getComprimento();
-
-            curr = seg.getIdEstacaoInicio();
+    /**
+     * Sets the directory where contraction hierarchies are cached between runs.
+     *
+     * @param directory The cache directory.
+     */
+    public void setHierarchyDirectory(Path directory) {
+        this.hierarchyDirectory = directory;
+    }
 
-            if (curr == seg.getIdEstacaoFim()) {
-                return null;
+    private ContractionHierarchy loadOrBuildHierarchy(RoutingGraph graph, double speedCap) {
+        Path file = hierarchyDirectory.resolve(
+                String.format("ch-%016x-%s.bin", graph.fingerprint(), Double.toString(speedCap)));
+        if (Files.exists(file)) {
+            try {
+                ContractionHierarchy loaded = ContractionHierarchy.load(file, graph, speedCap);
+                if (loaded != null) return loaded;
+            } catch (IOException e) {
+                System.err.println("RailwayNetworkService: ⚠️ Ignoring unreadable hierarchy " + file + ": " + e.getMessage());
             }
         }
-        Collections.reverse(path);
+        ContractionHierarchy built = ContractionHierarchy.build(graph, speedCap);
+        try {
+            built.save(file);
+        } catch (IOException e) {
+            System.err.println("RailwayNetworkService: ⚠️ Could not save hierarchy " + file + ": " + e.getMessage());
+        }
+        return built;
+    }
+
+    private synchronized ExecutorService hierarchyExecutor() {
+        if (hierarchyExecutor == null) {
+            hierarchyExecutor = Executors.newSingleThreadExecutor(r -> {
+                Thread t = new Thread(r, "ch-preprocessing");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        return hierarchyExecutor;
+    }
 
-        return new RailwayPath(path, totalDistance, timeTo.get(idChegada));
+    /**
+     * Returns the reachability index of the current segment set (built once per network version).
+     *
+     * @return The connectivity index.
+     */
+    public ConnectivityIndex getConnectivityIndex() {
+        return getRoutingGraph().connectivity();
     }
 
     /**
-     * Encontra todos os IDs de facilities alcançáveis (reachable) a partir de um ponto de partida.
-     * Implementa uma busca em largura (BFS) no grafo ferroviário.
+     * Encontra todos os IDs de facilities alcançáveis (reachable) a partir de um ponto de partida,
+     * ignorando o sentido dos segmentos (componente ligada pré-calculada, O(resultado)).
      * @param startFacilityId ID da facility de partida.
      * @return Lista de IDs de facilities alcançáveis.
      */
     public List<Integer> findAllReachableFacilities(int startFacilityId) {
-        Set<Integer> reachable = new HashSet<>();
-        Queue<Integer> queue = new LinkedList<>();
-
-        // 1. Constrói a Lista de Adjacência bidirecional
-        Map<Integer, List<LineSegment>> adj = new HashMap<>();
-        for (LineSegment seg : segmentoRepo.findAll()) {
-            // Adiciona as duas direções para garantir a conectividade
-            adj.computeIfAbsent(seg.getIdEstacaoInicio(), k -> new ArrayList<>()).add(seg);
-            adj.computeIfAbsent(seg.getIdEstacaoFim(), k -> new ArrayList<>()).add(seg);
-        }
-
-        // 2. Inicializa a busca em largura (BFS)
-        queue.add(startFacilityId);
-        reachable.add(startFacilityId);
-
-        while (!queue.isEmpty()) {
-            int current = queue.poll();
-
-            for (LineSegment seg : adj.getOrDefault(current, Collections.emptyList())) {
-                // Determina o vizinho
-                int neighbor = (seg.getIdEstacaoInicio() == current) ? seg.getIdEstacaoFim() : seg.getIdEstacaoInicio();
-
-                if (!reachable.contains(neighbor)) {
-                    reachable.add(neighbor);
-                    queue.add(neighbor);
-                }
-            }
-        }
-
-        // 3. Retorna a lista de IDs alcançáveis (excluindo o próprio ponto de partida)
-        reachable.remove(startFacilityId);
-        return new ArrayList<>(reachable);
+        return getRoutingGraph().reachableFrom(startFacilityId);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,427 @@
+package pt.ipp.isep.dei.domain;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Immutable routing view of the segment network (one snapshot of {@code SegmentLineRepository}).
+ * Facility ids are remapped to dense indexes {@code 0..n-1} (ascending id) and the segments
+ * leaving vertex {@code v} are stored in {@code [offsets[v], offsets[v + 1])}, as in
+ * {@link CSRGraph}. An undirected neighbour list is kept for reachability queries, which
+ * go through a {@link ConnectivityIndex} built once per snapshot.
+ * <p>
+ * The snapshot carries the repository version it was built from, so callers can tell when
+ * it is stale. Travel times depend on the speed cap of the query and are derived per cap.
+ */
+public final class RoutingGraph {
+
+    // Speed caps used by the callers are a handful of constants; bound the cache anyway
+    private static final int MAX_CACHED_SPEED_CAPS = 16;
+
+    private static final ThreadLocal<Search> SEARCHES = new ThreadLocal<>();
+
+    private final long version;
+    private final long fingerprint;
+    private final int[] facilityIds;
+
+    private final int[] offsets;
+    private final int[] targets;
+    private final LineSegment[] segments;
+
+    // Undirected neighbours of v are links[linkOffsets[v] .. linkOffsets[v+1])
+    private final int[] linkOffsets;
+    private final int[] links;
+
+    private final Map<Double, double[]> travelTimesByCap = new ConcurrentHashMap<>();
+
+    private volatile ConnectivityIndex connectivity;
+
+    private RoutingGraph(long version, int[] facilityIds, int[] offsets, int[] targets, LineSegment[] segments) {
+        this.version = version;
+        this.facilityIds = facilityIds;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.segments = segments;
+        this.fingerprint = computeFingerprint();
+
+        int n = facilityIds.length;
+        int m = targets.length;
+        this.linkOffsets = new int[n + 1];
+        this.links = new int[2 * m];
+        for (int u = 0; u < n; u++) {
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                linkOffsets[u + 1]++;
+                linkOffsets[targets[e] + 1]++;
+            }
+        }
+        for (int v = 0; v < n; v++) linkOffsets[v + 1] += linkOffsets[v];
+        int[] next = Arrays.copyOf(linkOffsets, n);
+        for (int u = 0; u < n; u++) {
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                links[next[u]++] = targets[e];
+                links[next[targets[e]]++] = u;
+            }
+        }
+    }
+
+    /**
+     * Builds the routing graph from a set of directed segments.
+     * Time Complexity: O(V log V + E log V).
+     *
+     * @param allSegments The segments (each one is a directed edge start -> end).
+     * @param version The repository version the segments were read at.
+     * @return The immutable routing graph.
+     */
+    public static RoutingGraph build(Collection<LineSegment> allSegments, long version) {
+        int[] ids = new int[2 * allSegments.size()];
+        int k = 0;
+        for (LineSegment seg : allSegments) {
+            ids[k++] = seg.getIdEstacaoInicio();
+            ids[k++] = seg.getIdEstacaoFim();
+        }
+        ids = Arrays.stream(ids).sorted().distinct().toArray();
+
+        int n = ids.length;
+        int[] offsets = new int[n + 1];
+        for (LineSegment seg : allSegments) {
+            offsets[Arrays.binarySearch(ids, seg.getIdEstacaoInicio()) + 1]++;
+        }
+        for (int v = 0; v < n; v++) offsets[v + 1] += offsets[v];
+
+        int m = offsets[n];
+        int[] targets = new int[m];
+        LineSegment[] segments = new LineSegment[m];
+        int[] next = Arrays.copyOf(offsets, n);
+        for (LineSegment seg : allSegments) {
+            int slot = next[Arrays.binarySearch(ids, seg.getIdEstacaoInicio())]++;
+            targets[slot] = Arrays.binarySearch(ids, seg.getIdEstacaoFim());
+            segments[slot] = seg;
+        }
+        return new RoutingGraph(version, ids, offsets, targets, segments);
+    }
+
+    /** @return The repository version this snapshot was built from. */
+    public long version() { return version; }
+
+    /**
+     * Content hash of the topology, segment ids, lengths and speeds. Unlike {@link #version()}
+     * it is stable across runs, so it identifies data derived from this network on disk.
+     *
+     * @return The fingerprint.
+     */
+    public long fingerprint() { return fingerprint; }
+
+    /** @return The number of facilities (vertices). */
+    public int vertexCount() { return facilityIds.length; }
+
+    /** @return The number of directed segments (edges). */
+    public int edgeCount() { return targets.length; }
+
+    /**
+     * Maps a facility id to its dense vertex index.
+     *
+     * @param facilityId The facility id.
+     * @return The vertex index, or -1 if no segment touches the facility.
+     */
+    public int indexOf(int facilityId) {
+        int idx = Arrays.binarySearch(facilityIds, facilityId);
+        return (idx >= 0) ? idx : -1;
+    }
+
+    /** @return The facility id of a dense vertex index. */
+    public int facilityId(int v) { return facilityIds[v]; }
+
+    /** @return The segment stored at edge index {@code e}. */
+    public LineSegment segment(int e) { return segments[e]; }
+
+    // Raw arrays (shared, must not be modified by callers)
+    public int[] offsets() { return offsets; }
+    public int[] targets() { return targets; }
+
+    int[] linkOffsets() { return linkOffsets; }
+    int[] links() { return links; }
+
+    /**
+     * Returns the reachability index of this snapshot, building it on first use.
+     *
+     * @return The connectivity index.
+     */
+    public ConnectivityIndex connectivity() {
+        ConnectivityIndex index = connectivity;
+        if (index == null) {
+            synchronized (this) {
+                index = connectivity;
+                if (index == null) {
+                    index = ConnectivityIndex.build(this);
+                    connectivity = index;
+                }
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Travel time (hours) of every edge at the given speed cap: length / min(segment speed, cap).
+     * Segments with non-positive length or speed get POSITIVE_INFINITY and are never used.
+     *
+     * @param speedCap The maximum speed in km/h (positive).
+     * @return Travel times indexed by edge (shared, must not be modified).
+     */
+    public double[] travelTimes(double speedCap) {
+        double[] cached = travelTimesByCap.get(speedCap);
+        if (cached != null) return cached;
+
+        double[] time = new double[segments.length];
+        for (int e = 0; e < segments.length; e++) {
+            double effectiveSpeed = Math.min(segments[e].getVelocidadeMaxima(), speedCap);
+            double lengthKm = segments[e].getComprimento();
+            double t = (effectiveSpeed <= 0 || lengthKm <= 0) ? Double.POSITIVE_INFINITY : lengthKm / effectiveSpeed;
+            time[e] = (t > 0 && !Double.isNaN(t)) ? t : Double.POSITIVE_INFINITY;
+        }
+        if (travelTimesByCap.size() >= MAX_CACHED_SPEED_CAPS) travelTimesByCap.clear();
+        travelTimesByCap.put(speedCap, time);
+        return time;
+    }
+
+    /**
+     * Fastest path between two facilities (Dijkstra with an indexed heap, stopping when the
+     * destination is settled).
+     *
+     * @param fromId The departure facility id.
+     * @param toId The arrival facility id.
+     * @param speedCap The maximum speed in km/h.
+     * @return The fastest path, or null if either facility is unknown or no path exists.
+     */
+    public RailwayPath fastestPath(int fromId, int toId, double speedCap) {
+        return fastestPath(fromId, toId, speedCap, null);
+    }
+
+    /**
+     * Fastest path between two facilities using A* when a lower bound is given: vertices are
+     * settled in order of {@code time so far + bound}, so the search is pulled towards the
+     * destination instead of growing uniformly. The bound must be consistent for this graph and
+     * speed cap (see {@link TravelTimeBound#matches}), which keeps the result optimal.
+     *
+     * @param fromId The departure facility id.
+     * @param toId The arrival facility id.
+     * @param speedCap The maximum speed in km/h.
+     * @param bound The travel-time lower bound, or null for plain Dijkstra.
+     * @return The fastest path, or null if either facility is unknown or no path exists.
+     */
+    public RailwayPath fastestPath(int fromId, int toId, double speedCap, TravelTimeBound bound) {
+        int s = indexOf(fromId);
+        int t = indexOf(toId);
+        if (s < 0 || t < 0) return null;
+
+        Search search = search();
+        double[] time = travelTimes(speedCap);
+        search.run(s, t, time, bound);
+        if (search.dist[t] == Double.POSITIVE_INFINITY) return null;
+
+        List<LineSegment> path = new ArrayList<>();
+        double totalDistance = 0;
+        for (int v = t; v != s; ) {
+            int e = search.predEdge[v];
+            path.add(segments[e]);
+            totalDistance += segments[e].getComprimento();
+            v = indexOf(segments[e].getIdEstacaoInicio());
+        }
+        Collections.reverse(path);
+        return new RailwayPath(path, totalDistance, search.dist[t]);
+    }
+
+    /**
+     * One-to-many travel times: a single Dijkstra from {@code src} that stops once every
+     * target is settled.
+     *
+     * @param src Dense index of the source.
+     * @param targets Dense indexes of the targets (-1 entries are treated as unreachable).
+     * @param speedCap The maximum speed in km/h.
+     * @return Travel times (hours) aligned with {@code targets}; POSITIVE_INFINITY if unreachable.
+     */
+    public double[] travelTimesFrom(int src, int[] targets, double speedCap) {
+        Search search = search();
+        search.runToAll(src, targets, travelTimes(speedCap));
+        double[] result = new double[targets.length];
+        for (int i = 0; i < targets.length; i++) {
+            result[i] = (targets[i] < 0) ? Double.POSITIVE_INFINITY : search.dist[targets[i]];
+        }
+        return result;
+    }
+
+    /**
+     * @return The number of vertices settled by this thread's last {@code fastestPath} search.
+     */
+    public int lastSettledCount() {
+        return search().settledCount;
+    }
+
+    /**
+     * Facilities connected to the start one, ignoring segment direction
+     * (see {@link ConnectivityIndex#connectedTo}).
+     *
+     * @param startId The start facility id.
+     * @return The reachable facility ids, excluding the start one.
+     */
+    public List<Integer> reachableFrom(int startId) {
+        return connectivity().connectedTo(startId);
+    }
+
+    private long computeFingerprint() {
+        long h = 0xcbf29ce484222325L;
+        for (int id : facilityIds) h = mix(h, id);
+        for (int v = 0; v < offsets.length; v++) h = mix(h, offsets[v]);
+        for (int e = 0; e < targets.length; e++) {
+            h = mix(h, targets[e]);
+            h = mix(h, segments[e].getIdSegmento().hashCode());
+            h = mix(h, Double.doubleToLongBits(segments[e].getComprimento()));
+            h = mix(h, Double.doubleToLongBits(segments[e].getVelocidadeMaxima()));
+        }
+        return h;
+    }
+
+    private static long mix(long h, long value) {
+        h ^= value;
+        h *= 0x100000001b3L;
+        return h ^ (h >>> 29);
+    }
+
+    private Search search() {
+        Search search = SEARCHES.get();
+        if (search == null || search.graph.get() != this) {
+            search = new Search(this);
+            SEARCHES.set(search);
+        }
+        return search;
+    }
+
+    /**
+     * Per-thread Dijkstra / A* state over one snapshot; only the vertices touched by the
+     * previous query are reset. The snapshot is referenced weakly, so a thread's state does
+     * not keep a replaced network alive.
+     */
+    private static final class Search {
+        private final WeakReference<RoutingGraph> graph;
+        private final double[] dist;
+        private final double[] estimate;
+        private final int[] predEdge;
+        private final IndexedDaryHeap heap;
+        private final int[] touched;
+        private final int[] targetStamp;
+        private int stamp;
+        private int touchedCount;
+        private int settledCount;
+
+        Search(RoutingGraph graph) {
+            int n = graph.vertexCount();
+            this.graph = new WeakReference<>(graph);
+            this.dist = new double[n];
+            this.estimate = new double[n];
+            this.predEdge = new int[n];
+            this.heap = new IndexedDaryHeap(n);
+            this.touched = new int[n];
+            this.targetStamp = new int[n];
+            Arrays.fill(dist, Double.POSITIVE_INFINITY);
+            Arrays.fill(predEdge, -1);
+        }
+
+        void run(int src, int target, double[] time, TravelTimeBound bound) {
+            reset();
+
+            RoutingGraph graph = graph();
+            int[] offsets = graph.offsets;
+            int[] to = graph.targets;
+            touch(src, target, bound);
+            dist[src] = 0.0;
+            heap.insert(src, estimate[src]);
+
+            while (!heap.isEmpty()) {
+                int u = heap.poll();
+                settledCount++;
+                if (u == target) break;
+                double du = dist[u];
+                for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                    double nd = du + time[e];
+                    int v = to[e];
+                    if (nd < dist[v]) {
+                        if (dist[v] == Double.POSITIVE_INFINITY) touch(v, target, bound);
+                        dist[v] = nd;
+                        predEdge[v] = e;
+                        // An infinite bound proves the destination cannot be reached through v
+                        if (estimate[v] != Double.POSITIVE_INFINITY) heap.insertOrDecrease(v, nd + estimate[v]);
+                    }
+                }
+            }
+            heap.clear();
+        }
+
+        /**
+         * Plain Dijkstra until all (distinct, valid) targets are settled. Afterwards {@code dist}
+         * is final for every settled vertex, which includes all reachable targets.
+         */
+        void runToAll(int src, int[] targets, double[] time) {
+            reset();
+            stamp++;
+            int remaining = 0;
+            for (int t : targets) {
+                if (t >= 0 && targetStamp[t] != stamp) {
+                    targetStamp[t] = stamp;
+                    remaining++;
+                }
+            }
+            if (remaining == 0) return;
+
+            RoutingGraph graph = graph();
+            int[] offsets = graph.offsets;
+            int[] to = graph.targets;
+            touch(src, -1, null);
+            dist[src] = 0.0;
+            heap.insert(src, 0.0);
+
+            while (!heap.isEmpty()) {
+                int u = heap.poll();
+                settledCount++;
+                if (targetStamp[u] == stamp && --remaining == 0) break;
+                double du = dist[u];
+                for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                    double nd = du + time[e];
+                    int v = to[e];
+                    if (nd < dist[v]) {
+                        if (dist[v] == Double.POSITIVE_INFINITY) touch(v, -1, null);
+                        dist[v] = nd;
+                        predEdge[v] = e;
+                        heap.insertOrDecrease(v, nd);
+                    }
+                }
+            }
+            // Stopping early leaves tentative labels only on non-target vertices
+            heap.clear();
+        }
+
+        private RoutingGraph graph() {
+            RoutingGraph g = graph.get();
+            if (g == null) throw new IllegalStateException("The search's graph is no longer in use.");
+            return g;
+        }
+
+        private void reset() {
+            for (int i = 0; i < touchedCount; i++) {
+                dist[touched[i]] = Double.POSITIVE_INFINITY;
+                predEdge[touched[i]] = -1;
+            }
+            touchedCount = 0;
+            settledCount = 0;
+        }
+
+        private void touch(int v, int target, TravelTimeBound bound) {
+            touched[touchedCount++] = v;
+            estimate[v] = (bound == null) ? 0.0 : bound.lowerBound(v, target);
+        }
+    }
+}
@@ -157,24 +157,17 @@ public class SchedulerService {
         return result;
     }
 
-    private String getPhysicalSegmentId(String segmentId) {
-        if (segmentId.startsWith(SegmentLineRepository.INVERSE_ID_PREFIX)) {
-            return segmentId.substring(SegmentLineRepository.INVERSE_ID_PREFIX.length());
-        }
-        return segmentId;
-    }
-
     private Conflict resolveFirstConflict(TrainTrip tripA, TrainTrip tripB) {
         for (int i = 0; i < tripA.getSegmentEntries().size(); i++) {
             SimulationSegmentEntry entryA = tripA.getSegmentEntries().get(i);
             LineSegment segA = entryA.getSegment();
             if (!segA.isViaUnica()) continue;
-            String physA = getPhysicalSegmentId(segA.getIdSegmento());
+            String physA = segA.getPhysicalSegmentId();
 
             for (int j = 0; j < tripB.getSegmentEntries().size(); j++) {
                 SimulationSegmentEntry entryB = tripB.getSegmentEntries().get(j);
                 LineSegment segB = entryB.getSegment();
-                String physB = getPhysicalSegmentId(segB.getIdSegmento());
+                String physB = segB.getPhysicalSegmentId();
 
                 if (physA.equals(physB)) {
                     if (entryA.getExitTime().isAfter(entryB.getEntryTime())) {
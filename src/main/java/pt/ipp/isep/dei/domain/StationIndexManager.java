@@ -1,6 +1,7 @@
 package pt.ipp.isep.dei.domain;
 
 import java.util.*;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 /**
@@ -9,7 +10,8 @@ import java.util.stream.Collectors;
  */
 public class StationIndexManager {
 
-    // The BST indexes required by USEI06
+    // The BST indexes required by USEI06 (equal keys ordered by station name)
+    private static final Comparator<EuropeanStation> BY_NAME = Comparator.naturalOrder();
     private BST<Double, EuropeanStation> bstLatitude;
     private BST<Double, EuropeanStation> bstLongitude;
     private BST<String, EuropeanStation> bstTimeZoneGroup;
@@ -18,6 +20,7 @@ public class StationIndexManager {
     private KDTree station2DTree;
     private List<EuropeanStation> orderedByLat;
     private List<EuropeanStation> orderedByLon;
+    private boolean orderedListsStale;
 
     // Field for USEI10
     private RadiusSearch radiusSearchEngine;
@@ -27,13 +30,14 @@ public class StationIndexManager {
      * Initializes the index manager and all data structures.
      */
     public StationIndexManager() {
-        this.bstLatitude = new BST<>();
-        this.bstLongitude = new BST<>();
-        this.bstTimeZoneGroup = new BST<>();
+        this.bstLatitude = new BST<>(BY_NAME);
+        this.bstLongitude = new BST<>(BY_NAME);
+        this.bstTimeZoneGroup = new BST<>(BY_NAME);
 
         this.station2DTree = null;
         this.orderedByLat = new ArrayList<>();
         this.orderedByLon = new ArrayList<>();
+        this.orderedListsStale = false;
 
         this.radiusSearchEngine = null;
     }
@@ -46,9 +50,9 @@ public class StationIndexManager {
      */
     public void buildIndexes(List<EuropeanStation> stations) {
         // 1. Reset and initialize BSTs
-        this.bstLatitude = new BST<>();
-        this.bstLongitude = new BST<>();
-        this.bstTimeZoneGroup = new BST<>();
+        this.bstLatitude = new BST<>(BY_NAME);
+        this.bstLongitude = new BST<>(BY_NAME);
+        this.bstTimeZoneGroup = new BST<>(BY_NAME);
 
         // Pre-sort by name (for the tiebreaker criterion)
         List<EuropeanStation> sortedStations = stations.stream()
@@ -63,6 +67,81 @@ public class StationIndexManager {
         // Extract ordered lists for KDTree construction (USEI07)
         this.orderedByLat = this.bstLatitude.inOrderTraversal();
         this.orderedByLon = this.bstLongitude.inOrderTraversal();
+        this.orderedListsStale = false;
+    }
+
+    // ==========================================================
+    // === INCREMENTAL MAINTENANCE ===
+    // ==========================================================
+
+    /**
+     * Adds a single station to every index without rebuilding them.
+     * The BSTs are updated with AVL insertion and, if already built, the KD-Tree
+     * receives the station in place, so the RadiusSearch engine (which shares the
+     * same KD-Tree instance) sees it immediately.
+     *
+     * **Time Complexity:** O(log N) for the BSTs + O(h) for the KD-Tree.
+     *
+     * @param station The station to add.
+     * @throws IllegalArgumentException if the station is null.
+     */
+    public void addStation(EuropeanStation station) {
+        if (station == null) {
+            throw new IllegalArgumentException("Station cannot be null.");
+        }
+
+        bstLatitude.insert(station.getLatitude(), station);
+        bstLongitude.insert(station.getLongitude(), station);
+        bstTimeZoneGroup.insert(station.getTimeZoneGroup(), station);
+        this.orderedListsStale = true;
+
+        if (this.station2DTree != null) {
+            this.station2DTree.insert(station);
+        }
+    }
+
+    /**
+     * Removes a single station from every index without rebuilding them.
+     *
+     * @param station The station to remove.
+     * @return true if the station was indexed and has been removed, false otherwise.
+     */
+    public boolean removeStation(EuropeanStation station) {
+        if (station == null) {
+            return false;
+        }
+
+        boolean removed = bstLatitude.remove(station.getLatitude(), station);
+        if (!removed) {
+            return false;
+        }
+        bstLongitude.remove(station.getLongitude(), station);
+        bstTimeZoneGroup.remove(station.getTimeZoneGroup(), station);
+        this.orderedListsStale = true;
+
+        if (this.station2DTree != null) {
+            this.station2DTree.remove(station);
+        }
+        return true;
+    }
+
+    /**
+     * Replaces (e.g. re-locates) a station. Since {@link EuropeanStation} is immutable,
+     * this is a removal of the old instance followed by the insertion of the new one.
+     *
+     * @param oldStation The currently indexed station.
+     * @param newStation The station that replaces it.
+     * @return true if the old station was found and replaced, false otherwise (nothing changes).
+     */
+    public boolean updateStation(EuropeanStation oldStation, EuropeanStation newStation) {
+        if (newStation == null) {
+            throw new IllegalArgumentException("Station cannot be null.");
+        }
+        if (!removeStation(oldStation)) {
+            return false;
+        }
+        addStation(newStation);
+        return true;
     }
 
     // ==========================================================
@@ -164,6 +243,13 @@ public class StationIndexManager {
             return;
         }
 
+        if (this.orderedListsStale) {
+            // Stations were added/removed before the tree existed: refresh the ordered lists
+            this.orderedByLat = this.bstLatitude.inOrderTraversal();
+            this.orderedByLon = this.bstLongitude.inOrderTraversal();
+            this.orderedListsStale = false;
+        }
+
         if (this.orderedByLat.isEmpty() || this.orderedByLon.isEmpty()) {
             throw new IllegalStateException("Cannot build 2D-Tree. USEI06 indexes are not ready (ordered lists are empty).");
         }
@@ -205,6 +291,17 @@ public class StationIndexManager {
         return station2DTree;
     }
 
+    /**
+     * Minimal green-field backbone connecting the selected stations by great-circle distance
+     * (see {@link GreenFieldBackbone}), computed over the KD-Tree.
+     *
+     * @param include Which stations to connect (e.g. {@code EuropeanStation::isMainStation}).
+     * @return The backbone connections and their total distance.
+     */
+    public GreenFieldBackbone.Result computeGreenFieldBackbone(Predicate<EuropeanStation> include) {
+        return GreenFieldBackbone.compute(getStation2DTree(), include);
+    }
+
     /**
      * Getter for the Radius Search engine (USEI10).
      * Initializes the engine if it hasn't been already, injecting the KDTree.
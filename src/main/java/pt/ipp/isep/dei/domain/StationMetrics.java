@@ -4,6 +4,10 @@ public class StationMetrics {
     private final Station station;
     public int degree;
     public double strength, betweenness, harmonicCloseness;
+    // Absolute error bound of an approximate betweenness (0 when computed exactly)
+    public double betweennessError;
+    // Absolute error bound of an approximate harmonic closeness (0 when computed exactly)
+    public double harmonicClosenessError;
     public double strengthNorm, betweennessNorm, harmonicClosenessNorm, hubScore;
 
     public StationMetrics(Station station) { this.station = station; }
@@ -0,0 +1,249 @@
+package pt.ipp.isep.dei.domain;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Earliest-arrival routing for a new train over a network where single-track segments are
+ * already occupied by scheduled trips.
+ * <p>
+ * Every segment gets a travel function {@code arrival(entry)}: the train leaves at the first
+ * moment from {@code entry} on at which it can cross the segment without overlapping any
+ * occupancy window of that physical track (either direction), and arrives after the static
+ * travel time. The function is piecewise linear, with slope 1 where the track is free and
+ * slope 0 while the train waits, and it never decreases (FIFO), so a time-dependent Dijkstra
+ * on arrival times is exact and waiting is only ever needed at stations.
+ * <p>
+ * Like {@link SchedulerService}, only single-track segments block each other, and segment
+ * times are rounded to whole seconds.
+ */
+public final class TimeDependentRouting {
+
+    /**
+     * One segment of the route.
+     *
+     * @param segment The segment.
+     * @param entry When the train enters it (after any wait at the start station).
+     * @param exit When the train leaves it.
+     */
+    public record Passage(LineSegment segment, LocalDateTime entry, LocalDateTime exit) {}
+
+    /**
+     * Earliest-arrival route.
+     *
+     * @param path The segments, distance and travel time (waits excluded).
+     * @param passages Entry and exit time of every segment.
+     * @param departure The requested departure time.
+     * @param arrival The arrival time at the destination.
+     * @param waiting Total time spent waiting for occupied track.
+     */
+    public record Route(RailwayPath path, List<Passage> passages, LocalDateTime departure,
+                        LocalDateTime arrival, Duration waiting) {}
+
+    private final RoutingGraph graph;
+    private final double speedCap;
+    private final TravelFunction[] functions;
+
+    private TimeDependentRouting(RoutingGraph graph, double speedCap, TravelFunction[] functions) {
+        this.graph = graph;
+        this.speedCap = speedCap;
+        this.functions = functions;
+    }
+
+    /**
+     * Builds the travel functions of every segment from the passages of the scheduled trips.
+     * Time Complexity: O(E + W log W) for W occupancy windows.
+     *
+     * @param graph The routing graph.
+     * @param speedCap The maximum speed of the new train in km/h.
+     * @param scheduledTrips Trips already scheduled (with their segment entries computed).
+     * @return The routing engine for this schedule.
+     */
+    public static TimeDependentRouting build(RoutingGraph graph, double speedCap, Collection<TrainTrip> scheduledTrips) {
+        if (speedCap <= 0) {
+            throw new IllegalArgumentException("Maximum speed limit must be a positive value.");
+        }
+        Map<String, List<double[]>> windows = new HashMap<>();
+        for (TrainTrip trip : scheduledTrips) {
+            for (SimulationSegmentEntry entry : trip.getSegmentEntries()) {
+                windows.computeIfAbsent(entry.getSegment().getPhysicalSegmentId(), id -> new ArrayList<>())
+                        .add(new double[]{seconds(entry.getEntryTime()), seconds(entry.getExitTime())});
+            }
+        }
+
+        double[] time = graph.travelTimes(speedCap);
+        TravelFunction[] functions = new TravelFunction[graph.edgeCount()];
+        for (int e = 0; e < functions.length; e++) {
+            LineSegment seg = graph.segment(e);
+            double duration = (time[e] == Double.POSITIVE_INFINITY) ? time[e] : Math.round(time[e] * 3600);
+            List<double[]> occupied = seg.isViaUnica()
+                    ? windows.getOrDefault(seg.getPhysicalSegmentId(), List.of())
+                    : List.of();
+            functions[e] = TravelFunction.of(duration, occupied);
+        }
+        return new TimeDependentRouting(graph, speedCap, functions);
+    }
+
+    /** @return The routing graph these travel functions belong to. */
+    public RoutingGraph graph() { return graph; }
+
+    /** @return The speed cap (km/h) of the new train. */
+    public double speedCap() { return speedCap; }
+
+    /**
+     * Earliest arrival at the destination leaving the start station at (or after) the
+     * departure time, by time-dependent Dijkstra.
+     * Time Complexity: O((V + E) log V + E log W).
+     *
+     * @param fromId The departure facility id.
+     * @param toId The arrival facility id.
+     * @param departure The departure time.
+     * @return The route, or null if either facility is unknown or no route exists.
+     */
+    public Route earliestArrival(int fromId, int toId, LocalDateTime departure) {
+        int s = graph.indexOf(fromId);
+        int t = graph.indexOf(toId);
+        if (s < 0 || t < 0) return null;
+
+        int n = graph.vertexCount();
+        int[] offsets = graph.offsets();
+        int[] targets = graph.targets();
+        double[] arrival = new double[n];
+        int[] predEdge = new int[n];
+        Arrays.fill(arrival, Double.POSITIVE_INFINITY);
+        IndexedDaryHeap heap = new IndexedDaryHeap(n);
+
+        arrival[s] = seconds(departure);
+        predEdge[s] = -1;
+        heap.insert(s, arrival[s]);
+        while (!heap.isEmpty()) {
+            int u = heap.poll();
+            if (u == t) break;
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                double at = functions[e].arrival(arrival[u]);
+                int v = targets[e];
+                if (at < arrival[v]) {
+                    arrival[v] = at;
+                    predEdge[v] = e;
+                    heap.insertOrDecrease(v, at);
+                }
+            }
+        }
+        if (arrival[t] == Double.POSITIVE_INFINITY) return null;
+
+        List<Integer> edges = new ArrayList<>();
+        for (int v = t; v != s; v = graph.indexOf(graph.segment(predEdge[v]).getIdEstacaoInicio())) {
+            edges.add(predEdge[v]);
+        }
+        Collections.reverse(edges);
+
+        List<LineSegment> segments = new ArrayList<>(edges.size());
+        List<Passage> passages = new ArrayList<>(edges.size());
+        double distance = 0.0;
+        double moving = 0.0;
+        double clock = arrival[s];
+        for (int e : edges) {
+            TravelFunction f = functions[e];
+            double entry = f.departure(clock);
+            clock = entry + f.duration;
+            moving += f.duration;
+            distance += graph.segment(e).getComprimento();
+            segments.add(graph.segment(e));
+            passages.add(new Passage(graph.segment(e), dateTime(entry), dateTime(clock)));
+        }
+        return new Route(new RailwayPath(segments, distance, moving / 3600.0), passages, departure,
+                dateTime(arrival[t]), Duration.ofSeconds(Math.round(arrival[t] - arrival[s] - moving)));
+    }
+
+    private static double seconds(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) + time.getNano() / 1e9;
+    }
+
+    private static LocalDateTime dateTime(double seconds) {
+        long whole = (long) Math.floor(seconds);
+        return LocalDateTime.ofEpochSecond(whole, (int) Math.round((seconds - whole) * 1e9), ZoneOffset.UTC);
+    }
+
+    /**
+     * Travel function of one segment: a fixed crossing time and the sorted, disjoint entry
+     * intervals {@code (blockedFrom[i], blockedUntil[i])} at which crossing would overlap an
+     * occupancy window. Entering during one of them means waiting until its end.
+     */
+    static final class TravelFunction {
+        private static final double[] NONE = new double[0];
+
+        final double duration;
+        private final double[] blockedFrom;
+        private final double[] blockedUntil;
+
+        private TravelFunction(double duration, double[] blockedFrom, double[] blockedUntil) {
+            this.duration = duration;
+            this.blockedFrom = blockedFrom;
+            this.blockedUntil = blockedUntil;
+        }
+
+        /**
+         * @param duration Crossing time in seconds (POSITIVE_INFINITY if the segment is unusable).
+         * @param windows Occupancy windows {entry, exit} in epoch seconds.
+         */
+        static TravelFunction of(double duration, List<double[]> windows) {
+            if (windows.isEmpty() || duration == Double.POSITIVE_INFINITY) {
+                return new TravelFunction(duration, NONE, NONE);
+            }
+            // Entrar em (início - duração, fim) sobrepõe a janela; as janelas que se tocam fundem-se
+            double[][] blocked = new double[windows.size()][];
+            for (int i = 0; i < blocked.length; i++) {
+                double[] w = windows.get(i);
+                blocked[i] = new double[]{w[0] - duration, w[1]};
+            }
+            Arrays.sort(blocked, (a, b) -> Double.compare(a[0], b[0]));
+
+            double[] from = new double[blocked.length];
+            double[] until = new double[blocked.length];
+            int count = 0;
+            for (double[] b : blocked) {
+                if (count > 0 && b[0] < until[count - 1]) {
+                    until[count - 1] = Math.max(until[count - 1], b[1]);
+                } else {
+                    from[count] = b[0];
+                    until[count] = b[1];
+                    count++;
+                }
+            }
+            return new TravelFunction(duration, Arrays.copyOf(from, count), Arrays.copyOf(until, count));
+        }
+
+        /**
+         * @return The earliest moment at or after {@code time} at which the segment can be entered.
+         */
+        double departure(double time) {
+            // Último intervalo que começa antes de time
+            int lo = 0, hi = blockedFrom.length - 1, found = -1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                if (blockedFrom[mid] < time) {
+                    found = mid;
+                    lo = mid + 1;
+                } else {
+                    hi = mid - 1;
+                }
+            }
+            return (found >= 0 && time < blockedUntil[found]) ? blockedUntil[found] : time;
+        }
+
+        /**
+         * @return The arrival time at the end of the segment when reaching its start at {@code time}.
+         */
+        double arrival(double time) {
+            return departure(time) + duration;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package pt.ipp.isep.dei.domain;
+
+/**
+ * Lower bound on the travel time between two vertices of a {@link RoutingGraph}, used as the
+ * A* heuristic of {@link RoutingGraph#fastestPath(int, int, double, TravelTimeBound)}.
+ * <p>
+ * Implementations must be consistent: {@code lowerBound(u, t) <= time(u, v) + lowerBound(v, t)}
+ * for every edge {@code u -> v}, and {@code lowerBound(t, t) == 0}.
+ */
+public interface TravelTimeBound {
+
+    /**
+     * @param v Dense vertex index.
+     * @param target Dense index of the destination.
+     * @return A lower bound (hours) on the travel time from v to the target; POSITIVE_INFINITY
+     *         only if the target is provably unreachable from v.
+     */
+    double lowerBound(int v, int target);
+
+    /**
+     * @return true if this bound was computed for the given graph content and speed cap.
+     */
+    boolean matches(RoutingGraph graph, double speedCap);
+}
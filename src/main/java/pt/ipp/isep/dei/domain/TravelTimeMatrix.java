@@ -0,0 +1,161 @@
+package pt.ipp.isep.dei.domain;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+/**
+ * Dense many-to-many travel time matrix between a list of source and a list of target
+ * facilities, computed on one {@link RoutingGraph} snapshot at one speed cap.
+ * <p>
+ * Times are stored row-major in a single {@code double[]} (hours, POSITIVE_INFINITY when there
+ * is no path). Each row is one one-to-many Dijkstra that stops once every target is settled,
+ * and the rows run in parallel. Paths are not materialised up front: {@link #path} rebuilds
+ * (and memoizes) the path of a cell on first request.
+ */
+public final class TravelTimeMatrix {
+
+    /**
+     * Rebuilds the fastest path between two facilities on the matrix's graph.
+     */
+    @FunctionalInterface
+    public interface PathResolver {
+        RailwayPath resolve(int fromId, int toId);
+    }
+
+    private final long graphVersion;
+    private final double speedCap;
+    private final int[] sourceIds;
+    private final int[] targetIds;
+    private final double[] times;
+    private final Map<Integer, Integer> sourceRow = new HashMap<>();
+    private final Map<Integer, Integer> targetColumn = new HashMap<>();
+    private final PathResolver pathResolver;
+    private final Map<Integer, RailwayPath> paths = new ConcurrentHashMap<>();
+
+    private TravelTimeMatrix(long graphVersion, double speedCap, int[] sourceIds, int[] targetIds, double[] times,
+                             PathResolver pathResolver) {
+        this.graphVersion = graphVersion;
+        this.speedCap = speedCap;
+        this.sourceIds = sourceIds;
+        this.targetIds = targetIds;
+        this.times = times;
+        this.pathResolver = pathResolver;
+        for (int i = sourceIds.length - 1; i >= 0; i--) sourceRow.put(sourceIds[i], i);
+        for (int j = targetIds.length - 1; j >= 0; j--) targetColumn.put(targetIds[j], j);
+    }
+
+    /**
+     * Computes the matrix.
+     *
+     * @param graph The routing graph.
+     * @param sources Source facility ids (rows).
+     * @param targets Target facility ids (columns).
+     * @param speedCap The maximum speed in km/h.
+     * @param pathResolver Rebuilds cell paths on demand (null: plain Dijkstra on {@code graph}).
+     * @return The matrix.
+     */
+    public static TravelTimeMatrix compute(RoutingGraph graph, List<Integer> sources, List<Integer> targets,
+                                           double speedCap, PathResolver pathResolver) {
+        int rows = sources.size();
+        int cols = targets.size();
+        int[] sourceIds = sources.stream().mapToInt(Integer::intValue).toArray();
+        int[] targetIds = targets.stream().mapToInt(Integer::intValue).toArray();
+        int[] targetIdx = new int[cols];
+        for (int j = 0; j < cols; j++) targetIdx[j] = graph.indexOf(targetIds[j]);
+
+        double[] times = new double[rows * cols];
+        graph.travelTimes(speedCap); // derive the edge times once, before the rows race for them
+        IntStream.range(0, rows).parallel().forEach(i -> {
+            int s = graph.indexOf(sourceIds[i]);
+            if (s < 0) {
+                Arrays.fill(times, i * cols, (i + 1) * cols, Double.POSITIVE_INFINITY);
+            } else {
+                double[] row = graph.travelTimesFrom(s, targetIdx, speedCap);
+                System.arraycopy(row, 0, times, i * cols, cols);
+            }
+        });
+
+        PathResolver resolver = (pathResolver != null)
+                ? pathResolver
+                : (from, to) -> graph.fastestPath(from, to, speedCap);
+        return new TravelTimeMatrix(graph.version(), speedCap, sourceIds, targetIds, times, resolver);
+    }
+
+    /** @return The routing graph version the matrix was computed on. */
+    public long graphVersion() { return graphVersion; }
+
+    /** @return The speed cap (km/h) of the matrix. */
+    public double speedCap() { return speedCap; }
+
+    /** @return The number of rows (sources). */
+    public int rows() { return sourceIds.length; }
+
+    /** @return The number of columns (targets). */
+    public int columns() { return targetIds.length; }
+
+    public int sourceId(int row) { return sourceIds[row]; }
+
+    public int targetId(int column) { return targetIds[column]; }
+
+    /**
+     * @return The travel time (hours) of a cell, POSITIVE_INFINITY if there is no path.
+     */
+    public double time(int row, int column) {
+        return times[row * targetIds.length + column];
+    }
+
+    /**
+     * Travel time between two facilities of the matrix (first occurrence if listed twice).
+     *
+     * @return The time in hours, POSITIVE_INFINITY if there is no path.
+     * @throws IllegalArgumentException If either facility is not a row/column of the matrix.
+     */
+    public double timeBetween(int sourceId, int targetId) {
+        return time(row(sourceId), column(targetId));
+    }
+
+    /**
+     * Returns the fastest path of a cell, rebuilding it on first request.
+     *
+     * @return The path, or null if there is no path.
+     */
+    public RailwayPath path(int row, int column) {
+        if (time(row, column) == Double.POSITIVE_INFINITY) return null;
+        int cell = row * targetIds.length + column;
+        RailwayPath cached = paths.get(cell);
+        if (cached == null) {
+            cached = pathResolver.resolve(sourceIds[row], targetIds[column]);
+            if (cached != null) paths.put(cell, cached);
+        }
+        return cached;
+    }
+
+    /**
+     * Fastest path between two facilities of the matrix.
+     *
+     * @return The path, or null if there is no path.
+     * @throws IllegalArgumentException If either facility is not a row/column of the matrix.
+     */
+    public RailwayPath pathBetween(int sourceId, int targetId) {
+        return path(row(sourceId), column(targetId));
+    }
+
+    /** @return A copy of the row-major time array. */
+    public double[] times() { return times.clone(); }
+
+    private int row(int sourceId) {
+        Integer row = sourceRow.get(sourceId);
+        if (row == null) throw new IllegalArgumentException("Facility " + sourceId + " is not a source of this matrix.");
+        return row;
+    }
+
+    private int column(int targetId) {
+        Integer column = targetColumn.get(targetId);
+        if (column == null) throw new IllegalArgumentException("Facility " + targetId + " is not a target of this matrix.");
+        return column;
+    }
+}
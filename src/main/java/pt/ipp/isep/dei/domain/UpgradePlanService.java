@@ -8,7 +8,7 @@ import java.util.*;
  * This class builds a directed graph of station dependencies and attempts to determine
  * a topological order for the upgrades. It includes functionality to detect circular
  * dependencies (cycles) which prevent a linear upgrade sequence and generates
- * visual reports (DOT/SVG).
+ * visual reports (DOT, and SVG drawn without Graphviz).
  * </p>
  */
 
@@ -17,6 +17,12 @@ public class UpgradePlanService {
     private final Map<Integer, List<Integer>> adjacencies = new HashMap<>();
     private final Map<Integer, Integer> inDegree = new HashMap<>();
 
+    // Desenho SVG: colunas por etapa, linhas dentro de cada coluna
+    private static final double SVG_MARGIN = 40;
+    private static final double SVG_COLUMN = 120;
+    private static final double SVG_ROW = 60;
+    private static final double SVG_RADIUS = 22;
+
     private List<Integer> lastOrderedList = new ArrayList<>();
     private Map<Integer, Integer> lastRemainingInDegrees = new HashMap<>();
 
@@ -190,23 +196,105 @@ public class UpgradePlanService {
     }
 
     /**
-     * Converts a DOT file to an SVG image using the external Graphviz 'dot' command.
-     * <p>
-     * Note: This method requires Graphviz to be installed and available in the system's PATH.
-     * </p>
+     * Renders the upgrade dependencies as SVG without Graphviz. Stations are laid out in
+     * columns by upgrade stage (longest chain of dependencies before them, from one Kahn
+     * pass), and stations blocked by cycles go to a last column in red, as in
+     * {@link #generateUpgradeDiagram}.
+     * Time Complexity: O(V log V + E) (stations are sorted by id inside each column).
      *
-     * @param dotFile The path to the source DOT file.
+     * @param dotFile The DOT file written by {@link #generateUpgradeDiagram} (not read; the
+     *                drawing comes from the dependency graph itself).
      * @param svgFile The path where the output SVG file will be saved.
      */
     public void generateSVG(String dotFile, String svgFile) {
-        try {
-            ProcessBuilder pb = new ProcessBuilder("dot", "-Tsvg", dotFile, "-o", svgFile);
-            Process process = pb.start();
-            if (process.waitFor() == 0) {
-                System.out.println("   [Visual] SVG diagram successfully generated: " + svgFile);
+        List<Integer> ids = new ArrayList<>(inDegree.keySet());
+        for (Integer id : adjacencies.keySet()) {
+            if (!inDegree.containsKey(id)) ids.add(id);
+        }
+        Collections.sort(ids);
+
+        // Etapa de cada estação: 1 + etapa máxima das que a precedem (Kahn)
+        Map<Integer, Integer> stage = new HashMap<>();
+        Map<Integer, Integer> remaining = new HashMap<>(inDegree);
+        Queue<Integer> queue = new ArrayDeque<>();
+        for (int id : ids) {
+            if (remaining.getOrDefault(id, 0) == 0) {
+                stage.put(id, 0);
+                queue.add(id);
+            }
+        }
+        int lastStage = 0;
+        while (!queue.isEmpty()) {
+            int current = queue.poll();
+            int next = stage.get(current) + 1;
+            for (int neighbor : adjacencies.getOrDefault(current, List.of())) {
+                stage.merge(neighbor, next, Math::max);
+                if (remaining.merge(neighbor, -1, Integer::sum) == 0) {
+                    queue.add(neighbor);
+                    lastStage = Math.max(lastStage, stage.get(neighbor));
+                }
             }
-        } catch (Exception e) {
-            System.err.println("   [Note] SVG could not be generated. Ensure 'dot' command is in your PATH.");
+        }
+        int blockedColumn = lastStage + 1;
+
+        Map<Integer, double[]> position = new HashMap<>();
+        Map<Integer, Integer> rows = new HashMap<>();
+        int maxRows = 0;
+        for (int id : ids) {
+            boolean blocked = remaining.getOrDefault(id, 0) > 0;
+            int column = blocked ? blockedColumn : stage.get(id);
+            int row = rows.merge(column, 1, Integer::sum) - 1;
+            maxRows = Math.max(maxRows, row + 1);
+            position.put(id, new double[]{SVG_MARGIN + column * SVG_COLUMN, SVG_MARGIN + row * SVG_ROW});
+        }
+        double width = 2 * SVG_MARGIN + blockedColumn * SVG_COLUMN;
+        double height = 2 * SVG_MARGIN + Math.max(0, maxRows - 1) * SVG_ROW;
+
+        try (DiagramWriter writer = DiagramWriter.open(svgFile)) {
+            writer.svgStart(width, height);
+            writer.text("<defs><marker id=\"arrow\" viewBox=\"0 0 10 10\" refX=\"10\" refY=\"5\" ")
+                    .text("markerWidth=\"6\" markerHeight=\"6\" orient=\"auto\">")
+                    .text("<path d=\"M0,0 L10,5 L0,10 z\" fill=\"#555555\"/></marker></defs>\n");
+
+            writer.svgGroup("stroke=\"#555555\" stroke-width=\"1\" marker-end=\"url(#arrow)\"");
+            for (int from : ids) {
+                double[] a = position.get(from);
+                for (int to : adjacencies.getOrDefault(from, List.of())) {
+                    double[] b = position.get(to);
+                    double dx = b[0] - a[0], dy = b[1] - a[1];
+                    double length = Math.hypot(dx, dy);
+                    if (length <= 2 * SVG_RADIUS) continue;
+                    // Do contorno de um círculo ao contorno do outro
+                    double ux = dx / length, uy = dy / length;
+                    writer.svgLine(a[0] + ux * SVG_RADIUS, a[1] + uy * SVG_RADIUS,
+                            b[0] - ux * SVG_RADIUS, b[1] - uy * SVG_RADIUS);
+                }
+            }
+            writer.svgGroupEnd();
+
+            for (boolean blocked : new boolean[]{false, true}) {
+                writer.svgGroup(blocked
+                        ? "fill=\"#ff9999\" stroke=\"#cc0000\" stroke-width=\"2\""
+                        : "fill=\"#ccffcc\" stroke=\"#006600\" stroke-width=\"1\"");
+                for (int id : ids) {
+                    int left = remaining.getOrDefault(id, 0);
+                    if ((left > 0) != blocked) continue;
+                    double[] p = position.get(id);
+                    writer.svgCircle(p[0], p[1], SVG_RADIUS, blocked ? "ST " + id + " (Ciclo: " + left + ")" : "ST " + id);
+                }
+                writer.svgGroupEnd();
+            }
+
+            writer.svgGroup("font-family=\"Arial\" font-size=\"9\" text-anchor=\"middle\" fill=\"#000000\"");
+            for (int id : ids) {
+                double[] p = position.get(id);
+                writer.svgText(p[0], p[1] + 3, "ST " + id);
+            }
+            writer.svgGroupEnd();
+            writer.svgEnd();
+            System.out.println("   [Visual] SVG diagram successfully generated: " + svgFile);
+        } catch (java.io.IOException e) {
+            System.err.println("   [Erro] Não foi possível gerar o SVG: " + e.getMessage());
         }
     }
 
@@ -5,6 +5,7 @@ import pt.ipp.isep.dei.domain.LineSegment;
 
 import java.sql.*;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 /**
@@ -21,6 +22,14 @@ public class SegmentLineRepository {
     // Mapping: Segment ID -> {Start Facility ID, End Facility ID}
     private final Map<Integer, Integer[]> segmentFacilityMapping = new HashMap<>();
 
+    // Optional bulk loader (e.g. lines.csv injection) that runs on first read access
+    private Runnable deferredLoader;
+    // Failure of the deferred loader, rethrown on every later read
+    private RuntimeException loadFailure;
+
+    // Bumped on every change to the segment set, so derived routing graphs can detect staleness
+    private final AtomicLong version = new AtomicLong();
+
     public SegmentLineRepository() {
         System.out.println("SegmentLineRepository: Initialized.");
         loadSegmentsFromDatabase();
@@ -28,6 +37,49 @@ public class SegmentLineRepository {
 
     public void cleanDatabaseData() {
         this.segmentCache.clear();
+        version.incrementAndGet();
+    }
+
+    /**
+     * Returns the current version of the segment set. Any {@link #save} or
+     * {@link #cleanDatabaseData} produces a new version. Pending deferred loading runs first.
+     *
+     * @return The segment set version.
+     */
+    public long getVersion() {
+        ensureLoaded();
+        return version.get();
+    }
+
+    /**
+     * Registers a loader that populates the repository (through {@link #save}) the first
+     * time any segment is read, so start-up does not pay for it if the network is never used.
+     *
+     * @param loader The loading routine; replaces any loader that has not run yet (and any
+     *               failure recorded for the previous one).
+     */
+    public synchronized void setDeferredLoader(Runnable loader) {
+        this.deferredLoader = loader;
+        this.loadFailure = null;
+    }
+
+    /**
+     * Runs the pending deferred loader, if any. Concurrent readers wait for it to finish.
+     * If it fails, its exception is rethrown by this and every later read, instead of the
+     * repository looking empty.
+     */
+    private synchronized void ensureLoaded() {
+        if (loadFailure != null) throw loadFailure;
+        if (deferredLoader == null) return;
+        Runnable loader = deferredLoader;
+        // Limpo antes de correr para que leituras feitas pelo próprio carregador não o repitam
+        deferredLoader = null;
+        try {
+            loader.run();
+        } catch (RuntimeException e) {
+            loadFailure = e;
+            throw e;
+        }
     }
 
     /**
@@ -114,10 +166,12 @@ public class SegmentLineRepository {
         if (segment != null) {
             String idKey = String.valueOf(segment.getIdSegmento());
             this.segmentCache.put(idKey, segment);
+            version.incrementAndGet();
         }
     }
 
     public List<LineSegment> findAll() {
+        ensureLoaded();
         return new ArrayList<>(segmentCache.values());
     }
 
@@ -184,6 +238,7 @@ public class SegmentLineRepository {
                 segmentsCount++;
             }
 
+            version.incrementAndGet();
             System.out.println("SegmentLineRepository: Loaded " + segmentsCount + " segments (inc. inverses) via Mapping.");
 
         } catch (SQLException e) {
@@ -192,6 +247,7 @@ public class SegmentLineRepository {
     }
 
     public List<LineSegment> findByIds(List<String> segmentIds) {
+        ensureLoaded();
         return segmentIds.stream()
                 .filter(segmentCache::containsKey)
                 .map(segmentCache::get)
@@ -199,10 +255,12 @@ public class SegmentLineRepository {
     }
 
     public Optional<LineSegment> findById(String id) {
+        ensureLoaded();
         return Optional.ofNullable(segmentCache.get(id));
     }
 
     public Optional<LineSegment> findDirectSegment(int stationAId, int stationBId) {
+        ensureLoaded();
         return segmentCache.values().stream()
                 .filter(s -> (s.getIdEstacaoInicio() == stationAId && s.getIdEstacaoFim() == stationBId))
                 .findFirst();
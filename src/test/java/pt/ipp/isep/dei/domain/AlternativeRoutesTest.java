@@ -0,0 +1,122 @@
+package pt.ipp.isep.dei.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AlternativeRoutesTest {
+
+    private static final double EPS = 1e-9;
+
+    private static LineSegment segment(String id, int from, int to, double km, double speed) {
+        return new LineSegment(id, from, to, km, speed, 1, 0, 0.0);
+    }
+
+    @Test
+    void testRoutesInOrderWithOverlap() {
+        // Via rápida 1-2-3-4 (1 h cada troço); desvios 2-5-3 (+1 h) e 1-6-4 (+2 h), nos dois sentidos
+        List<LineSegment> segments = new ArrayList<>();
+        String[][] tracks = {{"A", "1", "2", "100"}, {"B", "2", "3", "100"}, {"C", "3", "4", "100"},
+                {"D", "2", "5", "100"}, {"E", "5", "3", "100"}, {"F", "1", "6", "250"}, {"G", "6", "4", "250"}};
+        for (String[] track : tracks) {
+            int a = Integer.parseInt(track[1]), b = Integer.parseInt(track[2]);
+            double km = Double.parseDouble(track[3]);
+            segments.add(segment(track[0], a, b, km, 100.0));
+            segments.add(segment("INV_" + track[0], b, a, km, 100.0));
+        }
+        RoutingGraph graph = RoutingGraph.build(segments, 1);
+
+        List<AlternativeRoutes.Route> routes = AlternativeRoutes.compute(graph, 1, 4, 100.0, 5);
+
+        assertEquals(3, routes.size(), "Só há três rotas sem ciclos");
+        assertEquals(3.0, routes.get(0).timeHours(), EPS);
+        assertEquals(4.0, routes.get(1).timeHours(), EPS);
+        assertEquals(5.0, routes.get(2).timeHours(), EPS);
+        assertEquals(1.0, routes.get(0).overlap(), EPS);
+        // A-D-E-C partilha A e C (200 km de 400)
+        assertEquals(200.0, routes.get(1).sharedDistance(), EPS);
+        assertEquals(0.5, routes.get(1).overlap(), EPS);
+        assertEquals(0.0, routes.get(2).overlap(), EPS);
+
+        // O sentido inverso usa os segmentos INV_ e conta como a mesma via física
+        List<AlternativeRoutes.Route> back = AlternativeRoutes.compute(graph, 4, 1, 100.0, 2);
+        assertEquals("INV_C", back.get(0).path().getSegments().get(0).getIdSegmento());
+        assertEquals(200.0, back.get(1).sharedDistance(), EPS);
+    }
+
+    @Test
+    void testMatchesBruteForce() {
+        Random random = new Random(3);
+        for (int trial = 0; trial < 40; trial++) {
+            int n = 6 + random.nextInt(4);
+            List<LineSegment> segments = new ArrayList<>();
+            for (int e = 0; e < 3 * n; e++) {
+                int a = 1 + random.nextInt(n), b = 1 + random.nextInt(n);
+                if (a == b) continue;
+                segments.add(segment("S" + e, a, b, 10 + random.nextInt(90), 50 + random.nextInt(150)));
+            }
+            RoutingGraph graph = RoutingGraph.build(segments, trial);
+            int s = graph.facilityId(0), t = graph.facilityId(graph.vertexCount() - 1);
+            double cap = 120.0;
+            int k = 6;
+
+            List<Double> expected = new ArrayList<>();
+            enumerate(graph, graph.indexOf(s), graph.indexOf(t), graph.travelTimes(cap),
+                    new HashSet<>(Set.of(graph.indexOf(s))), 0.0, expected);
+            expected.sort(null);
+
+            List<AlternativeRoutes.Route> routes = AlternativeRoutes.compute(graph, s, t, cap, k);
+            assertEquals(Math.min(k, expected.size()), routes.size(), "trial " + trial);
+            Set<List<LineSegment>> distinct = new HashSet<>();
+            for (int i = 0; i < routes.size(); i++) {
+                assertEquals(expected.get(i), routes.get(i).timeHours(), 1e-9, "trial " + trial);
+                List<LineSegment> path = routes.get(i).path().getSegments();
+                assertTrue(distinct.add(path), "rotas repetidas");
+                Set<Integer> visited = new HashSet<>(Set.of(s));
+                for (LineSegment seg : path) assertTrue(visited.add(seg.getIdEstacaoFim()), "rota com ciclo");
+                assertEquals(t, path.get(path.size() - 1).getIdEstacaoFim());
+            }
+        }
+    }
+
+    @Test
+    void testEdgeCases() {
+        RoutingGraph graph = RoutingGraph.build(List.of(
+                segment("A", 1, 2, 10, 100), segment("B", 3, 4, 10, 100)), 1);
+
+        assertTrue(AlternativeRoutes.compute(graph, 1, 99, 100.0, 3).isEmpty());
+        assertTrue(AlternativeRoutes.compute(graph, 2, 1, 100.0, 3).isEmpty(), "Segments are directed");
+        assertTrue(AlternativeRoutes.compute(graph, 1, 4, 100.0, 3).isEmpty());
+
+        List<AlternativeRoutes.Route> self = AlternativeRoutes.compute(graph, 1, 1, 100.0, 3);
+        assertEquals(1, self.size());
+        assertTrue(self.get(0).path().isEmpty());
+
+        assertEquals(1, AlternativeRoutes.compute(graph, 1, 2, 100.0, 3).size());
+        assertThrows(IllegalArgumentException.class, () -> AlternativeRoutes.compute(graph, 1, 2, 100.0, 0));
+    }
+
+    /**
+     * Tempos de todos os caminhos simples (enumeração exaustiva).
+     */
+    private static void enumerate(RoutingGraph g, int u, int t, double[] time, Set<Integer> visited,
+                                  double elapsed, List<Double> out) {
+        if (u == t) {
+            out.add(elapsed);
+            return;
+        }
+        for (int e = g.offsets()[u]; e < g.offsets()[u + 1]; e++) {
+            int v = g.targets()[e];
+            if (visited.add(v)) {
+                enumerate(g, v, t, time, visited, elapsed + time[e], out);
+                visited.remove(v);
+            }
+        }
+    }
+}
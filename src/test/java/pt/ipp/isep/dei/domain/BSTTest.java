@@ -3,7 +3,10 @@ package pt.ipp.isep.dei.domain;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Random;
 import java.util.Comparator;
 import java.util.function.Function;
 
@@ -117,4 +120,71 @@ class BSTTest {
         List<EuropeanStation> result = bst.findInRange(80.0, 20.0);
         assertTrue(result.isEmpty(), "Inverted range must return empty list.");
     }
-}
\ No newline at end of file
+
+    // -------------------------------------------------------------
+    // INCREMENTAL MAINTENANCE TESTS (AVL insert/remove)
+    // -------------------------------------------------------------
+
+    @Test
+    void testInsert_SortedSequence_StaysBalanced() {
+        BST<Double, EuropeanStation> avl = new BST<>();
+        for (int i = 0; i < 1024; i++) {
+            avl.insert((double) i, S_UNIQUE);
+        }
+
+        assertEquals(1024, avl.inOrderTraversal().size());
+        // AVL height bound: 1.44 * log2(N + 2)
+        assertTrue(avl.height() <= 15, "Sorted insertion must not degenerate the tree. Height: " + avl.height());
+    }
+
+    @Test
+    void testRemove_DuplicateKey_RemovesOnlyMatchingValue() {
+        assertTrue(bst.remove(KEY_DUPLICATE, SD_B));
+
+        List<EuropeanStation> values = bst.findAll(KEY_DUPLICATE);
+        assertEquals(2, values.size());
+        assertFalse(values.contains(SD_B));
+        assertEquals(5, bst.inOrderTraversal().size());
+
+        assertFalse(bst.remove(KEY_DUPLICATE, SD_B), "Removing a missing value must return false.");
+    }
+
+    @Test
+    void testInsertThenRemove_MatchesRebuiltTree() {
+        EuropeanStation extra = new EuropeanStation(60, "Extra", "P", "WET", 25.0, 25.0, false, false, false);
+        bst.insert(extra.getLatitude(), extra);
+        bst.remove(S_MEDIAN.getLatitude(), S_MEDIAN);
+
+        BST<Double, EuropeanStation> rebuilt = new BST<>();
+        rebuilt.buildBalancedTree(List.of(S_UNIQUE, extra, S_HIGH_ROOT, SD_A, SD_B, SD_C), EuropeanStation::getLatitude);
+
+        assertEquals(rebuilt.findInRange(0.0, 100.0).size(), bst.findInRange(0.0, 100.0).size());
+        assertEquals(rebuilt.findInRange(15.0, 45.0), bst.findInRange(15.0, 45.0));
+    }
+
+    @Test
+    void testTieBreaker_DuplicateKeysFollowNameOrderAfterInsertAndRemove() {
+        // Many entries under one key, inserted out of name order
+        List<EuropeanStation> group = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            group.add(new EuropeanStation(100 + i, "Dup " + (char) ('A' + i % 26) + i, "P", "CET",
+                    KEY_DUPLICATE, i * 0.5, false, false, false));
+        }
+        Collections.shuffle(group, new Random(7));
+
+        BST<Double, EuropeanStation> avl = new BST<>(Comparator.naturalOrder());
+        for (EuropeanStation s : group) {
+            avl.insert(KEY_DUPLICATE, s);
+        }
+        for (int i = 0; i < 50; i++) {
+            assertTrue(avl.remove(KEY_DUPLICATE, group.remove(group.size() - 1)));
+        }
+
+        BST<Double, EuropeanStation> rebuilt = new BST<>(Comparator.naturalOrder());
+        rebuilt.buildBalancedTree(group, EuropeanStation::getLatitude);
+
+        assertEquals(rebuilt.inOrderTraversal(), avl.inOrderTraversal(),
+                "Equal keys must keep the same name order as a full rebuild.");
+        assertFalse(avl.remove(KEY_DUPLICATE, S_UNIQUE));
+    }
+}
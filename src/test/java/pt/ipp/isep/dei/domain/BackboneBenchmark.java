@@ -0,0 +1,66 @@
+package pt.ipp.isep.dei.domain;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Minimal backbone (USEI12) of a synthetic network loaded through the CSV path, as the
+ * application does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BackboneBenchmark {
+
+    @Param({"500", "2000", "5000"})
+    public int vertices;
+
+    private Path directory;
+    private Path previousCache;
+    private BackboneNetwork backbone;
+
+    @Setup
+    public void setUp() throws IOException {
+        previousCache = RailwayCsvData.getCacheDirectory();
+        RailwayCsvData.setCacheDirectory(null);
+        directory = Files.createTempDirectory("backbone-bench");
+        Path stations = directory.resolve("stations.csv");
+        Path lines = directory.resolve("lines.csv");
+        SyntheticRailwayNetwork.generate(vertices, 42L).writeCsv(stations, lines);
+
+        backbone = new BackboneNetwork();
+        backbone.loadNetwork(stations.toString(), lines.toString());
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        RailwayCsvData.setCacheDirectory(previousCache);
+        Files.deleteIfExists(directory.resolve("stations.csv"));
+        Files.deleteIfExists(directory.resolve("lines.csv"));
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public BackboneNetwork computeMinimalBackbone() {
+        backbone.computeMinimalBackbone();
+        return backbone;
+    }
+}
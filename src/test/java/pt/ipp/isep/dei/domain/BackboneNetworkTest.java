@@ -8,6 +8,15 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
 import java.util.regex.Pattern;
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -117,6 +126,91 @@ class BackboneNetworkTest {
         assertDoesNotThrow(() -> backboneNetwork.computeMinimalBackbone());
     }
 
+    /**
+     * Tests the MST edges and total distance of a small network
+     */
+    @Test
+    @DisplayName("MST picks the cheapest spanning connections")
+    void testMSTEdgesAndTotal() throws IOException {
+        String stationsContent = """
+            Station id,Station,Lat,Lon,CoordX,CoordY
+            1,StationA,50.0,4.0,1000.0,2000.0
+            2,StationB,51.0,5.0,2000.0,3000.0
+            3,StationC,52.0,6.0,3000.0,4000.0
+            4,StationD,53.0,7.0,4000.0,5000.0
+            5,StationE,54.0,8.0,5000.0,6000.0
+            6,StationF,55.0,9.0,6000.0,7000.0
+            """;
+
+        // 5-6 é uma componente à parte: fica fora da árvore, como no Prim
+        String connectionsContent = """
+            departure_stid,arrival_stid,dist,capacity,cost
+            1,2,10.0,10,5.0
+            1,3,8.0,10,4.0
+            2,3,12.0,10,6.0
+            2,4,15.0,10,7.5
+            3,4,7.0,10,3.5
+            1,4,20.0,10,10.0
+            5,6,1.0,10,1.0
+            """;
+
+        Path stationsFile = tempDir.resolve("mst_edges_stations.csv");
+        Path connectionsFile = tempDir.resolve("mst_edges_connections.csv");
+        Files.writeString(stationsFile, stationsContent);
+        Files.writeString(connectionsFile, connectionsContent);
+
+        backboneNetwork.loadNetwork(stationsFile.toString(), connectionsFile.toString());
+        backboneNetwork.computeMinimalBackbone();
+
+        assertEquals(25.0, backboneNetwork.getTotalMSTDistance(), 1e-9);
+        assertEquals(3, backboneNetwork.getMstConnections().size());
+        assertFalse(backboneNetwork.getMstConnections().stream()
+                .anyMatch(c -> c.from().idEstacao() == 5));
+    }
+
+    /**
+     * Tests the MST total distance against a reference Prim on a larger synthetic network
+     */
+    @Test
+    @DisplayName("MST total matches a reference Prim on a synthetic network")
+    void testMSTMatchesReferencePrim() throws IOException {
+        SyntheticRailwayNetwork net = SyntheticRailwayNetwork.generate(3000, 9L);
+        Path stationsFile = tempDir.resolve("synthetic_stations.csv");
+        Path connectionsFile = tempDir.resolve("synthetic_connections.csv");
+        net.writeCsv(stationsFile, connectionsFile);
+
+        backboneNetwork.loadNetwork(stationsFile.toString(), connectionsFile.toString());
+        backboneNetwork.computeMinimalBackbone();
+
+        assertEquals(net.stationCount() - 1, backboneNetwork.getMstConnections().size());
+        assertEquals(referencePrimTotal(stationsFile, connectionsFile), backboneNetwork.getTotalMSTDistance(), 1e-6);
+    }
+
+    /**
+     * Prim com fila de prioridade sobre listas de adjacência (referência independente).
+     */
+    private static double referencePrimTotal(Path stationsFile, Path connectionsFile) throws IOException {
+        RailwayCsvData data = RailwayCsvData.load(stationsFile.toString(), connectionsFile.toString());
+        Map<Integer, List<double[]>> adj = new HashMap<>();
+        for (int i = 0; i < data.lineCount(); i++) {
+            adj.computeIfAbsent(data.lineFrom(i), k -> new ArrayList<>()).add(new double[]{data.lineTo(i), data.lineDistance(i)});
+            adj.computeIfAbsent(data.lineTo(i), k -> new ArrayList<>()).add(new double[]{data.lineFrom(i), data.lineDistance(i)});
+        }
+        Set<Integer> visited = new HashSet<>();
+        PriorityQueue<double[]> pq = new PriorityQueue<>(Comparator.comparingDouble(a -> a[1]));
+        pq.add(new double[]{data.stationId(0), 0.0});
+        double total = 0;
+        while (!pq.isEmpty()) {
+            double[] top = pq.poll();
+            if (!visited.add((int) top[0])) continue;
+            total += top[1];
+            for (double[] e : adj.getOrDefault((int) top[0], List.of())) {
+                if (!visited.contains((int) e[0])) pq.add(e);
+            }
+        }
+        return total;
+    }
+
     /**
      * Tests MST computation with disconnected network
      */
@@ -326,6 +420,59 @@ class BackboneNetworkTest {
         // SVG pode ou não ser gerado dependendo do ambiente
     }
 
+    /**
+     * Tests SVG rendering from coordinates and DOT edge classification
+     */
+    @Test
+    @DisplayName("SVG is drawn from coordinates and DOT splits MST and other edges")
+    void testSVGFromCoordinates() throws IOException {
+        String stationsContent = """
+            Station id,Station,Lat,Lon,CoordX,CoordY
+            1,A & B,50.0,4.0,1000.0,2000.0
+            2,B,51.0,5.0,2000.0,3000.0
+            3,C,52.0,6.0,3000.0,2000.0
+            """;
+
+        // Os dois sentidos de 1-2 contam como a mesma ligação da árvore
+        String connectionsContent = """
+            departure_stid,arrival_stid,dist,capacity,cost
+            1,2,10.0,10,5.0
+            2,1,10.0,10,5.0
+            2,3,12.5,10,6.0
+            1,3,30.0,10,15.0
+            """;
+
+        Path stationsFile = tempDir.resolve("svg_stations.csv");
+        Path connectionsFile = tempDir.resolve("svg_connections.csv");
+        Path dotFile = tempDir.resolve("svg_output.dot");
+        Path svgFile = tempDir.resolve("svg_output.svg");
+        Files.writeString(stationsFile, stationsContent);
+        Files.writeString(connectionsFile, connectionsContent);
+
+        Locale previous = Locale.getDefault();
+        try {
+            // O separador decimal não depende da língua do sistema
+            Locale.setDefault(Locale.forLanguageTag("pt-PT"));
+            backboneNetwork.loadNetwork(stationsFile.toString(), connectionsFile.toString());
+            backboneNetwork.computeMinimalBackbone();
+            backboneNetwork.generateDOTFile(dotFile.toString());
+            assertTrue(backboneNetwork.generateSVG(dotFile.toString(), svgFile.toString()));
+        } finally {
+            Locale.setDefault(previous);
+        }
+
+        String dot = Files.readString(dotFile);
+        assertTrue(dot.contains("[label=\"12.5km\"]"));
+        assertEquals(1, dot.lines().filter(l -> l.matches("\\s*\"\\d+\" -- \"\\d+\";")).count(),
+                "Only 1-3 is outside the MST");
+
+        String svg = Files.readString(svgFile);
+        assertTrue(svg.startsWith("<?xml"));
+        assertEquals(3, svg.split("<circle", -1).length - 1);
+        assertEquals(3, svg.split("<line", -1).length - 1, "Two MST lines and one dashed line");
+        assertTrue(svg.contains("A &amp; B"), "Names must be escaped");
+    }
+
     /**
      * Tests network with isolated stations
      */
@@ -58,4 +58,43 @@ class BellmanFordTest {
         int last = result.cycle().get(result.cycle().size() - 1);
         assertEquals(first, last, "O ciclo deve começar e terminar no mesmo vértice.");
     }
-}
\ No newline at end of file
+
+    @Test
+    void testQueueBasedMatchesClassicOnNegativeCosts() {
+        // Custos negativos sem ciclos negativos: custo = peso + p(u) - p(v), com peso >= 0
+        java.util.Random rnd = new java.util.Random(13);
+        Graph g = new Graph();
+        int n = 120;
+        double[] potential = new double[n];
+        for (int i = 0; i < n; i++) {
+            g.addStation(new Station(1000 + i, "S" + i, 0, 0, 0, 0));
+            potential[i] = rnd.nextDouble() * 50;
+        }
+        for (int i = 0; i < 600; i++) {
+            int u = rnd.nextInt(n), v = rnd.nextInt(n);
+            if (u == v) continue;
+            g.addEdge(1000 + u, 1000 + v, 1.0, rnd.nextDouble() * 20 + potential[u] - potential[v]);
+        }
+
+        for (int q = 0; q < 40; q++) {
+            int s = 1000 + rnd.nextInt(n), t = 1000 + rnd.nextInt(n);
+            BellmanFord.PathResult expected = BellmanFord.findPathClassic(g, s, t);
+            BellmanFord.PathResult actual = BellmanFord.findPath(g, s, t);
+            assertNull(actual.cycle());
+            assertEquals(expected.totalCost(), actual.totalCost(), 1e-9);
+            assertEquals(expected.path().get(0), actual.path().get(0));
+            assertEquals(expected.path().get(expected.path().size() - 1), actual.path().get(actual.path().size() - 1));
+        }
+
+        // Um ciclo negativo alcançável é reportado por ambas as versões
+        g.addEdge(1000, 1001, 1.0, -500.0);
+        g.addEdge(1001, 1000, 1.0, -500.0);
+        BellmanFord.PathResult classic = BellmanFord.findPathClassic(g, 1000, 1005);
+        BellmanFord.PathResult spfa = BellmanFord.findPath(g, 1000, 1005);
+        assertNotNull(classic.cycle());
+        assertNotNull(spfa.cycle());
+        assertNull(spfa.path());
+        assertEquals(spfa.cycle().get(0), spfa.cycle().get(spfa.cycle().size() - 1));
+        assertTrue(spfa.cycle().containsAll(List.of(1000, 1001)));
+    }
+}
@@ -0,0 +1,45 @@
+package pt.ipp.isep.dei.domain;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Entry point of the JMH suite ({@code mvn -Pbenchmark test-compile exec:exec}).
+ * <p>
+ * Accepts the usual JMH command line (benchmark regexps, {@code -p vertices=...}, {@code -f},
+ * {@code -wi}, ...). Without regexps every *Benchmark class of this package runs; unless
+ * {@code -rf} or {@code -rff} is given, results go to {@code target/benchmarks/jmh-<timestamp>.json} so that
+ * runs can be compared.
+ */
+public final class BenchmarkRunner {
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws CommandLineOptionException, RunnerException, IOException {
+        CommandLineOptions cli = new CommandLineOptions(args);
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(cli);
+        if (cli.getIncludes().isEmpty()) {
+            options.include("pt\\.ipp\\.isep\\.dei\\.domain\\..*Benchmark\\.");
+        }
+        if (!cli.getResult().hasValue() && !cli.getResultFormat().hasValue()) {
+            Path directory = Path.of("target", "benchmarks");
+            Files.createDirectories(directory);
+            String stamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+            options.resultFormat(ResultFormatType.JSON)
+                    .result(directory.resolve("jmh-" + stamp + ".json").toString());
+        }
+        new Runner(options.build()).run();
+    }
+}
@@ -0,0 +1,103 @@
+package pt.ipp.isep.dei.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BetweennessTest {
+
+    /**
+     * Grid-like network with random integer distances (many equal-length paths).
+     */
+    private static Graph gridGraph(int side, long seed) {
+        Random random = new Random(seed);
+        Graph g = new Graph();
+        for (int i = 0; i < side * side; i++) {
+            g.addStation(new Station(i + 1, "S" + i, 0, 0, 0, 0));
+        }
+        for (int r = 0; r < side; r++) {
+            for (int c = 0; c < side; c++) {
+                int id = r * side + c + 1;
+                if (c + 1 < side) {
+                    double w = 1 + random.nextInt(3);
+                    g.addEdge(id, id + 1, w, 0);
+                    g.addEdge(id + 1, id, w, 0);
+                }
+                if (r + 1 < side) {
+                    double w = 1 + random.nextInt(3);
+                    g.addEdge(id, id + side, w, 0);
+                    g.addEdge(id + side, id, w, 0);
+                }
+            }
+        }
+        return g;
+    }
+
+    @Test
+    void testParallelMatchesSequential() {
+        Graph g = gridGraph(15, 7);
+
+        Betweenness.computeSequential(g);
+        double[] expected = new double[g.metricsMap.size()];
+        for (int id = 1; id <= expected.length; id++) expected[id - 1] = g.metricsMap.get(id).betweenness;
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            Betweenness.compute(g, pool);
+        } finally {
+            pool.shutdown();
+        }
+
+        for (int id = 1; id <= expected.length; id++) {
+            assertEquals(expected[id - 1], g.metricsMap.get(id).betweenness, 1e-9 * Math.max(1, expected[id - 1]),
+                    "Station " + id);
+        }
+    }
+
+    @Test
+    void testTwoEqualPathsSplitDependency() {
+        // 1 -> 2 -> 4 e 1 -> 3 -> 4 com o mesmo comprimento: 2 e 3 ficam com 0.5 cada
+        Graph g = new Graph();
+        for (int i = 1; i <= 4; i++) g.addStation(new Station(i, "S" + i, 0, 0, 0, 0));
+        g.addEdge(1, 2, 1, 0);
+        g.addEdge(1, 3, 1, 0);
+        g.addEdge(2, 4, 1, 0);
+        g.addEdge(3, 4, 1, 0);
+
+        Betweenness.compute(g);
+
+        assertEquals(0.5, g.metricsMap.get(2).betweenness, 1e-12);
+        assertEquals(0.5, g.metricsMap.get(3).betweenness, 1e-12);
+        assertEquals(0.0, g.metricsMap.get(4).betweenness, 1e-12);
+    }
+
+    @Test
+    void testApproximateWithinBoundOfExact() {
+        Graph g = gridGraph(12, 3);
+        int n = g.metricsMap.size();
+
+        Betweenness.computeSequential(g);
+        double[] exact = new double[n];
+        for (int id = 1; id <= n; id++) exact[id - 1] = g.metricsMap.get(id).betweenness;
+
+        Betweenness.Approximation approx = Betweenness.computeApproximate(g, 0.02, 0.1, 42L);
+
+        assertTrue(approx.samples() > 0);
+        assertEquals(0.02 * n * (n - 1), approx.absoluteError(), 1e-6);
+        for (int id = 1; id <= n; id++) {
+            StationMetrics m = g.metricsMap.get(id);
+            assertEquals(approx.absoluteError(), m.betweennessError, 1e-9);
+            assertEquals(exact[id - 1], m.betweenness, m.betweennessError, "Station " + id);
+        }
+    }
+
+    @Test
+    void testApproximateRejectsInvalidParameters() {
+        Graph g = gridGraph(3, 1);
+        assertThrows(IllegalArgumentException.class, () -> Betweenness.computeApproximate(g, 0, 0.1, 1L));
+        assertThrows(IllegalArgumentException.class, () -> Betweenness.computeApproximate(g, 0.1, 1.0, 1L));
+    }
+}
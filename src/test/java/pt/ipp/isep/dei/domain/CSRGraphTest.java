@@ -0,0 +1,82 @@
+package pt.ipp.isep.dei.domain;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CSRGraphTest {
+    private Graph graph;
+
+    @BeforeEach
+    void setUp() {
+        graph = new Graph();
+        graph.addStation(new Station(906, "NIEUWKERKEN", 51.1925, 4.1866, 0, 0));
+        graph.addStation(new Station(6, "AALST", 50.9427, 4.0396, 0, 0));
+        graph.addStation(new Station(151, "BEVEREN(W)", 51.2117, 4.2583, 0, 0));
+        graph.addStation(new Station(351, "GENT-SINT-PIETERS", 51.0356, 3.7101, 0, 0));
+
+        // Caminho 6 <-> 151 <-> 906 <-> 351 (nos dois sentidos)
+        addBoth(6, 151, 10.0, 1.0);
+        addBoth(151, 906, 10.0, 2.0);
+        addBoth(906, 351, 10.0, 3.0);
+    }
+
+    private void addBoth(int u, int v, double w, double c) {
+        graph.addEdge(u, v, w, c);
+        graph.addEdge(v, u, w, c);
+    }
+
+    @Test
+    void testDenseIdsAreSortedStationIds() {
+        CSRGraph csr = graph.csr();
+        assertEquals(4, csr.vertexCount());
+        assertEquals(6, csr.edgeCount());
+        assertEquals(6, csr.stationId(0));
+        assertEquals(906, csr.stationId(3));
+        assertEquals(2, csr.indexOf(351));
+        assertEquals(-1, csr.indexOf(12345));
+    }
+
+    @Test
+    void testOffsetsAndReverseArraysMatchAdjacency() {
+        CSRGraph csr = graph.csr();
+        int v151 = csr.indexOf(151);
+        int[] offsets = csr.offsets();
+        assertEquals(2, offsets[v151 + 1] - offsets[v151], "151 has two outgoing edges");
+        assertEquals(2, csr.inOffsets()[v151 + 1] - csr.inOffsets()[v151], "151 has two incoming edges");
+
+        int e = offsets[csr.indexOf(6)];
+        assertEquals(v151, csr.targets()[e]);
+        assertEquals(10.0, csr.weight()[e]);
+        assertEquals(1.0, csr.cost()[e]);
+    }
+
+    @Test
+    void testCacheIsInvalidatedOnChange() {
+        CSRGraph first = graph.csr();
+        assertSame(first, graph.csr());
+
+        graph.addEdge(6, 351, 5.0, 0.0);
+        assertNotSame(first, graph.csr());
+        assertEquals(7, graph.csr().edgeCount());
+    }
+
+    @Test
+    void testBetweennessOnPathGraph() {
+        Betweenness.compute(graph);
+
+        // Num caminho com 4 nós, os nós internos estão em 4 caminhos ordenados (2 pares x 2 sentidos)
+        assertEquals(4.0, graph.metricsMap.get(151).betweenness, 1e-9);
+        assertEquals(4.0, graph.metricsMap.get(906).betweenness, 1e-9);
+        assertEquals(0.0, graph.metricsMap.get(6).betweenness, 1e-9);
+    }
+
+    @Test
+    void testHarmonicClosenessOnPathGraph() {
+        HarmonicCloseness.compute(graph);
+
+        // Extremo: 1/10 + 1/20 + 1/30
+        assertEquals(1.0 / 10 + 1.0 / 20 + 1.0 / 30, graph.metricsMap.get(6).harmonicCloseness, 1e-9);
+    }
+}
@@ -0,0 +1,52 @@
+package pt.ipp.isep.dei.domain;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * All-sources centralities (USEI13) on synthetic networks. Both are O(V * (E + V log V)),
+ * so the default sizes stop at 5000 stations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CentralityBenchmark {
+
+    @Param({"500", "2000", "5000"})
+    public int vertices;
+
+    private Graph graph;
+    private int probe;
+
+    @Setup
+    public void setUp() {
+        graph = SyntheticRailwayNetwork.generate(vertices, 42L).toGraph();
+        probe = SyntheticRailwayNetwork.FIRST_ID + vertices / 2;
+    }
+
+    @Benchmark
+    public double betweenness() {
+        Betweenness.compute(graph);
+        return graph.metricsMap.get(probe).betweenness;
+    }
+
+    @Benchmark
+    public double harmonicCloseness() {
+        HarmonicCloseness.compute(graph);
+        return graph.metricsMap.get(probe).harmonicCloseness;
+    }
+}
@@ -0,0 +1,73 @@
+package pt.ipp.isep.dei.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CentralityEngineTest {
+
+    @Test
+    void testSinglePassMatchesSeparateAlgorithms() {
+        Graph g = RandomGraphs.ringWithChords(120, 200, 11);
+
+        DegreeStrength.compute(g);
+        HarmonicCloseness.compute(g);
+        Betweenness.computeSequential(g);
+        Map<Integer, double[]> expected = new HashMap<>();
+        g.metricsMap.forEach((id, m) -> expected.put(id,
+                new double[]{m.degree, m.strength, m.betweenness, m.harmonicCloseness}));
+
+        g.metricsMap.values().forEach(m -> {
+            m.degree = -1;
+            m.strength = m.betweenness = m.harmonicCloseness = -1;
+        });
+        CentralityEngine.compute(g);
+
+        g.metricsMap.forEach((id, m) -> {
+            double[] e = expected.get(id);
+            assertEquals((int) e[0], m.degree, "degree of " + id);
+            assertEquals(e[1], m.strength, 1e-9, "strength of " + id);
+            assertEquals(e[2], m.betweenness, 1e-9 * Math.max(1, e[2]), "betweenness of " + id);
+            assertEquals(e[3], m.harmonicCloseness, 1e-9, "harmonic closeness of " + id);
+        });
+    }
+
+    @Test
+    void testIsolatedStationHasZeroMetrics() {
+        Graph g = RandomGraphs.ringWithChords(5, 0, 1);
+        g.addStation(new Station(999, "ISOLATED", 0, 0, 0, 0));
+
+        CentralityEngine.compute(g);
+
+        StationMetrics m = g.metricsMap.get(999);
+        assertEquals(0, m.degree);
+        assertEquals(0.0, m.harmonicCloseness);
+        assertEquals(0.0, m.betweenness);
+    }
+
+    @Test
+    void testApproximateHarmonicClosenessWithinBound() {
+        Graph g = RandomGraphs.ringWithChords(400, 800, 5);
+        HarmonicCloseness.compute(g);
+        Map<Integer, Double> exact = new HashMap<>();
+        g.metricsMap.forEach((id, m) -> exact.put(id, m.harmonicCloseness));
+
+        // Amostra pequena (eps grande): estimativa com limite de erro
+        HarmonicCloseness.Approximation sampled = HarmonicCloseness.computeApproximate(g, 0.3, 0.1, 7L);
+        assertTrue(sampled.targets() < 400);
+        assertTrue(sampled.absoluteError() > 0);
+        g.metricsMap.forEach((id, m) -> {
+            assertEquals(sampled.absoluteError(), m.harmonicClosenessError, 1e-12);
+            assertEquals(exact.get(id), m.harmonicCloseness, m.harmonicClosenessError, "station " + id);
+        });
+
+        // Amostra maior do que a rede: valores exatos, calculados em paralelo
+        HarmonicCloseness.Approximation full = HarmonicCloseness.computeApproximate(g, 0.05, 0.1, 7L);
+        assertEquals(400, full.targets());
+        assertEquals(0.0, full.absoluteError());
+        g.metricsMap.forEach((id, m) -> assertEquals(exact.get(id), m.harmonicCloseness, 1e-9, "station " + id));
+    }
+}
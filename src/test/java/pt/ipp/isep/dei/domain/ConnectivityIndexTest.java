@@ -0,0 +1,127 @@
+package pt.ipp.isep.dei.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConnectivityIndexTest {
+
+    private static LineSegment segment(int id, int from, int to) {
+        return new LineSegment(id, from, to, 10.0, 100.0);
+    }
+
+    @Test
+    void testComponentsStrongComponentsAndNeighbours() {
+        // Ciclo 1 -> 2 -> 3 -> 1, saída 3 -> 4, linha duplicada 4 -> 5 / 5 -> 4, ilha 7 -> 8
+        List<LineSegment> segments = List.of(
+                segment(1, 1, 2), segment(2, 2, 3), segment(3, 3, 1),
+                segment(4, 3, 4), segment(5, 4, 5), segment(6, 5, 4), segment(7, 4, 5),
+                segment(8, 7, 8));
+        ConnectivityIndex index = RoutingGraph.build(segments, 1).connectivity();
+
+        assertEquals(2, index.componentCount());
+        assertEquals(4, index.strongComponentCount()); // {1,2,3}, {4,5}, {7}, {8}
+        assertTrue(index.connected(5, 1));
+        assertFalse(index.connected(1, 7));
+        assertFalse(index.connected(1, 99));
+
+        assertTrue(index.reachable(1, 5));
+        assertTrue(index.reachable(2, 1));
+        assertFalse(index.reachable(5, 1));
+        assertTrue(index.reachable(5, 4));
+        assertFalse(index.reachable(8, 7));
+
+        assertEquals(List.of(2, 3, 4, 5), index.connectedTo(1));
+        assertEquals(Set.of(4), new HashSet<>(index.reachableFrom(5)));
+        assertEquals(Set.of(1, 2, 4, 5), new HashSet<>(index.reachableFrom(3)));
+        assertTrue(index.reachableFrom(8).isEmpty());
+        assertTrue(index.reachableFrom(99).isEmpty());
+
+        assertEquals(List.of(3, 5), index.neighbours(4));
+        assertEquals(List.of(2, 3), index.neighbours(1));
+        assertTrue(index.neighbours(99).isEmpty());
+    }
+
+    @Test
+    void testMatchesBreadthFirstSearchOnRandomNetworks() {
+        Random random = new Random(4);
+        for (int trial = 0; trial < 20; trial++) {
+            int n = 30 + random.nextInt(40);
+            List<LineSegment> segments = new ArrayList<>();
+            for (int k = 0; k < n + random.nextInt(n); k++) {
+                segments.add(segment(k, 1 + random.nextInt(n), 1 + random.nextInt(n)));
+            }
+            RoutingGraph graph = RoutingGraph.build(segments, trial);
+            ConnectivityIndex index = graph.connectivity();
+
+            Map<Integer, Set<Integer>> directed = new HashMap<>();
+            Map<Integer, Set<Integer>> undirected = new HashMap<>();
+            for (LineSegment s : segments) {
+                directed.computeIfAbsent(s.getIdEstacaoInicio(), k -> new HashSet<>()).add(s.getIdEstacaoFim());
+                undirected.computeIfAbsent(s.getIdEstacaoInicio(), k -> new HashSet<>()).add(s.getIdEstacaoFim());
+                undirected.computeIfAbsent(s.getIdEstacaoFim(), k -> new HashSet<>()).add(s.getIdEstacaoInicio());
+            }
+
+            for (int a : undirected.keySet()) {
+                Set<Integer> forward = bfs(directed, a);
+                Set<Integer> linked = bfs(undirected, a);
+                assertEquals(linked, new HashSet<>(index.connectedTo(a)));
+                assertEquals(forward, new HashSet<>(index.reachableFrom(a)));
+                for (int b : undirected.keySet()) {
+                    if (a == b) continue;
+                    assertEquals(forward.contains(b), index.reachable(a, b), a + " -> " + b);
+                    assertEquals(linked.contains(b), index.connected(a, b));
+                }
+                Set<Integer> expectedNeighbours = new HashSet<>(undirected.get(a));
+                expectedNeighbours.remove(a);
+                assertEquals(expectedNeighbours, new HashSet<>(index.neighbours(a)));
+            }
+        }
+    }
+
+    @Test
+    void testLargeCondensationWithoutClosureBitsets() {
+        // Cadeia dirigida: cada estação é uma componente forte, acima do limite das bitsets
+        int n = ConnectivityIndex.MAX_CLOSURE_COMPONENTS + 100;
+        List<LineSegment> segments = new ArrayList<>();
+        for (int i = 1; i < n; i++) segments.add(segment(i, i, i + 1));
+        ConnectivityIndex index = RoutingGraph.build(segments, 1).connectivity();
+
+        assertEquals(n, index.strongComponentCount());
+        assertTrue(index.reachable(1, n));
+        assertFalse(index.reachable(n, 1));
+        assertEquals(100, index.reachableFrom(n - 100).size());
+        assertEquals(n - 1, index.connectedTo(n).size());
+    }
+
+    @Test
+    void testIndexIsBuiltOncePerSnapshot() {
+        RoutingGraph graph = RoutingGraph.build(List.of(segment(1, 1, 2)), 3);
+        assertSame(graph.connectivity(), graph.connectivity());
+        assertSame(graph, graph.connectivity().graph());
+    }
+
+    /** Estações alcançáveis a partir de {@code start}, sem a própria. */
+    private static Set<Integer> bfs(Map<Integer, Set<Integer>> adj, int start) {
+        Set<Integer> seen = new HashSet<>();
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        queue.add(start);
+        seen.add(start);
+        while (!queue.isEmpty()) {
+            for (int w : adj.getOrDefault(queue.poll(), Set.of())) {
+                if (seen.add(w)) queue.add(w);
+            }
+        }
+        seen.remove(start);
+        return seen;
+    }
+}
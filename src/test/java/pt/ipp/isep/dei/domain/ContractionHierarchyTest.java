@@ -0,0 +1,97 @@
+package pt.ipp.isep.dei.domain;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContractionHierarchyTest {
+
+    private static final double SPEED_CAP = 120.0;
+
+    private RoutingGraph graph;
+
+    @BeforeEach
+    void setUp() {
+        // Rede sintética: grelha 15x15 com vias em ambos os sentidos e algumas linhas de alta velocidade
+        Random rnd = new Random(7);
+        List<LineSegment> segments = new ArrayList<>();
+        int side = 15;
+        int id = 0;
+        for (int r = 0; r < side; r++) {
+            for (int c = 0; c < side; c++) {
+                int v = r * side + c;
+                if (c + 1 < side) {
+                    double km = 5 + rnd.nextInt(20);
+                    double speed = 60 + rnd.nextInt(140);
+                    segments.add(new LineSegment(id++, v, v + 1, km, speed));
+                    segments.add(new LineSegment(id++, v + 1, v, km, speed));
+                }
+                if (r + 1 < side && rnd.nextInt(4) != 0) {
+                    double km = 5 + rnd.nextInt(20);
+                    segments.add(new LineSegment(id++, v, v + side, km, 60 + rnd.nextInt(140)));
+                    segments.add(new LineSegment(id++, v + side, v, km, 60 + rnd.nextInt(140)));
+                }
+            }
+        }
+        for (int i = 0; i < 20; i++) {
+            segments.add(new LineSegment(id++, rnd.nextInt(side * side), rnd.nextInt(side * side), 40, 250));
+        }
+        graph = RoutingGraph.build(segments, 1);
+    }
+
+    @Test
+    void testQueriesMatchDijkstra() {
+        ContractionHierarchy ch = ContractionHierarchy.build(graph, SPEED_CAP);
+        Random rnd = new Random(11);
+        for (int i = 0; i < 300; i++) {
+            int s = rnd.nextInt(graph.vertexCount());
+            int t = rnd.nextInt(graph.vertexCount());
+            RailwayPath expected = graph.fastestPath(s, t, SPEED_CAP);
+            RailwayPath actual = ch.fastestPath(graph, s, t);
+            if (expected == null) {
+                assertNull(actual);
+                continue;
+            }
+            assertNotNull(actual);
+            assertEquals(expected.getTotalTimeHours(), actual.getTotalTimeHours(), 1e-9);
+
+            // O caminho desempacotado deve ser contíguo e somar o mesmo tempo
+            int at = s;
+            double time = 0;
+            for (LineSegment seg : actual.getSegments()) {
+                assertEquals(at, seg.getIdEstacaoInicio());
+                time += seg.getComprimento() / Math.min(seg.getVelocidadeMaxima(), SPEED_CAP);
+                at = seg.getIdEstacaoFim();
+            }
+            assertEquals(t, at);
+            assertEquals(actual.getTotalTimeHours(), time, 1e-9);
+        }
+    }
+
+    @Test
+    void testSaveAndLoad(@TempDir Path dir) throws Exception {
+        ContractionHierarchy ch = ContractionHierarchy.build(graph, SPEED_CAP);
+        Path file = dir.resolve("ch.bin");
+        ch.save(file);
+
+        ContractionHierarchy loaded = ContractionHierarchy.load(file, graph, SPEED_CAP);
+        assertNotNull(loaded);
+        assertTrue(loaded.matches(graph, SPEED_CAP));
+        assertEquals(ch.arcCount(), loaded.arcCount());
+        assertEquals(ch.fastestPath(graph, 0, 224).getTotalTimeHours(),
+                loaded.fastestPath(graph, 0, 224).getTotalTimeHours(), 1e-12);
+
+        // Outro limite de velocidade ou outra rede: o ficheiro não serve
+        assertNull(ContractionHierarchy.load(file, graph, 80.0));
+        RoutingGraph other = RoutingGraph.build(List.of(new LineSegment(1, 1, 2, 10, 100)), 2);
+        assertNull(ContractionHierarchy.load(file, other, SPEED_CAP));
+        assertFalse(ch.matches(other, SPEED_CAP));
+    }
+}
@@ -2,6 +2,7 @@ package pt.ipp.isep.dei.domain;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import java.lang.ref.WeakReference;
 import java.util.Map;
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -48,4 +49,79 @@ class DijkstraTest {
         assertEquals(Double.POSITIVE_INFINITY, dists.get(999),
                 "Estação sem ligação deve ter distância infinita");
     }
+
+    @Test
+    void testEarlyTerminationMatchesFullRun() {
+        // Grelha 12x12 com pesos variados
+        Graph grid = new Graph();
+        int side = 12;
+        for (int i = 0; i < side * side; i++) grid.addStation(new Station(i, "S" + i, 0, 0, 0, 0));
+        for (int r = 0; r < side; r++) {
+            for (int c = 0; c < side; c++) {
+                int v = r * side + c;
+                if (c + 1 < side) {
+                    grid.addEdge(v, v + 1, 1.0 + (v % 7), 0.0);
+                    grid.addEdge(v + 1, v, 1.0 + (v % 5), 0.0);
+                }
+                if (r + 1 < side) {
+                    grid.addEdge(v, v + side, 2.0 + (v % 3), 0.0);
+                    grid.addEdge(v + side, v, 1.5, 0.0);
+                }
+            }
+        }
+        CSRGraph csr = grid.csr();
+        int src = csr.indexOf(0);
+        double[] full = Dijkstra.shortestPaths(csr, src);
+
+        int target = csr.indexOf(77);
+        assertEquals(full[target], Dijkstra.distance(csr, src, target), 1e-9);
+        assertTrue(Dijkstra.workspace(csr).settledCount() < csr.vertexCount(),
+                "A pesquisa com um destino deve parar antes de fixar todos os vértices");
+
+        int[] targets = {csr.indexOf(5), csr.indexOf(140), csr.indexOf(5), csr.indexOf(63)};
+        double[] multi = Dijkstra.distances(csr, src, targets);
+        for (int i = 0; i < targets.length; i++) assertEquals(full[targets[i]], multi[i], 1e-9);
+
+        double radius = 20.0;
+        double[] bounded = Dijkstra.withinRadius(csr, src, radius);
+        for (int v = 0; v < full.length; v++) {
+            double expected = (full[v] <= radius) ? full[v] : Double.POSITIVE_INFINITY;
+            assertEquals(expected, bounded[v], 1e-9);
+        }
+
+        // O workspace reutilizado deve voltar a dar o resultado completo
+        assertArrayEquals(full, Dijkstra.shortestPaths(csr, src), 1e-9);
+    }
+
+    @Test
+    void testIndexedHeapDecreaseKey() {
+        IndexedDaryHeap heap = new IndexedDaryHeap(10);
+        for (int i = 0; i < 10; i++) heap.insert(i, 100 - i);
+        assertTrue(heap.insertOrDecrease(3, 1.0));
+        assertFalse(heap.insertOrDecrease(4, 500.0));
+        assertEquals(10, heap.size());
+        assertEquals(3, heap.poll());
+
+        double previous = Double.NEGATIVE_INFINITY;
+        while (!heap.isEmpty()) {
+            assertTrue(heap.peekKey() >= previous);
+            previous = heap.peekKey();
+            assertFalse(heap.contains(heap.poll()));
+        }
+    }
+
+    @Test
+    void testWorkspaceDoesNotPinReplacedGraph() throws InterruptedException {
+        CSRGraph csr = CSRGraph.from(graph);
+        Dijkstra.shortestPaths(csr, 0);
+        WeakReference<CSRGraph> replaced = new WeakReference<>(csr);
+        csr = null;
+
+        // O workspace desta thread continua lá, mas o grafo antigo pode ser recolhido
+        for (int i = 0; i < 50 && replaced.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull(replaced.get(), "The thread's workspace must not keep the old graph alive");
+    }
 }
@@ -0,0 +1,131 @@
+package pt.ipp.isep.dei.domain;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DynamicBackboneTest {
+
+    private static final double EPS = 1e-6;
+
+    @TempDir
+    Path tempDir;
+
+    private static Station station(int id) {
+        return new Station(id, "S" + id, 0, 0, id, id);
+    }
+
+    @Test
+    void testSquareWhatIfs() {
+        // Quadrado 1-2-3-4 (5 km por lado) com diagonal 1-3 de 7 km
+        List<Station> stations = List.of(station(1), station(2), station(3), station(4));
+        List<Connection> connections = List.of(
+                new Connection(stations.get(0), stations.get(1), 5),
+                new Connection(stations.get(1), stations.get(2), 5),
+                new Connection(stations.get(2), stations.get(3), 5),
+                new Connection(stations.get(3), stations.get(0), 6),
+                new Connection(stations.get(0), stations.get(2), 7));
+        DynamicBackbone backbone = DynamicBackbone.build(stations, connections);
+        assertEquals(15, backbone.totalDistance(), EPS);
+
+        // Fechar 2-3 (na árvore): a substituta mais curta é 4-1
+        DynamicBackbone.Update closed = backbone.removeConnection(3, 2);
+        assertEquals(16, closed.totalDistance(), EPS);
+        assertEquals(List.of(new Connection(stations.get(3), stations.get(0), 6)), closed.added());
+        assertEquals(1, closed.removed().size());
+
+        // Nova ligação 2-4 de 1 km fecha o ciclo 2-1-4 e tira a de 6 km
+        DynamicBackbone.Update opened = backbone.addConnection(2, 4, 1);
+        assertEquals(11, opened.totalDistance(), EPS);
+        assertEquals(6, opened.removed().get(0).distance(), EPS);
+
+        // Fora da árvore: nada muda
+        assertTrue(backbone.removeConnection(1, 3).removed().isEmpty());
+        assertEquals(11, backbone.totalDistance(), EPS);
+
+        // Sem alternativa a rede parte-se em duas árvores
+        backbone.removeConnection(3, 4);
+        assertEquals(2, backbone.treeCount());
+        assertEquals(6, backbone.totalDistance(), EPS);
+
+        // Estações ou ligações desconhecidas
+        assertTrue(backbone.addConnection(1, 99, 1).added().isEmpty());
+        assertTrue(backbone.removeConnection(1, 4).removed().isEmpty());
+    }
+
+    @Test
+    void testMatchesRecomputationOverRandomWhatIfs() throws IOException {
+        SyntheticRailwayNetwork net = SyntheticRailwayNetwork.generate(1500, 21L);
+        Path stationsFile = tempDir.resolve("stations.csv");
+        Path linesFile = tempDir.resolve("lines.csv");
+        net.writeCsv(stationsFile, linesFile);
+
+        BackboneNetwork network = new BackboneNetwork();
+        network.loadNetwork(stationsFile.toString(), linesFile.toString());
+        network.computeMinimalBackbone();
+        DynamicBackbone backbone = network.dynamicBackbone();
+        assertEquals(network.getTotalMSTDistance(), backbone.totalDistance(), EPS);
+
+        // Espelho das ligações abertas para o recálculo de referência
+        List<int[]> pairs = new ArrayList<>();
+        List<Double> lengths = new ArrayList<>();
+        for (int e = 0; e < net.lineCount(); e++) {
+            pairs.add(new int[]{net.lineFrom(e), net.lineTo(e)});
+            lengths.add(net.lineDistance(e));
+        }
+
+        Random random = new Random(4);
+        for (int step = 0; step < 300; step++) {
+            if (random.nextBoolean() && !pairs.isEmpty()) {
+                int[] pair = pairs.get(random.nextInt(pairs.size()));
+                backbone.removeConnection(pair[0], pair[1]);
+                for (int i = pairs.size() - 1; i >= 0; i--) {
+                    int[] p = pairs.get(i);
+                    if ((p[0] == pair[0] && p[1] == pair[1]) || (p[0] == pair[1] && p[1] == pair[0])) {
+                        pairs.remove(i);
+                        lengths.remove(i);
+                    }
+                }
+            } else {
+                int a = net.stationId(random.nextInt(net.stationCount()));
+                int b = net.stationId(random.nextInt(net.stationCount()));
+                double km = 1 + random.nextInt(40);
+                backbone.addConnection(a, b, km);
+                pairs.add(new int[]{a, b});
+                lengths.add(km);
+            }
+            if (step % 25 == 0) {
+                assertEquals(kruskalTotal(net, pairs, lengths), backbone.totalDistance(), EPS, "step " + step);
+            }
+        }
+        assertEquals(kruskalTotal(net, pairs, lengths), backbone.totalDistance(), EPS);
+    }
+
+    /**
+     * Kruskal de referência sobre as ligações abertas.
+     */
+    private static double kruskalTotal(SyntheticRailwayNetwork net, List<int[]> pairs, List<Double> lengths) {
+        Integer[] order = new Integer[pairs.size()];
+        for (int i = 0; i < order.length; i++) order[i] = i;
+        Arrays.sort(order, (x, y) -> Double.compare(lengths.get(x), lengths.get(y)));
+        int[] parent = new int[net.stationCount()];
+        for (int v = 0; v < parent.length; v++) parent[v] = v;
+        double total = 0;
+        for (int i : order) {
+            int a = BackboneNetwork.find(parent, pairs.get(i)[0] - SyntheticRailwayNetwork.FIRST_ID);
+            int b = BackboneNetwork.find(parent, pairs.get(i)[1] - SyntheticRailwayNetwork.FIRST_ID);
+            if (a == b) continue;
+            parent[a] = b;
+            total += lengths.get(i);
+        }
+        return total;
+    }
+}
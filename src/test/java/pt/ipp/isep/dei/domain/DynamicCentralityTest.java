@@ -0,0 +1,95 @@
+package pt.ipp.isep.dei.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DynamicCentralityTest {
+
+    private static Map<Integer, double[]> snapshot(Graph g) {
+        Map<Integer, double[]> values = new HashMap<>();
+        g.metricsMap.forEach((id, m) -> values.put(id,
+                new double[]{m.degree, m.strength, m.betweenness, m.harmonicCloseness, m.hubScore}));
+        return values;
+    }
+
+    private static void assertMatchesFullRecompute(Graph g) {
+        Map<Integer, double[]> incremental = snapshot(g);
+        CentralityEngine.compute(g);
+        HubScoreCalculator.compute(g);
+        g.metricsMap.forEach((id, m) -> {
+            double[] e = incremental.get(id);
+            assertEquals(m.degree, (int) e[0], "degree of " + id);
+            assertEquals(m.strength, e[1], 1e-9, "strength of " + id);
+            assertEquals(m.betweenness, e[2], 1e-7 * Math.max(1, m.betweenness), "betweenness of " + id);
+            assertEquals(m.harmonicCloseness, e[3], 1e-9, "harmonic closeness of " + id);
+            assertEquals(m.hubScore, e[4], 1e-9, "hub score of " + id);
+        });
+    }
+
+    @Test
+    void testRandomEdgeChangesMatchFullRecompute() {
+        Graph g = RandomGraphs.ringWithChords(80, 120, 5);
+        DynamicCentrality engine = DynamicCentrality.compute(g);
+        assertMatchesFullRecompute(g);
+
+        Random random = new Random(42);
+        for (int step = 0; step < 40; step++) {
+            int u = (1 + random.nextInt(80)) * 10;
+            int v = (1 + random.nextInt(80)) * 10;
+            if (u == v) continue;
+            switch (step % 3) {
+                case 0 -> engine.addEdge(u, v, 1 + random.nextInt(9), 0);
+                case 1 -> {
+                    // Remover uma aresta existente de u
+                    if (!g.adj.get(u).isEmpty()) engine.removeEdge(u, g.adj.get(u).get(0).to());
+                }
+                default -> {
+                    if (!g.adj.get(u).isEmpty()) engine.updateEdgeWeight(u, g.adj.get(u).get(0).to(), 1 + random.nextInt(9));
+                }
+            }
+            assertMatchesFullRecompute(g);
+        }
+    }
+
+    @Test
+    void testOnlySourcesUsingTheEdgeAreRecomputed() {
+        // Cadeia 1 -> 2 -> 3 -> 4: só as origens 1 e 2 usam a aresta 2 -> 3
+        Graph g = new Graph();
+        for (int i = 1; i <= 4; i++) g.addStation(new Station(i, "S" + i, 0, 0, 0, 0));
+        g.addEdge(1, 2, 1, 0);
+        g.addEdge(2, 3, 1, 0);
+        g.addEdge(3, 4, 1, 0);
+        DynamicCentrality engine = DynamicCentrality.compute(g);
+
+        DynamicCentrality.Update update = engine.updateEdgeWeight(2, 3, 5);
+        assertTrue(update.changed());
+        assertEquals(2, update.affectedSources());
+        assertEquals(4, update.totalSources());
+        assertMatchesFullRecompute(g);
+
+        // Uma aresta mais longa que o caminho existente não afeta nenhuma origem
+        DynamicCentrality.Update useless = engine.addEdge(1, 4, 100, 0);
+        assertEquals(0, useless.affectedSources());
+        assertMatchesFullRecompute(g);
+
+        assertFalse(engine.removeEdge(4, 1).changed());
+        assertFalse(engine.addEdge(1, 999, 1, 0).changed());
+    }
+
+    @Test
+    void testNewStationFallsBackToFullRecompute() {
+        Graph g = RandomGraphs.ringWithChords(10, 5, 3);
+        DynamicCentrality engine = DynamicCentrality.compute(g);
+
+        g.addStation(new Station(500, "NEW", 0, 0, 0, 0));
+        DynamicCentrality.Update update = engine.addEdge(10, 500, 2, 0);
+
+        assertEquals(11, update.affectedSources());
+        assertMatchesFullRecompute(g);
+    }
+}
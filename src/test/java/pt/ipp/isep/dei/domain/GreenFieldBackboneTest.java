@@ -0,0 +1,108 @@
+package pt.ipp.isep.dei.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GreenFieldBackboneTest {
+
+    private static final double EPS = 1e-6;
+
+    private static List<EuropeanStation> randomStations(int n, long seed) {
+        // Coordenadas em grelha de 0.1º para haver estações coincidentes (buckets) e distâncias iguais
+        Random random = new Random(seed);
+        List<EuropeanStation> stations = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            double lat = 36 + random.nextInt(250) * 0.1;
+            double lon = -10 + random.nextInt(400) * 0.1;
+            stations.add(new EuropeanStation(i, "S" + i, "PT", "CET", lat, lon, false, i % 3 == 0, false));
+        }
+        return stations;
+    }
+
+    /**
+     * Prim de referência sobre o grafo completo, O(V²).
+     */
+    private static double primTotal(List<EuropeanStation> stations) {
+        int n = stations.size();
+        double[] dist = new double[n];
+        boolean[] done = new boolean[n];
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        dist[0] = 0;
+        double total = 0;
+        for (int step = 0; step < n; step++) {
+            int u = -1;
+            for (int v = 0; v < n; v++) {
+                if (!done[v] && (u < 0 || dist[v] < dist[u])) u = v;
+            }
+            done[u] = true;
+            total += dist[u];
+            EuropeanStation a = stations.get(u);
+            for (int v = 0; v < n; v++) {
+                EuropeanStation b = stations.get(v);
+                double km = GeoDistance.haversine(a.getLatitude(), a.getLongitude(), b.getLatitude(), b.getLongitude());
+                if (!done[v] && km < dist[v]) dist[v] = km;
+            }
+        }
+        return total;
+    }
+
+    private static void assertSpanningTree(List<EuropeanStation> stations, GreenFieldBackbone.Result result) {
+        assertEquals(stations.size() - 1, result.links().size());
+        int[] parent = new int[stations.size()];
+        for (int v = 0; v < parent.length; v++) parent[v] = v;
+        double total = 0;
+        for (GreenFieldBackbone.Link link : result.links()) {
+            int a = BackboneNetwork.find(parent, stations.indexOf(link.from()));
+            int b = BackboneNetwork.find(parent, stations.indexOf(link.to()));
+            assertNotEquals(a, b, "Cycle at " + link);
+            parent[a] = b;
+            total += link.distance();
+        }
+        assertEquals(total, result.totalDistance(), EPS);
+    }
+
+    @Test
+    void testMatchesCompleteGraphPrim() {
+        List<EuropeanStation> stations = randomStations(700, 3L);
+        GreenFieldBackbone.Result result = GreenFieldBackbone.compute(stations);
+
+        assertSpanningTree(stations, result);
+        assertEquals(primTotal(stations), result.totalDistance(), EPS);
+    }
+
+    @Test
+    void testSubsetOfIndexedStations() {
+        List<EuropeanStation> stations = randomStations(900, 8L);
+        StationIndexManager manager = new StationIndexManager();
+        manager.buildIndexes(stations);
+
+        Predicate<EuropeanStation> main = EuropeanStation::isMainStation;
+        GreenFieldBackbone.Result result = manager.computeGreenFieldBackbone(main);
+
+        List<EuropeanStation> mainStations = stations.stream().filter(main).toList();
+        assertSpanningTree(mainStations, result);
+        assertEquals(primTotal(mainStations), result.totalDistance(), EPS);
+        assertTrue(result.links().stream().allMatch(l -> l.from().isMainStation() && l.to().isMainStation()));
+    }
+
+    @Test
+    void testSmallInputs() {
+        EuropeanStation lisbon = new EuropeanStation(1, "Lisboa", "PT", "WET", 38.71, -9.14, true, true, false);
+        EuropeanStation porto = new EuropeanStation(2, "Porto", "PT", "WET", 41.15, -8.61, true, true, false);
+        EuropeanStation copy = new EuropeanStation(3, "Lisboa B", "PT", "WET", 38.71, -9.14, true, false, false);
+
+        assertTrue(GreenFieldBackbone.compute(List.of()).links().isEmpty());
+        assertTrue(GreenFieldBackbone.compute(List.of(lisbon)).links().isEmpty());
+
+        GreenFieldBackbone.Result result = GreenFieldBackbone.compute(List.of(lisbon, porto, copy));
+        assertEquals(2, result.links().size());
+        assertEquals(GeoDistance.haversine(38.71, -9.14, 41.15, -8.61), result.totalDistance(), EPS);
+    }
+}
@@ -2,11 +2,11 @@ package pt.ipp.isep.dei.domain;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.io.TempDir;
 
-import java.io.FileWriter;
 import java.io.IOException;
 import java.nio.file.Files;
-import java.nio.file.Paths;
+import java.nio.file.Path;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -18,7 +18,10 @@ import static org.junit.jupiter.api.Assertions.*;
 class InventoryManagerTest {
 
     private InventoryManager manager;
-    private static final String MOCK_FILE_PATH = "src/test/resources/mock_stations_test.csv";
+    private String mockFilePath;
+
+    @TempDir
+    Path tempDir;
 
     // Test data for complex validation scenarios
     private static final String HEADER = "station,latitude,longitude,country,timeZoneGroup,isCity,isMainStation,isAirport\n";
@@ -31,26 +34,19 @@ class InventoryManagerTest {
     @BeforeEach
     void setUp() {
         manager = new InventoryManager();
-
-        // Ensure the test directory exists
-        try {
-            Files.createDirectories(Paths.get("src/test/resources"));
-        } catch (IOException e) {
-            fail("Failed to create test directory: " + e.getMessage());
-        }
+        // Ficheiro temporário por teste (apagado pelo JUnit no fim)
+        mockFilePath = tempDir.resolve("mock_stations_test.csv").toString();
     }
 
     private void createMockFile(String content) throws IOException {
-        try (FileWriter writer = new FileWriter(MOCK_FILE_PATH)) {
-            writer.write(content);
-        }
+        Files.writeString(Path.of(mockFilePath), content);
     }
 
     @Test
     void testLoadEuropeanStations_AllValidAndIntegrity() throws IOException {
         createMockFile(HEADER + VALID_PT);
 
-        List<EuropeanStation> stations = manager.loadEuropeanStations(MOCK_FILE_PATH);
+        List<EuropeanStation> stations = manager.loadEuropeanStations(mockFilePath);
 
         assertEquals(1, stations.size());
         assertEquals(1, manager.getValidStationCount());
@@ -61,7 +57,7 @@ class InventoryManagerTest {
     void testLoadEuropeanStations_RejectionOfInvalidCoordinates() throws IOException {
         createMockFile(HEADER + VALID_PT + INVALID_LAT + INVALID_LON);
 
-        List<EuropeanStation> stations = manager.loadEuropeanStations(MOCK_FILE_PATH);
+        List<EuropeanStation> stations = manager.loadEuropeanStations(mockFilePath);
 
         assertEquals(1, stations.size(), "Should load only the valid station (PT).");
         assertEquals(1, manager.getValidStationCount());
@@ -72,7 +68,7 @@ class InventoryManagerTest {
     void testLoadEuropeanStations_RejectionOfMissingMandatoryFields() throws IOException {
         createMockFile(HEADER + VALID_PT + INVALID_FORMAT_MISSING + INVALID_NULL_TZG);
 
-        List<EuropeanStation> stations = manager.loadEuropeanStations(MOCK_FILE_PATH);
+        List<EuropeanStation> stations = manager.loadEuropeanStations(mockFilePath);
 
         assertEquals(1, stations.size(), "Should load only the valid station (PT).");
         assertEquals(2, manager.getInvalidStationCount(), "Two lines must be rejected (format and empty TZG).");
@@ -82,7 +78,7 @@ class InventoryManagerTest {
     void testLoadEuropeanStations_EmptyFile() throws IOException {
         createMockFile(HEADER);
 
-        List<EuropeanStation> stations = manager.loadEuropeanStations(MOCK_FILE_PATH);
+        List<EuropeanStation> stations = manager.loadEuropeanStations(mockFilePath);
 
         assertTrue(stations.isEmpty(), "File containing only the header should return an empty list.");
         assertEquals(0, manager.getValidStationCount());
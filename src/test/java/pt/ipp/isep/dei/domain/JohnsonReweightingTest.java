@@ -0,0 +1,68 @@
+package pt.ipp.isep.dei.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JohnsonReweightingTest {
+
+    private static Graph randomGraph(long seed, int n, int edges) {
+        // Custos negativos sem ciclos negativos: custo = peso + p(u) - p(v), com peso >= 0
+        Random rnd = new Random(seed);
+        Graph g = new Graph();
+        double[] p = new double[n];
+        for (int i = 0; i < n; i++) {
+            g.addStation(new Station(i + 1, "S" + i, 0, 0, 0, 0));
+            p[i] = rnd.nextDouble() * 40;
+        }
+        for (int i = 0; i < edges; i++) {
+            int u = rnd.nextInt(n), v = rnd.nextInt(n);
+            if (u != v) g.addEdge(u + 1, v + 1, 1.0, rnd.nextInt(15) + p[u] - p[v]);
+        }
+        return g;
+    }
+
+    @Test
+    void testQueriesMatchBellmanFord() {
+        Graph g = randomGraph(17, 150, 700);
+        JohnsonReweighting johnson = g.johnson();
+        assertFalse(johnson.hasNegativeCycle());
+        assertSame(johnson, g.johnson(), "Potentials must be cached while the graph is unchanged");
+
+        Random rnd = new Random(2);
+        for (int q = 0; q < 60; q++) {
+            int s = 1 + rnd.nextInt(150), t = 1 + rnd.nextInt(150);
+            BellmanFord.PathResult expected = BellmanFord.findPath(g, s, t);
+            BellmanFord.PathResult actual = johnson.findPath(g, s, t);
+            assertNull(actual.cycle());
+            assertEquals(expected.totalCost(), actual.totalCost(), 1e-9);
+            assertEquals(expected.path().get(0), actual.path().get(0));
+            assertEquals(t, actual.path().get(actual.path().size() - 1));
+        }
+        assertTrue(johnson.findPath(g, 1, 9999).path().isEmpty());
+    }
+
+    @Test
+    void testNegativeCycleIsReportedOnceAndQueriesFallBack() {
+        Graph g = randomGraph(5, 40, 120);
+        g.addStation(new Station(500, "A", 0, 0, 0, 0));
+        g.addStation(new Station(501, "B", 0, 0, 0, 0));
+        g.addEdge(500, 501, 1.0, -3.0);
+        g.addEdge(501, 500, 1.0, -3.0);
+
+        JohnsonReweighting johnson = g.johnson();
+        assertTrue(johnson.hasNegativeCycle());
+        assertTrue(johnson.negativeCycle().containsAll(java.util.List.of(500, 501)));
+
+        // O ciclo não é alcançável a partir da estação 1: o caminho continua a ser calculado
+        BellmanFord.PathResult fromOutside = johnson.findPath(g, 1, 2);
+        assertNull(fromOutside.cycle());
+        assertNotNull(johnson.findPath(g, 500, 1).cycle());
+
+        // Alterar o grafo invalida os potenciais em cache
+        g.addEdge(1, 2, 1.0, 0.0);
+        assertNotSame(johnson, g.johnson());
+    }
+}
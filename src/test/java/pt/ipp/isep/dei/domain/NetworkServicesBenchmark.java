@@ -0,0 +1,84 @@
+package pt.ipp.isep.dei.domain;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Maximum throughput between opposite corners of a synthetic network (USEI14, loaded from
+ * CSV like the application) and the upgrade plan (USEI11) of a dependency DAG with one
+ * dependency per line, oriented from the lower to the higher station id.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NetworkServicesBenchmark {
+
+    @Param({"500", "5000", "50000"})
+    public int vertices;
+
+    private Path directory;
+    private Path previousCache;
+    private RailwayFlowService flowService;
+    private UpgradePlanService upgradePlan;
+    private int source;
+    private int sink;
+
+    @Setup
+    public void setUp() throws IOException {
+        SyntheticRailwayNetwork net = SyntheticRailwayNetwork.generate(vertices, 42L);
+        previousCache = RailwayCsvData.getCacheDirectory();
+        RailwayCsvData.setCacheDirectory(null);
+        directory = Files.createTempDirectory("services-bench");
+        Path stations = directory.resolve("stations.csv");
+        Path lines = directory.resolve("lines.csv");
+        net.writeCsv(stations, lines);
+
+        flowService = new RailwayFlowService();
+        flowService.loadGraphFromCSV(stations.toString(), lines.toString());
+        source = net.stationId(0);
+        sink = net.stationId(vertices - 1);
+
+        upgradePlan = new UpgradePlanService();
+        for (int i = 0; i < net.stationCount(); i++) upgradePlan.registerStation(net.stationId(i));
+        for (int e = 0; e < net.lineCount(); e++) {
+            int a = net.lineFrom(e), b = net.lineTo(e);
+            upgradePlan.addDependency(Math.min(a, b), Math.max(a, b));
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        RailwayCsvData.setCacheDirectory(previousCache);
+        Files.deleteIfExists(directory.resolve("stations.csv"));
+        Files.deleteIfExists(directory.resolve("lines.csv"));
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public RailwayFlowService.MaxFlowResult maximumThroughput() {
+        return flowService.calculateMaximumThroughput(source, sink);
+    }
+
+    @Benchmark
+    public String upgradePlan() {
+        return upgradePlan.computeAndFormatUpgradePlan();
+    }
+}
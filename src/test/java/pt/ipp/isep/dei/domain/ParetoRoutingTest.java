@@ -0,0 +1,169 @@
+package pt.ipp.isep.dei.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParetoRoutingTest {
+
+    private static final double EPS = 1e-9;
+
+    private static Graph stations(int n) {
+        Graph g = new Graph();
+        for (int i = 1; i <= n; i++) g.addStation(new Station(i, "S" + i, 0, 0, 0, 0));
+        return g;
+    }
+
+    @Test
+    void testDiamondFrontDropsDominatedRoute() {
+        // 1 -> {2,3,4,5} -> 6 com (distância, custo): (2,10), (5,3), (6,8) dominada, (3,6)
+        Graph g = stations(6);
+        g.addEdge(1, 2, 1, 5);
+        g.addEdge(2, 6, 1, 5);
+        g.addEdge(1, 3, 2, 1);
+        g.addEdge(3, 6, 3, 2);
+        g.addEdge(1, 4, 3, 4);
+        g.addEdge(4, 6, 3, 4);
+        g.addEdge(1, 5, 1, 3);
+        g.addEdge(5, 6, 2, 3);
+
+        ParetoRouting.Result result = ParetoRouting.compute(g, 1, 6);
+
+        assertNull(result.negativeCycle());
+        List<ParetoRouting.Route> routes = result.routes();
+        assertEquals(3, routes.size());
+        assertEquals(List.of(1, 2, 6), routes.get(0).stations());
+        assertEquals(2, routes.get(0).distance(), EPS);
+        assertEquals(10, routes.get(0).cost(), EPS);
+        assertEquals(List.of(1, 5, 6), routes.get(1).stations());
+        assertEquals(List.of(1, 3, 6), routes.get(2).stations());
+        assertEquals(5, routes.get(2).distance(), EPS);
+        assertEquals(3, routes.get(2).cost(), EPS);
+    }
+
+    @Test
+    void testMatchesBruteForceWithNegativeCosts() {
+        Random random = new Random(11);
+        for (int trial = 0; trial < 30; trial++) {
+            int n = 7 + random.nextInt(4);
+            Graph g = stations(n);
+            // Custos com potencial aleatório: podem ser negativos, mas não há ciclos negativos
+            double[] potential = new double[n + 1];
+            for (int i = 1; i <= n; i++) potential[i] = random.nextInt(20);
+            for (int k = 0; k < 3 * n; k++) {
+                int u = 1 + random.nextInt(n), v = 1 + random.nextInt(n);
+                if (u == v) continue;
+                g.addEdge(u, v, 1 + random.nextInt(9), random.nextInt(9) + potential[u] - potential[v]);
+            }
+            int s = 1, t = n;
+
+            Set<String> expected = bruteForceFront(g, s, t);
+            ParetoRouting.Result result = ParetoRouting.compute(g, s, t);
+
+            Set<String> actual = new HashSet<>();
+            double previousDistance = -1;
+            for (ParetoRouting.Route r : result.routes()) {
+                actual.add(key(r.distance(), r.cost()));
+                assertTrue(r.distance() > previousDistance, "frente ordenada por distância");
+                previousDistance = r.distance();
+                assertEquals(s, r.stations().get(0));
+                assertEquals(t, r.stations().get(r.stations().size() - 1));
+            }
+            assertEquals(expected, actual, "trial " + trial);
+        }
+    }
+
+    @Test
+    void testExtremesMatchDijkstraAndBellmanFordOnRealNetwork() throws Exception {
+        Graph g = CSVLoader.load("src/main/java/pt/ipp/isep/dei/FicheirosCSV/stations.csv",
+                "src/main/java/pt/ipp/isep/dei/FicheirosCSV/lines.csv");
+        CSRGraph csr = g.csr();
+        ParetoRouting routing = ParetoRouting.of(g);
+        Random random = new Random(5);
+        int checked = 0;
+        for (int q = 0; q < 40; q++) {
+            int s = csr.stationId(random.nextInt(csr.vertexCount()));
+            int t = csr.stationId(random.nextInt(csr.vertexCount()));
+            List<ParetoRouting.Route> routes = routing.route(s, t).routes();
+            double shortest = Dijkstra.distance(csr, csr.indexOf(s), csr.indexOf(t));
+            if (shortest == Double.POSITIVE_INFINITY) {
+                assertTrue(routes.isEmpty());
+                continue;
+            }
+            checked++;
+            assertEquals(shortest, routes.get(0).distance(), 1e-6);
+            assertEquals(BellmanFord.findPath(g, s, t).totalCost(), routes.get(routes.size() - 1).cost(), 1e-6);
+        }
+        assertTrue(checked > 0);
+    }
+
+    @Test
+    void testEdgeCases() {
+        Graph g = stations(4);
+        g.addEdge(1, 2, 1, 1);
+        g.addEdge(2, 3, 1, -5);
+        g.addEdge(3, 2, 1, 6);
+
+        // Sem caminho e estação desconhecida
+        ParetoRouting routing = ParetoRouting.of(g);
+        assertTrue(routing.route(1, 4).routes().isEmpty());
+        assertTrue(routing.route(1, 99).routes().isEmpty());
+
+        ParetoRouting.Route self = routing.route(2, 2).routes().get(0);
+        assertEquals(List.of(2), self.stations());
+        assertEquals(0, self.distance());
+
+        ParetoRouting.Route negative = routing.route(1, 3).routes().get(0);
+        assertEquals(-4, negative.cost(), EPS);
+
+        // Ciclo negativo 2 -> 3 -> 2: não há frente
+        g.addEdge(3, 2, 1, 1);
+        ParetoRouting.Result result = ParetoRouting.compute(g, 1, 3);
+        assertTrue(result.routes().isEmpty());
+        assertNotNull(result.negativeCycle());
+    }
+
+    private static String key(double distance, double cost) {
+        return Math.round(distance * 1e6) + ":" + Math.round(cost * 1e6);
+    }
+
+    /**
+     * Frente de Pareto por enumeração de todos os caminhos simples (sem ciclos negativos,
+     * os caminhos com ciclos nunca são melhores).
+     */
+    private static Set<String> bruteForceFront(Graph g, int s, int t) {
+        List<double[]> values = new ArrayList<>();
+        enumerate(g, s, t, new HashSet<>(Set.of(s)), 0, 0, values);
+        Set<String> front = new HashSet<>();
+        for (double[] a : values) {
+            boolean dominated = false;
+            for (double[] b : values) {
+                if (b[0] <= a[0] + EPS && b[1] <= a[1] + EPS && (b[0] < a[0] - EPS || b[1] < a[1] - EPS)) {
+                    dominated = true;
+                    break;
+                }
+            }
+            if (!dominated) front.add(key(a[0], a[1]));
+        }
+        return front;
+    }
+
+    private static void enumerate(Graph g, int u, int t, Set<Integer> visited, double d, double c, List<double[]> out) {
+        if (u == t) {
+            out.add(new double[]{d, c});
+            return;
+        }
+        for (Edge e : g.adj.get(u)) {
+            if (visited.add(e.to())) {
+                enumerate(g, e.to(), t, visited, d + e.weight(), c + e.cost(), out);
+                visited.remove(e.to());
+            }
+        }
+    }
+}
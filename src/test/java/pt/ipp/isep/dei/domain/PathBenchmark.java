@@ -0,0 +1,70 @@
+package pt.ipp.isep.dei.domain;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-pair / single-source path searches on synthetic networks: Dijkstra (CSR) and the
+ * risk-cost Bellman-Ford. Each call uses the next of a fixed list of random station pairs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PathBenchmark {
+
+    private static final int PAIRS = 64;
+
+    @Param({"500", "5000", "50000", "1000000"})
+    public int vertices;
+
+    private Graph graph;
+    private CSRGraph csr;
+    private final int[] sources = new int[PAIRS];
+    private final int[] targets = new int[PAIRS];
+    private int next;
+
+    @Setup
+    public void setUp() {
+        SyntheticRailwayNetwork net = SyntheticRailwayNetwork.generate(vertices, 42L);
+        graph = net.toGraph();
+        csr = graph.csr();
+        SplittableRandom random = new SplittableRandom(7L);
+        for (int i = 0; i < PAIRS; i++) {
+            sources[i] = net.stationId(random.nextInt(vertices));
+            targets[i] = net.stationId(random.nextInt(vertices));
+        }
+    }
+
+    @Benchmark
+    public double dijkstraSingleSource() {
+        int i = next++ % PAIRS;
+        return Dijkstra.shortestPaths(csr, csr.indexOf(sources[i]))[csr.indexOf(targets[i])];
+    }
+
+    @Benchmark
+    public double dijkstraPointToPoint() {
+        int i = next++ % PAIRS;
+        return Dijkstra.distance(csr, csr.indexOf(sources[i]), csr.indexOf(targets[i]));
+    }
+
+    @Benchmark
+    public BellmanFord.PathResult bellmanFord() {
+        int i = next++ % PAIRS;
+        return BellmanFord.findPath(graph, sources[i], targets[i]);
+    }
+}
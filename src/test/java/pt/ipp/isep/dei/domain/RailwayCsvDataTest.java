@@ -0,0 +1,165 @@
+package pt.ipp.isep.dei.domain;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link RailwayCsvData}: byte-level parsing and the checksum-keyed binary cache.
+ */
+class RailwayCsvDataTest {
+
+    private static final Path REAL_STATIONS = Path.of("src/main/java/pt/ipp/isep/dei/FicheirosCSV/stations.csv");
+    private static final Path REAL_LINES = Path.of("src/main/java/pt/ipp/isep/dei/FicheirosCSV/lines.csv");
+
+    @TempDir
+    Path tempDir;
+
+    private Path previousCache;
+
+    @BeforeEach
+    void setUp() {
+        previousCache = RailwayCsvData.getCacheDirectory();
+        RailwayCsvData.setCacheDirectory(tempDir.resolve("cache"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        RailwayCsvData.setCacheDirectory(previousCache);
+    }
+
+    @Test
+    void parsesFieldsAndSkipsMalformedRows() throws IOException {
+        Path stations = write("s.csv", """
+                Station id,Station,Lat,Lon,CoordX,CoordY\r
+                1, Porto ,41.1496,-8.6109,10.5,20\r
+                x,Invalid,0,0,0,0\r
+                \r
+                2,Lisboa,38.7223,abc,1e3,-0.25\r
+                3,Braga
+                """);
+        Path lines = write("l.csv", """
+                departure_stid,arrival_stid,dist,capacity,cost
+                1,2,300.25,13,4.8085673865167555
+                2,3,10,x,
+                2,bad,10,1,1
+                3,1,7.5
+                """);
+
+        RailwayCsvData data = RailwayCsvData.load(stations.toString(), lines.toString());
+
+        assertEquals(3, data.stationCount());
+        assertEquals("Porto", data.stationName(0));
+        assertEquals(41.1496, data.latitude(0));
+        assertEquals(-8.6109, data.longitude(0));
+        assertTrue(Double.isNaN(data.longitude(1)), "Coordenada inválida fica NaN");
+        assertEquals(1000.0, data.coordX(1));
+        assertEquals(-0.25, data.coordY(1));
+        assertTrue(Double.isNaN(data.latitude(2)), "Coluna em falta fica NaN");
+
+        assertEquals(3, data.lineCount());
+        assertEquals(13, data.lineCapacity(0));
+        assertEquals(4.8085673865167555, data.lineCost(0));
+        assertEquals(RailwayCsvData.NO_CAPACITY, data.lineCapacity(1));
+        assertTrue(Double.isNaN(data.lineCost(1)));
+        assertEquals(7.5, data.lineDistance(2));
+    }
+
+    @Test
+    void resolvesCoordinateColumnsFromHeader() throws IOException {
+        Path stations = write("s.csv", """
+                Station id,Station,Country,Lat,Lon,CoordX,CoordY
+                1,Porto,PT,41.1496,-8.6109,10,20
+                """);
+        Path lines = write("l.csv", "departure_stid,arrival_stid,dist,capacity,cost\n");
+
+        RailwayCsvData data = RailwayCsvData.load(stations.toString(), lines.toString());
+
+        assertEquals(41.1496, data.latitude(0));
+        assertEquals(20.0, data.coordY(0));
+    }
+
+    @Test
+    void secondLoadComesFromCacheUntilFileChanges() throws IOException {
+        Path stations = write("s.csv", "Station id,Station,Lat,Lon,CoordX,CoordY\n1,Águeda,40.5,-8.4,1,2\n2,B,1,1,1,1\n");
+        Path lines = write("l.csv", "departure_stid,arrival_stid,dist,capacity,cost\n1,2,5,3,1.5\n");
+
+        RailwayCsvData first = RailwayCsvData.load(stations.toString(), lines.toString());
+        RailwayCsvData second = RailwayCsvData.load(stations.toString(), lines.toString());
+
+        assertFalse(first.fromCache());
+        assertTrue(second.fromCache());
+        assertEquals(first.checksum(), second.checksum());
+        assertEquals("Águeda", second.stationName(0));
+        assertEquals(first.station(0), second.station(0));
+        assertEquals(1.5, second.lineCost(0));
+        assertEquals(3, second.lineCapacity(0));
+
+        // Alterar o ficheiro muda o checksum e obriga a novo parse
+        Files.writeString(lines, "departure_stid,arrival_stid,dist,capacity,cost\n1,2,5,7,1.5\n");
+        RailwayCsvData third = RailwayCsvData.load(stations.toString(), lines.toString());
+        assertFalse(third.fromCache());
+        assertEquals(7, third.lineCapacity(0));
+    }
+
+    @Test
+    void byteParserMatchesDoubleParseDoubleOnRealFiles() throws IOException {
+        RailwayCsvData.setCacheDirectory(null);
+        RailwayCsvData data = RailwayCsvData.load(REAL_STATIONS.toString(), REAL_LINES.toString());
+
+        List<String[]> stationRows = rows(REAL_STATIONS);
+        assertEquals(stationRows.size(), data.stationCount());
+        for (int i = 0; i < stationRows.size(); i++) {
+            String[] p = stationRows.get(i);
+            assertEquals(Integer.parseInt(p[0].trim()), data.stationId(i));
+            assertEquals(Double.parseDouble(p[2].trim()), data.latitude(i), 0.0);
+            assertEquals(Double.parseDouble(p[3].trim()), data.longitude(i), 0.0);
+            assertEquals(Double.parseDouble(p[5].trim()), data.coordY(i), 0.0);
+        }
+
+        List<String[]> lineRows = rows(REAL_LINES);
+        assertEquals(lineRows.size(), data.lineCount());
+        for (int i = 0; i < lineRows.size(); i++) {
+            String[] p = lineRows.get(i);
+            assertEquals(Double.parseDouble(p[2].trim()), data.lineDistance(i), 0.0);
+            assertEquals(Double.parseDouble(p[4].trim()), data.lineCost(i), 0.0);
+        }
+    }
+
+    @Test
+    void csvLoaderBuildsSameGraphFromCache() throws Exception {
+        Graph parsed = CSVLoader.load(REAL_STATIONS.toString(), REAL_LINES.toString());
+        Graph cached = CSVLoader.load(REAL_STATIONS.toString(), REAL_LINES.toString());
+
+        assertEquals(parsed.metricsMap.keySet(), cached.metricsMap.keySet());
+        assertEquals(parsed.adj, cached.adj);
+    }
+
+    private Path write(String name, String content) throws IOException {
+        Path file = tempDir.resolve(name);
+        Files.writeString(file, content);
+        return file;
+    }
+
+    private static List<String[]> rows(Path file) throws IOException {
+        List<String[]> rows = new ArrayList<>();
+        try (BufferedReader br = Files.newBufferedReader(file)) {
+            br.readLine();
+            String line;
+            while ((line = br.readLine()) != null) {
+                if (!line.isBlank()) rows.add(line.split(","));
+            }
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,38 @@
+package pt.ipp.isep.dei.domain;
+
+import java.util.Random;
+
+/**
+ * Small random directed graphs shared by the centrality tests.
+ */
+final class RandomGraphs {
+
+    private RandomGraphs() {
+    }
+
+    /**
+     * A ring of n stations (ids 10, 20, ..., both directions, lengths 1 to 5) plus random
+     * directed chords (lengths 1 to 9). Same arguments, same graph.
+     *
+     * @param n Number of stations.
+     * @param extraEdges Number of chords drawn (self-loops are skipped).
+     * @param seed The random seed.
+     * @return The graph.
+     */
+    static Graph ringWithChords(int n, int extraEdges, long seed) {
+        Random random = new Random(seed);
+        Graph g = new Graph();
+        for (int i = 1; i <= n; i++) g.addStation(new Station(i * 10, "S" + i, 0, 0, 0, 0));
+        // Anel para garantir conectividade + cordas aleatórias (dirigidas)
+        for (int i = 1; i <= n; i++) {
+            int j = i % n + 1;
+            g.addEdge(i * 10, j * 10, 1 + random.nextInt(5), 0);
+            g.addEdge(j * 10, i * 10, 1 + random.nextInt(5), 0);
+        }
+        for (int k = 0; k < extraEdges; k++) {
+            int u = 1 + random.nextInt(n), v = 1 + random.nextInt(n);
+            if (u != v) g.addEdge(u * 10, v * 10, 1 + random.nextInt(9), 0);
+        }
+        return g;
+    }
+}
@@ -0,0 +1,84 @@
+package pt.ipp.isep.dei.domain;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.ref.WeakReference;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoutingGraphTest {
+
+    private RoutingGraph graph;
+
+    @BeforeEach
+    void setUp() {
+        // 1 -> 2 -> 4 é mais curto, mas 1 -> 3 -> 4 é mais rápido sem limite
+        List<LineSegment> segments = List.of(
+                new LineSegment(1, 1, 2, 50.0, 50.0),
+                new LineSegment(2, 2, 4, 50.0, 50.0),
+                new LineSegment(3, 1, 3, 80.0, 200.0),
+                new LineSegment(4, 3, 4, 80.0, 200.0),
+                new LineSegment(5, 5, 4, 10.0, 100.0),
+                new LineSegment(6, 7, 8, 10.0, 100.0));
+        graph = RoutingGraph.build(segments, 42);
+    }
+
+    @Test
+    void testFastestPathUsesTravelTime() {
+        RailwayPath path = graph.fastestPath(1, 4, 300.0);
+        assertNotNull(path);
+        assertEquals(2, path.getSegments().size());
+        assertEquals("S3", path.getSegments().get(0).getIdSegmento());
+        assertEquals("S4", path.getSegments().get(1).getIdSegmento());
+        assertEquals(160.0, path.getTotalDistance(), 1e-9);
+        assertEquals(0.8, path.getTotalTimeHours(), 1e-9);
+        assertEquals(42, graph.version());
+    }
+
+    @Test
+    void testSpeedCapChangesRoute() {
+        // Com limite de 50 km/h a rota mais curta passa a ser a mais rápida
+        RailwayPath path = graph.fastestPath(1, 4, 50.0);
+        assertNotNull(path);
+        assertEquals("S1", path.getSegments().get(0).getIdSegmento());
+        assertEquals(2.0, path.getTotalTimeHours(), 1e-9);
+
+        // Os resultados para o limite anterior não são afetados pela cache por limite
+        assertEquals(0.8, graph.fastestPath(1, 4, 300.0).getTotalTimeHours(), 1e-9);
+    }
+
+    @Test
+    void testUnknownOrUnreachable() {
+        assertNull(graph.fastestPath(1, 99, 100.0));
+        assertNull(graph.fastestPath(4, 1, 100.0), "Segments are directed");
+        RailwayPath self = graph.fastestPath(2, 2, 100.0);
+        assertNotNull(self);
+        assertTrue(self.isEmpty());
+    }
+
+    @Test
+    void testReachableIgnoresDirection() {
+        Set<Integer> reachable = new HashSet<>(graph.reachableFrom(4));
+        assertEquals(Set.of(1, 2, 3, 5), reachable);
+        assertEquals(List.of(8), graph.reachableFrom(7));
+        assertTrue(graph.reachableFrom(99).isEmpty());
+    }
+
+    @Test
+    void testSearchStateDoesNotPinReplacedGraph() throws InterruptedException {
+        graph.fastestPath(1, 4, 300.0);
+        WeakReference<RoutingGraph> replaced = new WeakReference<>(graph);
+        graph = null;
+
+        // O estado de pesquisa desta thread continua lá, mas o snapshot antigo pode ser recolhido
+        for (int i = 0; i < 50 && replaced.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull(replaced.get(), "The thread's search state must not keep the old graph alive");
+    }
+}
@@ -0,0 +1,124 @@
+package pt.ipp.isep.dei.domain;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the incremental maintenance API of StationIndexManager
+ * (addStation / removeStation / updateStation).
+ * Every scenario is checked against a manager built from scratch with the same stations.
+ */
+class StationIndexManagerIncrementalTest {
+
+    private List<EuropeanStation> stations;
+    private StationIndexManager manager;
+
+    @BeforeEach
+    void setUp() {
+        // Synthetic dataset with coordinate collisions (buckets) and several time zones
+        Random random = new Random(42);
+        String[] zones = {"WET", "CET", "EET"};
+        stations = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            double lat = 36 + random.nextInt(200) * 0.1;
+            double lon = -9 + random.nextInt(200) * 0.1;
+            stations.add(new EuropeanStation(i, "Station " + i, "C" + (i % 7), zones[i % 3],
+                    lat, lon, i % 2 == 0, i % 5 == 0, false));
+        }
+
+        manager = new StationIndexManager();
+        manager.buildIndexes(stations);
+        manager.build2DTree();
+    }
+
+    private StationIndexManager rebuild(List<EuropeanStation> current) {
+        StationIndexManager fresh = new StationIndexManager();
+        fresh.buildIndexes(current);
+        fresh.build2DTree();
+        return fresh;
+    }
+
+    private void assertSameResults(StationIndexManager expected, StationIndexManager actual) {
+        assertEquals(expected.getStation2DTree().size(), actual.getStation2DTree().size());
+        assertEquals(expected.getBstTimeZoneGroup().inOrderTraversal(), actual.getBstTimeZoneGroup().inOrderTraversal());
+        assertEquals(expected.getBstLatitude().inOrderTraversal(), actual.getBstLatitude().inOrderTraversal());
+        assertEquals(expected.getStationsByTimeZoneGroup("CET"), actual.getStationsByTimeZoneGroup("CET"));
+        assertEquals(expected.getStationsInTimeZoneWindow("CET", "WET"), actual.getStationsInTimeZoneWindow("CET", "WET"));
+        assertEquals(expected.getBstLatitude().findInRange(40.0, 45.0).size(),
+                actual.getBstLatitude().findInRange(40.0, 45.0).size());
+
+        Comparator<EuropeanStation> byId = Comparator.comparingInt(EuropeanStation::getIdEstacao);
+        for (double[] q : new double[][]{{38.0, -5.0, 150}, {45.0, 5.0, 300}, {50.0, 0.0, 2000}}) {
+            List<EuropeanStation> exp = new ArrayList<>(expected.getStation2DTree().radiusSearch(q[0], q[1], q[2]));
+            List<EuropeanStation> act = new ArrayList<>(actual.getStation2DTree().radiusSearch(q[0], q[1], q[2]));
+            exp.sort(byId);
+            act.sort(byId);
+            assertEquals(exp, act, "Radius search must match a full rebuild.");
+
+            assertEquals(expected.getStation2DTree().findNearestN(q[0], q[1], 5, null),
+                    actual.getStation2DTree().findNearestN(q[0], q[1], 5, null));
+        }
+    }
+
+    @Test
+    void testAddStation_MatchesFullRebuild() {
+        EuropeanStation added = new EuropeanStation(1000, "Added", "PT", "WET", 41.15, -8.61, true, true, false);
+        manager.addStation(added);
+        stations.add(added);
+
+        assertSameResults(rebuild(stations), manager);
+        assertTrue(manager.getStation2DTree().radiusSearch(41.15, -8.61, 0.1).contains(added));
+    }
+
+    @Test
+    void testRemoveStation_MatchesFullRebuild() {
+        // Removing many stations forces bucket and node deletions throughout the tree
+        for (int i = 0; i < 150; i++) {
+            assertTrue(manager.removeStation(stations.remove(i % stations.size())));
+        }
+
+        assertSameResults(rebuild(stations), manager);
+    }
+
+    @Test
+    void testRemoveStation_Unknown_ReturnsFalse() {
+        EuropeanStation unknown = new EuropeanStation(2000, "Ghost", "PT", "WET", 10.0, 10.0, false, false, false);
+        assertFalse(manager.removeStation(unknown));
+        assertEquals(stations.size(), manager.getStation2DTree().size());
+    }
+
+    @Test
+    void testUpdateStation_RelocatesAndKeepsRadiusEngineConsistent() {
+        RadiusSearch engine = manager.getRadiusSearchEngine();
+        EuropeanStation old = stations.get(10);
+        EuropeanStation moved = new EuropeanStation(old.getIdEstacao(), old.getStation(), old.getCountry(),
+                "CET", 60.0, 20.0, old.isCity(), old.isMainStation(), old.isAirport());
+
+        assertTrue(manager.updateStation(old, moved));
+        stations.set(10, moved);
+
+        assertSameResults(rebuild(stations), manager);
+
+        Object[] result = engine.radiusSearchWithSummary(60.0, 20.0, 1.0);
+        assertEquals(1, ((DensitySummary) result[1]).getTotalStations());
+    }
+
+    @Test
+    void testAddStation_BeforeKDTreeIsBuilt() {
+        StationIndexManager lazy = new StationIndexManager();
+        lazy.buildIndexes(stations.subList(0, 10));
+        for (EuropeanStation s : stations.subList(10, stations.size())) {
+            lazy.addStation(s);
+        }
+        lazy.build2DTree();
+
+        assertSameResults(manager, lazy);
+    }
+}
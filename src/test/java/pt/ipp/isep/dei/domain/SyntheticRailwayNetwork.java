@@ -0,0 +1,156 @@
+package pt.ipp.isep.dei.domain;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * Railway-like test network of any size (used by the JMH suite and its tests).
+ * <p>
+ * Stations sit on a jittered grid (about 5 km apart, shrinking so that a million stations
+ * still fit in a 12-degree box). Every row is a line; the first and last columns and a
+ * random share of the other columns link consecutive rows, and some grid cells get a
+ * diagonal in the same direction. The drawing is planar, connected, and every station has
+ * degree 2 to 6. Like lines.csv, track length is the great-circle distance times a detour
+ * factor, capacity is 1 to 40, and the risk cost is 1 to 1.9 times the length.
+ */
+final class SyntheticRailwayNetwork {
+
+    private static final double SPACING_DEG = 0.05;
+    private static final double MAX_EXTENT_DEG = 12.0;
+    private static final double VERTICAL_SHARE = 0.35;
+    private static final double DIAGONAL_SHARE = 0.15;
+
+    // Os identificadores começam aqui, como nos ficheiros reais (nunca 0..n-1)
+    static final int FIRST_ID = 1000;
+
+    private final double[] latitude;
+    private final double[] longitude;
+    private int edgeCount;
+    private int[] from = new int[16];
+    private int[] to = new int[16];
+    private double[] distance = new double[16];
+    private int[] capacity = new int[16];
+    private double[] cost = new double[16];
+
+    private SyntheticRailwayNetwork(int stations) {
+        this.latitude = new double[stations];
+        this.longitude = new double[stations];
+    }
+
+    /**
+     * Generates a network (same seed, same network).
+     *
+     * @param stations Number of stations (at least 4).
+     * @param seed The random seed.
+     * @return The network.
+     */
+    static SyntheticRailwayNetwork generate(int stations, long seed) {
+        if (stations < 4) throw new IllegalArgumentException("At least 4 stations are needed.");
+        SplittableRandom random = new SplittableRandom(seed);
+        SyntheticRailwayNetwork net = new SyntheticRailwayNetwork(stations);
+
+        int cols = (int) Math.ceil(Math.sqrt(stations));
+        double spacing = Math.min(SPACING_DEG, MAX_EXTENT_DEG / cols);
+        for (int i = 0; i < stations; i++) {
+            int r = i / cols, c = i % cols;
+            net.latitude[i] = 38.0 + r * spacing + (random.nextDouble() - 0.5) * spacing * 0.6;
+            net.longitude[i] = -9.0 + c * spacing + (random.nextDouble() - 0.5) * spacing * 0.6;
+        }
+
+        for (int i = 0; i < stations; i++) {
+            int c = i % cols;
+            boolean hasRight = c + 1 < cols && i + 1 < stations;
+            boolean hasBelow = i + cols < stations;
+
+            if (hasRight) net.link(i, i + 1, random);
+            // As colunas das pontas e a subida da última estação garantem ligação e grau >= 2
+            if (hasBelow && (c == 0 || c == cols - 1 || i + cols == stations - 1
+                    || random.nextDouble() < VERTICAL_SHARE)) {
+                net.link(i, i + cols, random);
+            }
+            if (hasRight && i + cols + 1 < stations && random.nextDouble() < DIAGONAL_SHARE) {
+                net.link(i, i + cols + 1, random);
+            }
+        }
+        // Última linha com uma só estação: a diagonal "/" da célula dá-lhe a segunda ligação
+        if (stations % cols == 1) net.link(stations - 1, stations - cols, random);
+        return net;
+    }
+
+    private void link(int a, int b, SplittableRandom random) {
+        if (edgeCount == from.length) {
+            int size = from.length * 2;
+            from = Arrays.copyOf(from, size);
+            to = Arrays.copyOf(to, size);
+            distance = Arrays.copyOf(distance, size);
+            capacity = Arrays.copyOf(capacity, size);
+            cost = Arrays.copyOf(cost, size);
+        }
+        double length = GeoDistance.haversine(latitude[a], longitude[a], latitude[b], longitude[b])
+                * (1.05 + 0.3 * random.nextDouble());
+        from[edgeCount] = a;
+        to[edgeCount] = b;
+        distance[edgeCount] = length;
+        capacity[edgeCount] = 1 + random.nextInt(40);
+        cost[edgeCount] = length * (1.0 + 0.9 * random.nextDouble());
+        edgeCount++;
+    }
+
+    int stationCount() { return latitude.length; }
+
+    /** @return Number of lines (each one is a pair of opposite edges in {@link #toGraph()}). */
+    int lineCount() { return edgeCount; }
+
+    int stationId(int i) { return FIRST_ID + i; }
+
+    int lineFrom(int e) { return stationId(from[e]); }
+
+    int lineTo(int e) { return stationId(to[e]); }
+
+    int lineCapacity(int e) { return capacity[e]; }
+
+    double lineDistance(int e) { return distance[e]; }
+
+    /**
+     * Builds the graph with both directions of every line (weight = length, cost = risk cost).
+     */
+    Graph toGraph() {
+        Graph g = new Graph();
+        for (int i = 0; i < stationCount(); i++) {
+            g.addStation(new Station(stationId(i), "SYN" + i, latitude[i], longitude[i],
+                    longitude[i] * 1000, latitude[i] * 1000));
+        }
+        for (int e = 0; e < edgeCount; e++) {
+            g.addEdge(lineFrom(e), lineTo(e), distance[e], cost[e]);
+            g.addEdge(lineTo(e), lineFrom(e), distance[e], cost[e]);
+        }
+        return g;
+    }
+
+    /**
+     * Writes the network in the layout of stations.csv / lines.csv (both directions per line),
+     * so that loaders such as {@link BackboneNetwork} and {@link RailwayFlowService} can read it.
+     */
+    void writeCsv(Path stationsFile, Path linesFile) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(stationsFile)) {
+            out.write("Station id,Station,Lat,Lon,CoordX,CoordY\n");
+            for (int i = 0; i < stationCount(); i++) {
+                out.write(String.format(Locale.ROOT, "%d,SYN%d,%.10f,%.10f,%.2f,%.2f\n",
+                        stationId(i), i, latitude[i], longitude[i], longitude[i] * 1000, latitude[i] * 1000));
+            }
+        }
+        try (BufferedWriter out = Files.newBufferedWriter(linesFile)) {
+            out.write("departure_stid,arrival_stid,dist,capacity,cost\n");
+            for (int e = 0; e < edgeCount; e++) {
+                String tail = String.format(Locale.ROOT, ",%.10f,%d,%.10f\n", distance[e], capacity[e], cost[e]);
+                out.write(lineFrom(e) + "," + lineTo(e) + tail);
+                out.write(lineTo(e) + "," + lineFrom(e) + tail);
+            }
+        }
+    }
+}
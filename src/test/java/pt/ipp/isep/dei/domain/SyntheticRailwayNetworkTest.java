@@ -0,0 +1,82 @@
+package pt.ipp.isep.dei.domain;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SyntheticRailwayNetworkTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testDegreeBetweenTwoAndSixAndConnected() {
+        // 7 e 13 deixam uma só estação na última linha da grelha
+        for (int n : List.of(4, 7, 10, 13, 100, 1001, 5000)) {
+            Graph g = SyntheticRailwayNetwork.generate(n, n).toGraph();
+            assertEquals(n, g.metricsMap.size());
+            for (List<Edge> edges : g.adj.values()) {
+                assertTrue(edges.size() >= 2 && edges.size() <= 6, "grau fora de [2, 6] com n=" + n);
+                for (Edge e : edges) {
+                    assertTrue(e.weight() > 0);
+                    assertTrue(e.cost() >= e.weight());
+                }
+            }
+
+            Set<Integer> seen = new HashSet<>();
+            ArrayDeque<Integer> queue = new ArrayDeque<>();
+            queue.add(SyntheticRailwayNetwork.FIRST_ID);
+            seen.add(SyntheticRailwayNetwork.FIRST_ID);
+            while (!queue.isEmpty()) {
+                for (Edge e : g.adj.get(queue.poll())) {
+                    if (seen.add(e.to())) queue.add(e.to());
+                }
+            }
+            assertEquals(n, seen.size(), "rede desligada com n=" + n);
+        }
+    }
+
+    @Test
+    void testSameSeedSameNetwork() {
+        Graph a = SyntheticRailwayNetwork.generate(300, 9).toGraph();
+        Graph b = SyntheticRailwayNetwork.generate(300, 9).toGraph();
+        Graph c = SyntheticRailwayNetwork.generate(300, 10).toGraph();
+        assertEquals(a.adj, b.adj);
+        assertNotEquals(a.adj, c.adj);
+        assertThrows(IllegalArgumentException.class, () -> SyntheticRailwayNetwork.generate(3, 1));
+    }
+
+    @Test
+    void testCsvLoadsIntoTheSameGraph() throws Exception {
+        SyntheticRailwayNetwork net = SyntheticRailwayNetwork.generate(250, 3);
+        Path stations = tempDir.resolve("stations.csv");
+        Path lines = tempDir.resolve("lines.csv");
+        net.writeCsv(stations, lines);
+
+        Path previousCache = RailwayCsvData.getCacheDirectory();
+        RailwayCsvData.setCacheDirectory(null);
+        try {
+            Graph loaded = CSVLoader.load(stations.toString(), lines.toString());
+            Graph built = net.toGraph();
+            assertEquals(built.metricsMap.keySet(), loaded.metricsMap.keySet());
+            for (int id : built.adj.keySet()) {
+                assertEquals(built.adj.get(id).size(), loaded.adj.get(id).size());
+                for (int i = 0; i < built.adj.get(id).size(); i++) {
+                    Edge x = built.adj.get(id).get(i), y = loaded.adj.get(id).get(i);
+                    assertEquals(x.to(), y.to());
+                    assertEquals(x.weight(), y.weight(), 1e-9);
+                    assertEquals(x.cost(), y.cost(), 1e-9);
+                }
+            }
+        } finally {
+            RailwayCsvData.setCacheDirectory(previousCache);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package pt.ipp.isep.dei.domain;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimeDependentRoutingTest {
+
+    private static final LocalDateTime DEPARTURE = LocalDateTime.of(2025, 3, 10, 8, 0);
+
+    private RoutingGraph graph;
+    private LineSegment singleTrack;
+
+    @BeforeEach
+    void setUp() {
+        // 1 -> 2 -> 3 em via única (1 h por troço); desvio 1 -> 4 -> 3 em via dupla (1 h 12 min por troço)
+        List<LineSegment> segments = new ArrayList<>();
+        segments.add(new LineSegment("A", 1, 2, 100, 100, 1, 0, 0.0));
+        singleTrack = new LineSegment("B", 2, 3, 100, 100, 1, 0, 0.0);
+        segments.add(singleTrack);
+        segments.add(new LineSegment("C", 1, 4, 120, 100, 2, 0, 0.0));
+        segments.add(new LineSegment("D", 4, 3, 120, 100, 2, 0, 0.0));
+        graph = RoutingGraph.build(segments, 1);
+    }
+
+    private static TrainTrip occupying(LineSegment seg, LocalDateTime entry, LocalDateTime exit) {
+        TrainTrip trip = new TrainTrip("T1", entry, List.of(seg), List.of(), List.of());
+        trip.addSegmentEntry(new SimulationSegmentEntry("T1", seg, entry, exit, 100, 100, "", ""));
+        return trip;
+    }
+
+    @Test
+    void testFreeNetworkMatchesFastestPath() {
+        TimeDependentRouting.Route route = TimeDependentRouting.build(graph, 100, List.of())
+                .earliestArrival(1, 3, DEPARTURE);
+
+        assertNotNull(route);
+        assertEquals(graph.fastestPath(1, 3, 100).getTotalTimeHours(), route.path().getTotalTimeHours(), 1e-9);
+        assertEquals(DEPARTURE.plusHours(2), route.arrival());
+        assertEquals(Duration.ZERO, route.waiting());
+        assertEquals(DEPARTURE.plusHours(1), route.passages().get(1).entry());
+    }
+
+    @Test
+    void testWaitsForShortOccupation() {
+        // Comboio em sentido contrário ocupa B das 09:00 às 09:15: esperar é melhor do que o desvio
+        LineSegment inverse = new LineSegment("INV_B", 3, 2, 100, 100, 1, 0, 0.0);
+        TrainTrip other = occupying(inverse, DEPARTURE.plusHours(1), DEPARTURE.plusMinutes(75));
+
+        TimeDependentRouting.Route route = TimeDependentRouting.build(graph, 100, List.of(other))
+                .earliestArrival(1, 3, DEPARTURE);
+
+        assertEquals("B", route.path().getSegments().get(1).getIdSegmento());
+        assertEquals(DEPARTURE.plusMinutes(75), route.passages().get(1).entry());
+        assertEquals(DEPARTURE.plusMinutes(135), route.arrival());
+        assertEquals(Duration.ofMinutes(15), route.waiting());
+    }
+
+    @Test
+    void testDetoursAroundLongOccupation() {
+        // B ocupada das 09:10 às 09:40: entrar às 09:00 sobrepõe-se; esperar chega às 10:40, o desvio às 10:24
+        TrainTrip other = occupying(singleTrack, DEPARTURE.plusMinutes(70), DEPARTURE.plusMinutes(100));
+
+        TimeDependentRouting.Route route = TimeDependentRouting.build(graph, 100, List.of(other))
+                .earliestArrival(1, 3, DEPARTURE);
+
+        assertEquals(List.of("C", "D"), route.path().getSegments().stream().map(LineSegment::getIdSegmento).toList());
+        assertEquals(DEPARTURE.plusMinutes(144), route.arrival());
+
+        // Partindo mais tarde, a via já está livre
+        TimeDependentRouting.Route later = TimeDependentRouting.build(graph, 100, List.of(other))
+                .earliestArrival(1, 3, DEPARTURE.plusMinutes(40));
+        assertEquals("B", later.path().getSegments().get(1).getIdSegmento());
+        assertEquals(DEPARTURE.plusMinutes(160), later.arrival());
+    }
+
+    @Test
+    void testDoubleTrackIsNeverBlockedAndUnknownStations() {
+        LineSegment doubleTrack = graph.segment(graph.offsets()[graph.indexOf(4)]);
+        TrainTrip other = occupying(doubleTrack, DEPARTURE, DEPARTURE.plusHours(5));
+        TimeDependentRouting routing = TimeDependentRouting.build(graph, 100, List.of(other));
+
+        assertEquals(Duration.ZERO, routing.earliestArrival(4, 3, DEPARTURE).waiting());
+        assertNull(routing.earliestArrival(1, 99, DEPARTURE));
+        assertNull(routing.earliestArrival(3, 1, DEPARTURE), "Segments are directed");
+        assertThrows(IllegalArgumentException.class, () -> TimeDependentRouting.build(graph, 0, List.of()));
+    }
+
+    @Test
+    void testTravelFunctionMergesWindowsAndIsFifo() {
+        // Janelas [100, 200) e [230, 300) com travessia de 50 s: entradas bloqueadas em (50, 300)
+        TimeDependentRouting.TravelFunction f = TimeDependentRouting.TravelFunction.of(50,
+                List.of(new double[]{230, 300}, new double[]{100, 200}));
+
+        assertEquals(100, f.arrival(50), 1e-9);
+        assertEquals(350, f.arrival(51), 1e-9);
+        assertEquals(350, f.arrival(299), 1e-9);
+        assertEquals(351, f.arrival(301), 1e-9);
+        double previous = Double.NEGATIVE_INFINITY;
+        for (double t = 0; t < 400; t += 0.5) {
+            assertTrue(f.arrival(t) >= previous);
+            previous = f.arrival(t);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package pt.ipp.isep.dei.domain;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TravelTimeBoundTest {
+
+    private static final int SIDE = 30;
+    private static final double SPEED_CAP = 160.0;
+
+    private RoutingGraph graph;
+    private Map<Integer, double[]> coordinates;
+
+    @BeforeEach
+    void setUp() {
+        // Grelha geográfica (~11 km entre vizinhos) com comprimentos reais ligeiramente acima da distância em linha reta
+        Random rnd = new Random(3);
+        coordinates = new HashMap<>();
+        for (int r = 0; r < SIDE; r++) {
+            for (int c = 0; c < SIDE; c++) {
+                coordinates.put(r * SIDE + c, new double[]{40.0 + r * 0.1, -8.0 + c * 0.1});
+            }
+        }
+        List<LineSegment> segments = new ArrayList<>();
+        int id = 0;
+        for (int r = 0; r < SIDE; r++) {
+            for (int c = 0; c < SIDE; c++) {
+                int v = r * SIDE + c;
+                int[] neighbours = {c + 1 < SIDE ? v + 1 : -1, r + 1 < SIDE ? v + SIDE : -1};
+                for (int w : neighbours) {
+                    if (w < 0) continue;
+                    double[] a = coordinates.get(v), b = coordinates.get(w);
+                    double km = GeoDistance.haversine(a[0], a[1], b[0], b[1]) * (1.0 + rnd.nextDouble() * 0.5);
+                    double speed = 80 + rnd.nextInt(120);
+                    segments.add(new LineSegment(id++, v, w, km, speed));
+                    segments.add(new LineSegment(id++, w, v, km, speed));
+                }
+            }
+        }
+        graph = RoutingGraph.build(segments, 1);
+    }
+
+    @Test
+    void testGreatCircleAStarIsOptimalAndSettlesFewerVertices() {
+        GreatCircleBound bound = GreatCircleBound.build(graph, SPEED_CAP, coordinates);
+        assertNotNull(bound);
+        assertTrue(bound.matches(graph, SPEED_CAP));
+        assertFalse(bound.matches(graph, 100.0));
+
+        assertQueriesMatchDijkstra(bound);
+
+        // Consulta de canto a canto
+        int s = graph.indexOf(0), t = graph.indexOf(SIDE * SIDE - 1);
+        graph.fastestPath(0, SIDE * SIDE - 1, SPEED_CAP);
+        int dijkstraSettled = graph.lastSettledCount();
+        graph.fastestPath(0, SIDE * SIDE - 1, SPEED_CAP, bound);
+        assertTrue(graph.lastSettledCount() < dijkstraSettled);
+        assertEquals(0.0, bound.lowerBound(t, t));
+        assertTrue(bound.lowerBound(s, t) > 0);
+    }
+
+    @Test
+    void testLandmarkAStarIsOptimalAndSettlesFewerVertices() {
+        LandmarkBound bound = LandmarkBound.build(graph, SPEED_CAP, LandmarkBound.DEFAULT_LANDMARKS);
+        assertEquals(LandmarkBound.DEFAULT_LANDMARKS, bound.landmarks().length);
+
+        assertQueriesMatchDijkstra(bound);
+
+        graph.fastestPath(0, SIDE * SIDE - 1, SPEED_CAP);
+        int dijkstraSettled = graph.lastSettledCount();
+        graph.fastestPath(0, SIDE * SIDE - 1, SPEED_CAP, bound);
+        assertTrue(graph.lastSettledCount() < dijkstraSettled / 2);
+    }
+
+    @Test
+    void testBoundsStayAdmissibleWithShortSegments() {
+        // Segmento mais curto do que a distância em linha reta: a escala do limite inferior tem de o absorver
+        List<LineSegment> segments = List.of(
+                new LineSegment(1, 1, 2, 1.0, 100.0),
+                new LineSegment(2, 2, 3, 50.0, 100.0),
+                new LineSegment(3, 1, 3, 200.0, 100.0));
+        Map<Integer, double[]> coords = Map.of(
+                1, new double[]{41.0, -8.0},
+                2, new double[]{41.5, -8.0},
+                3, new double[]{42.0, -8.0});
+        RoutingGraph small = RoutingGraph.build(segments, 1);
+        GreatCircleBound bound = GreatCircleBound.build(small, SPEED_CAP, coords);
+        assertEquals(0.51, small.fastestPath(1, 3, SPEED_CAP, bound).getTotalTimeHours(), 1e-9);
+
+        // Sem coordenadas para todas as instalações não há limite geográfico
+        assertNull(GreatCircleBound.build(small, SPEED_CAP, Map.of(1, new double[]{41.0, -8.0})));
+
+        // ALT num grafo desconexo: destinos inalcançáveis continuam a devolver null
+        LandmarkBound alt = LandmarkBound.build(small, SPEED_CAP, 2);
+        assertNull(small.fastestPath(3, 1, SPEED_CAP, alt));
+        assertEquals(0.51, small.fastestPath(1, 3, SPEED_CAP, alt).getTotalTimeHours(), 1e-9);
+    }
+
+    private void assertQueriesMatchDijkstra(TravelTimeBound bound) {
+        Random rnd = new Random(5);
+        for (int i = 0; i < 200; i++) {
+            int s = rnd.nextInt(SIDE * SIDE), t = rnd.nextInt(SIDE * SIDE);
+            RailwayPath expected = graph.fastestPath(s, t, SPEED_CAP);
+            RailwayPath actual = graph.fastestPath(s, t, SPEED_CAP, bound);
+            assertEquals(expected.getTotalTimeHours(), actual.getTotalTimeHours(), 1e-9);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package pt.ipp.isep.dei.domain;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TravelTimeMatrixTest {
+
+    private static final double SPEED_CAP = 140.0;
+
+    private RoutingGraph graph;
+
+    @BeforeEach
+    void setUp() {
+        // Rede aleatória dirigida com 200 instalações
+        Random rnd = new Random(21);
+        List<LineSegment> segments = new ArrayList<>();
+        for (int i = 0; i < 800; i++) {
+            segments.add(new LineSegment(i, rnd.nextInt(200), rnd.nextInt(200), 5 + rnd.nextInt(60), 60 + rnd.nextInt(160)));
+        }
+        graph = RoutingGraph.build(segments, 3);
+    }
+
+    @Test
+    void testMatrixMatchesPointToPointQueries() {
+        List<Integer> sources = List.of(0, 17, 42, 99, 150, 17);
+        List<Integer> targets = List.of(3, 42, 0, 199, 77);
+        TravelTimeMatrix matrix = TravelTimeMatrix.compute(graph, sources, targets, SPEED_CAP, null);
+
+        assertEquals(6, matrix.rows());
+        assertEquals(5, matrix.columns());
+        assertEquals(3, matrix.graphVersion());
+        for (int i = 0; i < sources.size(); i++) {
+            for (int j = 0; j < targets.size(); j++) {
+                RailwayPath expected = graph.fastestPath(sources.get(i), targets.get(j), SPEED_CAP);
+                double time = matrix.time(i, j);
+                if (expected == null) {
+                    assertEquals(Double.POSITIVE_INFINITY, time);
+                    assertNull(matrix.path(i, j));
+                } else {
+                    assertEquals(expected.getTotalTimeHours(), time, 1e-9);
+                    assertEquals(time, matrix.path(i, j).getTotalTimeHours(), 1e-9);
+                }
+            }
+        }
+        assertEquals(0.0, matrix.timeBetween(42, 42));
+        assertTrue(matrix.pathBetween(42, 42).isEmpty());
+    }
+
+    @Test
+    void testPathsAreBuiltLazilyAndMemoized() {
+        int[] resolved = {0};
+        TravelTimeMatrix matrix = TravelTimeMatrix.compute(graph, List.of(0, 1), List.of(2, 3), SPEED_CAP,
+                (from, to) -> {
+                    resolved[0]++;
+                    return graph.fastestPath(from, to, SPEED_CAP);
+                });
+        assertEquals(0, resolved[0]);
+
+        RailwayPath first = null;
+        for (int i = 0; i < 2 && first == null; i++) {
+            for (int j = 0; j < 2 && first == null; j++) first = matrix.path(i, j);
+        }
+        assertNotNull(first, "Random network should connect at least one pair");
+        for (int i = 0; i < 2; i++) for (int j = 0; j < 2; j++) matrix.path(i, j);
+        int calls = resolved[0];
+        assertTrue(calls <= 4);
+        for (int i = 0; i < 2; i++) for (int j = 0; j < 2; j++) matrix.path(i, j);
+        assertEquals(calls, resolved[0], "Paths already built must come from the memo");
+    }
+
+    @Test
+    void testUnknownFacilities() {
+        TravelTimeMatrix matrix = TravelTimeMatrix.compute(graph, List.of(5000, 0), List.of(0, 6000), SPEED_CAP, null);
+        assertEquals(Double.POSITIVE_INFINITY, matrix.time(0, 0));
+        assertEquals(Double.POSITIVE_INFINITY, matrix.time(1, 1));
+        assertEquals(0.0, matrix.time(1, 0));
+        assertThrows(IllegalArgumentException.class, () -> matrix.timeBetween(1, 0));
+    }
+}
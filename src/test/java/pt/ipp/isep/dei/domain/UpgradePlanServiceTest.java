@@ -27,6 +27,10 @@ class UpgradePlanServiceTest {
         if (dotFile.exists()) {
             dotFile.delete();
         }
+        File svgFile = new File("test_upgrade.svg");
+        if (svgFile.exists()) {
+            svgFile.delete();
+        }
     }
 
     /**
@@ -146,4 +150,28 @@ class UpgradePlanServiceTest {
         assertTrue(report.contains("SUCCESS"));
         assertTrue(report.contains("Station ID: 99"));
     }
-}
\ No newline at end of file
+
+    /**
+     * Teste 6: SVG sem Graphviz.
+     * 1 -> 2 -> 3 em três colunas; o ciclo 4 <-> 5 fica numa última coluna, a vermelho.
+     */
+    @Test
+    void testGenerateSVGWithoutGraphviz() throws IOException {
+        service.addDependency(1, 2);
+        service.addDependency(2, 3);
+        service.addDependency(4, 5);
+        service.addDependency(5, 4);
+        service.computeAndFormatUpgradePlan();
+
+        service.generateSVG("test_upgrade.dot", "test_upgrade.svg");
+
+        String content = Files.readString(Path.of("test_upgrade.svg"));
+        assertTrue(content.startsWith("<?xml"), "O SVG deve ser escrito diretamente.");
+        assertEquals(5, content.split("<circle", -1).length - 1, "Uma estação por círculo.");
+        assertEquals(4, content.split("<line", -1).length - 1, "Uma linha por dependência.");
+        assertTrue(content.contains("<title>ST 4 (Ciclo: 1)</title>"), "As estações em ciclo são assinaladas.");
+        // Etapas 0, 1 e 2 e a coluna dos ciclos
+        assertTrue(content.contains("cx=\"280.0\""), "A estação 3 fica na terceira coluna.");
+        assertTrue(content.contains("cx=\"400.0\""), "Os ciclos ficam na última coluna.");
+    }
+}